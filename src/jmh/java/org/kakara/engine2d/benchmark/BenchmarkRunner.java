@@ -0,0 +1,44 @@
+package org.kakara.engine2d.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the 2D engine benchmarks with the GC profiler enabled so allocation rates are reported.
+ *
+ * <p>Normal JMH command line options can be passed through the <code>jmh.args</code> property:</p>
+ * <code>
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="Item2DHandler -p items=1000"
+ * </code>
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            for (String part : arg.trim().split("\\s+")) {
+                if (!part.isEmpty())
+                    arguments.add(part);
+            }
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(arguments.toArray(new String[0]));
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty())
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine2d.physics.Broadphase2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Broadphase2D} with dynamic bodies that move every step.
+ *
+ * <p>The naive benchmark checks every pair of bodies, which is what gameplay code had to do before the
+ * broadphase existed.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Broadphase2DBenchmark {
+    private static final float WORLD_SIZE = 4000;
+
+    @Param({"1000", "10000"})
+    public int bodies;
+
+    private Broadphase2D broadphase;
+    private int[] ids;
+    private float[] x;
+    private float[] y;
+    private float[] velocityX;
+    private float[] velocityY;
+    private float[] size;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        broadphase = new Broadphase2D(bodies);
+        ids = new int[bodies];
+        x = new float[bodies];
+        y = new float[bodies];
+        velocityX = new float[bodies];
+        velocityY = new float[bodies];
+        size = new float[bodies];
+        for (int i = 0; i < bodies; i++) {
+            x[i] = random.nextFloat() * WORLD_SIZE;
+            y[i] = random.nextFloat() * WORLD_SIZE;
+            velocityX[i] = random.nextFloat() * 4 - 2;
+            velocityY[i] = random.nextFloat() * 4 - 2;
+            size[i] = 8 + random.nextFloat() * 16;
+            ids[i] = broadphase.createProxy(x[i], y[i], x[i] + size[i], y[i] + size[i], 1 << (i % 4), -1);
+        }
+        broadphase.update();
+    }
+
+    private void move() {
+        for (int i = 0; i < bodies; i++) {
+            x[i] += velocityX[i];
+            y[i] += velocityY[i];
+            if (x[i] < 0 || x[i] > WORLD_SIZE) velocityX[i] = -velocityX[i];
+            if (y[i] < 0 || y[i] > WORLD_SIZE) velocityY[i] = -velocityY[i];
+        }
+    }
+
+    @Benchmark
+    public int sweepAndPrune() {
+        move();
+        for (int i = 0; i < bodies; i++)
+            broadphase.moveProxy(ids[i], x[i], y[i], x[i] + size[i], y[i] + size[i]);
+        broadphase.update();
+        return broadphase.getPairCount();
+    }
+
+    @Benchmark
+    public int naiveAllPairs() {
+        move();
+        int pairs = 0;
+        for (int i = 0; i < bodies; i++) {
+            for (int j = i + 1; j < bodies; j++) {
+                if (x[i] <= x[j] + size[j] && x[j] <= x[i] + size[i]
+                        && y[i] <= y[j] + size[j] && y[j] <= y[i] + size[i])
+                    pairs++;
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,89 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.math.Vector3;
+import org.kakara.engine2d.DrawOrder2D;
+import org.kakara.engine2d.Item2DHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link DrawOrder2D} with a Y-sorted layer of moving sprites.
+ *
+ * <p>Every sprite moves up or down a little each frame. <code>repair</code> fixes the order from the last frame with
+ * an insertion sort, while <code>resort</code> sorts it from scratch, which is what re-sorting the item list every
+ * frame costs.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawOrder2DBenchmark {
+    private static final float WORLD_SIZE = 4000;
+
+    @Param({"50000"})
+    public int items;
+
+    private DrawOrder2D drawOrder;
+    private GameItem[] gameItems;
+    private float[] speeds;
+    private int frame;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(9);
+        Item2DHandler handler = new Item2DHandler();
+        gameItems = new GameItem[items];
+        speeds = new float[items];
+        for (int i = 0; i < items; i++) {
+            GameItem item = new GameItem();
+            item.addComponent(HeadlessMeshRenderer2D.class);
+            item.transform.setPosition(random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE, 0);
+            gameItems[i] = item;
+            speeds[i] = (random.nextFloat() - 0.5f) * 4;
+        }
+        handler.addItems(Arrays.asList(gameItems));
+        drawOrder = handler.getDrawOrder();
+        drawOrder.setYSorted(0, true);
+        drawOrder.update();
+    }
+
+    private void moveSprites() {
+        // The sprites walk back and forth so they stay spread out over the world.
+        float direction = (frame++ / 60) % 2 == 0 ? 1 : -1;
+        for (int i = 0; i < gameItems.length; i++) {
+            Vector3 position = gameItems[i].transform.getPosition();
+            gameItems[i].transform.setPosition(position.x, position.y + speeds[i] * direction, 0);
+        }
+    }
+
+    @Benchmark
+    public int repair() {
+        moveSprites();
+        drawOrder.update();
+        return drawOrder.getMoves();
+    }
+
+    @Benchmark
+    public int resort() {
+        moveSprites();
+        drawOrder.invalidate();
+        drawOrder.update();
+        return drawOrder.getCount();
+    }
+}
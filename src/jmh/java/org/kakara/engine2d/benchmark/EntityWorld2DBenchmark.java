@@ -0,0 +1,90 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.gameitems.Transform;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.components.SpriteAnimator;
+import org.kakara.engine2d.ecs.Chunk2D;
+import org.kakara.engine2d.ecs.EntityWorld2D;
+import org.kakara.engine2d.ecs.Query2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link EntityWorld2D}.
+ *
+ * <p>This compares visiting the transform, renderer and animator of every animated item through
+ * <code>getComponent</code> against walking the chunks of a query. The items are shuffled before they are
+ * attached, the same as items which were added to a scene over time.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityWorld2DBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    public int items;
+
+    private List<GameItem> gameItems;
+    private Query2D query;
+
+    @Setup
+    public void setup() {
+        gameItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++)
+            gameItems.add(Item2DHandlerBenchmark.createItem(i % 2 == 0));
+        Collections.shuffle(gameItems, new Random(7));
+
+        EntityWorld2D world = new EntityWorld2D();
+        for (GameItem item : gameItems)
+            world.attach(item);
+        query = world.query(Transform.class, MeshRenderer2D.class, SpriteAnimator.class);
+    }
+
+    @Benchmark
+    public float getComponent() {
+        float sum = 0;
+        for (int i = 0; i < gameItems.size(); i++) {
+            GameItem item = gameItems.get(i);
+            SpriteAnimator animator = item.getComponent(SpriteAnimator.class);
+            if (animator == null)
+                continue;
+            MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+            if (renderer.isVisible())
+                sum += item.transform.getPosition().x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float query() {
+        float sum = 0;
+        for (Chunk2D chunk : query) {
+            Transform[] transforms = chunk.getColumn(Transform.class);
+            MeshRenderer2D[] renderers = chunk.getColumn(MeshRenderer2D.class);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (renderers[i].isVisible())
+                    sum += transforms[i].getPosition().x;
+            }
+        }
+        return sum;
+    }
+}
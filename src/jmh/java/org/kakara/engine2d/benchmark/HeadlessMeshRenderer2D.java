@@ -0,0 +1,18 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine2d.components.MeshRenderer2D;
+
+/**
+ * A MeshRenderer2D which does not register itself with the current scene.
+ *
+ * <p>This allows 2D GameItems to be created for the benchmarks without a window or a running engine.</p>
+ */
+public class HeadlessMeshRenderer2D extends MeshRenderer2D {
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void onRemove() {
+    }
+}
@@ -0,0 +1,84 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.Item2DHandler;
+import org.kakara.engine2d.animator.SpriteAnimation;
+import org.kakara.engine2d.components.SpriteAnimator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Item2DHandler}.
+ *
+ * <p>This measures the cost of updating the components of every item and the cost of adding and
+ * removing items from a populated handler.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Item2DHandlerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean animated;
+
+    private Item2DHandler handler;
+    private GameItem churnItem;
+
+    @Setup
+    public void setup() {
+        handler = new Item2DHandler();
+        List<GameItem> created = new ArrayList<>(items);
+        for (int i = 0; i < items; i++)
+            created.add(createItem(animated));
+        // Added in bulk, adding the items one at a time copies the whole list every time.
+        handler.addItems(created);
+        churnItem = createItem(false);
+    }
+
+    /**
+     * Create a 2D GameItem without a window.
+     *
+     * @param animated If the item should have a running sprite animation.
+     * @return The game item.
+     */
+    static GameItem createItem(boolean animated) {
+        GameItem item = new GameItem();
+        item.addComponent(HeadlessMeshRenderer2D.class);
+        if (animated) {
+            SpriteAnimator animator = item.addComponent(SpriteAnimator.class);
+            animator.addSpriteAnimation(new SpriteAnimation("idle", new int[]{0, 1, 2, 3}));
+            animator.setCurrentAnimation("idle");
+        }
+        return item;
+    }
+
+    @Benchmark
+    public void update() {
+        handler.update();
+    }
+
+    @Benchmark
+    public void addRemoveChurn() {
+        handler.addItem(churnItem);
+        handler.removeItem(churnItem);
+    }
+}
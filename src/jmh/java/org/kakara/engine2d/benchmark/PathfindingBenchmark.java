@@ -0,0 +1,111 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine2d.pathfinding.JumpPointSearch2D;
+import org.kakara.engine2d.pathfinding.Path2D;
+import org.kakara.engine2d.pathfinding.PathfindingService2D;
+import org.kakara.engine2d.pathfinding.WalkabilityGrid2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link PathfindingService2D} on a 1024 by 1024 grid.
+ *
+ * <p>The grid is split into 32 by 32 rooms with a door in the middle of each wall. The requests are made by
+ * groups of agents which stand close together and walk to the same place, so the cache can reuse paths within a
+ * group. <code>requests</code> measures a batch of 1000 requests from {@link PathfindingService2D#request} until every
+ * callback is called, which should stay well under a second. The cache is cleared before every batch.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+    private static final int SIZE = 1024;
+    private static final int ROOM = 32;
+    private static final int REQUESTS = 1000;
+    private static final int GROUPS = 100;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private WalkabilityGrid2D grid;
+    private JumpPointSearch2D search;
+    private PathfindingService2D service;
+    private final int[] requests = new int[REQUESTS * 4];
+    private int delivered;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(3);
+        grid = new WalkabilityGrid2D(SIZE, SIZE);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                if ((x % ROOM == 0 && y % ROOM != ROOM / 2) || (y % ROOM == 0 && x % ROOM != ROOM / 2))
+                    grid.setWalkable(x, y, false);
+            }
+        }
+
+        int[] groups = new int[GROUPS * 4];
+        for (int i = 0; i < groups.length; i++)
+            groups[i] = random.nextInt(SIZE - 8);
+        for (int i = 0; i < REQUESTS; i++) {
+            int group = (i % GROUPS) * 4;
+            int[] cell = new int[4];
+            for (int point = 0; point < 4; point += 2) {
+                do {
+                    cell[point] = groups[group + point] + random.nextInt(8);
+                    cell[point + 1] = groups[group + point + 1] + random.nextInt(8);
+                } while (!grid.isWalkable(cell[point], cell[point + 1]));
+            }
+            System.arraycopy(cell, 0, requests, i * 4, 4);
+        }
+
+        search = new JumpPointSearch2D(grid);
+        service = new PathfindingService2D(grid);
+        if (!cache)
+            service.setCacheSize(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Path2D search() {
+        int i = next;
+        next = (next + 4) % requests.length;
+        return search.findPath(requests[i], requests[i + 1], requests[i + 2], requests[i + 3]);
+    }
+
+    @Benchmark
+    public int requests() {
+        // Setting the grid clears the cache, so every batch starts from an empty cache.
+        service.setGrid(grid);
+        delivered = 0;
+        for (int i = 0; i < requests.length; i += 4)
+            service.request(requests[i], requests[i + 1], requests[i + 2], requests[i + 3], path -> delivered++);
+        while (delivered < REQUESTS) {
+            service.update();
+            Thread.yield();
+        }
+        return delivered;
+    }
+}
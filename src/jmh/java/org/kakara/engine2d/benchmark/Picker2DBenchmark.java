@@ -0,0 +1,94 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.GameEngine2D;
+import org.kakara.engine2d.Item2DHandler;
+import org.kakara.engine2d.Mesh2D;
+import org.kakara.engine2d.Picker2D;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.primitives.SquareData;
+import org.kakara.engine2d.renderpipeline.backend.RecordingRenderBackend2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Picker2D}.
+ *
+ * <p>The hover benchmark measures a single pick once the grid is built, which is the common case when the mouse
+ * is tested every frame. The rebuild benchmark measures the cost of the first pick after items were added or removed,
+ * and the move benchmark the cost of the first pick after a single item moved.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Picker2DBenchmark {
+    private static final float WORLD_SIZE = 4000;
+
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    private Picker2D picker;
+    private List<GameItem> created;
+    private Random random;
+    private float[] points;
+    private int nextPoint;
+
+    @Setup
+    public void setup() {
+        GameEngine2D.setRenderBackend(new RecordingRenderBackend2D(1 << 16));
+        Mesh2D mesh = new Mesh2D(SquareData.vertices, SquareData.textures, SquareData.indices);
+        random = new Random(42);
+        Item2DHandler handler = new Item2DHandler();
+        created = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            GameItem item = new GameItem();
+            item.addComponent(HeadlessMeshRenderer2D.class).setMesh(mesh);
+            item.transform.setPosition(random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE, 0);
+            item.transform.setScale(8 + random.nextFloat() * 24, 8 + random.nextFloat() * 24, 1);
+            created.add(item);
+        }
+        handler.addItems(created);
+        picker = handler.getPicker();
+        points = new float[1024 * 2];
+        for (int i = 0; i < points.length; i++)
+            points[i] = random.nextFloat() * WORLD_SIZE;
+    }
+
+    @Benchmark
+    public GameItem hover() {
+        int p = nextPoint;
+        nextPoint = (nextPoint + 2) & (points.length - 1);
+        return picker.pick(points[p], points[p + 1]);
+    }
+
+    @Benchmark
+    public GameItem rebuildAndPick() {
+        picker.invalidate();
+        return hover();
+    }
+
+    @Benchmark
+    public GameItem moveOneAndPick() {
+        GameItem item = created.get(random.nextInt(items));
+        item.transform.setPosition(random.nextFloat() * WORLD_SIZE, random.nextFloat() * WORLD_SIZE, 0);
+        picker.markChanged(item.getComponent(MeshRenderer2D.class));
+        return hover();
+    }
+}
@@ -0,0 +1,83 @@
+package org.kakara.engine2d.benchmark;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.renderpipeline.Standard2DPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the CPU side math done by {@link Standard2DPipeline} for every item each frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineMathBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int items;
+
+    private GameItem[] gameItems;
+    private MeshRenderer2D[] renderers;
+    private int[] textPositions;
+    private final Matrix4f model = new Matrix4f();
+    private final Vector2f offset = new Vector2f();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        gameItems = new GameItem[items];
+        renderers = new MeshRenderer2D[items];
+        textPositions = new int[items];
+        for (int i = 0; i < items; i++) {
+            GameItem item = Item2DHandlerBenchmark.createItem(false);
+            item.transform.setPosition(random.nextFloat() * 1080, random.nextFloat() * 720, 0);
+            item.transform.setScale(16 + random.nextFloat() * 64, 16 + random.nextFloat() * 64, 1);
+            gameItems[i] = item;
+            renderers[i] = item.getComponent(HeadlessMeshRenderer2D.class);
+            textPositions[i] = random.nextInt(64);
+        }
+    }
+
+    @Benchmark
+    public void buildModel(Blackhole blackhole) {
+        for (GameItem item : gameItems) {
+            blackhole.consume(Standard2DPipeline.buildModel(item, 10, 20, 0, model));
+        }
+    }
+
+    /**
+     * The cost of the model matrices of a scene where nothing moved.
+     */
+    @Benchmark
+    public void cachedModel(Blackhole blackhole) {
+        for (MeshRenderer2D renderer : renderers) {
+            blackhole.consume(renderer.getModelMatrix());
+        }
+    }
+
+    @Benchmark
+    public void spriteSheetOffset(Blackhole blackhole) {
+        for (int textPos : textPositions) {
+            blackhole.consume(Standard2DPipeline.calculateSpriteSheetOffset(textPos, 8, 8, offset));
+        }
+    }
+}
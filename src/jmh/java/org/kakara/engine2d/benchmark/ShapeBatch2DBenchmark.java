@@ -0,0 +1,73 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.primitives.ShapeBatch2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link ShapeBatch2D}.
+ *
+ * <p>Every invocation is one frame of a debug overlay with 50,000 shapes: hitbox outlines, filled rectangles, lines
+ * and circles. Run with <code>-prof gc</code> to check that filling the batch does not allocate once it has grown to
+ * the size of a frame.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBatch2DBenchmark {
+    private static final int SHAPES = 50_000;
+
+    private final RGBA red = new RGBA(255, 0, 0, 1);
+    private final RGBA green = new RGBA(0, 255, 0, 0.5f);
+    private ShapeBatch2D batch;
+    private float[] positions;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5);
+        batch = new ShapeBatch2D();
+        batch.setCircleSegments(16);
+        positions = new float[SHAPES * 2];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = random.nextFloat() * 4096;
+    }
+
+    @Benchmark
+    public int overlay() {
+        batch.clear();
+        for (int i = 0; i < SHAPES; i++) {
+            float x = positions[i * 2];
+            float y = positions[i * 2 + 1];
+            switch (i & 3) {
+                case 0:
+                    batch.drawRect(x, y, 32, 32, red);
+                    break;
+                case 1:
+                    batch.fillRect(x, y, 8, 8, green);
+                    break;
+                case 2:
+                    batch.drawLine(x, y, x + 20, y + 10, red);
+                    break;
+                default:
+                    batch.fillCircle(x, y, 6, green);
+                    break;
+            }
+        }
+        return batch.getQuadCount();
+    }
+}
@@ -0,0 +1,63 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.animator.SpriteAnimation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link SpriteAnimation#update(float)}.
+ *
+ * <p><code>catchUp</code> updates every animation by ten seconds at once, which is what an off-screen animation does
+ * when it comes back on-screen. It should cost the same as a normal update.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteAnimationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int items;
+
+    private SpriteAnimation[] animations;
+
+    @Setup
+    public void setup() {
+        animations = new SpriteAnimation[items];
+        for (int i = 0; i < items; i++) {
+            GameItem item = new GameItem();
+            SpriteAnimation animation = new SpriteAnimation("run", new int[]{0, 1, 2, 3, 4, 5, 6, 7});
+            animation.setTimeBetweenFrames(0.1f);
+            animation.init(item);
+            animations[i] = animation;
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        for (SpriteAnimation animation : animations) {
+            animation.update(1 / 60f);
+        }
+    }
+
+    @Benchmark
+    public void catchUp() {
+        for (SpriteAnimation animation : animations) {
+            animation.update(10f);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.kakara.engine2d.benchmark;
+
+import org.kakara.engine2d.visibility.VisibilityField2D;
+import org.kakara.engine2d.visibility.VisionSource2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link VisibilityField2D}.
+ *
+ * <p>A 512 by 512 field with scattered walls has a number of sources, and a few of them move one cell every frame.
+ * <code>incremental</code> only casts the sources which moved, while <code>full</code> casts every source every
+ * frame, which is the same amount of work as raycasting the whole scene for every viewer.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisibilityField2DBenchmark {
+    private static final int SIZE = 512;
+    private static final int MOVING = 4;
+
+    @Param({"16", "128"})
+    public int sources;
+
+    private VisibilityField2D field;
+    private List<VisionSource2D> sourceList;
+    private float[] homeX;
+    private int frame;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(11);
+        field = new VisibilityField2D(0, 0, 1, SIZE, SIZE);
+        for (int i = 0; i < SIZE * SIZE / 50; i++) {
+            int x = random.nextInt(SIZE);
+            int y = random.nextInt(SIZE);
+            field.getOccupancy().add(x, y, x + random.nextInt(3), y + random.nextInt(3));
+        }
+        homeX = new float[sources];
+        for (int i = 0; i < sources; i++) {
+            homeX[i] = random.nextInt(SIZE - 1);
+            field.addSource(homeX[i], random.nextInt(SIZE), 24);
+        }
+        sourceList = field.getSources();
+        field.update();
+    }
+
+    private void moveSources() {
+        frame++;
+        // Each moving source steps between its starting cell and the next cell, so it never leaves the field.
+        for (int i = 0; i < MOVING; i++) {
+            int index = (frame + i * 7) % sourceList.size();
+            VisionSource2D source = sourceList.get(index);
+            source.setPosition(source.getX() == homeX[index] ? homeX[index] + 1 : homeX[index], source.getY());
+        }
+    }
+
+    @Benchmark
+    public int incremental() {
+        moveSources();
+        field.update();
+        return field.getVersion();
+    }
+
+    @Benchmark
+    public int full() {
+        moveSources();
+        for (int i = 0; i < sourceList.size(); i++)
+            sourceList.get(i).markDirty();
+        field.update();
+        return field.getVersion();
+    }
+}
@@ -1,14 +1,29 @@
 package org.kakara.engine2d;
 
+import org.joml.Vector2f;
 import org.kakara.engine.GameHandler;
 import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.utils.RGBA;
 import org.kakara.engine.physics.FixedPhysicsUpdater;
+import org.kakara.engine.math.Vector3;
 import org.kakara.engine.scene.AbstractScene;
+import org.kakara.engine.window.Window;
+import org.kakara.engine2d.budget.FrameBudgetController2D;
 import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.metrics.RenderMetrics2D;
+import org.kakara.engine2d.pathfinding.PathfindingService2D;
+import org.kakara.engine2d.physics.Physics2DWorld;
+import org.kakara.engine2d.primitives.ShapeBatch2D;
 import org.kakara.engine2d.renderpipeline.Standard2DPipeline;
 import org.kakara.engine2d.renderpipeline.Standard2DShader;
+import org.kakara.engine2d.visibility.VisibilityField2D;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This is the primary scene to be used with the 2D Game Item system. This abstract class
@@ -37,16 +52,59 @@ import java.util.Timer;
  * renderer.setMesh(mesh);<br>
  * add(gameItem);<br>
  * </code>
+ * <h2>Render on demand</h2>
+ * <p>
+ * Screens which rarely change (such as menus, inventories or turn based games) can enable
+ * {@link #setRenderOnDemand(boolean)}. The scene then only renders when something that affects the 2D items
+ * changed. The components of the items are still updated every frame, so animations keep running and cause a render
+ * when they change frame. The items are not compared every frame. Instead the update counts the items that moved or
+ * changed, and materials count their own changes. Changes the scene cannot see (such as changes to the UI or to normal
+ * GameItems) should call {@link #markDirty()}.
+ * </p>
+ * <h2>Debug shapes</h2>
+ * <p>
+ * Lines, rectangles and circles can be drawn on top of the items with methods such as {@link #drawLine}, {@link #drawRect}
+ * and {@link #fillCircle}. The shapes are only drawn for the next frame, so they should be drawn every frame from the
+ * update method. All of the shapes of a frame are drawn with a single draw call per viewport and do not allocate, so
+ * large debug overlays can be left on.
+ * </p>
+ *
+ * <code>
+ * public void update(float deltaTime) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;drawRect(hitbox.getMinX(), hitbox.getMinY(), hitbox.getWidth(), hitbox.getHeight(), red);<br>
+ * }<br>
+ * </code>
  */
 public abstract class Abstract2DScene extends AbstractScene {
     private final Item2DHandler item2DHandler;
     private final Camera2D camera2D;
+    private final Physics2DWorld physicsWorld2D;
     private final Timer physicsUpdater;
+    private final Vector2f pickPosition;
+    private final List<Viewport2D> viewports;
+    private boolean renderOnDemand;
+    private volatile boolean renderDirty = true;
+    private int redrawFrames = 2;
+    private int pendingFrames;
+    private int renderedItemVersion = -1;
+    private int renderedOrderVersion;
+    private int renderedFogVersion;
+    private float[] viewState = new float[0];
+    private long skippedFrames;
+    private PathfindingService2D pathfinding;
+    private VisibilityField2D visibilityField;
+    private final ShapeBatch2D shapes = new ShapeBatch2D();
+    private FrameBudgetController2D frameBudget;
+    private long lastFrameEnd;
 
     protected Abstract2DScene(GameHandler gameHandler) {
         super(gameHandler);
         this.item2DHandler = new Item2DHandler();
         this.camera2D = new Camera2D();
+        this.physicsWorld2D = new Physics2DWorld();
+        this.pickPosition = new Vector2f();
+        this.viewports = new CopyOnWriteArrayList<>();
+        this.viewports.add(new Viewport2D(camera2D));
 
         if (gameHandler.getGameEngine().getShaderManager().findShader("Standard2D") == null) {
             System.out.println("Test");
@@ -56,15 +114,182 @@ public abstract class Abstract2DScene extends AbstractScene {
 
         this.physicsUpdater = new Timer("Fixed Physics Update Timer");
         this.physicsUpdater.schedule(new FixedPhysicsUpdater(this), 10, 10);
+        this.physicsUpdater.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                physicsWorld2D.step();
+            }
+        }, 10, 10);
     }
 
     @Override
     public void render() {
-        gameHandler.getGameEngine().getRenderer().render(gameHandler.getWindow(), getCamera(), this);
-        if (getSkyBox() != null)
-            gameHandler.getGameEngine().getRenderer().renderSkyBox(gameHandler.getWindow(), getCamera(), this);
-        userInterface.render(gameHandler.getWindow());
+        long frameStart = System.nanoTime();
+        this.item2DHandler.getMetrics().beginFrame();
+        // The items are updated first, so changes found by the update are drawn in the same frame.
+        item2DHandler.setAnimationIntervalScale(frameBudget == null ? 1 : frameBudget.getAnimationInterval());
         this.item2DHandler.update();
+        if (pathfinding != null)
+            pathfinding.update();
+        if (visibilityField != null)
+            visibilityField.update();
+
+        long renderStart = System.nanoTime();
+        if (frameBudget != null && !frameBudget.isDebugShapesEnabled())
+            shapes.clear();
+        if (needsRender()) {
+            gameHandler.getGameEngine().getRenderer().render(gameHandler.getWindow(), getCamera(), this);
+            if (getSkyBox() != null)
+                gameHandler.getGameEngine().getRenderer().renderSkyBox(gameHandler.getWindow(), getCamera(), this);
+            userInterface.render(gameHandler.getWindow());
+        } else {
+            skippedFrames++;
+        }
+        shapes.clear();
+        this.item2DHandler.getMetrics().addBytesUploaded(GameEngine2D.getResourceRegistry().takeUploadedBytes());
+        this.item2DHandler.getMetrics().endFrame();
+
+        long frameEnd = System.nanoTime();
+        if (frameBudget != null) {
+            // Everything between the end of the last frame and the start of this one, such as swapping the buffers.
+            long present = lastFrameEnd == 0 ? 0 : Math.max(0, frameStart - lastFrameEnd);
+            frameBudget.recordFrame(renderStart - frameStart, frameEnd - renderStart, present);
+        }
+        lastFrameEnd = frameEnd;
+    }
+
+    /**
+     * Check if the current frame needs to be rendered.
+     *
+     * @return If the frame should be rendered.
+     */
+    private boolean needsRender() {
+        if (!renderOnDemand)
+            return true;
+        int itemVersion = item2DHandler.getVersion();
+        int orderVersion = item2DHandler.getDrawOrder().getVersion();
+        int fogVersion = visibilityField == null ? 0 : visibilityField.getVersion();
+        boolean viewChanged = updateViewState();
+        if (renderDirty || viewChanged || itemVersion != renderedItemVersion || orderVersion != renderedOrderVersion
+                || fogVersion != renderedFogVersion) {
+            renderDirty = false;
+            renderedItemVersion = itemVersion;
+            renderedOrderVersion = orderVersion;
+            renderedFogVersion = fogVersion;
+            pendingFrames = redrawFrames;
+        }
+        // Shapes are drawn again every frame, so they are not tracked.
+        if (!shapes.isEmpty())
+            return true;
+        if (pendingFrames == 0)
+            return false;
+        pendingFrames--;
+        return true;
+    }
+
+    /**
+     * Store the size of the window and the values of the viewports.
+     *
+     * @return If any of them changed since the last frame.
+     */
+    private boolean updateViewState() {
+        int size = 5 + viewports.size() * 9;
+        boolean changed = false;
+        if (viewState.length != size) {
+            viewState = new float[size];
+            changed = true;
+        }
+        Window window = gameHandler.getWindow();
+        int i = 0;
+        changed |= setViewState(i++, window.getWidth());
+        changed |= setViewState(i++, window.getHeight());
+        changed |= setViewState(i++, GameEngine2D.getStandardWidth());
+        changed |= setViewState(i++, GameEngine2D.getStandardHeight());
+        changed |= setViewState(i++, GameEngine2D.isStandard() ? 1 : 0);
+        for (Viewport2D viewport : viewports) {
+            Vector3 position = viewport.getCamera().getPosition();
+            changed |= setViewState(i++, viewport.isEnabled() ? 1 : 0);
+            changed |= setViewState(i++, position.x);
+            changed |= setViewState(i++, position.y);
+            changed |= setViewState(i++, viewport.getX());
+            changed |= setViewState(i++, viewport.getY());
+            changed |= setViewState(i++, viewport.getWidth());
+            changed |= setViewState(i++, viewport.getHeight());
+            changed |= setViewState(i++, viewport.getZoom());
+            changed |= setViewState(i++, viewport.getMinPixelSize());
+        }
+        return changed;
+    }
+
+    private boolean setViewState(int index, float value) {
+        if (Float.floatToIntBits(viewState[index]) == Float.floatToIntBits(value))
+            return false;
+        viewState[index] = value;
+        return true;
+    }
+
+    /**
+     * Set if the scene should only be rendered when something changed.
+     *
+     * <p>When enabled, the scene checks every frame if the 2D items, the viewports or the size of the window
+     * changed. If nothing changed the pipeline is skipped for that frame, but the items are still updated.</p>
+     *
+     * @param renderOnDemand If the scene should only be rendered when something changed.
+     */
+    public void setRenderOnDemand(boolean renderOnDemand) {
+        this.renderOnDemand = renderOnDemand;
+        markDirty();
+    }
+
+    /**
+     * Get if the scene is only rendered when something changed.
+     *
+     * @return If render on demand is enabled.
+     */
+    public boolean isRenderOnDemand() {
+        return renderOnDemand;
+    }
+
+    /**
+     * Make the scene render on the next frame when render on demand is enabled.
+     *
+     * <p>Changes to the 2D items and viewports are found automatically. This is needed for changes the scene
+     * cannot see, such as changes to the UI. This can be called from any thread.</p>
+     */
+    public void markDirty() {
+        this.renderDirty = true;
+    }
+
+    /**
+     * Set the number of frames which are rendered after a change when render on demand is enabled.
+     *
+     * <p>The window swaps between more than one buffer, so the same frame must be rendered into each of them before
+     * rendering can stop. The default is 2, for double buffering.</p>
+     *
+     * @param redrawFrames The number of frames. (At least 1).
+     */
+    public void setRedrawFrames(int redrawFrames) {
+        if (redrawFrames < 1)
+            throw new IllegalArgumentException("At least one frame must be rendered after a change.");
+        this.redrawFrames = redrawFrames;
+    }
+
+    /**
+     * Get the number of frames which are rendered after a change when render on demand is enabled.
+     *
+     * @return The number of frames.
+     */
+    public int getRedrawFrames() {
+        return redrawFrames;
+    }
+
+    /**
+     * Get the number of frames which were not rendered because nothing changed.
+     *
+     * @return The number of skipped frames.
+     */
+    public long getSkippedFrames() {
+        return skippedFrames;
     }
 
     /**
@@ -78,7 +303,7 @@ public abstract class Abstract2DScene extends AbstractScene {
     @Override
     public void add(GameItem gameItem) {
         if (gameItem.hasComponent(MeshRenderer2D.class)){
-            if (!item2DHandler.getItems().contains(gameItem))
+            if (!item2DHandler.containsItem(gameItem))
                 item2DHandler.addItem(gameItem);
         }
         else
@@ -108,6 +333,271 @@ public abstract class Abstract2DScene extends AbstractScene {
         return camera2D;
     }
 
+    /**
+     * Add a viewport which draws the scene from another camera.
+     *
+     * <p>The scene starts with one viewport which covers the whole window and uses {@link #getCamera2D()}.
+     * See {@link Viewport2D} for more information.</p>
+     *
+     * @param viewport The viewport to add.
+     */
+    public void addViewport(Viewport2D viewport) {
+        if (!viewports.contains(viewport))
+            viewports.add(viewport);
+    }
+
+    /**
+     * Remove a viewport.
+     *
+     * @param viewport The viewport to remove.
+     */
+    public void removeViewport(Viewport2D viewport) {
+        viewports.remove(viewport);
+    }
+
+    /**
+     * Get the viewports of the scene in the order they are drawn.
+     *
+     * @return The list of viewports. (Returns an unmodifiable list).
+     */
+    public List<Viewport2D> getViewports() {
+        return Collections.unmodifiableList(viewports);
+    }
+
+    /**
+     * Convert a position on the screen into a position in the 2D world.
+     *
+     * <p>This accounts for the standard size from {@link GameEngine2D} and the position of the {@link Camera2D}.
+     * The position is converted using the main camera and the whole window.</p>
+     *
+     * @param screenX The x position on the screen in pixels. (Such as the position of the mouse).
+     * @param screenY The y position on the screen in pixels.
+     * @param dest    The vector to store the world position in.
+     * @return The destination vector.
+     */
+    public Vector2f screenToWorld(float screenX, float screenY, Vector2f dest) {
+        Window window = gameHandler.getWindow();
+        float x = screenX;
+        float y = screenY;
+        if (GameEngine2D.isStandard()) {
+            x = x * GameEngine2D.getStandardWidth() / window.getWidth();
+            y = y * GameEngine2D.getStandardHeight() / window.getHeight();
+        }
+        // The view of the pipeline moves every item by the camera position, so it is subtracted here.
+        Vector3 cameraPosition = camera2D.getPosition();
+        return dest.set(x - cameraPosition.x, y - cameraPosition.y);
+    }
+
+    /**
+     * Find the top most 2D GameItem at a position on the screen.
+     *
+     * <p>Invisible items are ignored. See {@link Picker2D} for more information.</p>
+     *
+     * <code>
+     * Vector2 mouse = GameHandler.getInstance().getMouseInput().getPosition();<br>
+     * GameItem hovered = pick(mouse.x, mouse.y);<br>
+     * </code>
+     *
+     * @param screenX The x position on the screen in pixels.
+     * @param screenY The y position on the screen in pixels.
+     * @return The item at the position. (Null if there is none).
+     */
+    public GameItem pick(float screenX, float screenY) {
+        screenToWorld(screenX, screenY, pickPosition);
+        return item2DHandler.getPicker().pick(pickPosition.x, pickPosition.y);
+    }
+
+    /**
+     * Find all of the 2D GameItems which overlap an area of the screen.
+     *
+     * <p>This is useful for selection boxes. The items are in the order they are drawn.</p>
+     *
+     * @param screenArea The area on the screen in pixels.
+     * @return The list of items.
+     */
+    public List<GameItem> pickAll(Bounds2D screenArea) {
+        Vector2f min = screenToWorld(screenArea.getMinX(), screenArea.getMinY(), new Vector2f());
+        Vector2f max = screenToWorld(screenArea.getMaxX(), screenArea.getMaxY(), new Vector2f());
+        return item2DHandler.getPicker().pickAll(new Bounds2D(min.x, min.y, max.x, max.y), new ArrayList<>());
+    }
+
+    /**
+     * Get the world which finds the touching {@link org.kakara.engine2d.physics.Collider2D}s.
+     *
+     * <p>The world is stepped on the same timer as the fixed physics update.</p>
+     *
+     * @return The 2D physics world.
+     */
+    public Physics2DWorld getPhysicsWorld2D() {
+        return physicsWorld2D;
+    }
+
+    /**
+     * Get the metrics of the 2D render pipeline.
+     *
+     * <p>Use {@link RenderMetrics2D#getLatest()} to get the counters and timings of the last frame.</p>
+     *
+     * @return The metrics recorder.
+     */
+    public RenderMetrics2D getRenderMetrics() {
+        return item2DHandler.getMetrics();
+    }
+
+    /**
+     * Set the pathfinding service of the scene.
+     *
+     * <p>The scene updates the service every frame, so paths are delivered to their callbacks at the end of
+     * {@link #render()}. The service is shutdown when the scene is unloaded.</p>
+     *
+     * @param pathfinding The pathfinding service. (Null to remove it).
+     */
+    public void setPathfinding(PathfindingService2D pathfinding) {
+        this.pathfinding = pathfinding;
+    }
+
+    /**
+     * Get the pathfinding service of the scene.
+     *
+     * @return The pathfinding service. (Null if none is set).
+     */
+    public PathfindingService2D getPathfinding() {
+        return pathfinding;
+    }
+
+    /**
+     * Set the fog of war of the scene.
+     *
+     * <p>The scene updates the field every frame after the components of the items are updated, and the
+     * {@link Standard2DPipeline} darkens the items by the brightness of the cell they are in. The texture of the field
+     * is deleted when the scene is unloaded.</p>
+     *
+     * @param visibilityField The visibility field. (Null to remove the fog).
+     */
+    public void setVisibilityField(VisibilityField2D visibilityField) {
+        this.visibilityField = visibilityField;
+    }
+
+    /**
+     * Get the fog of war of the scene.
+     *
+     * @return The visibility field. (Null if none is set).
+     */
+    public VisibilityField2D getVisibilityField() {
+        return visibilityField;
+    }
+
+    /**
+     * Set the frame budget of the scene.
+     *
+     * <p>The scene records the update, render and present time of every frame with the controller. Debug shapes are
+     * not drawn while the level of the controller is at or above {@link FrameBudgetController2D#getDebugShapesLevel()},
+     * and sprite animations are only updated once every {@link FrameBudgetController2D#getAnimationInterval()}
+     * frames. (The off-screen interval is multiplied by it).</p>
+     *
+     * @param frameBudget The frame budget controller. (Null to remove it).
+     */
+    public void setFrameBudget(FrameBudgetController2D frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    /**
+     * Get the frame budget of the scene.
+     *
+     * @return The frame budget controller. (Null if none is set).
+     */
+    public FrameBudgetController2D getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * Get the batch of shapes which are drawn on top of the items in the next frame.
+     *
+     * <p>The batch is cleared after every frame. Use it to change the line width or the number of segments of
+     * circles.</p>
+     *
+     * @return The shape batch.
+     */
+    public ShapeBatch2D getShapes() {
+        return shapes;
+    }
+
+    /**
+     * Draw a line in the next frame.
+     *
+     * @param x1    The x position of the start.
+     * @param y1    The y position of the start.
+     * @param x2    The x position of the end.
+     * @param y2    The y position of the end.
+     * @param color The color.
+     */
+    public void drawLine(float x1, float y1, float x2, float y2, RGBA color) {
+        shapes.drawLine(x1, y1, x2, y2, color);
+    }
+
+    /**
+     * Draw a line with a width in the next frame.
+     *
+     * @param x1    The x position of the start.
+     * @param y1    The y position of the start.
+     * @param x2    The x position of the end.
+     * @param y2    The y position of the end.
+     * @param width The width of the line.
+     * @param color The color.
+     */
+    public void drawLine(float x1, float y1, float x2, float y2, float width, RGBA color) {
+        shapes.drawLine(x1, y1, x2, y2, width, color);
+    }
+
+    /**
+     * Draw the outline of a rectangle in the next frame.
+     *
+     * @param x      The x position of the top left corner.
+     * @param y      The y position of the top left corner.
+     * @param width  The width.
+     * @param height The height.
+     * @param color  The color.
+     */
+    public void drawRect(float x, float y, float width, float height, RGBA color) {
+        shapes.drawRect(x, y, width, height, color);
+    }
+
+    /**
+     * Draw a filled rectangle in the next frame.
+     *
+     * @param x      The x position of the top left corner.
+     * @param y      The y position of the top left corner.
+     * @param width  The width.
+     * @param height The height.
+     * @param color  The color.
+     */
+    public void fillRect(float x, float y, float width, float height, RGBA color) {
+        shapes.fillRect(x, y, width, height, color);
+    }
+
+    /**
+     * Draw the outline of a circle in the next frame.
+     *
+     * @param x      The x position of the center.
+     * @param y      The y position of the center.
+     * @param radius The radius.
+     * @param color  The color.
+     */
+    public void drawCircle(float x, float y, float radius, RGBA color) {
+        shapes.drawCircle(x, y, radius, color);
+    }
+
+    /**
+     * Draw a filled circle in the next frame.
+     *
+     * @param x      The x position of the center.
+     * @param y      The y position of the center.
+     * @param radius The radius.
+     * @param color  The color.
+     */
+    public void fillCircle(float x, float y, float radius, RGBA color) {
+        shapes.fillCircle(x, y, radius, color);
+    }
+
     /**
      * Get the 2D ItemHandler.
      *
@@ -120,5 +610,9 @@ public abstract class Abstract2DScene extends AbstractScene {
     @Override
     public void unload() {
         this.physicsUpdater.cancel();
+        if (pathfinding != null)
+            pathfinding.shutdown();
+        if (visibilityField != null)
+            visibilityField.cleanup();
     }
 }
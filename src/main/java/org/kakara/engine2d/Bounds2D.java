@@ -0,0 +1,221 @@
+package org.kakara.engine2d;
+
+import org.joml.Matrix4f;
+
+/**
+ * An axis aligned bounding box for 2D objects.
+ *
+ * <p>This class is mutable so that it can be reused every frame without creating garbage.</p>
+ */
+public class Bounds2D {
+    private float minX;
+    private float minY;
+    private float maxX;
+    private float maxY;
+
+    /**
+     * Construct an empty Bounds2D.
+     * <p>An empty bounds contains nothing until {@link #include(float, float)} is called.</p>
+     */
+    public Bounds2D() {
+        reset();
+    }
+
+    /**
+     * Construct a Bounds2D with the provided values.
+     *
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     */
+    public Bounds2D(float minX, float minY, float maxX, float maxY) {
+        set(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Set the values of the bounds.
+     *
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     * @return This bounds.
+     */
+    public Bounds2D set(float minX, float minY, float maxX, float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        return this;
+    }
+
+    /**
+     * Copy the values of another bounds.
+     *
+     * @param other The bounds to copy.
+     * @return This bounds.
+     */
+    public Bounds2D set(Bounds2D other) {
+        return set(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    /**
+     * Reset the bounds to be empty.
+     *
+     * @return This bounds.
+     */
+    public Bounds2D reset() {
+        return set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Grow the bounds so that it contains the point.
+     *
+     * @param x The x value.
+     * @param y The y value.
+     * @return This bounds.
+     */
+    public Bounds2D include(float x, float y) {
+        if (x < minX) minX = x;
+        if (y < minY) minY = y;
+        if (x > maxX) maxX = x;
+        if (y > maxY) maxY = y;
+        return this;
+    }
+
+    /**
+     * Grow the bounds so that it contains another bounds.
+     *
+     * @param other The other bounds.
+     * @return This bounds.
+     */
+    public Bounds2D include(Bounds2D other) {
+        if (other.isEmpty()) return this;
+        include(other.minX, other.minY);
+        return include(other.maxX, other.maxY);
+    }
+
+    /**
+     * Transform this bounds by a 2D model matrix and store the axis aligned result.
+     *
+     * <p>All four corners are transformed so rotation is accounted for.</p>
+     *
+     * @param matrix The model matrix.
+     * @param dest   The bounds to store the result in. (Can be this bounds).
+     * @return The destination bounds.
+     */
+    public Bounds2D transform(Matrix4f matrix, Bounds2D dest) {
+        if (isEmpty()) return dest.reset();
+        float x0 = minX, y0 = minY, x1 = maxX, y1 = maxY;
+        float m00 = matrix.m00(), m01 = matrix.m01(), m10 = matrix.m10(), m11 = matrix.m11();
+        float m30 = matrix.m30(), m31 = matrix.m31();
+        dest.reset();
+        dest.include(m00 * x0 + m10 * y0 + m30, m01 * x0 + m11 * y0 + m31);
+        dest.include(m00 * x1 + m10 * y0 + m30, m01 * x1 + m11 * y0 + m31);
+        dest.include(m00 * x1 + m10 * y1 + m30, m01 * x1 + m11 * y1 + m31);
+        return dest.include(m00 * x0 + m10 * y1 + m30, m01 * x0 + m11 * y1 + m31);
+    }
+
+    /**
+     * Check if the bounds is empty.
+     *
+     * @return If the bounds is empty.
+     */
+    public boolean isEmpty() {
+        return minX > maxX || minY > maxY;
+    }
+
+    /**
+     * Check if a point is inside of the bounds.
+     *
+     * @param x The x value.
+     * @param y The y value.
+     * @return If the point is inside of the bounds.
+     */
+    public boolean contains(float x, float y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Check if this bounds overlaps another bounds.
+     *
+     * @param other The other bounds.
+     * @return If the two overlap.
+     */
+    public boolean intersects(Bounds2D other) {
+        return intersects(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    /**
+     * Check if this bounds overlaps the provided area.
+     *
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     * @return If the two overlap.
+     */
+    public boolean intersects(float minX, float minY, float maxX, float maxY) {
+        return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+    }
+
+    /**
+     * Get the minimum x value.
+     *
+     * @return The minimum x value.
+     */
+    public float getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the minimum y value.
+     *
+     * @return The minimum y value.
+     */
+    public float getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the maximum x value.
+     *
+     * @return The maximum x value.
+     */
+    public float getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum y value.
+     *
+     * @return The maximum y value.
+     */
+    public float getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the width of the bounds.
+     *
+     * @return The width. (0 if empty).
+     */
+    public float getWidth() {
+        return isEmpty() ? 0 : maxX - minX;
+    }
+
+    /**
+     * Get the height of the bounds.
+     *
+     * @return The height. (0 if empty).
+     */
+    public float getHeight() {
+        return isEmpty() ? 0 : maxY - minY;
+    }
+
+    @Override
+    public String toString() {
+        return "Bounds2D{" + minX + ", " + minY + " -> " + maxX + ", " + maxY + "}";
+    }
+}
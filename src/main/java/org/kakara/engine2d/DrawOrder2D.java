@@ -0,0 +1,257 @@
+package org.kakara.engine2d;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.components.MeshRenderer2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the order the 2D GameItems are drawn and picked in.
+ *
+ * <p>Items are drawn by their sorting layer first (see {@link MeshRenderer2D#setSortingLayer(int)}), from the lowest
+ * layer to the highest. Within a layer the items are drawn in the order they were added, unless the layer is Y-sorted
+ * with {@link #setYSorted(int, boolean)}. Items in a Y-sorted layer are drawn from the smallest Y position to the
+ * largest, so items lower on the screen are drawn on top, which is what top-down games need. Items with the same Y
+ * position keep the order they were added in.</p>
+ *
+ * <p>The order is kept between frames. When items are added, removed or change layer, it is sorted again from
+ * scratch. Otherwise it is repaired every frame with an insertion sort, which only moves the items that moved past
+ * another item. Since most items only move a little each frame, this is close to linear and does not allocate.</p>
+ *
+ * <code>
+ * getItem2DHandler().getDrawOrder().setYSorted(0, true);<br>
+ * tree.getComponent(MeshRenderer2D.class).setSortOffsetY(48); // Sort by the base of the trunk.<br>
+ * </code>
+ */
+public class DrawOrder2D {
+    private final Item2DHandler handler;
+
+    private boolean dirty = true;
+    private int version;
+    private int[] ySortedLayers = new int[0];
+
+    private int count;
+    // Entries are numbered in the order the items were added, which is also the tie-breaker.
+    private GameItem[] items = new GameItem[16];
+    private MeshRenderer2D[] renderers = new MeshRenderer2D[16];
+    private int[] layers = new int[16];
+    private float[] keys = new float[16];
+    private boolean[] ySorted = new boolean[16];
+    private int[] order = new int[16];
+    private int[] mergeBuffer = new int[16];
+    private int moves;
+
+    /**
+     * Construct a draw order.
+     * <p>Use {@link Item2DHandler#getDrawOrder()} instead.</p>
+     *
+     * @param handler The handler that contains the items.
+     */
+    DrawOrder2D(Item2DHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Sort the order from scratch the next time it is updated.
+     * <p>This is called when items are added or removed, or when the sorting layer of an item changes.</p>
+     */
+    public void invalidate() {
+        dirty = true;
+        version++;
+    }
+
+    /**
+     * Bring the order up to date with the positions of the items.
+     * <p>This is for internal use only. It is called by the {@link Picker2D} before it brings its grid up to date,
+     * after the world matrices of the items are updated.</p>
+     */
+    public void update() {
+        moves = 0;
+        if (dirty) {
+            rebuild();
+            return;
+        }
+        // Without a Y-sorted layer nothing can move until the order is invalidated.
+        if (ySortedLayers.length == 0)
+            return;
+        refreshKeys();
+        // Insertion sort. This is close to linear since the order from the last frame is kept.
+        for (int i = 1; i < count; i++) {
+            int entry = order[i];
+            int j = i - 1;
+            if (!before(entry, order[j]))
+                continue;
+            while (j >= 0 && before(entry, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = entry;
+            moves++;
+        }
+    }
+
+    private void rebuild() {
+        List<GameItem> list = handler.getItems();
+        int size = list.size();
+        if (size > items.length) {
+            int capacity = Math.max(size, items.length * 2);
+            items = new GameItem[capacity];
+            renderers = new MeshRenderer2D[capacity];
+            layers = new int[capacity];
+            keys = new float[capacity];
+            ySorted = new boolean[capacity];
+            order = new int[capacity];
+            mergeBuffer = new int[capacity];
+        }
+        count = 0;
+        for (GameItem item : list) {
+            MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+            if (renderer == null)
+                continue;
+            items[count] = item;
+            renderers[count] = renderer;
+            layers[count] = renderer.getSortingLayer();
+            ySorted[count] = isYSorted(layers[count]);
+            keys[count] = 0;
+            order[count] = count;
+            count++;
+        }
+        Arrays.fill(items, count, items.length, null);
+        Arrays.fill(renderers, count, renderers.length, null);
+        refreshKeys();
+        mergeSort(0, count);
+        dirty = false;
+    }
+
+    private void refreshKeys() {
+        for (int i = 0; i < count; i++) {
+            if (ySorted[i]) {
+                MeshRenderer2D renderer = renderers[i];
+                keys[i] = renderer.getModelMatrix().m31() + renderer.getSortOffsetY();
+            }
+        }
+    }
+
+    /**
+     * Check if an entry is drawn before another entry.
+     */
+    private boolean before(int a, int b) {
+        if (layers[a] != layers[b])
+            return layers[a] < layers[b];
+        // Entries in the same layer are either both Y-sorted or both not, and the keys of unsorted entries are 0.
+        if (keys[a] != keys[b])
+            return keys[a] < keys[b];
+        return a < b;
+    }
+
+    /**
+     * Sort part of the order with a merge sort, which is used when the order is built from scratch.
+     */
+    private void mergeSort(int from, int to) {
+        if (to - from < 2)
+            return;
+        int middle = (from + to) >>> 1;
+        mergeSort(from, middle);
+        mergeSort(middle, to);
+        if (!before(order[middle], order[middle - 1]))
+            return;
+        System.arraycopy(order, from, mergeBuffer, from, to - from);
+        int left = from, right = middle, out = from;
+        while (left < middle && right < to)
+            order[out++] = before(mergeBuffer[right], mergeBuffer[left]) ? mergeBuffer[right++] : mergeBuffer[left++];
+        while (left < middle)
+            order[out++] = mergeBuffer[left++];
+        while (right < to)
+            order[out++] = mergeBuffer[right++];
+    }
+
+    /**
+     * Set if the items in a sorting layer are drawn in order of their Y position.
+     *
+     * @param layer   The sorting layer.
+     * @param ySorted If the layer is Y-sorted.
+     */
+    public void setYSorted(int layer, boolean ySorted) {
+        if (isYSorted(layer) == ySorted)
+            return;
+        int index = Arrays.binarySearch(ySortedLayers, layer);
+        if (ySorted) {
+            int insert = -index - 1;
+            int[] layers = new int[ySortedLayers.length + 1];
+            System.arraycopy(ySortedLayers, 0, layers, 0, insert);
+            layers[insert] = layer;
+            System.arraycopy(ySortedLayers, insert, layers, insert + 1, ySortedLayers.length - insert);
+            ySortedLayers = layers;
+        } else {
+            int[] layers = new int[ySortedLayers.length - 1];
+            System.arraycopy(ySortedLayers, 0, layers, 0, index);
+            System.arraycopy(ySortedLayers, index + 1, layers, index, layers.length - index);
+            ySortedLayers = layers;
+        }
+        invalidate();
+    }
+
+    /**
+     * Check if the items in a sorting layer are drawn in order of their Y position.
+     *
+     * @param layer The sorting layer.
+     * @return If the layer is Y-sorted.
+     */
+    public boolean isYSorted(int layer) {
+        return Arrays.binarySearch(ySortedLayers, layer) >= 0;
+    }
+
+    /**
+     * Get the number of items in the order.
+     *
+     * @return The number of items.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get an item by its position in the order.
+     *
+     * @param index The position. (0 is drawn first).
+     * @return The item.
+     */
+    public GameItem getItem(int index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Count: " + count);
+        return items[order[index]];
+    }
+
+    /**
+     * Get the renderer of an item by its position in the order.
+     *
+     * @param index The position. (0 is drawn first).
+     * @return The renderer.
+     */
+    MeshRenderer2D getRenderer(int index) {
+        return renderers[order[index]];
+    }
+
+    /**
+     * Get the number of items the last update moved to a new position.
+     *
+     * @return The number of items moved. (0 if the order was sorted from scratch).
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * Get a number which changes every time the order is invalidated.
+     *
+     * <p>The repair done by {@link #update()} does not change it. Items are only moved by the repair when their
+     * position changed, which already counts as a change of the items (see {@link Item2DHandler#getVersion()}), so
+     * the picker and render on demand do not need to react to it a second time.</p>
+     *
+     * @return The version.
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,335 @@
+package org.kakara.engine2d;
+
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+import org.kakara.engine2d.resources.GpuResourceRegistry2D;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * A {@link Mesh2D} whose vertices and indices can be changed after it is created.
+ *
+ * <p>Changes only upload the range of data that changed using <code>glBufferSubData</code>. When more room is
+ * needed the buffers grow, but the same buffer objects are kept so the vertex array does not need to be set up
+ * again. A copy of the data is kept on the CPU so that the buffers can be resized and the bounds calculated.</p>
+ *
+ * <code>
+ * DynamicMesh2D mesh = new DynamicMesh2D(SquareData.vertices, SquareData.textures, SquareData.indices);<br>
+ * renderer.setMesh(mesh);<br>
+ * // Later, move the first vertex.<br>
+ * mesh.updatePositions(0, new float[]{-0.6f, 0.6f});<br>
+ * </code>
+ *
+ * <p>Note: The methods of this class must be called on the main thread. (Unless the current
+ * {@link RenderBackend2D} does not require it).</p>
+ */
+public class DynamicMesh2D extends Mesh2D {
+    private float[] positions;
+    private float[] textures;
+    private int[] indices;
+    private int usedVertices;
+    private int indexCount;
+    private int vertexCapacity;
+    private int indexCapacity;
+
+    private final Bounds2D bounds;
+    private boolean boundsDirty;
+    private ByteBuffer uploadMemory;
+    private FloatBuffer floatUpload;
+    private int version;
+
+    /**
+     * Construct an empty dynamic mesh.
+     *
+     * @param vertexCapacity The number of vertices the buffers can initially hold.
+     * @param indexCapacity  The number of indices the buffers can initially hold.
+     */
+    public DynamicMesh2D(int vertexCapacity, int indexCapacity) {
+        // Mesh2D creates the buffer objects with room for one vertex, then they are grown to the capacity.
+        super(new float[2], new float[2], new int[3], GL_DYNAMIC_DRAW);
+        this.positions = new float[2];
+        this.textures = new float[2];
+        this.indices = new int[3];
+        this.vertexCapacity = 1;
+        this.indexCapacity = 3;
+        this.bounds = new Bounds2D();
+        allocateFloatUpload(2);
+        setVertexCount(0);
+        ensureCapacity(vertexCapacity, indexCapacity);
+    }
+
+    /**
+     * Construct a dynamic mesh with initial data.
+     *
+     * @param position The position values (A 2D vector instead of 3D).
+     * @param texture  The texture values.
+     * @param indices  The indices values.
+     */
+    public DynamicMesh2D(float[] position, float[] texture, int[] indices) {
+        this(position.length / 2, indices.length);
+        updatePositions(0, position);
+        updateUVs(0, texture);
+        setIndices(indices);
+    }
+
+    /**
+     * Replace the positions of a range of vertices.
+     *
+     * <p>If the range goes past the last vertex, the mesh is grown to include it.</p>
+     *
+     * @param vertexOffset The first vertex to replace.
+     * @param data         The position values. (2 per vertex).
+     */
+    public void updatePositions(int vertexOffset, float[] data) {
+        updatePositions(vertexOffset, data, 0, data.length / 2);
+    }
+
+    /**
+     * Replace the positions of a range of vertices.
+     *
+     * @param vertexOffset The first vertex to replace.
+     * @param data         The array which contains the position values.
+     * @param dataOffset   The index in the array of the first value.
+     * @param vertices     The number of vertices to replace.
+     */
+    public void updatePositions(int vertexOffset, float[] data, int dataOffset, int vertices) {
+        if (vertices <= 0) return;
+        growToInclude(vertexOffset + vertices);
+        System.arraycopy(data, dataOffset, positions, vertexOffset * 2, vertices * 2);
+        upload(getPositionBufferId(), positions, vertexOffset * 2, vertices * 2);
+        boundsDirty = true;
+        version++;
+        recordModification();
+    }
+
+    /**
+     * Replace the texture coordinates of a range of vertices.
+     *
+     * <p>If the range goes past the last vertex, the mesh is grown to include it.</p>
+     *
+     * @param vertexOffset The first vertex to replace.
+     * @param data         The texture coordinates. (2 per vertex).
+     */
+    public void updateUVs(int vertexOffset, float[] data) {
+        updateUVs(vertexOffset, data, 0, data.length / 2);
+    }
+
+    /**
+     * Replace the texture coordinates of a range of vertices.
+     *
+     * @param vertexOffset The first vertex to replace.
+     * @param data         The array which contains the texture coordinates.
+     * @param dataOffset   The index in the array of the first value.
+     * @param vertices     The number of vertices to replace.
+     */
+    public void updateUVs(int vertexOffset, float[] data, int dataOffset, int vertices) {
+        if (vertices <= 0) return;
+        growToInclude(vertexOffset + vertices);
+        System.arraycopy(data, dataOffset, textures, vertexOffset * 2, vertices * 2);
+        upload(getTextureBufferId(), textures, vertexOffset * 2, vertices * 2);
+        version++;
+        recordModification();
+    }
+
+    /**
+     * Replace the indices of the mesh.
+     * <p>All of the indices are drawn.</p>
+     *
+     * @param indices The indices.
+     */
+    public void setIndices(int[] indices) {
+        setIndices(indices, indices.length);
+    }
+
+    /**
+     * Replace the indices of the mesh.
+     *
+     * @param data  The array which contains the indices.
+     * @param count The number of indices to use from the start of the array.
+     */
+    public void setIndices(int[] data, int count) {
+        ensureCapacity(vertexCapacity, count);
+        System.arraycopy(data, 0, indices, 0, count);
+        indexCount = count;
+        setVertexCount(count);
+
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        ByteBuffer buffer = backend.allocateUploadBuffer(Math.max(1, count) * Integer.BYTES);
+        try {
+            buffer.asIntBuffer().put(data, 0, count);
+            buffer.limit(count * Integer.BYTES);
+            // The element buffer binding is part of the vertex array.
+            backend.bindVertexArray(getVertexArrayId());
+            backend.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, getIndexBufferId());
+            backend.bufferSubData(GL_ELEMENT_ARRAY_BUFFER, 0, buffer);
+            backend.bindVertexArray(0);
+        } finally {
+            backend.freeUploadBuffer(buffer);
+        }
+        GameEngine2D.getResourceRegistry().recordUpload((long) count * Integer.BYTES);
+        version++;
+        recordModification();
+    }
+
+    /**
+     * Set the number of vertices in use.
+     *
+     * <p>Only the vertices in use are part of the bounds. Shrinking does not free any memory.</p>
+     *
+     * @param vertices The number of vertices.
+     */
+    public void setUsedVertices(int vertices) {
+        growToInclude(vertices);
+        usedVertices = vertices;
+        boundsDirty = true;
+    }
+
+    /**
+     * Get the number of vertices in use.
+     *
+     * @return The number of vertices.
+     */
+    public int getUsedVertices() {
+        return usedVertices;
+    }
+
+    /**
+     * Make sure the buffers can hold a number of vertices and indices.
+     *
+     * <p>The buffers are resized without changing the buffer objects, so the vertex array is kept.</p>
+     *
+     * @param vertices The number of vertices.
+     * @param indices  The number of indices.
+     */
+    public void ensureCapacity(int vertices, int indices) {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        if (vertices > vertexCapacity) {
+            int capacity = Math.max(vertices, vertexCapacity * 2);
+            positions = Arrays.copyOf(positions, capacity * 2);
+            textures = Arrays.copyOf(textures, capacity * 2);
+            vertexCapacity = capacity;
+
+            freeFloatUpload();
+            allocateFloatUpload(capacity * 2);
+            floatUpload.put(positions).flip();
+            backend.bindBuffer(GL_ARRAY_BUFFER, getPositionBufferId());
+            backend.bufferData(GL_ARRAY_BUFFER, floatUpload, GL_DYNAMIC_DRAW);
+            floatUpload.clear();
+            floatUpload.put(textures).flip();
+            backend.bindBuffer(GL_ARRAY_BUFFER, getTextureBufferId());
+            backend.bufferData(GL_ARRAY_BUFFER, floatUpload, GL_DYNAMIC_DRAW);
+            backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+            GpuResourceRegistry2D registry = GameEngine2D.getResourceRegistry();
+            registry.trackBuffer(getPositionBufferId(), (long) capacity * 2 * Float.BYTES);
+            registry.trackBuffer(getTextureBufferId(), (long) capacity * 2 * Float.BYTES);
+            registry.recordUpload((long) capacity * 4 * Float.BYTES);
+        }
+        if (indices > indexCapacity) {
+            int capacity = Math.max(indices, indexCapacity * 2);
+            this.indices = Arrays.copyOf(this.indices, capacity);
+            indexCapacity = capacity;
+
+            ByteBuffer buffer = backend.allocateUploadBuffer(capacity * Integer.BYTES);
+            try {
+                buffer.asIntBuffer().put(this.indices);
+                backend.bindVertexArray(getVertexArrayId());
+                backend.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, getIndexBufferId());
+                backend.bufferData(GL_ELEMENT_ARRAY_BUFFER, buffer, GL_DYNAMIC_DRAW);
+                backend.bindVertexArray(0);
+            } finally {
+                backend.freeUploadBuffer(buffer);
+            }
+            GameEngine2D.getResourceRegistry().trackBuffer(getIndexBufferId(), (long) capacity * Integer.BYTES);
+            GameEngine2D.getResourceRegistry().recordUpload((long) capacity * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Get the number of vertices the buffers can hold.
+     *
+     * @return The vertex capacity.
+     */
+    public int getVertexCapacity() {
+        return vertexCapacity;
+    }
+
+    /**
+     * Get the number of indices the buffers can hold.
+     *
+     * @return The index capacity.
+     */
+    public int getIndexCapacity() {
+        return indexCapacity;
+    }
+
+    /**
+     * Get the number of times the data of the mesh has changed.
+     * <p>This can be used to detect changes without comparing the data.</p>
+     *
+     * @return The version of the mesh.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the bounds of the vertices in use.
+     * <p>The bounds are recalculated after the positions change. The returned bounds should not be modified.</p>
+     *
+     * @return The local bounds of the mesh.
+     */
+    @Override
+    public Bounds2D getLocalBounds() {
+        if (boundsDirty) {
+            bounds.reset();
+            for (int i = 0; i < usedVertices * 2; i += 2)
+                bounds.include(positions[i], positions[i + 1]);
+            boundsDirty = false;
+        }
+        return bounds;
+    }
+
+    @Override
+    protected void delete() {
+        super.delete();
+        freeFloatUpload();
+    }
+
+    private void allocateFloatUpload(int floats) {
+        uploadMemory = GameEngine2D.getRenderBackend().allocateUploadBuffer(floats * Float.BYTES);
+        floatUpload = uploadMemory.asFloatBuffer();
+    }
+
+    private void freeFloatUpload() {
+        if (uploadMemory == null)
+            return;
+        GameEngine2D.getRenderBackend().freeUploadBuffer(uploadMemory);
+        uploadMemory = null;
+        floatUpload = null;
+    }
+
+    private void growToInclude(int vertices) {
+        if (vertices > vertexCapacity)
+            ensureCapacity(vertices, indexCapacity);
+        if (vertices > usedVertices) {
+            usedVertices = vertices;
+            boundsDirty = true;
+        }
+    }
+
+    /**
+     * Upload a range of floats to a vertex buffer.
+     */
+    private void upload(int buffer, float[] data, int offset, int length) {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        floatUpload.clear();
+        floatUpload.put(data, offset, length).flip();
+        backend.bindBuffer(GL_ARRAY_BUFFER, buffer);
+        backend.bufferSubData(GL_ARRAY_BUFFER, (long) offset * Float.BYTES, floatUpload);
+        backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GameEngine2D.getResourceRegistry().recordUpload((long) length * Float.BYTES);
+    }
+}
@@ -1,5 +1,11 @@
 package org.kakara.engine2d;
 
+import org.kakara.engine2d.renderpipeline.backend.GLRenderBackend2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+import org.kakara.engine2d.resources.GpuResourceRegistry2D;
+
+import java.util.Objects;
+
 /**
  * This class is responsible for some of the global settings of the 2D portion of the
  * engine.
@@ -11,6 +17,8 @@ public final class GameEngine2D {
     private static boolean isStandard = false;
     private static float standardWidth = 1080;
     private static float standardHeight = 720;
+    private static RenderBackend2D renderBackend = new GLRenderBackend2D();
+    private static final GpuResourceRegistry2D resourceRegistry = new GpuResourceRegistry2D();
 
     /**
      * Set if the scale of the viewport is standard.
@@ -61,4 +69,35 @@ public final class GameEngine2D {
     public static float getStandardHeight() {
         return standardHeight;
     }
+
+    /**
+     * Set the backend used to issue the graphics calls of the 2D addon.
+     *
+     * <p>This should be set before any {@link Mesh2D} is created. See {@link RenderBackend2D} for more
+     * information.</p>
+     *
+     * @param backend The render backend. (Cannot be null).
+     */
+    public static void setRenderBackend(RenderBackend2D backend) {
+        renderBackend = Objects.requireNonNull(backend);
+    }
+
+    /**
+     * Get the backend used to issue the graphics calls of the 2D addon.
+     * <p>The default backend issues OpenGL calls.</p>
+     *
+     * @return The render backend.
+     */
+    public static RenderBackend2D getRenderBackend() {
+        return renderBackend;
+    }
+
+    /**
+     * Get the registry which tracks the GPU memory used by the 2D addon.
+     *
+     * @return The resource registry.
+     */
+    public static GpuResourceRegistry2D getResourceRegistry() {
+        return resourceRegistry;
+    }
 }
@@ -2,10 +2,16 @@ package org.kakara.engine2d;
 
 import org.kakara.engine.components.Component;
 import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.ecs.EntityWorld2D;
 import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.metrics.RenderMetrics2D;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -18,9 +24,33 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class Item2DHandler {
     private final List<GameItem> items;
+    private final Set<GameItem> itemSet;
+    private final List<GameItem> batch;
+    private boolean batching;
+    private final List<StaticLayer2D> staticLayers;
+    private final RenderMetrics2D metrics;
+    private final Picker2D picker;
+    private final DrawOrder2D drawOrder;
+    private final TransformHierarchy2D transformHierarchy;
+    private final List<MeshRenderer2D> updatedRenderers;
+    private EntityWorld2D entityWorld;
+    private int modifications;
+    private int meshModifications = -1;
+    private long renderFrame;
+    private long updateFrame;
+    private int offscreenAnimationInterval;
+    private int animationIntervalScale = 1;
 
     public Item2DHandler() {
         this.items = new CopyOnWriteArrayList<>();
+        this.itemSet = ConcurrentHashMap.newKeySet();
+        this.batch = new ArrayList<>();
+        this.staticLayers = new CopyOnWriteArrayList<>();
+        this.metrics = new RenderMetrics2D();
+        this.picker = new Picker2D(this);
+        this.drawOrder = new DrawOrder2D(this);
+        this.transformHierarchy = new TransformHierarchy2D();
+        this.updatedRenderers = new ArrayList<>();
     }
 
     /**
@@ -33,18 +63,182 @@ public class Item2DHandler {
     public void addItem(GameItem item) {
         if (!item.hasComponent(MeshRenderer2D.class))
             throw new IllegalStateException("GameItem does not have a 2D mesh renderer.");
-        items.add(item);
+        if (itemSet.contains(item))
+            return;
+        // Attached first, so the item is not half added if its components cannot be stored.
+        if (entityWorld != null)
+            entityWorld.attach(item);
+        itemSet.add(item);
+        modifications++;
+        if (batching)
+            batch.add(item);
+        else
+            items.add(item);
+        drawOrder.invalidate();
+        picker.invalidate();
+    }
+
+    /**
+     * Add many items to the 2d item handler at once.
+     *
+     * <p>Adding items one at a time copies the list of items every time. This only copies it once.</p>
+     *
+     * @param items The items to add.
+     */
+    public void addItems(Collection<GameItem> items) {
+        boolean wasBatching = batching;
+        beginBatch();
+        for (GameItem item : items)
+            addItem(item);
+        if (!wasBatching)
+            endBatch();
+    }
+
+    /**
+     * Start adding items in bulk.
+     *
+     * <p>Items added until {@link #endBatch()} is called are collected and added to the list of items all at once.
+     * They are not updated or rendered until the batch ends. This must be called on the main thread.</p>
+     */
+    public void beginBatch() {
+        batching = true;
+    }
+
+    /**
+     * Finish adding items in bulk.
+     * <p>The items collected since {@link #beginBatch()} are added to the list of items.</p>
+     */
+    public void endBatch() {
+        if (!batching)
+            return;
+        batching = false;
+        items.addAll(batch);
+        batch.clear();
+        drawOrder.invalidate();
+        picker.invalidate();
+    }
+
+    /**
+     * Check if an item is in the 2d item handler.
+     *
+     * @param item The item to check.
+     * @return If the item was added. (Includes items waiting in a batch).
+     */
+    public boolean containsItem(GameItem item) {
+        return itemSet.contains(item);
     }
 
     /**
      * Update the components in the GameItems.
+     *
+     * <p>Afterwards every item is checked for changes, which marks its static layer as dirty. The materials and
+     * dynamic meshes are only checked when one of them changed since the last update.</p>
      */
     public void update() {
+        long start = System.nanoTime();
+        updateFrame++;
         for (GameItem item : items) {
             for (Component component : item.getComponents()) {
                 component.update();
+                if (component instanceof MeshRenderer2D)
+                    updatedRenderers.add((MeshRenderer2D) component);
+            }
+            if (entityWorld != null)
+                entityWorld.sync(item);
+        }
+        // Components can change materials too, so this is read after they are updated.
+        boolean checkMeshes = Mesh2D.getModifications() != meshModifications;
+        meshModifications = Mesh2D.getModifications();
+        for (int i = 0; i < updatedRenderers.size(); i++) {
+            MeshRenderer2D renderer = updatedRenderers.get(i);
+            if (renderer.detectChanges(checkMeshes)) {
+                modifications++;
+                // Only the items which changed are moved in the grid of the picker.
+                picker.markChanged(renderer);
             }
         }
+        updatedRenderers.clear();
+        metrics.addUpdateTime(System.nanoTime() - start);
+    }
+
+    /**
+     * Start a new render frame.
+     * <p>This is for internal use only. It is called by the pipeline before it culls the items.</p>
+     *
+     * @return The number of the new render frame.
+     */
+    public long beginRenderFrame() {
+        return ++renderFrame;
+    }
+
+    /**
+     * Get the number of the last frame which was rendered.
+     *
+     * @return The render frame. (0 if nothing was rendered yet).
+     */
+    public long getRenderFrame() {
+        return renderFrame;
+    }
+
+    /**
+     * Get the number of times the items were updated.
+     *
+     * @return The update frame.
+     */
+    public long getUpdateFrame() {
+        return updateFrame;
+    }
+
+    /**
+     * Set how often the animations of off-screen items are updated.
+     *
+     * <p>A {@link org.kakara.engine2d.components.SpriteAnimator} on an item which was not drawn in the last frame
+     * (see {@link MeshRenderer2D#isOnScreen()}) only updates once every <code>interval</code> frames. When it does
+     * update, or when the item comes back on-screen, it jumps to the frame it would have been on, so the animation
+     * never falls out of sync. With an interval of 0 off-screen animations are not updated at all until the item is
+     * drawn again, and with an interval of 1 they update every frame.</p>
+     * <p>This is 0 by default.</p>
+     *
+     * @param interval The number of frames between updates.
+     */
+    public void setOffscreenAnimationInterval(int interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("The interval cannot be negative.");
+        this.offscreenAnimationInterval = interval;
+    }
+
+    /**
+     * Get the number of frames between updates of off-screen animations.
+     *
+     * @return The interval set by {@link #setOffscreenAnimationInterval(int)}, multiplied by the scale from the
+     * frame budget. (0 if off-screen animations are not updated).
+     */
+    public int getOffscreenAnimationInterval() {
+        return offscreenAnimationInterval * animationIntervalScale;
+    }
+
+    /**
+     * Get the number of frames between updates of on-screen animations.
+     *
+     * <p>On-screen animations update every frame unless the frame budget of the scene is reducing the animation rate.
+     * The time a throttled animation misses is saved up, so it still plays at the same speed.</p>
+     *
+     * @return The interval. (1 if on-screen animations update every frame).
+     */
+    public int getOnscreenAnimationInterval() {
+        return animationIntervalScale;
+    }
+
+    /**
+     * Set the number of frames between updates of on-screen animations, which the off-screen interval is also
+     * multiplied by.
+     * <p>This is for internal use only. It is set by the scene from
+     * {@link org.kakara.engine2d.budget.FrameBudgetController2D#getAnimationInterval()}.</p>
+     *
+     * @param scale The scale.
+     */
+    public void setAnimationIntervalScale(int scale) {
+        this.animationIntervalScale = Math.max(1, scale);
     }
 
     /**
@@ -53,7 +247,18 @@ public class Item2DHandler {
      * @param item The item to remove.
      */
     public void removeItem(GameItem item) {
-        items.remove(item);
+        if (!itemSet.remove(item))
+            return;
+        if (!items.remove(item))
+            batch.remove(item);
+        if (entityWorld != null)
+            entityWorld.detach(item);
+        modifications++;
+        MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+        if (renderer != null && renderer.getStaticLayer() != null)
+            renderer.getStaticLayer().remove(item);
+        drawOrder.invalidate();
+        picker.invalidate();
     }
 
     /**
@@ -64,4 +269,139 @@ public class Item2DHandler {
     public List<GameItem> getItems() {
         return Collections.unmodifiableList(items);
     }
+
+    /**
+     * Get the number of times the items changed.
+     *
+     * <p>This increases when items are added or removed, and when the update finds an item whose transform,
+     * visibility, sprite sheet position, meshes or materials changed. It is used by {@link Abstract2DScene} to find
+     * out if a frame needs to be rendered when render on demand is enabled.</p>
+     *
+     * @return The version of the items.
+     */
+    public int getVersion() {
+        return modifications;
+    }
+
+    /**
+     * Create a new static layer.
+     *
+     * <p>Items added to a static layer are rendered into a cached texture instead of being drawn
+     * every frame. See {@link StaticLayer2D} for more information.</p>
+     *
+     * @return The new static layer.
+     */
+    public StaticLayer2D createStaticLayer() {
+        StaticLayer2D layer = new StaticLayer2D();
+        staticLayers.add(layer);
+        return layer;
+    }
+
+    /**
+     * Remove a static layer.
+     *
+     * <p>The items in the layer are rendered normally afterwards. This must be called on the main thread
+     * since the cached texture is deleted.</p>
+     *
+     * @param layer The layer to remove.
+     */
+    public void removeStaticLayer(StaticLayer2D layer) {
+        if (!staticLayers.remove(layer))
+            return;
+        for (GameItem item : new ArrayList<>(layer.getItems()))
+            layer.remove(item);
+        layer.cleanUp();
+    }
+
+    /**
+     * Get the list of static layers.
+     *
+     * @return The list of static layers. (Returns an unmodifiable list).
+     */
+    public List<StaticLayer2D> getStaticLayers() {
+        return Collections.unmodifiableList(staticLayers);
+    }
+
+    /**
+     * Get the picker which finds the items at a position in the world.
+     *
+     * <p>The items which moved or changed are marked by the update, so the picker always reflects the last
+     * frame.</p>
+     *
+     * @return The picker.
+     */
+    public Picker2D getPicker() {
+        return picker;
+    }
+
+    /**
+     * Get the order the items are drawn and picked in.
+     *
+     * <p>Use it to Y-sort a sorting layer. See {@link DrawOrder2D} for more information.</p>
+     *
+     * @return The draw order.
+     */
+    public DrawOrder2D getDrawOrder() {
+        return drawOrder;
+    }
+
+    /**
+     * Get the hierarchy which updates the world matrices of items with a parent.
+     *
+     * @return The transform hierarchy.
+     */
+    public TransformHierarchy2D getTransformHierarchy() {
+        return transformHierarchy;
+    }
+
+    /**
+     * Set if the components of the items are also stored by archetype.
+     *
+     * <p>When enabled, every item is attached to an {@link EntityWorld2D} so systems can iterate over the
+     * components of many items using queries. Items which were already added are attached straight away. Components
+     * added to or removed from an item are found during the next update. When disabled, the entity world is
+     * discarded.</p>
+     *
+     * @param enabled If archetype storage should be used.
+     */
+    public void setArchetypeStorage(boolean enabled) {
+        if (enabled == (entityWorld != null))
+            return;
+        if (enabled) {
+            entityWorld = new EntityWorld2D();
+            for (GameItem item : items)
+                entityWorld.attach(item);
+            for (GameItem item : batch)
+                entityWorld.attach(item);
+        } else {
+            entityWorld = null;
+        }
+    }
+
+    /**
+     * Get if the components of the items are also stored by archetype.
+     *
+     * @return If archetype storage is used.
+     */
+    public boolean isArchetypeStorage() {
+        return entityWorld != null;
+    }
+
+    /**
+     * Get the entity world which stores the components of the items by archetype.
+     *
+     * @return The entity world. (Null if archetype storage is not enabled).
+     */
+    public EntityWorld2D getEntityWorld() {
+        return entityWorld;
+    }
+
+    /**
+     * Get the metrics recorder for the 2D items.
+     *
+     * @return The metrics recorder.
+     */
+    public RenderMetrics2D getMetrics() {
+        return metrics;
+    }
 }
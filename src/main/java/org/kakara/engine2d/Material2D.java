@@ -1,7 +1,9 @@
 package org.kakara.engine2d;
 
+import org.joml.Vector4f;
 import org.kakara.engine.gameitems.Texture;
 import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.resources.ManagedTexture2D;
 
 import java.util.Optional;
 
@@ -18,10 +20,16 @@ import java.util.Optional;
  * mat.setColor(new RGBA(255, 255, 255, 1));<br>
  * mat.setTexture(text);<br>
  * </code>
+ *
+ * <p>Every setter increases the version of the material, which is how static layers and render on demand find out
+ * that it changed. If the RGBA is modified directly, {@link #markChanged()} must be called afterwards.</p>
  */
 public class Material2D {
     private RGBA color;
     private Texture texture;
+    private ManagedTexture2D managedTexture;
+    private Vector4f uvRegion;
+    private int version;
 
     /**
      * Construct the Material2D class.
@@ -75,15 +83,19 @@ public class Material2D {
      */
     public void setColor(RGBA color) {
         this.color = color;
+        markChanged();
     }
 
     /**
      * Get the texture for the material
      * <p>This returns an optional since a texture is not required.</p>
+     * <p>If the texture is managed, it is loaded if it was evicted and marked as used in the current frame.</p>
      *
      * @return An optional of the texture.
      */
     public Optional<Texture> getTexture() {
+        if (managedTexture != null)
+            return Optional.of(managedTexture.get());
         return Optional.ofNullable(texture);
     }
 
@@ -94,5 +106,81 @@ public class Material2D {
      */
     public void setTexture(Texture texture) {
         this.texture = texture;
+        this.managedTexture = null;
+        markChanged();
+    }
+
+    /**
+     * Set a texture of the Material which can be evicted when the GPU memory budget is exceeded.
+     *
+     * @param texture The managed texture of the Material. (Set to null for none).
+     */
+    public void setManagedTexture(ManagedTexture2D texture) {
+        this.managedTexture = texture;
+        this.texture = null;
+        markChanged();
+    }
+
+    /**
+     * Get the managed texture of the Material.
+     *
+     * @return The managed texture. (Null if the texture is not managed).
+     */
+    public ManagedTexture2D getManagedTexture() {
+        return managedTexture;
+    }
+
+    /**
+     * Set the region of the texture the mesh is drawn from.
+     *
+     * <p>This is used for textures which contain many sprites of different sizes (such as a packed atlas). The
+     * texture coordinates of the mesh are mapped into the region. The region is in texture coordinates, so (0, 0, 1, 1)
+     * is the whole texture. A region takes priority over the columns and rows of the texture.</p>
+     *
+     * @param u      The left of the region. (0 - 1).
+     * @param v      The top of the region. (0 - 1).
+     * @param width  The width of the region. (0 - 1).
+     * @param height The height of the region. (0 - 1).
+     */
+    public void setUVRegion(float u, float v, float width, float height) {
+        if (uvRegion == null)
+            uvRegion = new Vector4f();
+        uvRegion.set(u, v, width, height);
+        markChanged();
+    }
+
+    /**
+     * Remove the region of the texture, so the whole texture is used again.
+     */
+    public void clearUVRegion() {
+        this.uvRegion = null;
+        markChanged();
+    }
+
+    /**
+     * Get the region of the texture the mesh is drawn from.
+     *
+     * @return The region as (u, v, width, height). (Null if the whole texture is used).
+     */
+    public Vector4f getUVRegion() {
+        return uvRegion;
+    }
+
+    /**
+     * Record that the material changed.
+     * <p>This is only needed after modifying the RGBA of the material directly. The setters call it already.</p>
+     */
+    public void markChanged() {
+        version++;
+        Mesh2D.recordModification();
+    }
+
+    /**
+     * Get the number of times the material changed.
+     *
+     * @return The version of the material.
+     */
+    public int getVersion() {
+        return version;
     }
 }
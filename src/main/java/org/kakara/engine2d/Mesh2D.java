@@ -8,18 +8,17 @@ import org.kakara.engine.gameitems.Material;
 import org.kakara.engine.gameitems.Texture;
 import org.kakara.engine.gameitems.mesh.IMesh;
 import org.kakara.engine.render.culling.FrustumCullingFilter;
-import org.lwjgl.system.MemoryStack;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+import org.kakara.engine2d.resources.GpuResourceRegistry2D;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
 
 import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.*;
-import static org.lwjgl.opengl.GL30.*;
 
 /**
  * The Mesh for 2D GameItems.
@@ -48,101 +47,233 @@ import static org.lwjgl.opengl.GL30.*;
  * };<br>
  * Mesh2D mesh = new Mesh2D(vertices, textures, indices);<br>
  * </code>
+ *
+ * <p>Large meshes can use {@link VertexFormat2D#PACKED} to store the vertices in less memory.</p>
  */
 public class Mesh2D implements IMesh {
+    // The number of times any material or dynamic mesh changed, so renderers are only checked after a change.
+    private static int modifications;
 
     private Material2D material;
 
     private final int vaoID;
-    private final int vertexCount;
+    private final VertexFormat2D format;
+    private final int indexType;
+    private int vertexCount;
     private final List<Integer> vboIds;
+    private final Bounds2D localBounds;
+    private int references = 1;
 
     /**
      * Construct the Mesh2D.
      *
-     * <p>Note: This class can only be constructed on the Main Thread.</p>
+     * <p>Note: This class can only be constructed on the Main Thread. (Unless the current
+     * {@link RenderBackend2D} does not require it).</p>
      *
      * @param position The position values (A 2D vector instead of 3D).
      * @param texture  The texture values.
      * @param indices  The indices values.
      */
     public Mesh2D(float[] position, float[] texture, int[] indices) {
-        if (Thread.currentThread() != GameEngine.currentThread)
+        this(position, texture, indices, GL_STATIC_DRAW);
+    }
+
+    /**
+     * Construct the Mesh2D with a vertex format.
+     *
+     * <p>{@link VertexFormat2D#PACKED} reduces the memory used by the mesh, which is useful for large meshes
+     * such as tile maps. See {@link VertexPacker2D} for more information.</p>
+     *
+     * @param position The position values (A 2D vector instead of 3D).
+     * @param texture  The texture values.
+     * @param indices  The indices values.
+     * @param format   The format to store the vertices in.
+     */
+    public Mesh2D(float[] position, float[] texture, int[] indices, VertexFormat2D format) {
+        this(position, texture, indices, GL_STATIC_DRAW, format);
+    }
+
+    /**
+     * Construct the Mesh2D with a usage hint for the buffers.
+     * <p>This is used by meshes which change their buffers after construction. The standard vertex format
+     * is always used.</p>
+     *
+     * @param position The position values (A 2D vector instead of 3D).
+     * @param texture  The texture values.
+     * @param indices  The indices values.
+     * @param usage    The usage hint of the buffers. (Such as GL_STATIC_DRAW or GL_DYNAMIC_DRAW).
+     */
+    protected Mesh2D(float[] position, float[] texture, int[] indices, int usage) {
+        this(position, texture, indices, usage, VertexFormat2D.STANDARD);
+    }
+
+    private Mesh2D(float[] position, float[] texture, int[] indices, int usage, VertexFormat2D format) {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        if (backend.requiresMainThread() && Thread.currentThread() != GameEngine.currentThread)
             throw new InvalidThreadException("This class can only be constructed on the main thread.");
+        GpuResourceRegistry2D registry = GameEngine2D.getResourceRegistry();
 
         this.material = new Material2D();
+        this.format = Objects.requireNonNull(format);
 
         vertexCount = indices.length;
         vboIds = new ArrayList<>();
+        localBounds = new Bounds2D();
+        for (int i = 0; i + 1 < position.length; i += 2)
+            localBounds.include(position[i], position[i + 1]);
+
+        if (format == VertexFormat2D.PACKED) {
+            VertexPacker2D packer = new VertexPacker2D();
+            VertexLayout2D layout = packer.layout(position, texture, indices);
+            indexType = layout.getIndexType();
+            vaoID = backend.createVertexArray();
+            backend.bindVertexArray(vaoID);
 
-        FloatBuffer positionBuffer;
-        FloatBuffer textureBuffer;
-        IntBuffer indexBuffer;
+            ByteBuffer vertexBuffer = backend.allocateUploadBuffer(layout.getVertexBytes());
+            ByteBuffer indexBuffer = backend.allocateUploadBuffer(layout.getIndexBytes());
+            try {
+                // Interleaved VBO
+                int vboId = backend.createBuffer();
+                vboIds.add(vboId);
+                packer.writeVertices(layout, position, texture, vertexBuffer).flip();
+                backend.bindBuffer(GL_ARRAY_BUFFER, vboId);
+                backend.bufferData(GL_ARRAY_BUFFER, vertexBuffer, usage);
+                registry.trackBuffer(vboId, vertexBuffer.remaining());
+                registry.recordUpload(vertexBuffer.remaining());
+                backend.vertexAttribPointer(0, 2, layout.getPositionType(), false, layout.getStride(), 0);
+                backend.vertexAttribPointer(1, 2, layout.getTextureType(), layout.isTextureNormalized(),
+                        layout.getStride(), layout.getTextureOffset());
 
-        try (MemoryStack stack = MemoryStack.stackPush()) {
+                // Index VBO
+                vboId = backend.createBuffer();
+                vboIds.add(vboId);
+                packer.writeIndices(layout, indices, indexBuffer).flip();
+                backend.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
+                backend.bufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, usage);
+                registry.trackBuffer(vboId, indexBuffer.remaining());
+            registry.recordUpload(indexBuffer.remaining());
+                registry.recordUpload(indexBuffer.remaining());
+            } finally {
+                backend.freeUploadBuffer(vertexBuffer);
+                backend.freeUploadBuffer(indexBuffer);
+            }
+
+            backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+            backend.bindVertexArray(0);
+            return;
+        }
 
-            vaoID = glGenVertexArrays();
-            glBindVertexArray(vaoID);
+        indexType = GL_UNSIGNED_INT;
+        vaoID = backend.createVertexArray();
+        backend.bindVertexArray(vaoID);
 
+        ByteBuffer positionBuffer = backend.allocateUploadBuffer(position.length * Float.BYTES);
+        ByteBuffer textureBuffer = backend.allocateUploadBuffer(texture.length * Float.BYTES);
+        ByteBuffer indexBuffer = backend.allocateUploadBuffer(indices.length * Integer.BYTES);
+        try {
             // Position VBO
-            int vboId = glGenBuffers();
+            int vboId = backend.createBuffer();
             vboIds.add(vboId);
-            positionBuffer = stack.mallocFloat(position.length);
-            positionBuffer.put(position).flip();
-            glBindBuffer(GL_ARRAY_BUFFER, vboId);
-            glBufferData(GL_ARRAY_BUFFER, positionBuffer, GL_STATIC_DRAW);
-            glVertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0);
+            positionBuffer.asFloatBuffer().put(position);
+            backend.bindBuffer(GL_ARRAY_BUFFER, vboId);
+            backend.bufferData(GL_ARRAY_BUFFER, positionBuffer, usage);
+            registry.trackBuffer(vboId, positionBuffer.remaining());
+            registry.recordUpload(positionBuffer.remaining());
+            backend.vertexAttribPointer(0, 2, GL_FLOAT, false, 0, 0);
 
             // Texture coordinates VBO
-            vboId = glGenBuffers();
+            vboId = backend.createBuffer();
             vboIds.add(vboId);
-            textureBuffer = stack.mallocFloat(texture.length);
-            textureBuffer.put(texture).flip();
-            glBindBuffer(GL_ARRAY_BUFFER, vboId);
-            glBufferData(GL_ARRAY_BUFFER, textureBuffer, GL_STATIC_DRAW);
-            glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
+            textureBuffer.asFloatBuffer().put(texture);
+            backend.bindBuffer(GL_ARRAY_BUFFER, vboId);
+            backend.bufferData(GL_ARRAY_BUFFER, textureBuffer, usage);
+            registry.trackBuffer(vboId, textureBuffer.remaining());
+            registry.recordUpload(textureBuffer.remaining());
+            backend.vertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
 
             // Index VBO
-            vboId = glGenBuffers();
+            vboId = backend.createBuffer();
             vboIds.add(vboId);
-            indexBuffer = stack.mallocInt(indices.length);
-            indexBuffer.put(indices).flip();
-            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
-            glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
-
-
-            glBindBuffer(GL_ARRAY_BUFFER, 0);
-            glBindVertexArray(0);
+            indexBuffer.asIntBuffer().put(indices);
+            backend.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, vboId);
+            backend.bufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, usage);
+            registry.trackBuffer(vboId, indexBuffer.remaining());
+            registry.recordUpload(indexBuffer.remaining());
+        } finally {
+            backend.freeUploadBuffer(positionBuffer);
+            backend.freeUploadBuffer(textureBuffer);
+            backend.freeUploadBuffer(indexBuffer);
         }
+
+        backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+        backend.bindVertexArray(0);
     }
 
     @Override
     public void render() {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
         if (material.getTexture().isPresent()) {
-            glActiveTexture(GL_TEXTURE0);
-            glBindTexture(GL_TEXTURE_2D, material.getTexture().get().getId());
+            backend.bindTexture(0, material.getTexture().get().getId());
         }
-        glBindVertexArray(vaoID);
-        glEnableVertexAttribArray(0);
-        glEnableVertexAttribArray(1);
-        glDrawElements(GL_TRIANGLES, vertexCount, GL_UNSIGNED_INT, 0);
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glBindVertexArray(0);
-        glBindTexture(GL_TEXTURE_2D, 0);
+        backend.bindVertexArray(vaoID);
+        backend.enableVertexAttribArray(0);
+        backend.enableVertexAttribArray(1);
+        backend.drawElements(GL_TRIANGLES, vertexCount, indexType);
+        backend.disableVertexAttribArray(0);
+        backend.disableVertexAttribArray(1);
+        backend.bindVertexArray(0);
+        backend.bindTexture(0, 0);
     }
 
+    /**
+     * Add a user of the mesh.
+     *
+     * <p>A mesh starts with one user. Each call to this method means {@link #cleanUp()} has to be called one more
+     * time before the mesh is deleted. This lets many {@link org.kakara.engine2d.components.MeshRenderer2D}s share
+     * one mesh, since each of them cleans up its meshes when it is removed or given a new mesh.</p>
+     *
+     * <code>
+     * renderer.setMesh(sharedMesh.retain());
+     * </code>
+     *
+     * @return This mesh.
+     * @throws IllegalStateException If the mesh was already deleted.
+     */
+    public Mesh2D retain() {
+        if (references == 0)
+            throw new IllegalStateException("The mesh has already been cleaned up.");
+        references++;
+        return this;
+    }
+
+    /**
+     * Remove a user of the mesh, and delete the vertex array and buffers once it has no users left.
+     *
+     * <p>The texture of the material is not deleted since it can be shared with other meshes. Call
+     * {@link Texture#cleanup()} once the texture is no longer used.</p>
+     */
     @Override
     public void cleanUp() {
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        if (references == 0 || --references > 0)
+            return;
+        delete();
+    }
+
+    /**
+     * Delete the vertex array and buffers of the mesh.
+     * <p>This is called by {@link #cleanUp()} once the mesh has no users left.</p>
+     */
+    protected void delete() {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+        GpuResourceRegistry2D registry = GameEngine2D.getResourceRegistry();
         for (int vboId : vboIds) {
-            glDeleteBuffers(vboId);
+            backend.deleteBuffer(vboId);
+            registry.releaseBuffer(vboId);
         }
 
-        material.getTexture().ifPresent(Texture::cleanup);
-
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoID);
+        backend.bindVertexArray(0);
+        backend.deleteVertexArray(vaoID);
     }
 
     /**
@@ -192,6 +323,81 @@ public class Mesh2D implements IMesh {
         return material;
     }
 
+    /**
+     * Get the number of vertices (indices) drawn by this mesh.
+     *
+     * @return The number of vertices drawn.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Get the format the vertices are stored in.
+     *
+     * @return The vertex format.
+     */
+    public VertexFormat2D getVertexFormat() {
+        return format;
+    }
+
+    /**
+     * Set the number of vertices (indices) drawn by this mesh.
+     * <p>The index buffer must contain at least that many indices.</p>
+     *
+     * @param vertexCount The number of vertices to draw.
+     */
+    protected void setVertexCount(int vertexCount) {
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Get the id of the vertex array of the mesh.
+     *
+     * @return The id of the vertex array.
+     */
+    protected int getVertexArrayId() {
+        return vaoID;
+    }
+
+    /**
+     * Get the id of the buffer which contains the positions.
+     * <p>The buffer ids are only valid for meshes with the {@link VertexFormat2D#STANDARD} format.</p>
+     *
+     * @return The id of the position buffer.
+     */
+    protected int getPositionBufferId() {
+        return vboIds.get(0);
+    }
+
+    /**
+     * Get the id of the buffer which contains the texture coordinates.
+     *
+     * @return The id of the texture coordinate buffer.
+     */
+    protected int getTextureBufferId() {
+        return vboIds.get(1);
+    }
+
+    /**
+     * Get the id of the buffer which contains the indices.
+     *
+     * @return The id of the index buffer.
+     */
+    protected int getIndexBufferId() {
+        return vboIds.get(2);
+    }
+
+    /**
+     * Get the bounds of the mesh in local space.
+     * <p>The returned bounds should not be modified.</p>
+     *
+     * @return The local bounds of the mesh.
+     */
+    public Bounds2D getLocalBounds() {
+        return localBounds;
+    }
+
     /**
      * Set the material of the Mesh.
      *
@@ -199,5 +405,22 @@ public class Mesh2D implements IMesh {
      */
     public void setMaterial(@NotNull Material2D material2D) {
         this.material = material2D;
+        modifications++;
+    }
+
+    /**
+     * Record that a material or the vertices of a mesh changed.
+     */
+    static void recordModification() {
+        modifications++;
+    }
+
+    /**
+     * Get the number of times any material or dynamic mesh changed.
+     *
+     * @return The number of modifications.
+     */
+    static int getModifications() {
+        return modifications;
     }
 }
@@ -0,0 +1,423 @@
+package org.kakara.engine2d;
+
+import org.joml.Matrix4f;
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.gameitems.mesh.IMesh;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.spatial.SpatialGrid2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the 2D GameItems at a position in the world.
+ *
+ * <p>The picker keeps a {@link SpatialGrid2D} with an entry for every item. The grid is built from scratch the first
+ * time it is used after {@link #invalidate()} is called, which the {@link Item2DHandler} does when items are added or
+ * removed, or when the {@link DrawOrder2D} is invalidated. Items which moved or changed during an update (see
+ * {@link #markChanged(MeshRenderer2D)}) are only moved to their new cells, so one moving item does not cost a
+ * rebuild. Every query only looks at the items near the position.</p>
+ *
+ * <p>Every entry also has a position in the order the items are drawn. Queries mark the positions of the entries they
+ * find in a bitmap and then walk it from the first marked position to the last, so the results are in draw order
+ * without being sorted.</p>
+ *
+ * <p>Positions are in world space (the same space as the transform of the GameItems). Use
+ * {@link Abstract2DScene#pick(float, float)} to pick using the position of the mouse.</p>
+ */
+public class Picker2D {
+    private final Item2DHandler handler;
+    private final SpatialGrid2D grid;
+    private final Bounds2D tempBounds;
+
+    private boolean dirty;
+    private int orderVersion;
+    private GameItem[] items;
+    private MeshRenderer2D[] renderers;
+    // The static layer of every entry when the grid was built.
+    private StaticLayer2D[] layers;
+    private float[] bounds;
+    // The inverse model matrix of every entry stored as m00, m01, m10, m11, m30, m31.
+    private float[] inverse;
+    private float[] localBounds;
+    // If the entry is drawn by itself. (False for the members of static layers).
+    private boolean[] drawn;
+    private int count;
+
+    // The position of every entry in the draw order, and the entry at every position. (-1 for gaps).
+    private int[] positions;
+    private int[] entryAt;
+    private int positionCount;
+    private int drawOrderStart;
+    private long[] hits;
+    private int[] results;
+
+    private boolean[] changed;
+    private int[] changedEntries;
+    private int changedCount;
+
+    /**
+     * Construct a picker.
+     * <p>Use {@link Item2DHandler#getPicker()} instead.</p>
+     *
+     * @param handler The handler that contains the items.
+     */
+    Picker2D(Item2DHandler handler) {
+        this.handler = handler;
+        this.grid = new SpatialGrid2D();
+        this.tempBounds = new Bounds2D();
+        this.dirty = true;
+        this.items = new GameItem[16];
+        this.renderers = new MeshRenderer2D[16];
+        this.layers = new StaticLayer2D[16];
+        this.bounds = new float[16 * 4];
+        this.inverse = new float[16 * 6];
+        this.localBounds = new float[16 * 4];
+        this.drawn = new boolean[16];
+        this.positions = new int[16];
+        this.entryAt = new int[16];
+        this.hits = new long[1];
+        this.results = new int[16];
+        this.changed = new boolean[16];
+        this.changedEntries = new int[16];
+    }
+
+    /**
+     * Mark the picker as out of date.
+     * <p>The spatial grid will be built from scratch on the next query.</p>
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * Mark an item as moved or changed.
+     * <p>This is for internal use only. It is called by the {@link Item2DHandler} for every item that changed
+     * during an update, and for children which moved with their parent. The entry of the item is moved to its new
+     * cells on the next query.</p>
+     *
+     * @param renderer The renderer of the item.
+     */
+    public void markChanged(MeshRenderer2D renderer) {
+        if (dirty)
+            return;
+        int entry = entryOf(renderer);
+        if (entry == -1 || changed[entry])
+            return;
+        changed[entry] = true;
+        changedEntries[changedCount++] = entry;
+    }
+
+    /**
+     * Find the top most item at a position.
+     *
+     * <p>Items that are drawn later are on top. Invisible items are ignored. The position is tested against the
+     * bounds of the meshes with the rotation and scale of the item taken into account.</p>
+     *
+     * @param x The x position in the world.
+     * @param y The y position in the world.
+     * @return The item at the position. (Null if there is none).
+     */
+    public GameItem pick(float x, float y) {
+        refresh();
+        int cell = grid.getCell(x, y);
+        if (cell == -1) return null;
+        // Cells are not in draw order, so the top most item is the hit with the highest position.
+        int top = -1;
+        for (int i = 0; i < grid.getCellSize(cell); i++) {
+            int entry = grid.getCellEntry(cell, i);
+            if (top != -1 && positions[entry] < positions[top]) continue;
+            int b = entry * 4;
+            if (x < bounds[b] || x > bounds[b + 2] || y < bounds[b + 1] || y > bounds[b + 3]) continue;
+            if (containsLocal(entry, x, y))
+                top = entry;
+        }
+        return top == -1 ? null : items[top];
+    }
+
+    /**
+     * Find all of the items which overlap an area.
+     *
+     * <p>The items are added in the order they are drawn (the top most item is last). The world bounds
+     * of the items are used for the test.</p>
+     *
+     * @param area The area in the world.
+     * @param dest The list to add the items to.
+     * @return The destination list.
+     */
+    public List<GameItem> pickAll(Bounds2D area, List<GameItem> dest) {
+        refresh();
+        int found = query(area);
+        for (int i = 0; i < found; i++) {
+            int entry = results[i];
+            int b = entry * 4;
+            if (area.intersects(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]))
+                dest.add(items[entry]);
+        }
+        return dest;
+    }
+
+    /**
+     * Find the items which should be drawn in an area.
+     *
+     * <p>This is used by the {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline} to cull every
+     * {@link Viewport2D} from the same spatial grid. The items are added in the order they are drawn. Items in a
+     * static layer are skipped since the texture of the layer is drawn instead.</p>
+     *
+     * @param area    The area in the world.
+     * @param minSize The size in the world the larger side of an item must reach to be added.
+     * @param dest    The list to add the items to.
+     * @return The number of items which overlapped the area but were too small.
+     */
+    public int cull(Bounds2D area, float minSize, List<GameItem> dest) {
+        refresh();
+        int tooSmall = 0;
+        int found = query(area);
+        for (int i = 0; i < found; i++) {
+            int entry = results[i];
+            if (!drawn[entry]) continue;
+            int b = entry * 4;
+            if (!area.intersects(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3])) continue;
+            if (Math.max(bounds[b + 2] - bounds[b], bounds[b + 3] - bounds[b + 1]) < minSize) {
+                tooSmall++;
+                continue;
+            }
+            dest.add(items[entry]);
+        }
+        return tooSmall;
+    }
+
+    /**
+     * Find the entries whose cells overlap an area and store them in draw order.
+     *
+     * @param area The area in the world.
+     * @return The number of entries stored in the results.
+     */
+    private int query(Bounds2D area) {
+        int found = grid.queryArea(area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY());
+        if (found == 0) return 0;
+        long[] hits = this.hits;
+        int first = hits.length, last = -1;
+        for (int i = 0; i < found; i++) {
+            int position = positions[grid.getResult(i)];
+            int word = position >>> 6;
+            hits[word] |= 1L << position;
+            first = Math.min(first, word);
+            last = Math.max(last, word);
+        }
+        // The words are cleared while they are walked, so the bitmap is empty again for the next query.
+        int ordered = 0;
+        for (int word = first; word <= last; word++) {
+            long bits = hits[word];
+            hits[word] = 0;
+            while (bits != 0) {
+                results[ordered++] = entryAt[(word << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Test a world position against the local bounds of an entry.
+     *
+     * @param entry The entry.
+     * @param x     The x position in the world.
+     * @param y     The y position in the world.
+     * @return If the position is inside of the meshes.
+     */
+    private boolean containsLocal(int entry, float x, float y) {
+        int m = entry * 6;
+        float localX = inverse[m] * x + inverse[m + 2] * y + inverse[m + 4];
+        float localY = inverse[m + 1] * x + inverse[m + 3] * y + inverse[m + 5];
+        int b = entry * 4;
+        return localX >= localBounds[b] && localX <= localBounds[b + 2]
+                && localY >= localBounds[b + 1] && localY <= localBounds[b + 3];
+    }
+
+    /**
+     * Bring the spatial grid up to date with the items.
+     *
+     * <p>The grid is built from scratch if the picker was invalidated. Otherwise only the entries which changed are
+     * moved, unless so many changed that building it again is cheaper.</p>
+     */
+    private void refresh() {
+        DrawOrder2D drawOrder = handler.getDrawOrder();
+        if (drawOrder.getVersion() != orderVersion)
+            dirty = true;
+        if (!dirty && changedCount == 0)
+            return;
+        // Children may have moved with their parents since the last frame. The ones that did are marked as changed.
+        handler.getTransformHierarchy().update();
+        drawOrder.update();
+        if (dirty || changedCount * 2 > count || !updateChanged())
+            rebuild(drawOrder);
+        else if (drawOrder.getMoves() > 0)
+            placeDrawOrder(drawOrder);
+        for (int i = 0; i < changedCount; i++)
+            changed[changedEntries[i]] = false;
+        changedCount = 0;
+    }
+
+    /**
+     * Move the entries which changed to their new cells.
+     *
+     * @return If the grid is still usable. (False if it needs to be built from scratch).
+     */
+    private boolean updateChanged() {
+        for (int i = 0; i < changedCount; i++) {
+            int entry = changedEntries[i];
+            // Joining or leaving a static layer moves the item to another part of the draw order.
+            if (renderers[entry].getStaticLayer() != layers[entry])
+                return false;
+            measure(entry);
+            int b = entry * 4;
+            if (!grid.update(entry, bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]))
+                return false;
+        }
+        // Items outside of the area the grid was built for all end up in the cells on its border.
+        return grid.getOutsideCount() * 4 <= count;
+    }
+
+    /**
+     * Build the entries and the spatial grid from scratch.
+     */
+    private void rebuild(DrawOrder2D drawOrder) {
+        count = 0;
+        positionCount = 0;
+        // The same order as the Standard2DPipeline: background layers, normal items in their draw order, then
+        // foreground layers.
+        for (StaticLayer2D layer : handler.getStaticLayers()) {
+            if (layer.isForeground()) continue;
+            for (GameItem item : layer.getItems())
+                addEntry(item.getComponent(MeshRenderer2D.class), positionCount++);
+        }
+        drawOrderStart = positionCount;
+        positionCount += drawOrder.getCount();
+        ensurePositionCapacity(positionCount);
+        for (int i = 0; i < drawOrder.getCount(); i++) {
+            MeshRenderer2D renderer = drawOrder.getRenderer(i);
+            if (renderer.getStaticLayer() == null)
+                addEntry(renderer, drawOrderStart + i);
+            else
+                entryAt[drawOrderStart + i] = -1;
+        }
+        for (StaticLayer2D layer : handler.getStaticLayers()) {
+            if (!layer.isForeground()) continue;
+            for (GameItem item : layer.getItems())
+                addEntry(item.getComponent(MeshRenderer2D.class), positionCount++);
+        }
+        grid.build(bounds, count);
+        orderVersion = drawOrder.getVersion();
+        dirty = false;
+    }
+
+    /**
+     * Update the positions of the normal items after the draw order was repaired.
+     */
+    private void placeDrawOrder(DrawOrder2D drawOrder) {
+        for (int i = 0; i < drawOrder.getCount(); i++) {
+            int entry = entryOf(drawOrder.getRenderer(i));
+            int position = drawOrderStart + i;
+            if (entry != -1 && drawn[entry]) {
+                positions[entry] = position;
+                entryAt[position] = entry;
+            } else {
+                entryAt[position] = -1;
+            }
+        }
+    }
+
+    private int entryOf(MeshRenderer2D renderer) {
+        int entry = renderer.getPickerEntry();
+        return entry >= 0 && entry < count && renderers[entry] == renderer ? entry : -1;
+    }
+
+    private void addEntry(MeshRenderer2D renderer, int position) {
+        ensurePositionCapacity(position + 1);
+        if (renderer == null) {
+            entryAt[position] = -1;
+            return;
+        }
+        if (count == items.length) {
+            int capacity = items.length * 2;
+            items = Arrays.copyOf(items, capacity);
+            renderers = Arrays.copyOf(renderers, capacity);
+            layers = Arrays.copyOf(layers, capacity);
+            bounds = Arrays.copyOf(bounds, capacity * 4);
+            inverse = Arrays.copyOf(inverse, capacity * 6);
+            localBounds = Arrays.copyOf(localBounds, capacity * 4);
+            drawn = Arrays.copyOf(drawn, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            results = Arrays.copyOf(results, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+            changedEntries = Arrays.copyOf(changedEntries, capacity);
+        }
+
+        int entry = count++;
+        items[entry] = renderer.getGameItem();
+        renderers[entry] = renderer;
+        layers[entry] = renderer.getStaticLayer();
+        drawn[entry] = layers[entry] == null;
+        positions[entry] = position;
+        entryAt[position] = entry;
+        renderer.setPickerEntry(entry);
+        measure(entry);
+    }
+
+    private void ensurePositionCapacity(int capacity) {
+        if (capacity <= entryAt.length)
+            return;
+        entryAt = Arrays.copyOf(entryAt, Math.max(capacity, entryAt.length * 2));
+        hits = new long[(entryAt.length + 63) >>> 6];
+    }
+
+    /**
+     * Store the bounds and the inverse model matrix of an entry.
+     * <p>Entries which cannot be seen get empty bounds, which keeps them out of the grid.</p>
+     */
+    private void measure(int entry) {
+        MeshRenderer2D renderer = renderers[entry];
+        int b = entry * 4;
+        bounds[b] = Float.POSITIVE_INFINITY;
+        bounds[b + 1] = Float.POSITIVE_INFINITY;
+        bounds[b + 2] = Float.NEGATIVE_INFINITY;
+        bounds[b + 3] = Float.NEGATIVE_INFINITY;
+        if (!renderer.isVisible() || renderer.getMeshes() == null)
+            return;
+
+        Bounds2D local = tempBounds.reset();
+        for (IMesh mesh : renderer.getMeshes())
+            local.include(((Mesh2D) mesh).getLocalBounds());
+        if (local.isEmpty())
+            return;
+
+        Matrix4f model = renderer.getModelMatrix();
+        float m00 = model.m00(), m01 = model.m01(), m10 = model.m10(), m11 = model.m11();
+        float determinant = m00 * m11 - m10 * m01;
+        // Items with a scale of zero cannot be seen.
+        if (determinant == 0)
+            return;
+
+        localBounds[b] = local.getMinX();
+        localBounds[b + 1] = local.getMinY();
+        localBounds[b + 2] = local.getMaxX();
+        localBounds[b + 3] = local.getMaxY();
+
+        local.transform(model, local);
+        bounds[b] = local.getMinX();
+        bounds[b + 1] = local.getMinY();
+        bounds[b + 2] = local.getMaxX();
+        bounds[b + 3] = local.getMaxY();
+
+        float m30 = model.m30(), m31 = model.m31();
+        float inverseDeterminant = 1 / determinant;
+        int m = entry * 6;
+        inverse[m] = m11 * inverseDeterminant;
+        inverse[m + 1] = -m01 * inverseDeterminant;
+        inverse[m + 2] = -m10 * inverseDeterminant;
+        inverse[m + 3] = m00 * inverseDeterminant;
+        inverse[m + 4] = (m10 * m31 - m11 * m30) * inverseDeterminant;
+        inverse[m + 5] = (m01 * m30 - m00 * m31) * inverseDeterminant;
+    }
+}
@@ -0,0 +1,231 @@
+package org.kakara.engine2d;
+
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of 2D GameItems which are rendered once into a texture and then drawn as a single quad.
+ *
+ * <p>Static layers are designed for things like backgrounds and decorative layers which are made up of
+ * many items that never change. Instead of drawing every item each frame, the items are rendered into an offscreen
+ * framebuffer and the result is reused until one of the items changes.</p>
+ *
+ * <p>The cache is automatically invalidated when the transform, texture position, material or visibility of
+ * a member changes. If a member changes in a way that cannot be detected (such as modifying a texture directly)
+ * then {@link #invalidate()} can be called.</p>
+ *
+ * <p>Static layers are drawn before the other 2D GameItems in the order they were created, unless they are
+ * set as a foreground layer. Items in a static layer must still be added to the scene.</p>
+ *
+ * <code>
+ * StaticLayer2D background = getItem2DHandler().createStaticLayer();<br>
+ * background.add(gameItem);<br>
+ * add(gameItem);<br>
+ * </code>
+ */
+public class StaticLayer2D {
+    private final List<GameItem> items;
+    private final Bounds2D bounds;
+
+    private boolean dirty;
+    private boolean foreground;
+
+    private int framebufferId;
+    private int textureId;
+    private int textureWidth;
+    private int textureHeight;
+
+    /**
+     * Construct a static layer.
+     * <p>Use {@link Item2DHandler#createStaticLayer()} instead.</p>
+     */
+    StaticLayer2D() {
+        this.items = new ArrayList<>();
+        this.bounds = new Bounds2D();
+        this.dirty = true;
+    }
+
+    /**
+     * Add a 2D GameItem to the static layer.
+     *
+     * <p>An item can only belong to one static layer at a time. If it is already in a different layer
+     * it will be moved to this one.</p>
+     *
+     * @param item The item to add. (Must have a MeshRenderer2D).
+     */
+    public void add(GameItem item) {
+        MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+        if (renderer == null)
+            throw new IllegalStateException("GameItem does not have a 2D mesh renderer.");
+        if (renderer.getStaticLayer() == this)
+            return;
+        if (renderer.getStaticLayer() != null)
+            renderer.getStaticLayer().remove(item);
+        renderer.setStaticLayer(this);
+        items.add(item);
+        dirty = true;
+    }
+
+    /**
+     * Remove a 2D GameItem from the static layer.
+     * <p>The item will be rendered normally afterwards.</p>
+     *
+     * @param item The item to remove.
+     */
+    public void remove(GameItem item) {
+        if (!items.remove(item))
+            return;
+        MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+        if (renderer != null && renderer.getStaticLayer() == this)
+            renderer.setStaticLayer(null);
+        dirty = true;
+    }
+
+    /**
+     * Get the items in the static layer.
+     *
+     * @return The items in the layer. (Returns an unmodifiable list).
+     */
+    public List<GameItem> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Force the layer to be rendered again on the next frame.
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * Check if the cached texture of this layer is out of date.
+     *
+     * <p>Members mark the layer as dirty when they change. See {@link MeshRenderer2D#detectChanges(boolean)}.</p>
+     *
+     * @return If the layer needs to be rendered again.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Set if the layer should be drawn after the other 2D GameItems instead of before.
+     *
+     * @param foreground If the layer is in the foreground.
+     */
+    public void setForeground(boolean foreground) {
+        this.foreground = foreground;
+    }
+
+    /**
+     * Get if the layer is drawn after the other 2D GameItems.
+     *
+     * @return If the layer is in the foreground.
+     */
+    public boolean isForeground() {
+        return foreground;
+    }
+
+    /**
+     * Get the world space bounds of the layer from when it was last rendered.
+     * <p>The pipeline updates these bounds when the layer is rendered. They should not be modified otherwise.</p>
+     *
+     * @return The bounds of the layer.
+     */
+    public Bounds2D getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Make sure the framebuffer and texture exist and have the provided size.
+     * <p>Internal use only. This must be called on the main thread.</p>
+     *
+     * @param width  The width of the texture in pixels.
+     * @param height The height of the texture in pixels.
+     */
+    public void prepareTarget(int width, int height) {
+        if (framebufferId != 0 && width == textureWidth && height == textureHeight)
+            return;
+        deleteTarget();
+
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        textureId = backend.createRenderTexture(width, height);
+        GameEngine2D.getResourceRegistry().trackTexture(textureId, (long) width * height * 4);
+        framebufferId = backend.createFramebuffer(textureId);
+
+        textureWidth = width;
+        textureHeight = height;
+    }
+
+    /**
+     * Mark the cached texture as up to date.
+     * <p>Internal use only.</p>
+     */
+    public void markClean() {
+        this.dirty = false;
+    }
+
+    /**
+     * Get the id of the framebuffer the layer is rendered to.
+     *
+     * @return The framebuffer id. (0 if it has not been created).
+     */
+    public int getFramebufferId() {
+        return framebufferId;
+    }
+
+    /**
+     * Get the id of the texture that contains the rendered layer.
+     *
+     * @return The texture id. (0 if it has not been created).
+     */
+    public int getTextureId() {
+        return textureId;
+    }
+
+    /**
+     * Get the width of the cached texture.
+     *
+     * @return The width in pixels.
+     */
+    public int getTextureWidth() {
+        return textureWidth;
+    }
+
+    /**
+     * Get the height of the cached texture.
+     *
+     * @return The height in pixels.
+     */
+    public int getTextureHeight() {
+        return textureHeight;
+    }
+
+    /**
+     * Delete the framebuffer and texture of the layer.
+     * <p>The members of the layer are not touched. This must be called on the main thread.</p>
+     */
+    public void cleanUp() {
+        deleteTarget();
+        dirty = true;
+    }
+
+    private void deleteTarget() {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        if (framebufferId != 0)
+            backend.deleteFramebuffer(framebufferId);
+        if (textureId != 0) {
+            backend.deleteTexture(textureId);
+            GameEngine2D.getResourceRegistry().releaseTexture(textureId);
+        }
+        framebufferId = 0;
+        textureId = 0;
+        textureWidth = 0;
+        textureHeight = 0;
+    }
+}
@@ -0,0 +1,103 @@
+package org.kakara.engine2d;
+
+import org.kakara.engine2d.components.MeshRenderer2D;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Updates the world matrices of the 2D items which have a parent.
+ *
+ * <p>Only items which are part of a hierarchy (they have a parent or children) are tracked. They are kept in a flat
+ * array sorted by depth, so every parent comes before its children. Each update walks the array once from the top.
+ * An item's world matrix is only rebuilt when its own transform or the world matrix of its parent changed, so only
+ * the subtrees that moved are recalculated.</p>
+ *
+ * <p>The hierarchy is updated by the {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline} at the start of
+ * every frame. Use {@link Item2DHandler#getTransformHierarchy()} to get the instance of this class. This class must
+ * only be used on the main thread.</p>
+ */
+public class TransformHierarchy2D {
+    private final Set<MeshRenderer2D> members;
+    private MeshRenderer2D[] nodes;
+    private int[] parents;
+    private boolean[] changed;
+    private int count;
+    private boolean structureDirty;
+
+    TransformHierarchy2D() {
+        this.members = new LinkedHashSet<>();
+        this.nodes = new MeshRenderer2D[16];
+        this.parents = new int[16];
+        this.changed = new boolean[16];
+    }
+
+    /**
+     * Register a renderer whose parent or children changed.
+     * <p>This is for internal use only. It is called by {@link MeshRenderer2D#setParent(MeshRenderer2D)}.</p>
+     *
+     * @param renderer The renderer.
+     */
+    public void register(MeshRenderer2D renderer) {
+        members.add(renderer);
+        structureDirty = true;
+    }
+
+    /**
+     * Update the world matrices of every item in a hierarchy.
+     */
+    public void update() {
+        if (structureDirty)
+            rebuild();
+        MeshRenderer2D[] nodes = this.nodes;
+        int[] parents = this.parents;
+        boolean[] changed = this.changed;
+        for (int i = 0; i < count; i++) {
+            int parent = parents[i];
+            changed[i] = nodes[i].updateWorldMatrix(parent != -1 && changed[parent]);
+        }
+    }
+
+    /**
+     * Get the number of items which are part of a hierarchy.
+     *
+     * @return The number of items.
+     */
+    public int getSize() {
+        if (structureDirty)
+            rebuild();
+        return count;
+    }
+
+    /**
+     * Sort the members by depth into the flat array.
+     */
+    private void rebuild() {
+        members.removeIf(member -> member.getParent() == null && member.getChildren().isEmpty());
+        Arrays.fill(nodes, 0, count, null);
+        count = 0;
+        for (MeshRenderer2D member : members) {
+            if (member.getParent() == null)
+                append(member, -1);
+        }
+        // Breadth first, so the array is sorted by depth and parents are always before their children.
+        for (int i = 0; i < count; i++) {
+            for (MeshRenderer2D child : nodes[i].getChildren())
+                append(child, i);
+        }
+        structureDirty = false;
+    }
+
+    private void append(MeshRenderer2D renderer, int parent) {
+        if (count == nodes.length) {
+            int capacity = count * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+        }
+        nodes[count] = renderer;
+        parents[count] = parent;
+        count++;
+    }
+}
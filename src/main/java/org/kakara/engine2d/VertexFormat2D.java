@@ -0,0 +1,20 @@
+package org.kakara.engine2d;
+
+/**
+ * The way the vertices of a {@link Mesh2D} are stored on the GPU.
+ */
+public enum VertexFormat2D {
+    /**
+     * Positions and texture coordinates are 32 bit floats in separate buffers with 32 bit indices.
+     * <p>This is the default format.</p>
+     */
+    STANDARD,
+    /**
+     * Positions and texture coordinates are interleaved in one buffer using smaller types.
+     *
+     * <p>Positions use half floats when they can be stored precisely enough, texture coordinates use normalized
+     * unsigned shorts when they are between 0 and 1, and indices are 16 bit when there are less than 65536
+     * vertices. See {@link VertexPacker2D} for more information.</p>
+     */
+    PACKED
+}
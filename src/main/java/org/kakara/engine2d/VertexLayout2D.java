@@ -0,0 +1,139 @@
+package org.kakara.engine2d;
+
+/**
+ * Describes how the vertices of a mesh are packed by the {@link VertexPacker2D}.
+ *
+ * <p>The vertices are interleaved as <code>position.x, position.y, texture.x, texture.y</code>. The GL types
+ * of each attribute are chosen by the packer based upon the data.</p>
+ */
+public final class VertexLayout2D {
+    private final int vertexCount;
+    private final int indexCount;
+    private final int positionType;
+    private final int textureType;
+    private final int indexType;
+    private final int positionBytes;
+    private final int textureBytes;
+    private final int indexBytes;
+
+    /**
+     * Construct a vertex layout.
+     * <p>Use {@link VertexPacker2D#layout(float[], float[], int[])} instead.</p>
+     *
+     * @param vertexCount   The number of vertices.
+     * @param indexCount    The number of indices.
+     * @param positionType  The GL type of the position components.
+     * @param positionBytes The size of a position component in bytes.
+     * @param textureType   The GL type of the texture coordinate components.
+     * @param textureBytes  The size of a texture coordinate component in bytes.
+     * @param indexType     The GL type of the indices.
+     * @param indexBytes    The size of an index in bytes.
+     */
+    VertexLayout2D(int vertexCount, int indexCount, int positionType, int positionBytes, int textureType,
+                   int textureBytes, int indexType, int indexBytes) {
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+        this.positionType = positionType;
+        this.positionBytes = positionBytes;
+        this.textureType = textureType;
+        this.textureBytes = textureBytes;
+        this.indexType = indexType;
+        this.indexBytes = indexBytes;
+    }
+
+    /**
+     * Get the number of vertices.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Get the number of indices.
+     *
+     * @return The number of indices.
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Get the GL type of the position components.
+     *
+     * @return GL_HALF_FLOAT or GL_FLOAT.
+     */
+    public int getPositionType() {
+        return positionType;
+    }
+
+    /**
+     * Get the GL type of the texture coordinate components.
+     *
+     * @return GL_UNSIGNED_SHORT (normalized) or GL_FLOAT.
+     */
+    public int getTextureType() {
+        return textureType;
+    }
+
+    /**
+     * Get if the texture coordinates are normalized integers.
+     *
+     * @return If the texture coordinates are normalized.
+     */
+    public boolean isTextureNormalized() {
+        return textureBytes == 2;
+    }
+
+    /**
+     * Get the GL type of the indices.
+     *
+     * @return GL_UNSIGNED_SHORT or GL_UNSIGNED_INT.
+     */
+    public int getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Get the number of bytes between two vertices.
+     *
+     * @return The stride in bytes.
+     */
+    public int getStride() {
+        return (positionBytes + textureBytes) * 2;
+    }
+
+    /**
+     * Get the offset of the texture coordinates from the start of a vertex.
+     *
+     * @return The offset in bytes.
+     */
+    public int getTextureOffset() {
+        return positionBytes * 2;
+    }
+
+    /**
+     * Get the size of the packed vertex data.
+     *
+     * @return The size in bytes.
+     */
+    public int getVertexBytes() {
+        return vertexCount * getStride();
+    }
+
+    /**
+     * Get the size of the packed index data.
+     *
+     * @return The size in bytes.
+     */
+    public int getIndexBytes() {
+        return indexCount * indexBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "VertexLayout2D{vertices=" + vertexCount + ", indices=" + indexCount + ", stride=" + getStride()
+                + ", indexBytes=" + indexBytes + "}";
+    }
+}
@@ -0,0 +1,214 @@
+package org.kakara.engine2d;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Packs the vertices of a mesh into the compact {@link VertexFormat2D#PACKED} format.
+ *
+ * <p>The packer only works with arrays and {@link ByteBuffer}s, so it does not need an OpenGL context. First
+ * {@link #layout(float[], float[], int[])} decides which types can be used, then the vertices and indices are
+ * written with {@link #writeVertices(VertexLayout2D, float[], float[], ByteBuffer)} and
+ * {@link #writeIndices(VertexLayout2D, int[], ByteBuffer)}.</p>
+ *
+ * <ul>
+ *     <li>Positions are stored as half floats if every value can be converted back within the max position error.
+ *     Otherwise they are stored as floats.</li>
+ *     <li>Texture coordinates are stored as normalized unsigned shorts if every value is between 0 and 1.
+ *     Otherwise they are stored as floats.</li>
+ *     <li>Indices are stored as unsigned shorts if there are less than 65536 vertices.</li>
+ * </ul>
+ *
+ * <p>A packed quad uses 44 bytes instead of the 88 bytes of the standard format.</p>
+ *
+ * <code>
+ * VertexPacker2D packer = new VertexPacker2D();<br>
+ * VertexLayout2D layout = packer.layout(vertices, textures, indices);<br>
+ * ByteBuffer buffer = ByteBuffer.allocateDirect(layout.getVertexBytes()).order(ByteOrder.nativeOrder());<br>
+ * packer.writeVertices(layout, vertices, textures, buffer);<br>
+ * </code>
+ */
+public final class VertexPacker2D {
+    /**
+     * The default max difference between a position and its half float value.
+     */
+    public static final float DEFAULT_MAX_POSITION_ERROR = 1 / 1024f;
+
+    private final float maxPositionError;
+
+    /**
+     * Construct a packer with the default max position error.
+     */
+    public VertexPacker2D() {
+        this(DEFAULT_MAX_POSITION_ERROR);
+    }
+
+    /**
+     * Construct a packer.
+     *
+     * @param maxPositionError The max difference between a position and its half float value.
+     *                         (Use a negative value to never use half floats).
+     */
+    public VertexPacker2D(float maxPositionError) {
+        this.maxPositionError = maxPositionError;
+    }
+
+    /**
+     * Decide how the data of a mesh will be packed.
+     *
+     * @param positions The position values. (2 per vertex).
+     * @param textures  The texture coordinates. (2 per vertex).
+     * @param indices   The indices.
+     * @return The layout of the packed data.
+     */
+    public VertexLayout2D layout(float[] positions, float[] textures, int[] indices) {
+        if (positions.length % 2 != 0)
+            throw new IllegalArgumentException("The positions must have 2 values per vertex.");
+        if (textures.length != positions.length)
+            throw new IllegalArgumentException("There must be the same number of texture coordinates as positions.");
+        int vertexCount = positions.length / 2;
+
+        boolean halfPositions = maxPositionError >= 0;
+        for (int i = 0; i < positions.length && halfPositions; i++) {
+            float value = positions[i];
+            halfPositions = Math.abs(halfToFloat(floatToHalf(value)) - value) <= maxPositionError;
+        }
+
+        boolean normalizedTextures = true;
+        for (int i = 0; i < textures.length && normalizedTextures; i++)
+            normalizedTextures = textures[i] >= 0 && textures[i] <= 1;
+
+        boolean shortIndices = vertexCount < 65536;
+        for (int i = 0; i < indices.length && shortIndices; i++)
+            shortIndices = indices[i] >= 0 && indices[i] < 65536;
+
+        return new VertexLayout2D(vertexCount, indices.length,
+                halfPositions ? GL_HALF_FLOAT : GL_FLOAT, halfPositions ? 2 : 4,
+                normalizedTextures ? GL_UNSIGNED_SHORT : GL_FLOAT, normalizedTextures ? 2 : 4,
+                shortIndices ? GL_UNSIGNED_SHORT : GL_UNSIGNED_INT, shortIndices ? 2 : 4);
+    }
+
+    /**
+     * Write the interleaved vertices into a buffer.
+     *
+     * <p>The values are written starting at the position of the buffer using the byte order of the buffer. Buffers
+     * given to OpenGL must use the native byte order.</p>
+     *
+     * @param layout    The layout from {@link #layout(float[], float[], int[])}.
+     * @param positions The position values.
+     * @param textures  The texture coordinates.
+     * @param dest      The buffer to write to. (Must have {@link VertexLayout2D#getVertexBytes()} remaining).
+     * @return The destination buffer.
+     */
+    public ByteBuffer writeVertices(VertexLayout2D layout, float[] positions, float[] textures, ByteBuffer dest) {
+        boolean halfPositions = layout.getPositionType() == GL_HALF_FLOAT;
+        boolean normalizedTextures = layout.isTextureNormalized();
+        for (int vertex = 0; vertex < layout.getVertexCount(); vertex++) {
+            int i = vertex * 2;
+            if (halfPositions) {
+                dest.putShort(floatToHalf(positions[i]));
+                dest.putShort(floatToHalf(positions[i + 1]));
+            } else {
+                dest.putFloat(positions[i]);
+                dest.putFloat(positions[i + 1]);
+            }
+            if (normalizedTextures) {
+                dest.putShort(toUnsignedNormalized(textures[i]));
+                dest.putShort(toUnsignedNormalized(textures[i + 1]));
+            } else {
+                dest.putFloat(textures[i]);
+                dest.putFloat(textures[i + 1]);
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * Write the indices into a buffer.
+     *
+     * @param layout  The layout from {@link #layout(float[], float[], int[])}.
+     * @param indices The indices.
+     * @param dest    The buffer to write to. (Must have {@link VertexLayout2D#getIndexBytes()} remaining).
+     * @return The destination buffer.
+     */
+    public ByteBuffer writeIndices(VertexLayout2D layout, int[] indices, ByteBuffer dest) {
+        if (layout.getIndexType() == GL_UNSIGNED_SHORT) {
+            for (int index : indices)
+                dest.putShort((short) index);
+        } else {
+            for (int index : indices)
+                dest.putInt(index);
+        }
+        return dest;
+    }
+
+    /**
+     * Convert a float to a half float using round to nearest even.
+     *
+     * @param value The float value.
+     * @return The bits of the half float.
+     */
+    public static short floatToHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xff;
+        int mantissa = bits & 0x7fffff;
+
+        if (exponent == 0xff)
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        int halfExponent = exponent - 127 + 15;
+        if (halfExponent >= 0x1f)
+            return (short) (sign | 0x7c00);
+        if (halfExponent <= 0) {
+            // Subnormal half float.
+            if (halfExponent < -10)
+                return (short) sign;
+            mantissa |= 0x800000;
+            int shift = 14 - halfExponent;
+            int half = mantissa >> shift;
+            int remainder = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (half & 1) != 0))
+                half++;
+            return (short) (sign | half);
+        }
+
+        int half = (halfExponent << 10) | (mantissa >> 13);
+        int remainder = mantissa & 0x1fff;
+        // Rounding may carry into the exponent, which is still the correct result.
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0))
+            half++;
+        return (short) (sign | half);
+    }
+
+    /**
+     * Convert a half float to a float.
+     *
+     * @param half The bits of the half float.
+     * @return The float value.
+     */
+    public static float halfToFloat(short half) {
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+        if (exponent == 0) {
+            float value = mantissa / 16777216f;
+            return sign != 0 ? -value : value;
+        }
+        if (exponent == 0x1f)
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Convert a value between 0 and 1 to a normalized unsigned short.
+     *
+     * @param value The value. (Clamped between 0 and 1).
+     * @return The bits of the unsigned short.
+     */
+    public static short toUnsignedNormalized(float value) {
+        return (short) Math.round(Math.max(0, Math.min(1, value)) * 65535);
+    }
+}
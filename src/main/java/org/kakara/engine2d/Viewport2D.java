@@ -0,0 +1,190 @@
+package org.kakara.engine2d;
+
+import java.util.Objects;
+
+/**
+ * An area of the window which shows the 2D world from a {@link Camera2D}.
+ *
+ * <p>Every {@link Abstract2DScene} starts with one viewport which covers the whole window and uses the main camera.
+ * More viewports can be added for split screen or a minimap. The viewports are drawn in the order they were added,
+ * so later viewports are drawn on top of earlier ones.</p>
+ *
+ * <p>All viewports share the spatial grid of the {@link Picker2D}. Each viewport runs its own query on it for the
+ * area it can see, so it only draws the items which overlap that area.</p>
+ *
+ * <code>
+ * Camera2D minimapCamera = new Camera2D();<br>
+ * Viewport2D minimap = new Viewport2D(minimapCamera, 0.75f, 0, 0.25f, 0.25f);<br>
+ * minimap.setZoom(0.1f);<br>
+ * minimap.setMinPixelSize(2);<br>
+ * addViewport(minimap);<br>
+ * </code>
+ */
+public class Viewport2D {
+    private Camera2D camera;
+    private float x;
+    private float y;
+    private float width;
+    private float height;
+    private float zoom = 1;
+    private float minPixelSize;
+    private boolean enabled = true;
+
+    /**
+     * Construct a viewport which covers the whole window.
+     *
+     * @param camera The camera of the viewport.
+     */
+    public Viewport2D(Camera2D camera) {
+        this(camera, 0, 0, 1, 1);
+    }
+
+    /**
+     * Construct a viewport.
+     *
+     * <p>The area is a fraction of the window, where (0, 0) is the top left and (1, 1) is the bottom right.</p>
+     *
+     * @param camera The camera of the viewport.
+     * @param x      The left of the viewport. (0 - 1).
+     * @param y      The top of the viewport. (0 - 1).
+     * @param width  The width of the viewport. (0 - 1).
+     * @param height The height of the viewport. (0 - 1).
+     */
+    public Viewport2D(Camera2D camera, float x, float y, float width, float height) {
+        this.camera = Objects.requireNonNull(camera);
+        setArea(x, y, width, height);
+    }
+
+    /**
+     * Set the area of the window the viewport covers.
+     *
+     * @param x      The left of the viewport. (0 - 1).
+     * @param y      The top of the viewport. (0 - 1).
+     * @param width  The width of the viewport. (0 - 1).
+     * @param height The height of the viewport. (0 - 1).
+     */
+    public void setArea(float x, float y, float width, float height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The size of a viewport must be greater than 0.");
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the left of the viewport.
+     *
+     * @return The left as a fraction of the window.
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Get the top of the viewport.
+     *
+     * @return The top as a fraction of the window.
+     */
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Get the width of the viewport.
+     *
+     * @return The width as a fraction of the window.
+     */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the viewport.
+     *
+     * @return The height as a fraction of the window.
+     */
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * Set the camera of the viewport.
+     *
+     * @param camera The camera.
+     */
+    public void setCamera(Camera2D camera) {
+        this.camera = Objects.requireNonNull(camera);
+    }
+
+    /**
+     * Get the camera of the viewport.
+     *
+     * @return The camera.
+     */
+    public Camera2D getCamera() {
+        return camera;
+    }
+
+    /**
+     * Set the zoom of the viewport.
+     *
+     * <p>At a zoom of 1, the viewport shows the same amount of the world per pixel as the main viewport. A zoom of
+     * 0.5 shows twice as much of the world.</p>
+     *
+     * @param zoom The zoom. (Must be greater than 0).
+     */
+    public void setZoom(float zoom) {
+        if (zoom <= 0)
+            throw new IllegalArgumentException("The zoom of a viewport must be greater than 0.");
+        this.zoom = zoom;
+    }
+
+    /**
+     * Get the zoom of the viewport.
+     *
+     * @return The zoom.
+     */
+    public float getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Set the smallest size in pixels an item must be on the screen to be drawn.
+     *
+     * <p>This lowers the level of detail of zoomed out viewports (such as a minimap) by skipping items which would
+     * only cover a few pixels. Items are tested using the larger side of their bounds.</p>
+     *
+     * @param minPixelSize The size in pixels. (0 to draw every item).
+     */
+    public void setMinPixelSize(float minPixelSize) {
+        this.minPixelSize = Math.max(0, minPixelSize);
+    }
+
+    /**
+     * Get the smallest size in pixels an item must be on the screen to be drawn.
+     *
+     * @return The size in pixels.
+     */
+    public float getMinPixelSize() {
+        return minPixelSize;
+    }
+
+    /**
+     * Set if the viewport is drawn.
+     *
+     * @param enabled If the viewport is drawn.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get if the viewport is drawn.
+     *
+     * @return If the viewport is drawn.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -46,7 +46,7 @@ public class SpriteAnimation {
     private final List<Integer> sprites;
     private final String name;
     private int currentID;
-    private float currentTime;
+    private double currentTime;
     private float timeBetweenFrames = 0.5f;
 
     private GameItem gameItem;
@@ -107,13 +107,12 @@ public class SpriteAnimation {
     }
 
     /**
-     * Change to the next frame.
+     * Move forward a number of frames.
+     *
+     * @param frames The number of frames to move forward.
      */
-    private void nextSprite() {
-        if (currentID + 1 >= sprites.size())
-            currentID = 0;
-        else
-            currentID++;
+    private void advance(long frames) {
+        currentID = (int) ((currentID + frames) % sprites.size());
 
         if (gameItem == null)
             return;
@@ -126,12 +125,33 @@ public class SpriteAnimation {
      * <p>Internal use only.</p>
      */
     public void update() {
-        currentTime += Time.getDeltaTime();
+        update(Time.getDeltaTime());
+    }
+
+    /**
+     * Update the animation by the provided amount of time.
+     *
+     * <p>Any amount of time can be passed in. The animation jumps straight to the frame it would be on if it had been
+     * updated the whole time, so an animation which was not updated for a while (such as one that was off-screen)
+     * does not fall out of sync.</p>
+     * <p>Internal use only.</p>
+     *
+     * @param deltaTime The time that has passed since the last update.
+     */
+    public void update(double deltaTime) {
+        currentTime += deltaTime;
 
-        if (currentTime >= timeBetweenFrames) {
+        if (currentTime < timeBetweenFrames || sprites.isEmpty())
+            return;
+        if (timeBetweenFrames <= 0) {
             currentTime = 0;
-            nextSprite();
+            advance(1);
+            return;
         }
+        long frames = (long) (currentTime / timeBetweenFrames);
+        // The leftover time is kept so the frames stay in step with the total time.
+        currentTime = Math.max(0, currentTime - frames * timeBetweenFrames);
+        advance(frames);
     }
 
     /**
@@ -0,0 +1,406 @@
+package org.kakara.engine2d.budget;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the frames of a scene within a time budget by reducing optional work while it is over budget.
+ *
+ * <p>The update, render and present time of every frame is recorded in a rolling window. Only the update and render
+ * time is compared against the budget, since the present time includes waiting for vsync, which would make an idle
+ * scene look like it is over budget. Once a whole window averages more work than the budget, the quality level goes
+ * up by one. Once the average has stayed below a fraction of the budget for a number of frames, the level goes back
+ * down by one. The window is cleared after every change, so
+ * the next decision is only made from frames at the new level. Going up is quick while going back down is slow,
+ * which stops the level from bouncing between two values.</p>
+ *
+ * <p>Level 0 is full quality. What each level turns off is decided by the game through
+ * {@link #addListener(FrameBudgetListener2D)}, {@link #getQualityScale()} and {@link #getAnimationInterval()}. When
+ * the controller is set on an {@link org.kakara.engine2d.Abstract2DScene}, the scene records the frames and stops
+ * drawing debug shapes at {@link #getDebugShapesLevel()} and above.</p>
+ *
+ * <p>Timings can also be recorded by hand with {@link #recordFrame(long, long, long)}, so a policy can be checked
+ * with synthetic frames. This class must only be used on the main thread.</p>
+ *
+ * <code>
+ * FrameBudgetController2D budget = new FrameBudgetController2D(60);<br>
+ * budget.addListener((previous, level) -&gt; particles.setMaxParticles((int) (5000 * budget.getQualityScale())));<br>
+ * scene.setFrameBudget(budget);<br>
+ * </code>
+ */
+public class FrameBudgetController2D {
+    private final List<FrameBudgetListener2D> listeners = new CopyOnWriteArrayList<>();
+
+    private long budgetNanos;
+    private int maxLevel = 3;
+    private float restoreThreshold = 0.75f;
+    private int restoreFrames = 120;
+    private int debugShapesLevel = 1;
+
+    private long[] updateTimes;
+    private long[] renderTimes;
+    private long[] presentTimes;
+    private int index;
+    private int samples;
+    private long updateSum;
+    private long renderSum;
+    private long presentSum;
+
+    private int level;
+    private int framesUnder;
+    private long frames;
+    private long levelChanges;
+
+    /**
+     * Construct a controller with a window of 30 frames.
+     *
+     * @param targetFrameRate The number of frames per second to keep up.
+     */
+    public FrameBudgetController2D(int targetFrameRate) {
+        if (targetFrameRate <= 0)
+            throw new IllegalArgumentException("The target frame rate must be greater than 0.");
+        this.budgetNanos = 1_000_000_000L / targetFrameRate;
+        setWindowSize(30);
+    }
+
+    /**
+     * Record the timings of a frame and change the quality level if needed.
+     * <p>This is called by the scene at the end of every frame.</p>
+     *
+     * @param updateNanos  The time spent updating the frame.
+     * @param renderNanos  The time spent rendering the frame.
+     * @param presentNanos The rest of the time the frame took, such as swapping the buffers of the window. (This is
+     *                     only recorded, it does not change the level).
+     */
+    public void recordFrame(long updateNanos, long renderNanos, long presentNanos) {
+        frames++;
+        if (samples == updateTimes.length) {
+            updateSum -= updateTimes[index];
+            renderSum -= renderTimes[index];
+            presentSum -= presentTimes[index];
+        } else {
+            samples++;
+        }
+        updateTimes[index] = updateNanos;
+        renderTimes[index] = renderNanos;
+        presentTimes[index] = presentNanos;
+        updateSum += updateNanos;
+        renderSum += renderNanos;
+        presentSum += presentNanos;
+        index = (index + 1) % updateTimes.length;
+
+        long average = getAverageWorkNanos();
+        framesUnder = average < budgetNanos * restoreThreshold ? framesUnder + 1 : 0;
+        if (samples == updateTimes.length && average > budgetNanos) {
+            if (level < maxLevel)
+                changeLevel(level + 1);
+        } else if (framesUnder >= restoreFrames && level > 0) {
+            changeLevel(level - 1);
+        }
+    }
+
+    private void changeLevel(int newLevel) {
+        int previous = level;
+        level = newLevel;
+        levelChanges++;
+        clearWindow();
+        for (FrameBudgetListener2D listener : listeners)
+            listener.onLevelChanged(previous, newLevel);
+    }
+
+    private void clearWindow() {
+        index = 0;
+        samples = 0;
+        updateSum = 0;
+        renderSum = 0;
+        presentSum = 0;
+        framesUnder = 0;
+    }
+
+    /**
+     * Set the quality level, no matter what the timings are.
+     * <p>The listeners are notified if the level changed.</p>
+     *
+     * @param level The level. (0 to {@link #getMaxLevel()}).
+     */
+    public void setLevel(int level) {
+        if (level < 0 || level > maxLevel)
+            throw new IllegalArgumentException("The level must be between 0 and " + maxLevel + ".");
+        if (level != this.level)
+            changeLevel(level);
+    }
+
+    /**
+     * Get the current quality level.
+     *
+     * @return The level. (0 is full quality).
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Set the highest quality level.
+     * <p>This is 3 by default.</p>
+     *
+     * @param maxLevel The highest level.
+     */
+    public void setMaxLevel(int maxLevel) {
+        if (maxLevel < 0)
+            throw new IllegalArgumentException("The max level cannot be negative.");
+        this.maxLevel = maxLevel;
+        if (level > maxLevel)
+            changeLevel(maxLevel);
+    }
+
+    /**
+     * Get the highest quality level.
+     *
+     * @return The highest level.
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Get the fraction of optional work that should be done at the current level.
+     *
+     * <p>This goes from 1 at level 0 down to <code>1 / (maxLevel + 1)</code> at the highest level. Use it to scale
+     * things like the number of particles.</p>
+     *
+     * @return The quality scale.
+     */
+    public float getQualityScale() {
+        return 1 - (float) level / (maxLevel + 1);
+    }
+
+    /**
+     * Get the number of frames between updates of animations.
+     *
+     * <p>When the controller is set on a scene, on-screen sprite animations update once every interval frames and the
+     * interval of {@link org.kakara.engine2d.Item2DHandler#setOffscreenAnimationInterval(int)} is multiplied by it.
+     * Off-screen animations with an interval of 0 are already paused, so they stay paused.</p>
+     *
+     * @return The interval, which doubles with every level. (1 at level 0).
+     */
+    public int getAnimationInterval() {
+        return 1 << Math.min(level, 30);
+    }
+
+    /**
+     * Set the level at which the scene stops drawing debug shapes.
+     * <p>This is 1 by default.</p>
+     *
+     * @param debugShapesLevel The level.
+     */
+    public void setDebugShapesLevel(int debugShapesLevel) {
+        this.debugShapesLevel = debugShapesLevel;
+    }
+
+    /**
+     * Get the level at which the scene stops drawing debug shapes.
+     *
+     * @return The level.
+     */
+    public int getDebugShapesLevel() {
+        return debugShapesLevel;
+    }
+
+    /**
+     * Check if debug shapes should be drawn at the current level.
+     *
+     * @return If debug shapes should be drawn.
+     */
+    public boolean isDebugShapesEnabled() {
+        return level < debugShapesLevel;
+    }
+
+    /**
+     * Set the time each frame is allowed to take.
+     *
+     * @param budgetNanos The budget in nanoseconds.
+     */
+    public void setBudgetNanos(long budgetNanos) {
+        if (budgetNanos <= 0)
+            throw new IllegalArgumentException("The budget must be greater than 0.");
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Get the time each frame is allowed to take.
+     *
+     * @return The budget in nanoseconds.
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Set the number of frames which are averaged.
+     * <p>The recorded frames are cleared. This is 30 by default.</p>
+     *
+     * @param windowSize The number of frames.
+     */
+    public void setWindowSize(int windowSize) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("The window size must be greater than 0.");
+        updateTimes = new long[windowSize];
+        renderTimes = new long[windowSize];
+        presentTimes = new long[windowSize];
+        clearWindow();
+    }
+
+    /**
+     * Get the number of frames which are averaged.
+     *
+     * @return The number of frames.
+     */
+    public int getWindowSize() {
+        return updateTimes.length;
+    }
+
+    /**
+     * Set the fraction of the budget the average work must stay below before the level goes back down.
+     * <p>This is 0.75 by default.</p>
+     *
+     * @param restoreThreshold The fraction of the budget. (Between 0 and 1).
+     */
+    public void setRestoreThreshold(float restoreThreshold) {
+        if (restoreThreshold <= 0 || restoreThreshold > 1)
+            throw new IllegalArgumentException("The restore threshold must be between 0 and 1.");
+        this.restoreThreshold = restoreThreshold;
+    }
+
+    /**
+     * Get the fraction of the budget the average must stay below before the level goes back down.
+     *
+     * @return The fraction of the budget.
+     */
+    public float getRestoreThreshold() {
+        return restoreThreshold;
+    }
+
+    /**
+     * Set the number of frames in a row the average must be below the restore threshold before the level goes back
+     * down.
+     * <p>This is 120 by default.</p>
+     *
+     * @param restoreFrames The number of frames.
+     */
+    public void setRestoreFrames(int restoreFrames) {
+        if (restoreFrames <= 0)
+            throw new IllegalArgumentException("The restore frames must be greater than 0.");
+        this.restoreFrames = restoreFrames;
+    }
+
+    /**
+     * Get the number of frames in a row the average must be below the restore threshold before the level goes back
+     * down.
+     *
+     * @return The number of frames.
+     */
+    public int getRestoreFrames() {
+        return restoreFrames;
+    }
+
+    /**
+     * Get the average time of the frames in the window.
+     *
+     * @return The average update, render and present time in nanoseconds. (0 if no frames were recorded).
+     */
+    public long getAverageFrameNanos() {
+        return samples == 0 ? 0 : (updateSum + renderSum + presentSum) / samples;
+    }
+
+    /**
+     * Get the average time the frames in the window spent updating and rendering.
+     * <p>This is what is compared against the budget.</p>
+     *
+     * @return The average update and render time in nanoseconds. (0 if no frames were recorded).
+     */
+    public long getAverageWorkNanos() {
+        return samples == 0 ? 0 : (updateSum + renderSum) / samples;
+    }
+
+    /**
+     * Get the average update time of the frames in the window.
+     *
+     * @return The time in nanoseconds. (0 if no frames were recorded).
+     */
+    public long getAverageUpdateNanos() {
+        return samples == 0 ? 0 : updateSum / samples;
+    }
+
+    /**
+     * Get the average render time of the frames in the window.
+     *
+     * @return The time in nanoseconds. (0 if no frames were recorded).
+     */
+    public long getAverageRenderNanos() {
+        return samples == 0 ? 0 : renderSum / samples;
+    }
+
+    /**
+     * Get the average present time of the frames in the window.
+     *
+     * @return The time in nanoseconds. (0 if no frames were recorded).
+     */
+    public long getAveragePresentNanos() {
+        return samples == 0 ? 0 : presentSum / samples;
+    }
+
+    /**
+     * Get the number of frames in the window.
+     *
+     * @return The number of frames recorded since the window was last cleared.
+     */
+    public int getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Get the number of frames which were recorded.
+     *
+     * @return The number of frames.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Get the number of times the level changed.
+     *
+     * @return The number of level changes.
+     */
+    public long getLevelChanges() {
+        return levelChanges;
+    }
+
+    /**
+     * Add a listener which is notified when the level changes.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(FrameBudgetListener2D listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(FrameBudgetListener2D listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Go back to level 0 and clear the recorded frames.
+     * <p>The listeners are notified if the level changed.</p>
+     */
+    public void reset() {
+        if (level != 0)
+            changeLevel(0);
+        clearWindow();
+    }
+}
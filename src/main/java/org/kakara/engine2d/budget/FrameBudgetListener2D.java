@@ -0,0 +1,15 @@
+package org.kakara.engine2d.budget;
+
+/**
+ * Receives the decisions of a {@link FrameBudgetController2D}.
+ */
+@FunctionalInterface
+public interface FrameBudgetListener2D {
+    /**
+     * Called on the main thread when the quality level changes.
+     *
+     * @param previousLevel The previous level.
+     * @param level         The new level. (0 is full quality, higher levels do less optional work).
+     */
+    void onLevelChanged(int previousLevel, int level);
+}
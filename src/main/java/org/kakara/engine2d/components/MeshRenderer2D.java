@@ -1,10 +1,23 @@
 package org.kakara.engine2d.components;
 
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
 import org.kakara.engine.GameHandler;
 import org.kakara.engine.components.Component;
+import org.kakara.engine.gameitems.Transform;
 import org.kakara.engine.gameitems.mesh.IMesh;
+import org.kakara.engine.math.Vector3;
 import org.kakara.engine2d.Abstract2DScene;
+import org.kakara.engine2d.DynamicMesh2D;
+import org.kakara.engine2d.Material2D;
+import org.kakara.engine2d.Mesh2D;
+import org.kakara.engine2d.StaticLayer2D;
+import org.kakara.engine2d.TransformHierarchy2D;
+import org.kakara.engine2d.renderpipeline.Standard2DPipeline;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -20,11 +33,50 @@ import java.util.Objects;
  *     MeshRenderer2D renderer = gameItem.addComponent(MeshRenderer2D.class);<br>
  *     renderer.setMesh(mesh2D);
  * </code>
+ *
+ * <p>The renderer caches the model matrix of the GameItem. The matrix is only rebuilt when the position, rotation
+ * or scale of the transform has changed since it was last built.</p>
+ *
+ * <h2>Parenting</h2>
+ * <p>A renderer can be given a parent with {@link #setParent(MeshRenderer2D)}. The transform of the GameItem is then
+ * relative to the parent, so moving the parent moves all of its children. The world matrices of children are updated
+ * once per frame by the {@link TransformHierarchy2D} of the scene.</p>
+ *
+ * <code>
+ *     MeshRenderer2D hat = hatItem.addComponent(MeshRenderer2D.class);<br>
+ *     hat.setParent(player.getComponent(MeshRenderer2D.class));<br>
+ *     hatItem.transform.setPosition(0, -40, 0); // 40 units above the player.
+ * </code>
  */
 public class MeshRenderer2D extends Component {
     private IMesh[] mesh;
     private boolean visible = true;
+    private long lastVisibleFrame;
+    private int sortingLayer;
+    private float sortOffsetY;
     private Abstract2DScene currentScene;
+    private StaticLayer2D staticLayer;
+    private int pickerEntry = -1;
+
+    private final Matrix4f localMatrix = new Matrix4f();
+    // The transform values the local matrix was built from.
+    private final float[] builtTransform = new float[8];
+    private boolean transformDirty = true;
+    private int localVersion;
+    private int transformVersion;
+
+    private MeshRenderer2D parent;
+    private final List<MeshRenderer2D> children = new ArrayList<>();
+    private final Matrix4f worldMatrix = new Matrix4f();
+    private int worldLocalVersion = -1;
+    private boolean worldDirty;
+
+    // What the item looked like the last time it was checked for changes.
+    private boolean changed = true;
+    private int seenTransformVersion = -1;
+    private int seenTextPos;
+    private Material2D[] seenMaterials;
+    private int[] seenMeshVersions;
 
     @Override
     public void start() {
@@ -34,10 +86,14 @@ public class MeshRenderer2D extends Component {
         if (Objects.requireNonNull(currentScene.getItemHandler()).containsItem(getGameItem()))
             currentScene.getItemHandler().removeItem(getGameItem());
         currentScene.getItem2DHandler().addItem(getGameItem());
+        if (parent != null || !children.isEmpty())
+            currentScene.getItem2DHandler().getTransformHierarchy().register(this);
     }
 
     @Override
     public void onRemove() {
+        if (staticLayer != null)
+            staticLayer.remove(getGameItem());
         currentScene.getItem2DHandler().removeItem(getGameItem());
         Objects.requireNonNull(currentScene.getItemHandler()).addItem(getGameItem());
     }
@@ -57,6 +113,7 @@ public class MeshRenderer2D extends Component {
 
     /**
      * Set the mesh for the component.
+     * <p>The previous meshes are cleaned up. Their textures are not deleted.</p>
      *
      * @param mesh The mesh to set.
      */
@@ -66,10 +123,12 @@ public class MeshRenderer2D extends Component {
             this.mesh[0].cleanUp();
         this.mesh = new IMesh[1];
         this.mesh[0] = mesh;
+        markChanged();
     }
 
     /**
      * Set the meshes for the component.
+     * <p>The previous meshes are cleaned up. Their textures are not deleted.</p>
      *
      * @param mesh The array of meshes to set.
      */
@@ -79,6 +138,7 @@ public class MeshRenderer2D extends Component {
             for (IMesh m : this.mesh)
                 m.cleanUp();
         this.mesh = mesh;
+        markChanged();
     }
 
     /**
@@ -114,6 +174,358 @@ public class MeshRenderer2D extends Component {
      * @param visible if the mesh is visible.
      */
     public void setVisible(boolean visible) {
+        if (visible == this.visible)
+            return;
         this.visible = visible;
+        markChanged();
+    }
+
+    /**
+     * Set the sorting layer of the item.
+     *
+     * <p>Items in lower layers are drawn first. Within a layer, items are drawn in the order they were added, or by
+     * their Y position if the layer is Y-sorted. See {@link org.kakara.engine2d.DrawOrder2D}.</p>
+     * <p>This is 0 by default.</p>
+     *
+     * @param sortingLayer The sorting layer.
+     */
+    public void setSortingLayer(int sortingLayer) {
+        if (sortingLayer == this.sortingLayer)
+            return;
+        this.sortingLayer = sortingLayer;
+        markChanged();
+        if (currentScene != null)
+            currentScene.getItem2DHandler().getDrawOrder().invalidate();
+    }
+
+    /**
+     * Get the sorting layer of the item.
+     *
+     * @return The sorting layer.
+     */
+    public int getSortingLayer() {
+        return sortingLayer;
+    }
+
+    /**
+     * Set the amount added to the Y position of the item when it is Y-sorted.
+     *
+     * <p>Items are sorted by the Y position of their transform. Use this to sort by a different point, such as the
+     * feet of a character which is centered on its position.</p>
+     *
+     * @param sortOffsetY The offset in world units.
+     */
+    public void setSortOffsetY(float sortOffsetY) {
+        if (sortOffsetY == this.sortOffsetY)
+            return;
+        this.sortOffsetY = sortOffsetY;
+        markChanged();
+    }
+
+    /**
+     * Get the amount added to the Y position of the item when it is Y-sorted.
+     *
+     * @return The offset in world units.
+     */
+    public float getSortOffsetY() {
+        return sortOffsetY;
+    }
+
+    /**
+     * Record that the item was drawn in a frame.
+     * <p>This is for internal use only. It is called by the {@link Standard2DPipeline} for every item which passed
+     * culling in at least one viewport.</p>
+     *
+     * @param frame The render frame from {@link org.kakara.engine2d.Item2DHandler#getRenderFrame()}.
+     * @return If the item was not drawn in the previous render frame.
+     */
+    public boolean markVisible(long frame) {
+        boolean cameOnScreen = lastVisibleFrame != frame && lastVisibleFrame != frame - 1;
+        this.lastVisibleFrame = frame;
+        return cameOnScreen;
+    }
+
+    /**
+     * Get the last render frame the item was drawn in.
+     *
+     * @return The render frame. (0 if it was never drawn).
+     */
+    public long getLastVisibleFrame() {
+        return lastVisibleFrame;
+    }
+
+    /**
+     * Check if the item was drawn in the last rendered frame.
+     *
+     * <p>Items are off-screen when they were culled from every viewport, are hidden or are too small to be seen.
+     * Items in a static layer are always treated as on-screen, as are all items before the first frame is
+     * rendered.</p>
+     *
+     * @return If the item is on-screen.
+     */
+    public boolean isOnScreen() {
+        if (currentScene == null || staticLayer != null)
+            return true;
+        long frame = currentScene.getItem2DHandler().getRenderFrame();
+        return frame == 0 || lastVisibleFrame == frame;
+    }
+
+    /**
+     * Get the model matrix of the GameItem in the world.
+     *
+     * <p>For items without a parent this is the same as {@link #getLocalMatrix()}. For children it is the world
+     * matrix of the parent multiplied by the local matrix, as of the last update of the {@link TransformHierarchy2D}.
+     * The camera is not part of the matrix. The returned matrix should not be modified.</p>
+     *
+     * @return The model matrix.
+     */
+    public Matrix4f getModelMatrix() {
+        if (parent == null)
+            return getLocalMatrix();
+        if (worldDirty)
+            updateWorldMatrix(true);
+        return worldMatrix;
+    }
+
+    /**
+     * Get the model matrix built from the transform of the GameItem.
+     *
+     * <p>The matrix is cached and only rebuilt when the transform has changed. It does not include the parent.
+     * The returned matrix should not be modified.</p>
+     *
+     * @return The local matrix.
+     */
+    public Matrix4f getLocalMatrix() {
+        Transform transform = getGameItem().transform;
+        Vector3 position = transform.getPosition();
+        Quaternionf rotation = transform.getRotation();
+        Vector3 scale = transform.getScale();
+        float[] built = builtTransform;
+        if (transformDirty || built[0] != position.x || built[1] != position.y || built[2] != rotation.x
+                || built[3] != rotation.y || built[4] != rotation.z || built[5] != rotation.w
+                || built[6] != scale.x || built[7] != scale.y) {
+            built[0] = position.x;
+            built[1] = position.y;
+            built[2] = rotation.x;
+            built[3] = rotation.y;
+            built[4] = rotation.z;
+            built[5] = rotation.w;
+            built[6] = scale.x;
+            built[7] = scale.y;
+            Standard2DPipeline.buildModel(getGameItem(), 0, 0, 0, localMatrix);
+            transformDirty = false;
+            localVersion++;
+            transformVersion++;
+        }
+        return localMatrix;
+    }
+
+    /**
+     * Update the world matrix from the world matrix of the parent.
+     * <p>This is for internal use only. It is called by {@link TransformHierarchy2D} with parents before children.</p>
+     *
+     * @param parentChanged If the world matrix of the parent changed during this update.
+     * @return If the world matrix of this item changed.
+     */
+    public boolean updateWorldMatrix(boolean parentChanged) {
+        Matrix4f local = getLocalMatrix();
+        if (parent == null) {
+            boolean changed = localVersion != worldLocalVersion;
+            worldLocalVersion = localVersion;
+            return changed;
+        }
+        if (!parentChanged && !worldDirty && localVersion == worldLocalVersion)
+            return false;
+        parent.getModelMatrix().mulAffine(local, worldMatrix);
+        worldLocalVersion = localVersion;
+        worldDirty = false;
+        transformVersion++;
+        // The parent may have moved after the item was checked for changes this frame.
+        if (staticLayer != null)
+            staticLayer.invalidate();
+        if (currentScene != null)
+            currentScene.getItem2DHandler().getPicker().markChanged(this);
+        return true;
+    }
+
+    /**
+     * Force the model matrix to be rebuilt the next time it is used.
+     *
+     * <p>Changes to the transform are found automatically. This is only needed when the transform is changed in a
+     * way that cannot be seen from its position, rotation and scale (Such as replacing the Transform).</p>
+     */
+    public void markTransformDirty() {
+        this.transformDirty = true;
+    }
+
+    /**
+     * Get the number of times the model matrix has changed.
+     * <p>This can be used to detect if the item moved without comparing the transform.</p>
+     *
+     * @return The version of the model matrix.
+     */
+    public int getTransformVersion() {
+        getModelMatrix();
+        return transformVersion;
+    }
+
+    /**
+     * Set the parent of the item.
+     *
+     * <p>The transform of the GameItem becomes relative to the parent. Removing the parent from the scene does not
+     * remove its children.</p>
+     *
+     * @param parent The renderer of the parent. (Null to remove the parent).
+     * @throws IllegalArgumentException If the parent is this item or one of its children.
+     */
+    public void setParent(MeshRenderer2D parent) {
+        if (parent == this.parent)
+            return;
+        for (MeshRenderer2D ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == this)
+                throw new IllegalArgumentException("An item cannot be the parent of itself or its parents.");
+        }
+        if (this.parent != null)
+            this.parent.children.remove(this);
+        this.parent = parent;
+        this.worldDirty = true;
+        this.transformVersion++;
+        markChanged();
+        if (parent != null)
+            parent.children.add(this);
+
+        registerHierarchy(this);
+        if (parent != null)
+            registerHierarchy(parent);
+    }
+
+    /**
+     * Get the parent of the item.
+     *
+     * @return The renderer of the parent. (Null if there is none).
+     */
+    public MeshRenderer2D getParent() {
+        return parent;
+    }
+
+    /**
+     * Get the children of the item.
+     *
+     * @return The renderers of the children. (Returns an unmodifiable list).
+     */
+    public List<MeshRenderer2D> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Get the static layer that this item belongs to.
+     *
+     * @return The static layer. (Null if the item is not static).
+     */
+    public StaticLayer2D getStaticLayer() {
+        return staticLayer;
+    }
+
+    /**
+     * Set the static layer that this item belongs to.
+     * <p>This is for internal use only. Use {@link StaticLayer2D#add(org.kakara.engine.gameitems.GameItem)}
+     * instead.</p>
+     *
+     * @param staticLayer The static layer. (Null for none).
+     */
+    public void setStaticLayer(StaticLayer2D staticLayer) {
+        this.staticLayer = staticLayer;
+        markChanged();
+    }
+
+    /**
+     * Get the entry of the item in the {@link org.kakara.engine2d.Picker2D}.
+     * <p>This is for internal use only.</p>
+     *
+     * @return The entry. (-1 if the item is not in a picker).
+     */
+    public int getPickerEntry() {
+        return pickerEntry;
+    }
+
+    /**
+     * Set the entry of the item in the {@link org.kakara.engine2d.Picker2D}.
+     * <p>This is for internal use only. It is set by the picker when it builds its grid.</p>
+     *
+     * @param pickerEntry The entry.
+     */
+    public void setPickerEntry(int pickerEntry) {
+        this.pickerEntry = pickerEntry;
+    }
+
+    /**
+     * Record that something which affects how the item is drawn changed.
+     *
+     * <p>Changes to the transform, the sprite sheet position, the materials and dynamic meshes of the item are found
+     * automatically. This is only needed when the item changed in a way that cannot be detected (such as modifying
+     * a texture directly).</p>
+     */
+    public void markChanged() {
+        this.changed = true;
+    }
+
+    /**
+     * Check if anything which affects how the item is drawn changed since the last check.
+     * <p>This is for internal use only. It is called by the {@link org.kakara.engine2d.Item2DHandler} once per
+     * update, after the components of every item were updated. If the item changed, its static layer is
+     * invalidated.</p>
+     *
+     * @param checkMeshes If the materials and dynamic meshes should be checked as well.
+     * @return If the item changed.
+     */
+    public boolean detectChanges(boolean checkMeshes) {
+        boolean result = changed;
+        changed = false;
+        int version = getTransformVersion();
+        if (version != seenTransformVersion) {
+            seenTransformVersion = version;
+            result = true;
+        }
+        int textPos = getGameItem().getTextPos();
+        if (textPos != seenTextPos) {
+            seenTextPos = textPos;
+            result = true;
+        }
+        if (checkMeshes && detectMeshChanges())
+            result = true;
+        if (result && staticLayer != null)
+            staticLayer.invalidate();
+        return result;
+    }
+
+    private boolean detectMeshChanges() {
+        if (mesh == null)
+            return false;
+        if (seenMaterials == null || seenMaterials.length != mesh.length) {
+            seenMaterials = new Material2D[mesh.length];
+            seenMeshVersions = new int[mesh.length];
+        }
+        boolean result = false;
+        for (int i = 0; i < mesh.length; i++) {
+            if (!(mesh[i] instanceof Mesh2D))
+                continue;
+            Material2D material = ((Mesh2D) mesh[i]).getMaterial2D();
+            // Both versions only ever increase, so the sum changes whenever one of them does.
+            int version = material.getVersion();
+            if (mesh[i] instanceof DynamicMesh2D)
+                version += ((DynamicMesh2D) mesh[i]).getVersion();
+            if (material != seenMaterials[i] || version != seenMeshVersions[i]) {
+                seenMaterials[i] = material;
+                seenMeshVersions[i] = version;
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    private static void registerHierarchy(MeshRenderer2D renderer) {
+        // Renderers which have not started are registered when they start.
+        if (renderer.currentScene != null)
+            renderer.currentScene.getItem2DHandler().getTransformHierarchy().register(renderer);
     }
 }
@@ -1,8 +1,12 @@
 package org.kakara.engine2d.components;
 
+import org.kakara.engine.GameHandler;
 import org.kakara.engine.components.Component;
 import org.kakara.engine.resources.Resource;
 import org.kakara.engine.scene.Scene;
+import org.kakara.engine.utils.Time;
+import org.kakara.engine2d.Abstract2DScene;
+import org.kakara.engine2d.Item2DHandler;
 import org.kakara.engine2d.animator.SpriteAnimation;
 
 import java.util.HashMap;
@@ -28,23 +32,59 @@ import java.util.Map;
  * <br>
  * spriteAnimator.setCurrentAnimation("run_left");<br>
  * </code>
+ *
+ * <p>Animations of items which were not drawn in the last frame are throttled as set by
+ * {@link Item2DHandler#setOffscreenAnimationInterval(int)}. While the frame budget of the scene is reducing the
+ * animation rate, on-screen animations are throttled as well (see {@link Item2DHandler#getOnscreenAnimationInterval()}).
+ * The time they miss is saved up, so once they update again they jump straight to the correct frame.</p>
  */
 public class SpriteAnimator extends Component {
     private final Map<String, SpriteAnimation> spriteAnimations = new HashMap<>();
 
     private SpriteAnimation currentAnimation;
+    private MeshRenderer2D renderer;
+    private Item2DHandler item2DHandler;
+    private double pendingTime;
+    // Spreads the updates of off-screen animators across the frames of the interval.
+    private final int phase = System.identityHashCode(this) & 0xFFFF;
 
     @Override
     public void start() {
         for (Map.Entry<String, SpriteAnimation> animation : spriteAnimations.entrySet()) {
             animation.getValue().init(getGameItem());
         }
+        Scene scene = GameHandler.getInstance().getCurrentScene();
+        if (scene instanceof Abstract2DScene)
+            item2DHandler = ((Abstract2DScene) scene).getItem2DHandler();
     }
 
     @Override
     public void update() {
         if (currentAnimation == null) return;
-        currentAnimation.update();
+        pendingTime += Time.getDeltaTime();
+        // The renderer may be added after the animator, so it is looked up until it is found.
+        if (renderer == null)
+            renderer = getGameItem().getComponent(MeshRenderer2D.class);
+        if (item2DHandler != null) {
+            int interval = renderer != null && !renderer.isOnScreen() ? item2DHandler.getOffscreenAnimationInterval()
+                    : item2DHandler.getOnscreenAnimationInterval();
+            if (interval == 0 || (item2DHandler.getUpdateFrame() + phase) % interval != 0)
+                return;
+        }
+        currentAnimation.update(pendingTime);
+        pendingTime = 0;
+    }
+
+    /**
+     * Apply the time the animation missed while it was throttled.
+     * <p>This is for internal use only. The pipeline calls it when the item comes back on-screen, so the correct frame
+     * is drawn straight away.</p>
+     */
+    public void catchUp() {
+        if (currentAnimation == null || pendingTime == 0)
+            return;
+        currentAnimation.update(pendingTime);
+        pendingTime = 0;
     }
 
     /**
@@ -69,6 +109,7 @@ public class SpriteAnimator extends Component {
 
         currentAnimation = spriteAnimations.get(name);
         currentAnimation.reset();
+        pendingTime = 0;
     }
 
     /**
@@ -76,6 +117,7 @@ public class SpriteAnimator extends Component {
      */
     public void resetCurrentAnimation() {
         this.currentAnimation = null;
+        this.pendingTime = 0;
     }
 
     /**
@@ -0,0 +1,153 @@
+package org.kakara.engine2d.components;
+
+import org.kakara.engine.components.Component;
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.text.BitmapFont2D;
+import org.kakara.engine2d.text.TextLayout2D;
+import org.kakara.engine2d.text.TextMesh2D;
+import org.kakara.engine2d.text.TextStyle2D;
+
+import java.util.Objects;
+
+/**
+ * Draws a string with a {@link BitmapFont2D}.
+ *
+ * <p>The whole string is drawn by a single {@link TextMesh2D}, so it only costs one draw call no matter how long
+ * it is. The GameItem must also have a {@link MeshRenderer2D}; this component sets the mesh of the renderer.
+ * The position of the GameItem is the top left of the text (for left aligned text).</p>
+ *
+ * <p>Changes to the text are applied on the next update. Only the lines from the first changed character are
+ * laid out again and only the changed glyphs are uploaded.</p>
+ *
+ * <code>
+ * gameItem.addComponent(MeshRenderer2D.class);<br>
+ * Text2D text = gameItem.addComponent(Text2D.class);<br>
+ * text.setFont(font);<br>
+ * text.setText("Hello World");<br>
+ * add(gameItem);<br>
+ * </code>
+ */
+public class Text2D extends Component {
+    private BitmapFont2D font;
+    private String text = "";
+    private TextStyle2D style = new TextStyle2D(32);
+    private RGBA color = new RGBA();
+    private TextMesh2D mesh;
+    private boolean dirty = true;
+
+    @Override
+    public void start() {
+        if (!getGameItem().hasComponent(MeshRenderer2D.class))
+            throw new IllegalStateException("Text2D requires the GameItem to have a 2D mesh renderer.");
+    }
+
+    @Override
+    public void update() {
+        if (!dirty || font == null)
+            return;
+        MeshRenderer2D renderer = getGameItem().getComponent(MeshRenderer2D.class);
+        if (renderer == null)
+            return;
+
+        if (mesh == null || renderer.getMeshes() == null || renderer.getMesh() != mesh) {
+            mesh = new TextMesh2D(font, Math.max(16, text.length()));
+            renderer.setMesh(mesh);
+        }
+        mesh.getMaterial2D().setTexture(font.getTexture());
+        mesh.getMaterial2D().setColor(color);
+        mesh.setLayout(font.layout(text, style, mesh.getLayout()));
+        dirty = false;
+    }
+
+    /**
+     * Set the font of the text.
+     *
+     * @param font The font.
+     */
+    public void setFont(BitmapFont2D font) {
+        this.font = Objects.requireNonNull(font);
+        this.dirty = true;
+    }
+
+    /**
+     * Get the font of the text.
+     *
+     * @return The font. (Null if it was not set).
+     */
+    public BitmapFont2D getFont() {
+        return font;
+    }
+
+    /**
+     * Set the text to draw.
+     *
+     * @param text The text. ('\n' starts a new line).
+     */
+    public void setText(String text) {
+        Objects.requireNonNull(text);
+        if (text.equals(this.text))
+            return;
+        this.text = text;
+        this.dirty = true;
+    }
+
+    /**
+     * Get the text that is drawn.
+     *
+     * @return The text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Set the style of the text.
+     *
+     * @param style The style.
+     */
+    public void setStyle(TextStyle2D style) {
+        if (Objects.requireNonNull(style).equals(this.style))
+            return;
+        this.style = style;
+        this.dirty = true;
+    }
+
+    /**
+     * Get the style of the text.
+     * <p>The default style is left aligned with a size of 32.</p>
+     *
+     * @return The style.
+     */
+    public TextStyle2D getStyle() {
+        return style;
+    }
+
+    /**
+     * Set the color of the text.
+     * <p>The color is multiplied with the color of the font atlas.</p>
+     *
+     * @param color The color.
+     */
+    public void setColor(RGBA color) {
+        this.color = Objects.requireNonNull(color);
+        this.dirty = true;
+    }
+
+    /**
+     * Get the color of the text.
+     *
+     * @return The color.
+     */
+    public RGBA getColor() {
+        return color;
+    }
+
+    /**
+     * Get the current layout of the text.
+     *
+     * @return The layout. (Null if the text has not been laid out yet).
+     */
+    public TextLayout2D getLayout() {
+        return mesh == null ? null : mesh.getLayout();
+    }
+}
@@ -0,0 +1,136 @@
+package org.kakara.engine2d.ecs;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The storage of every entity with one set of component types.
+ *
+ * <p>Entities are packed into {@link Chunk2D}s with no gaps. When an entity is removed, the last entity is moved
+ * into its place.</p>
+ */
+final class Archetype2D {
+    final long mask;
+    final Class<?>[] types;
+    final int[] typeIds;
+    final List<Chunk2D> chunks = new ArrayList<>();
+    int size;
+
+    private final int[] columnByType = new int[EntityWorld2D.MAX_COMPONENT_TYPES];
+    private final Map<Class<?>, Integer> columnCache = new HashMap<>();
+
+    Archetype2D(long mask, Class<?>[] types, int[] typeIds) {
+        this.mask = mask;
+        this.types = types;
+        this.typeIds = typeIds;
+        Arrays.fill(columnByType, -1);
+        for (int i = 0; i < typeIds.length; i++)
+            columnByType[typeIds[i]] = i;
+    }
+
+    /**
+     * Get the column of a type id.
+     *
+     * @return The column. (-1 if the type is not in the archetype).
+     */
+    int columnOf(int typeId) {
+        return columnByType[typeId];
+    }
+
+    /**
+     * Get the column which stores a type or one of its subclasses.
+     *
+     * @return The column. (-1 if no column matches).
+     */
+    int columnOf(Class<?> type) {
+        Integer cached = columnCache.get(type);
+        if (cached == null) {
+            cached = -1;
+            for (int i = 0; i < types.length; i++) {
+                if (type.isAssignableFrom(types[i])) {
+                    cached = i;
+                    break;
+                }
+            }
+            columnCache.put(type, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Add an entity to the end of the archetype.
+     *
+     * @param entity The id of the entity.
+     * @param byType The components of the entity indexed by type id.
+     * @return The row of the entity.
+     */
+    int add(int entity, Object[] byType) {
+        int chunkIndex = size / Chunk2D.CAPACITY;
+        if (chunkIndex == chunks.size())
+            chunks.add(createChunk());
+        Chunk2D chunk = chunks.get(chunkIndex);
+        int slot = chunk.size++;
+        chunk.entities[slot] = entity;
+        for (int c = 0; c < typeIds.length; c++)
+            chunk.columns[c][slot] = byType[typeIds[c]];
+        return size++;
+    }
+
+    /**
+     * Copy the components of a row into an array indexed by type id.
+     */
+    void read(int row, Object[] byType) {
+        Chunk2D chunk = chunks.get(row / Chunk2D.CAPACITY);
+        int slot = row % Chunk2D.CAPACITY;
+        for (int c = 0; c < typeIds.length; c++)
+            byType[typeIds[c]] = chunk.columns[c][slot];
+    }
+
+    Object get(int row, int column) {
+        return chunks.get(row / Chunk2D.CAPACITY).columns[column][row % Chunk2D.CAPACITY];
+    }
+
+    void set(int row, int column, Object value) {
+        chunks.get(row / Chunk2D.CAPACITY).columns[column][row % Chunk2D.CAPACITY] = value;
+    }
+
+    /**
+     * Remove a row by moving the last entity into it.
+     *
+     * @param row The row to remove.
+     * @return The id of the entity which was moved into the row. (-1 if the last row was removed).
+     */
+    int remove(int row) {
+        int last = size - 1;
+        Chunk2D lastChunk = chunks.get(last / Chunk2D.CAPACITY);
+        int lastSlot = last % Chunk2D.CAPACITY;
+        int moved = -1;
+        if (row != last) {
+            Chunk2D chunk = chunks.get(row / Chunk2D.CAPACITY);
+            int slot = row % Chunk2D.CAPACITY;
+            moved = lastChunk.entities[lastSlot];
+            chunk.entities[slot] = moved;
+            for (int c = 0; c < typeIds.length; c++)
+                chunk.columns[c][slot] = lastChunk.columns[c][lastSlot];
+        }
+        // Clear the references so removed components can be collected.
+        for (int c = 0; c < typeIds.length; c++)
+            lastChunk.columns[c][lastSlot] = null;
+        lastChunk.size--;
+        size--;
+        if (lastChunk.size == 0)
+            chunks.remove(chunks.size() - 1);
+        return moved;
+    }
+
+    private Chunk2D createChunk() {
+        Object[][] columns = new Object[types.length][];
+        for (int c = 0; c < types.length; c++)
+            columns[c] = (Object[]) Array.newInstance(types[c], Chunk2D.CAPACITY);
+        return new Chunk2D(this, columns);
+    }
+}
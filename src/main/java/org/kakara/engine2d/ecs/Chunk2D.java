@@ -0,0 +1,85 @@
+package org.kakara.engine2d.ecs;
+
+/**
+ * A block of entities which all have the same components.
+ *
+ * <p>Each component type is stored in its own array, so iterating over one component of every entity in a chunk
+ * reads memory in order. Chunks are returned by the iterator of a {@link Query2D}. The arrays are only valid until
+ * the next structural change of the world (such as creating an entity or adding a component), and only the first
+ * {@link #size()} elements are used.</p>
+ *
+ * <code>
+ * for (Chunk2D chunk : world.query(Transform.class, SpriteAnimator.class)) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;SpriteAnimator[] animators = chunk.getColumn(SpriteAnimator.class);<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;for (int i = 0; i &lt; chunk.size(); i++)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;animators[i].update();<br>
+ * }<br>
+ * </code>
+ */
+public final class Chunk2D {
+    /**
+     * The number of entities a chunk can hold.
+     */
+    public static final int CAPACITY = 1024;
+
+    final Archetype2D archetype;
+    final int[] entities;
+    final Object[][] columns;
+    int size;
+
+    Chunk2D(Archetype2D archetype, Object[][] columns) {
+        this.archetype = archetype;
+        this.entities = new int[CAPACITY];
+        this.columns = columns;
+    }
+
+    /**
+     * Get the number of entities in the chunk.
+     *
+     * @return The number of entities.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get an entity in the chunk.
+     *
+     * @param index The index in the chunk.
+     * @return The id of the entity.
+     */
+    public int getEntity(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a chunk of size " + size);
+        return entities[index];
+    }
+
+    /**
+     * Get the array which stores a component type.
+     *
+     * <p>Components are stored by their exact class. The column of a subclass is returned when asking for a super
+     * class, such as the column of a <code>HeadlessMeshRenderer2D</code> for <code>MeshRenderer2D</code>.</p>
+     *
+     * @param type The component type.
+     * @param <T>  The component type.
+     * @return The array of components. (Only the first {@link #size()} elements are used).
+     * @throws IllegalArgumentException If the entities of the chunk do not have the component.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] getColumn(Class<T> type) {
+        int column = archetype.columnOf(type);
+        if (column == -1)
+            throw new IllegalArgumentException("The chunk does not have the component " + type.getName() + ".");
+        return (T[]) columns[column];
+    }
+
+    /**
+     * Check if the entities in the chunk have a component type.
+     *
+     * @param type The component type.
+     * @return If the component is stored in the chunk.
+     */
+    public boolean hasColumn(Class<?> type) {
+        return archetype.columnOf(type) != -1;
+    }
+}
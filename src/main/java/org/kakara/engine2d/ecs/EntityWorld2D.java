@@ -0,0 +1,404 @@
+package org.kakara.engine2d.ecs;
+
+import org.kakara.engine.components.Component;
+import org.kakara.engine.gameitems.GameItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the components of 2D entities by archetype.
+ *
+ * <p>Every entity with the same set of component types belongs to the same archetype, and the entities of an
+ * archetype are packed into {@link Chunk2D}s which store each component type in its own array. A {@link Query2D}
+ * walks those arrays directly instead of looking up the components of each entity, which keeps iteration over a
+ * large number of entities cache friendly.</p>
+ *
+ * <p>Components can be any object and are stored by their exact class. An entity can only have one component of
+ * each class. Entity ids are recycled after an entity is destroyed, but the generation in the id changes so old ids
+ * are not mistaken for new entities.</p>
+ *
+ * <p>GameItems can be stored with {@link #attach(GameItem)}. The GameItem, its transform and its components become
+ * the components of the entity, so the normal GameItem API keeps working while systems use queries. The
+ * {@link org.kakara.engine2d.Item2DHandler} does this for every item when archetype storage is enabled. This class
+ * must only be used on the main thread.</p>
+ *
+ * <code>
+ * EntityWorld2D world = getItem2DHandler().getEntityWorld();<br>
+ * Query2D query = world.query(Transform.class, MeshRenderer2D.class, SpriteAnimator.class);<br>
+ * for (Chunk2D chunk : query) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;Transform[] transforms = chunk.getColumn(Transform.class);<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;for (int i = 0; i &lt; chunk.size(); i++)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;transforms[i].getPosition().x += 1;<br>
+ * }<br>
+ * </code>
+ */
+public class EntityWorld2D {
+    /**
+     * The most component types a world can have.
+     */
+    public static final int MAX_COMPONENT_TYPES = 64;
+
+    private static final int INDEX_BITS = 22;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - INDEX_BITS - 1)) - 1;
+
+    private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private final Map<Long, Archetype2D> archetypes = new HashMap<>();
+    private final List<Archetype2D> archetypeList = new ArrayList<>();
+    private final Map<GameItem, Integer> gameItems = new IdentityHashMap<>();
+    private final Object[] scratch = new Object[MAX_COMPONENT_TYPES];
+
+    private Archetype2D[] entityArchetypes = new Archetype2D[1024];
+    private int[] entityRows = new int[1024];
+    private int[] generations = new int[1024];
+    // The number of components of the GameItem of each entity when it was last refreshed.
+    private int[] componentCounts = new int[1024];
+    private int[] freeIndices = new int[64];
+    private int freeCount;
+    private int nextIndex;
+    private int size;
+
+    /**
+     * Create an entity.
+     *
+     * @param components The components of the entity.
+     * @return The id of the entity.
+     * @throws IllegalArgumentException If two components have the same class.
+     */
+    public int create(Object... components) {
+        long mask = 0;
+        try {
+            for (Object component : components) {
+                int typeId = getTypeId(component.getClass());
+                if ((mask & (1L << typeId)) != 0)
+                    throw new IllegalArgumentException("An entity cannot have two components of the type "
+                            + component.getClass().getName() + ".");
+                mask |= 1L << typeId;
+                scratch[typeId] = component;
+            }
+
+            int index = allocateIndex();
+            int entity = index | generations[index] << INDEX_BITS;
+            Archetype2D archetype = getArchetype(mask);
+            entityArchetypes[index] = archetype;
+            entityRows[index] = archetype.add(entity, scratch);
+            size++;
+            return entity;
+        } finally {
+            Arrays.fill(scratch, null);
+        }
+    }
+
+    /**
+     * Destroy an entity.
+     *
+     * @param entity The id of the entity.
+     * @throws IllegalArgumentException If the entity does not exist.
+     */
+    public void destroy(int entity) {
+        int index = checkAlive(entity);
+        Archetype2D archetype = entityArchetypes[index];
+        Object item = archetype.columnOf(GameItem.class) == -1 ? null
+                : archetype.get(entityRows[index], archetype.columnOf(GameItem.class));
+        if (item != null)
+            gameItems.remove(item);
+        removeRow(archetype, entityRows[index]);
+        entityArchetypes[index] = null;
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        if (freeCount == freeIndices.length)
+            freeIndices = Arrays.copyOf(freeIndices, freeCount * 2);
+        freeIndices[freeCount++] = index;
+        size--;
+    }
+
+    /**
+     * Check if an entity exists.
+     *
+     * @param entity The id of the entity.
+     * @return If the entity exists.
+     */
+    public boolean isAlive(int entity) {
+        int index = entity & INDEX_MASK;
+        return entity >= 0 && index < nextIndex && entityArchetypes[index] != null
+                && generations[index] == entity >>> INDEX_BITS;
+    }
+
+    /**
+     * Add a component to an entity.
+     *
+     * <p>If the entity already has a component of the same class it is replaced. Otherwise the entity is moved to
+     * the archetype with the new component.</p>
+     *
+     * @param entity    The id of the entity.
+     * @param component The component.
+     */
+    public void add(int entity, Object component) {
+        int index = checkAlive(entity);
+        int typeId = getTypeId(component.getClass());
+        Archetype2D archetype = entityArchetypes[index];
+        int column = archetype.columnOf(typeId);
+        if (column != -1) {
+            archetype.set(entityRows[index], column, component);
+            return;
+        }
+        archetype.read(entityRows[index], scratch);
+        scratch[typeId] = component;
+        move(index, archetype.mask | 1L << typeId);
+    }
+
+    /**
+     * Remove a component from an entity.
+     *
+     * @param entity The id of the entity.
+     * @param type   The exact class of the component.
+     */
+    public void remove(int entity, Class<?> type) {
+        int index = checkAlive(entity);
+        Integer typeId = typeIds.get(type);
+        Archetype2D archetype = entityArchetypes[index];
+        if (typeId == null || archetype.columnOf(typeId) == -1)
+            return;
+        archetype.read(entityRows[index], scratch);
+        scratch[typeId] = null;
+        move(index, archetype.mask & ~(1L << typeId));
+    }
+
+    /**
+     * Get a component of an entity.
+     *
+     * @param entity The id of the entity.
+     * @param type   The class of the component. (Subclasses also match).
+     * @param <T>    The type of the component.
+     * @return The component. (Null if the entity does not have it).
+     */
+    public <T> T get(int entity, Class<T> type) {
+        int index = checkAlive(entity);
+        Archetype2D archetype = entityArchetypes[index];
+        int column = archetype.columnOf(type);
+        return column == -1 ? null : type.cast(archetype.get(entityRows[index], column));
+    }
+
+    /**
+     * Check if an entity has a component.
+     *
+     * @param entity The id of the entity.
+     * @param type   The class of the component. (Subclasses also match).
+     * @return If the entity has the component.
+     */
+    public boolean has(int entity, Class<?> type) {
+        return entityArchetypes[checkAlive(entity)].columnOf(type) != -1;
+    }
+
+    /**
+     * Create a query for every entity which has a set of components.
+     *
+     * @param types The component types. (Subclasses also match).
+     * @return The query.
+     */
+    public Query2D query(Class<?>... types) {
+        return new Query2D(this, types);
+    }
+
+    /**
+     * Store a GameItem as an entity.
+     *
+     * <p>The entity has the GameItem, its transform and all of its components. Components added to or removed from
+     * the GameItem later are seen after {@link #sync(GameItem)} or {@link #refresh(GameItem)} is called.</p>
+     *
+     * @param item The GameItem.
+     * @return The id of the entity. (The existing id if the GameItem was already attached).
+     * @throws IllegalArgumentException If two components have the same class.
+     * @throws IllegalStateException    If the world would have more than {@link #MAX_COMPONENT_TYPES} component types.
+     */
+    public int attach(GameItem item) {
+        Integer existing = gameItems.get(item);
+        if (existing != null)
+            return existing;
+        List<Component> components = item.getComponents();
+        Object[] values = new Object[components.size() + 2];
+        values[0] = item;
+        values[1] = item.transform;
+        for (int i = 0; i < components.size(); i++)
+            values[i + 2] = components.get(i);
+        int entity = create(values);
+        gameItems.put(item, entity);
+        componentCounts[entity & INDEX_MASK] = components.size();
+        return entity;
+    }
+
+    /**
+     * Refresh the entity of a GameItem if components were added to or removed from it.
+     *
+     * <p>This only compares the number of components, so it is cheap enough to call every frame. The
+     * {@link org.kakara.engine2d.Item2DHandler} calls it for every item during the update. If a component is
+     * replaced by one of a different class, {@link #refresh(GameItem)} must be called instead.</p>
+     *
+     * @param item The GameItem.
+     */
+    public void sync(GameItem item) {
+        Integer entity = gameItems.get(item);
+        if (entity != null && componentCounts[entity & INDEX_MASK] != item.getComponents().size())
+            refresh(item);
+    }
+
+    /**
+     * Update the components of the entity of a GameItem after components were added to or removed from it.
+     *
+     * @param item The GameItem.
+     */
+    public void refresh(GameItem item) {
+        Integer entity = gameItems.get(item);
+        if (entity == null)
+            return;
+        int index = entity & INDEX_MASK;
+        List<Component> components = item.getComponents();
+        try {
+            long mask = getTypeMask(item.getClass(), item) | getTypeMask(item.transform.getClass(), item.transform);
+            for (Component component : components)
+                mask |= getTypeMask(component.getClass(), component);
+            if (mask != entityArchetypes[index].mask) {
+                move(index, mask);
+            } else {
+                Archetype2D archetype = entityArchetypes[index];
+                for (int typeId : archetype.typeIds)
+                    archetype.set(entityRows[index], archetype.columnOf(typeId), scratch[typeId]);
+            }
+            componentCounts[index] = components.size();
+        } finally {
+            Arrays.fill(scratch, null);
+        }
+    }
+
+    /**
+     * Remove the entity of a GameItem.
+     *
+     * @param item The GameItem.
+     */
+    public void detach(GameItem item) {
+        Integer entity = gameItems.get(item);
+        if (entity != null)
+            destroy(entity);
+    }
+
+    /**
+     * Get the entity of a GameItem.
+     *
+     * @param item The GameItem.
+     * @return The id of the entity. (-1 if the GameItem is not attached).
+     */
+    public int getEntity(GameItem item) {
+        Integer entity = gameItems.get(item);
+        return entity == null ? -1 : entity;
+    }
+
+    /**
+     * Get the number of entities.
+     *
+     * @return The number of entities.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of archetypes which have been created.
+     *
+     * @return The number of archetypes.
+     */
+    public int getArchetypeCount() {
+        return archetypeList.size();
+    }
+
+    List<Archetype2D> getArchetypes() {
+        return archetypeList;
+    }
+
+    /**
+     * Put a component in the scratch array and get the bit of its type.
+     */
+    private long getTypeMask(Class<?> type, Object component) {
+        int typeId = getTypeId(type);
+        scratch[typeId] = component;
+        return 1L << typeId;
+    }
+
+    /**
+     * Move an entity to the archetype of a mask using the components in the scratch array.
+     */
+    private void move(int index, long mask) {
+        try {
+            Archetype2D from = entityArchetypes[index];
+            int entity = from.chunks.get(entityRows[index] / Chunk2D.CAPACITY).entities[entityRows[index] % Chunk2D.CAPACITY];
+            removeRow(from, entityRows[index]);
+            Archetype2D to = getArchetype(mask);
+            entityArchetypes[index] = to;
+            entityRows[index] = to.add(entity, scratch);
+        } finally {
+            Arrays.fill(scratch, null);
+        }
+    }
+
+    private void removeRow(Archetype2D archetype, int row) {
+        int moved = archetype.remove(row);
+        if (moved != -1)
+            entityRows[moved & INDEX_MASK] = row;
+    }
+
+    private int getTypeId(Class<?> type) {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            if (types.size() == MAX_COMPONENT_TYPES)
+                throw new IllegalStateException("An entity world cannot have more than " + MAX_COMPONENT_TYPES
+                        + " component types.");
+            id = types.size();
+            types.add(type);
+            typeIds.put(type, id);
+        }
+        return id;
+    }
+
+    private Archetype2D getArchetype(long mask) {
+        Archetype2D archetype = archetypes.get(mask);
+        if (archetype == null) {
+            int[] ids = new int[Long.bitCount(mask)];
+            Class<?>[] classes = new Class<?>[ids.length];
+            for (int i = 0, bits = 0; i < MAX_COMPONENT_TYPES; i++) {
+                if ((mask & (1L << i)) != 0) {
+                    ids[bits] = i;
+                    classes[bits++] = types.get(i);
+                }
+            }
+            archetype = new Archetype2D(mask, classes, ids);
+            archetypes.put(mask, archetype);
+            archetypeList.add(archetype);
+        }
+        return archetype;
+    }
+
+    private int allocateIndex() {
+        if (freeCount > 0)
+            return freeIndices[--freeCount];
+        if (nextIndex > INDEX_MASK)
+            throw new IllegalStateException("An entity world cannot have more than " + (INDEX_MASK + 1) + " entities.");
+        if (nextIndex == entityArchetypes.length) {
+            int capacity = nextIndex * 2;
+            entityArchetypes = Arrays.copyOf(entityArchetypes, capacity);
+            entityRows = Arrays.copyOf(entityRows, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            componentCounts = Arrays.copyOf(componentCounts, capacity);
+        }
+        return nextIndex++;
+    }
+
+    private int checkAlive(int entity) {
+        if (!isAlive(entity))
+            throw new IllegalArgumentException("The entity " + entity + " does not exist.");
+        return entity & INDEX_MASK;
+    }
+}
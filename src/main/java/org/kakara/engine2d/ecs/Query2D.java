@@ -0,0 +1,100 @@
+package org.kakara.engine2d.ecs;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds every entity of an {@link EntityWorld2D} which has a set of components.
+ *
+ * <p>Iterating a query returns the {@link Chunk2D}s of the matching archetypes. The matching archetypes are cached
+ * and only checked again when a new archetype is created, so a query can be kept and iterated every frame.</p>
+ *
+ * <code>
+ * Query2D animated = world.query(GameItem.class, SpriteAnimator.class);<br>
+ * for (Chunk2D chunk : animated) {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;SpriteAnimator[] animators = chunk.getColumn(SpriteAnimator.class);<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;...<br>
+ * }<br>
+ * </code>
+ */
+public class Query2D implements Iterable<Chunk2D> {
+    private final EntityWorld2D world;
+    private final Class<?>[] types;
+    private final List<Archetype2D> matches = new ArrayList<>();
+    private int checkedArchetypes;
+
+    Query2D(EntityWorld2D world, Class<?>[] types) {
+        this.world = world;
+        this.types = types.clone();
+    }
+
+    /**
+     * Get the number of entities which match the query.
+     *
+     * @return The number of entities.
+     */
+    public int count() {
+        refresh();
+        int count = 0;
+        for (int i = 0; i < matches.size(); i++)
+            count += matches.get(i).size;
+        return count;
+    }
+
+    /**
+     * Get the component types of the query.
+     *
+     * @return A copy of the component types.
+     */
+    public Class<?>[] getTypes() {
+        return types.clone();
+    }
+
+    @Override
+    public Iterator<Chunk2D> iterator() {
+        refresh();
+        return new Iterator<Chunk2D>() {
+            private int archetype;
+            private int chunk;
+
+            @Override
+            public boolean hasNext() {
+                while (archetype < matches.size()) {
+                    if (chunk < matches.get(archetype).chunks.size())
+                        return true;
+                    archetype++;
+                    chunk = 0;
+                }
+                return false;
+            }
+
+            @Override
+            public Chunk2D next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return matches.get(archetype).chunks.get(chunk++);
+            }
+        };
+    }
+
+    /**
+     * Add the archetypes which were created since the last check.
+     */
+    private void refresh() {
+        List<Archetype2D> archetypes = world.getArchetypes();
+        for (; checkedArchetypes < archetypes.size(); checkedArchetypes++) {
+            Archetype2D archetype = archetypes.get(checkedArchetypes);
+            boolean match = true;
+            for (Class<?> type : types) {
+                if (archetype.columnOf(type) == -1) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match)
+                matches.add(archetype);
+        }
+    }
+}
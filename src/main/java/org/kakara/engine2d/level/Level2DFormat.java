@@ -0,0 +1,48 @@
+package org.kakara.engine2d.level;
+
+import java.nio.ByteOrder;
+
+/**
+ * The layout of a 2D level file.
+ *
+ * <p>Every value is a 4 byte little endian int or float. The file starts with a header, followed by sections of
+ * fixed size records. Records refer to each other by their index in a section, and to variable length data (names,
+ * animation frames and tiles) by a byte offset into the data section. Internal use only.</p>
+ *
+ * <pre>
+ * Header:    magic, version, then (count, offset) for materials, animations, items, tile maps and chunks,
+ *            then the offset and length of the data section.
+ * Material:  meshId, textureId, r, g, b, a
+ * Animation: nameOffset, nameLength, framesOffset, frameCount, timeBetweenFrames
+ * Item:      x, y, rotation, scaleX, scaleY, material, frame, animation, flags
+ * TileMap:   x, y, tileWidth, tileHeight, width, height, material, columns, rows, flags
+ * Chunk:     tileMap, chunkX, chunkY, tilesOffset  (CHUNK_SIZE * CHUNK_SIZE shorts, row by row)
+ * </pre>
+ */
+final class Level2DFormat {
+    static final int MAGIC = 0x4C44324B; // "K2DL"
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_MATERIALS = 8;
+    static final int HEADER_ANIMATIONS = 16;
+    static final int HEADER_ITEMS = 24;
+    static final int HEADER_TILE_MAPS = 32;
+    static final int HEADER_CHUNKS = 40;
+    static final int HEADER_DATA = 48;
+
+    static final int MATERIAL_SIZE = 24;
+    static final int ANIMATION_SIZE = 20;
+    static final int ITEM_SIZE = 36;
+    static final int TILE_MAP_SIZE = 40;
+    static final int CHUNK_SIZE = 16;
+
+    /**
+     * The item or tile map is not visible.
+     */
+    static final int FLAG_HIDDEN = 1;
+
+    private Level2DFormat() {
+    }
+}
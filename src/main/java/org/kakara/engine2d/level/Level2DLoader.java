@@ -0,0 +1,278 @@
+package org.kakara.engine2d.level;
+
+import org.joml.Quaternionf;
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.Abstract2DScene;
+import org.kakara.engine2d.Item2DHandler;
+import org.kakara.engine2d.Mesh2D;
+import org.kakara.engine2d.animator.SpriteAnimation;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.components.SpriteAnimator;
+import org.kakara.engine2d.tilemap.TileMap2D;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.kakara.engine2d.level.Level2DFormat.*;
+
+/**
+ * Loads a level written by {@link Level2DWriter} into a scene.
+ *
+ * <p>Files are memory mapped and the records are read directly from the mapped memory, so nothing is parsed or
+ * copied before the GameItems are created. Materials and animations are created once and shared by the items which
+ * use them. The whole level is read before anything is added to the scene, so a corrupt level leaves the scene as it
+ * was. The items are then added to the {@link Item2DHandler} in a single batch.</p>
+ *
+ * <p>The level must be loaded on the main thread while the scene is the current scene. (Such as in
+ * <code>loadGraphics</code>).</p>
+ *
+ * <code>
+ * Level2DLoader loader = new Level2DLoader(resolver);<br>
+ * List&lt;GameItem&gt; items = loader.load(Paths.get("level.k2d"), this);<br>
+ * </code>
+ */
+public class Level2DLoader {
+    private final Level2DResolver resolver;
+
+    /**
+     * Construct a level loader.
+     *
+     * @param resolver The resolver which creates the meshes and textures of the level.
+     */
+    public Level2DLoader(Level2DResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Load a level file into a scene.
+     *
+     * @param file  The level file.
+     * @param scene The scene to add the items to.
+     * @return The items which were added, in the order they are in the file. (Tile maps are last).
+     * @throws IOException If the file could not be read.
+     */
+    public List<GameItem> load(Path file, Abstract2DScene scene) throws IOException {
+        ByteBuffer level;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            level = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return load(level, scene);
+    }
+
+    /**
+     * Load a level into a scene.
+     *
+     * <p>The level is read from the start of the buffer. (Such as a level which was read from a resource).</p>
+     *
+     * @param level The buffer which contains the level.
+     * @param scene The scene to add the items to.
+     * @return The items which were added, in the order they are in the level. (Tile maps are last).
+     * @throws IllegalArgumentException If the buffer does not contain a valid level.
+     */
+    public List<GameItem> load(ByteBuffer level, Abstract2DScene scene) {
+        ByteBuffer buffer = level.duplicate().order(ORDER);
+        buffer.position(0);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("The buffer does not contain a 2D level.");
+        if (buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Unsupported 2D level version: " + buffer.getInt(4));
+
+        int materialCount = checkSection(buffer, HEADER_MATERIALS, MATERIAL_SIZE);
+        int animationCount = checkSection(buffer, HEADER_ANIMATIONS, ANIMATION_SIZE);
+        int itemCount = checkSection(buffer, HEADER_ITEMS, ITEM_SIZE);
+        int tileMapCount = checkSection(buffer, HEADER_TILE_MAPS, TILE_MAP_SIZE);
+        int chunkCount = checkSection(buffer, HEADER_CHUNKS, CHUNK_SIZE);
+        int dataOffset = buffer.getInt(HEADER_DATA);
+        int dataSize = buffer.getInt(HEADER_DATA + 4);
+        if (dataOffset < 0 || dataSize < 0 || (long) dataOffset + dataSize > buffer.limit())
+            throw new IllegalArgumentException("The 2D level is truncated or corrupt.");
+        int dataEnd = dataOffset + dataSize;
+
+        // Meshes are created the first time an item uses their material, since tile maps do not need one.
+        Mesh2D[] meshes = new Mesh2D[materialCount];
+        Texture[] textures = new Texture[materialCount];
+        RGBA[] colors = new RGBA[materialCount];
+        readMaterials(buffer, textures, colors);
+        String[] animationNames = new String[animationCount];
+        int[][] animationFrames = new int[animationCount][];
+        float[] animationTimes = new float[animationCount];
+        readAnimations(buffer, dataOffset, dataEnd, animationNames, animationFrames, animationTimes);
+
+        List<GameItem> items = new ArrayList<>(itemCount + tileMapCount);
+        try {
+            int offset = buffer.getInt(HEADER_ITEMS + 4);
+            for (int i = 0; i < itemCount; i++, offset += ITEM_SIZE) {
+                int material = checkIndex(buffer.getInt(offset + 20), materialCount, "material");
+                int animation = buffer.getInt(offset + 28);
+                if (animation != -1)
+                    checkIndex(animation, animationCount, "animation");
+                GameItem item = createItem(buffer.getFloat(offset), buffer.getFloat(offset + 4),
+                        buffer.getFloat(offset + 8), buffer.getFloat(offset + 12), buffer.getFloat(offset + 16),
+                        buffer.getInt(offset + 32));
+                items.add(item);
+                // Every item cleans up its mesh, so the shared mesh gets one user per item.
+                if (meshes[material] == null)
+                    meshes[material] = createMesh(buffer, material, textures[material], colors[material]);
+                else
+                    meshes[material].retain();
+                item.getComponent(MeshRenderer2D.class).setMesh(meshes[material]);
+                item.setTextPos(buffer.getInt(offset + 24));
+                if (animation != -1) {
+                    SpriteAnimation spriteAnimation = new SpriteAnimation(animationNames[animation],
+                            animationFrames[animation]);
+                    spriteAnimation.setTimeBetweenFrames(animationTimes[animation]);
+                    SpriteAnimator animator = item.addComponent(SpriteAnimator.class);
+                    animator.addSpriteAnimation(spriteAnimation);
+                    animator.setCurrentAnimation(spriteAnimation.getName());
+                }
+            }
+
+            TileMap2D[] tileMaps = new TileMap2D[tileMapCount];
+            offset = buffer.getInt(HEADER_TILE_MAPS + 4);
+            for (int i = 0; i < tileMapCount; i++, offset += TILE_MAP_SIZE) {
+                int material = checkIndex(buffer.getInt(offset + 24), materialCount, "material");
+                GameItem item = createItem(buffer.getFloat(offset), buffer.getFloat(offset + 4), 0, 1, 1,
+                        buffer.getInt(offset + 36));
+                items.add(item);
+                TileMap2D tileMap = item.addComponent(TileMap2D.class);
+                tileMap.setSize(buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                        buffer.getFloat(offset + 8), buffer.getFloat(offset + 12));
+                if (textures[material] != null)
+                    tileMap.setTileSheet(textures[material], buffer.getInt(offset + 28), buffer.getInt(offset + 32));
+                tileMap.setColor(colors[material]);
+                tileMaps[i] = tileMap;
+            }
+            readChunks(buffer, dataOffset, dataEnd, chunkCount, tileMaps);
+        } catch (RuntimeException e) {
+            // Nothing was added to the scene yet, so only the meshes the items hold need to be freed.
+            for (GameItem item : items)
+                item.getComponent(MeshRenderer2D.class).cleanup();
+            throw e;
+        }
+        scene.getItem2DHandler().addItems(items);
+        return items;
+    }
+
+    private void readMaterials(ByteBuffer buffer, Texture[] textures, RGBA[] colors) {
+        Map<Integer, Texture> loadedTextures = new HashMap<>();
+        int offset = buffer.getInt(HEADER_MATERIALS + 4);
+        for (int i = 0; i < textures.length; i++, offset += MATERIAL_SIZE) {
+            int textureId = buffer.getInt(offset + 4);
+            if (textureId != -1)
+                textures[i] = loadedTextures.computeIfAbsent(textureId, resolver::getTexture);
+            colors[i] = new RGBA(buffer.getFloat(offset + 8), buffer.getFloat(offset + 12),
+                    buffer.getFloat(offset + 16), buffer.getFloat(offset + 20));
+        }
+    }
+
+    private Mesh2D createMesh(ByteBuffer buffer, int material, Texture texture, RGBA color) {
+        Mesh2D mesh = resolver.createMesh(buffer.getInt(buffer.getInt(HEADER_MATERIALS + 4) + material * MATERIAL_SIZE));
+        mesh.getMaterial2D().setColor(color);
+        if (texture != null)
+            mesh.getMaterial2D().setTexture(texture);
+        return mesh;
+    }
+
+    private static void readAnimations(ByteBuffer buffer, int dataOffset, int dataEnd, String[] names,
+                                       int[][] frames, float[] times) {
+        int offset = buffer.getInt(HEADER_ANIMATIONS + 4);
+        for (int i = 0; i < names.length; i++, offset += ANIMATION_SIZE) {
+            int nameLength = buffer.getInt(offset + 4);
+            int nameOffset = checkData(dataOffset, dataEnd, buffer.getInt(offset), nameLength, 1);
+            byte[] name = new byte[nameLength];
+            for (int b = 0; b < name.length; b++)
+                name[b] = buffer.get(nameOffset + b);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+
+            int frameCount = buffer.getInt(offset + 12);
+            int framesOffset = checkData(dataOffset, dataEnd, buffer.getInt(offset + 8), frameCount, Integer.BYTES);
+            frames[i] = new int[frameCount];
+            for (int f = 0; f < frames[i].length; f++)
+                frames[i][f] = buffer.getInt(framesOffset + f * Integer.BYTES);
+            times[i] = buffer.getFloat(offset + 16);
+        }
+    }
+
+    private static void readChunks(ByteBuffer buffer, int dataOffset, int dataEnd, int chunkCount,
+                                   TileMap2D[] tileMaps) {
+        short[] row = new short[TileMap2D.CHUNK_SIZE];
+        int offset = buffer.getInt(HEADER_CHUNKS + 4);
+        for (int i = 0; i < chunkCount; i++, offset += CHUNK_SIZE) {
+            TileMap2D tileMap = tileMaps[checkIndex(buffer.getInt(offset), tileMaps.length, "tile map")];
+            int startX = checkChunk(buffer.getInt(offset + 4), tileMap.getWidth());
+            int startY = checkChunk(buffer.getInt(offset + 8), tileMap.getHeight());
+            int tiles = checkData(dataOffset, dataEnd, buffer.getInt(offset + 12),
+                    TileMap2D.CHUNK_SIZE * TileMap2D.CHUNK_SIZE, Short.BYTES);
+            int width = Math.min(TileMap2D.CHUNK_SIZE, tileMap.getWidth() - startX);
+            int height = Math.min(TileMap2D.CHUNK_SIZE, tileMap.getHeight() - startY);
+            for (int y = 0; y < height; y++) {
+                int rowOffset = tiles + y * TileMap2D.CHUNK_SIZE * Short.BYTES;
+                for (int x = 0; x < width; x++)
+                    row[x] = buffer.getShort(rowOffset + x * Short.BYTES);
+                tileMap.setTiles(startX, startY + y, row, 0, width);
+            }
+        }
+    }
+
+    private static GameItem createItem(float x, float y, float rotation, float scaleX, float scaleY, int flags) {
+        GameItem item = new GameItem();
+        MeshRenderer2D renderer = item.addComponent(MeshRenderer2D.class);
+        item.transform.setPosition(x, y, 0);
+        item.transform.setScale(scaleX, scaleY, 1);
+        if (rotation != 0)
+            item.transform.setRotation(new Quaternionf().rotationZ(rotation));
+        renderer.setVisible((flags & FLAG_HIDDEN) == 0);
+        return item;
+    }
+
+    /**
+     * Check that a section of the header fits in the buffer.
+     *
+     * @return The number of records in the section.
+     */
+    private static int checkSection(ByteBuffer buffer, int header, int recordSize) {
+        int count = buffer.getInt(header);
+        int offset = buffer.getInt(header + 4);
+        if (count < 0 || offset < 0 || (long) offset + (long) count * recordSize > buffer.limit())
+            throw new IllegalArgumentException("The 2D level is truncated or corrupt.");
+        return count;
+    }
+
+    /**
+     * Check that a range of the data section is inside of it.
+     *
+     * @return The offset of the range in the buffer.
+     */
+    private static int checkData(int dataOffset, int dataEnd, int offset, int count, int elementSize) {
+        if (offset < 0 || count < 0 || (long) dataOffset + offset + (long) count * elementSize > dataEnd)
+            throw new IllegalArgumentException("The 2D level is truncated or corrupt.");
+        return dataOffset + offset;
+    }
+
+    /**
+     * Check that a chunk coordinate is inside of its tile map.
+     *
+     * @return The first tile of the chunk.
+     */
+    private static int checkChunk(int chunk, int size) {
+        if (chunk < 0 || (long) chunk * TileMap2D.CHUNK_SIZE >= size)
+            throw new IllegalArgumentException("The 2D level has a chunk outside of its tile map: " + chunk);
+        return chunk * TileMap2D.CHUNK_SIZE;
+    }
+
+    private static int checkIndex(int index, int count, String name) {
+        if (index < 0 || index >= count)
+            throw new IllegalArgumentException("The 2D level refers to a " + name + " which does not exist: " + index);
+        return index;
+    }
+}
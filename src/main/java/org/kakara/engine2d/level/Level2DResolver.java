@@ -0,0 +1,33 @@
+package org.kakara.engine2d.level;
+
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine2d.Mesh2D;
+
+/**
+ * Turns the mesh and texture ids of a level into the objects used by the scene.
+ *
+ * <p>The ids are chosen by the game when the level is written with {@link Level2DWriter}. Each method is called
+ * once per material while the level is loaded, on the main thread.</p>
+ */
+public interface Level2DResolver {
+    /**
+     * Create the mesh for a material.
+     *
+     * <p>A new mesh must be returned every time, since the material of the level is applied to it. The mesh is
+     * shared by every item which uses the material, and is retained once for each of them (see
+     * {@link Mesh2D#retain()}). It is only deleted once every one of those items was cleaned up or given a
+     * different mesh.</p>
+     *
+     * @param meshId The id of the mesh.
+     * @return The mesh.
+     */
+    Mesh2D createMesh(int meshId);
+
+    /**
+     * Get a texture.
+     *
+     * @param textureId The id of the texture.
+     * @return The texture. (Null for none).
+     */
+    Texture getTexture(int textureId);
+}
@@ -0,0 +1,293 @@
+package org.kakara.engine2d.level;
+
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.tilemap.TileMap2D;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.kakara.engine2d.level.Level2DFormat.*;
+
+/**
+ * Writes a 2D level into the binary format read by {@link Level2DLoader}.
+ *
+ * <p>A level is made of materials, animations, items and tile maps. Materials and animations are shared by the
+ * items which refer to them. Mesh and texture ids are not interpreted by the level; they are given to the
+ * {@link Level2DResolver} when the level is loaded.</p>
+ *
+ * <code>
+ * Level2DWriter writer = new Level2DWriter();<br>
+ * int material = writer.addMaterial(MESH_SQUARE, TEXTURE_BLOCKS, new RGBA());<br>
+ * int blink = writer.addAnimation("blink", 0.5f, new int[]{0, 1, 4, 5});<br>
+ * writer.addItem(600, 500, 0, 200, 200, material, 0, blink, true);<br>
+ * writer.write(Paths.get("level.k2d"));<br>
+ * </code>
+ */
+public class Level2DWriter {
+    private ByteBuffer materials = allocate(16 * MATERIAL_SIZE);
+    private ByteBuffer animations = allocate(16 * ANIMATION_SIZE);
+    private ByteBuffer items = allocate(1024 * ITEM_SIZE);
+    private ByteBuffer tileMaps = allocate(4 * TILE_MAP_SIZE);
+    private ByteBuffer data = allocate(4096);
+    private final List<short[]> tiles = new ArrayList<>();
+    private final List<int[]> tileMapSizes = new ArrayList<>();
+    private int materialCount;
+    private int animationCount;
+    private int itemCount;
+
+    /**
+     * Add a material.
+     *
+     * @param meshId    The id of the mesh, given to {@link Level2DResolver#createMesh(int)}.
+     * @param textureId The id of the texture, given to {@link Level2DResolver#getTexture(int)}. (-1 for none).
+     * @param color     The color of the material.
+     * @return The index of the material.
+     */
+    public int addMaterial(int meshId, int textureId, RGBA color) {
+        materials = ensure(materials, MATERIAL_SIZE);
+        materials.putInt(meshId).putInt(textureId)
+                .putFloat(color.r).putFloat(color.g).putFloat(color.b).putFloat(color.a);
+        return materialCount++;
+    }
+
+    /**
+     * Add a sprite animation.
+     *
+     * @param name              The name of the animation.
+     * @param timeBetweenFrames The time between frames in seconds.
+     * @param frames            The ids of the sprites in the sprite sheet.
+     * @return The index of the animation.
+     */
+    public int addAnimation(String name, float timeBetweenFrames, int[] frames) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int nameOffset = data.position();
+        data = ensure(data, nameBytes.length + 3);
+        data.put(nameBytes);
+        align();
+        int framesOffset = data.position();
+        data = ensure(data, frames.length * Integer.BYTES);
+        for (int frame : frames)
+            data.putInt(frame);
+
+        animations = ensure(animations, ANIMATION_SIZE);
+        animations.putInt(nameOffset).putInt(nameBytes.length).putInt(framesOffset).putInt(frames.length)
+                .putFloat(timeBetweenFrames);
+        return animationCount++;
+    }
+
+    /**
+     * Add an item.
+     *
+     * @param x        The x position.
+     * @param y        The y position.
+     * @param scaleX   The x scale.
+     * @param scaleY   The y scale.
+     * @param material The index of the material.
+     */
+    public void addItem(float x, float y, float scaleX, float scaleY, int material) {
+        addItem(x, y, 0, scaleX, scaleY, material, 0, -1, true);
+    }
+
+    /**
+     * Add an item.
+     *
+     * @param x         The x position.
+     * @param y         The y position.
+     * @param rotation  The rotation around the z axis in radians.
+     * @param scaleX    The x scale.
+     * @param scaleY    The y scale.
+     * @param material  The index of the material.
+     * @param frame     The id of the sprite in the sprite sheet.
+     * @param animation The index of the animation which is played. (-1 for none).
+     * @param visible   If the item is visible.
+     */
+    public void addItem(float x, float y, float rotation, float scaleX, float scaleY, int material, int frame,
+                        int animation, boolean visible) {
+        checkIndex(material, materialCount, "material");
+        if (animation != -1)
+            checkIndex(animation, animationCount, "animation");
+        items = ensure(items, ITEM_SIZE);
+        items.putFloat(x).putFloat(y).putFloat(rotation).putFloat(scaleX).putFloat(scaleY)
+                .putInt(material).putInt(frame).putInt(animation).putInt(visible ? 0 : FLAG_HIDDEN);
+        itemCount++;
+    }
+
+    /**
+     * Add a tile map.
+     *
+     * <p>All of the tiles start as {@link TileMap2D#EMPTY}. See {@link TileMap2D} for more information.</p>
+     *
+     * @param x          The x position of the top left corner.
+     * @param y          The y position of the top left corner.
+     * @param tileWidth  The width of a tile.
+     * @param tileHeight The height of a tile.
+     * @param width      The number of tiles across.
+     * @param height     The number of tiles down.
+     * @param material   The index of the material. (The mesh id is not used).
+     * @param columns    The number of columns in the tile sheet.
+     * @param rows       The number of rows in the tile sheet.
+     * @return The index of the tile map.
+     */
+    public int addTileMap(float x, float y, float tileWidth, float tileHeight, int width, int height, int material,
+                          int columns, int rows) {
+        checkIndex(material, materialCount, "material");
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("The size of a tile map cannot be negative.");
+        tileMaps = ensure(tileMaps, TILE_MAP_SIZE);
+        tileMaps.putFloat(x).putFloat(y).putFloat(tileWidth).putFloat(tileHeight).putInt(width).putInt(height)
+                .putInt(material).putInt(columns).putInt(rows).putInt(0);
+        short[] mapTiles = new short[width * height];
+        Arrays.fill(mapTiles, TileMap2D.EMPTY);
+        tiles.add(mapTiles);
+        tileMapSizes.add(new int[]{width, height});
+        return tiles.size() - 1;
+    }
+
+    /**
+     * Set a tile of a tile map.
+     *
+     * @param tileMap The index of the tile map.
+     * @param x       The x position of the tile.
+     * @param y       The y position of the tile.
+     * @param tile    The index of the cell in the tile sheet. (Or {@link TileMap2D#EMPTY}).
+     */
+    public void setTile(int tileMap, int x, int y, int tile) {
+        checkIndex(tileMap, tiles.size(), "tile map");
+        int width = tileMapSizes.get(tileMap)[0];
+        int height = tileMapSizes.get(tileMap)[1];
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            throw new IndexOutOfBoundsException("The tile (" + x + ", " + y + ") is outside of the tile map.");
+        tiles.get(tileMap)[y * width + x] = (short) tile;
+    }
+
+    /**
+     * Get the number of items which were added.
+     *
+     * @return The number of items.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Write the level to a file.
+     *
+     * @param file The file to write to. (It is replaced if it exists).
+     * @throws IOException If the file could not be written.
+     */
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel);
+        }
+    }
+
+    /**
+     * Write the level to a stream.
+     * <p>The stream is not closed.</p>
+     *
+     * @param stream The stream to write to.
+     * @throws IOException If the level could not be written.
+     */
+    public void write(OutputStream stream) throws IOException {
+        write(Channels.newChannel(stream));
+    }
+
+    private void write(WritableByteChannel channel) throws IOException {
+        // Chunks are only written for the parts of the tile maps which are not empty.
+        int chunkArea = TileMap2D.CHUNK_SIZE * TileMap2D.CHUNK_SIZE;
+        ByteBuffer chunks = allocate(16 * CHUNK_SIZE);
+        ByteBuffer chunkData = allocate(0);
+        int chunkCount = 0;
+        for (int map = 0; map < tiles.size(); map++) {
+            short[] mapTiles = tiles.get(map);
+            int width = tileMapSizes.get(map)[0];
+            int height = tileMapSizes.get(map)[1];
+            for (int chunkY = 0; chunkY * TileMap2D.CHUNK_SIZE < height; chunkY++) {
+                for (int chunkX = 0; chunkX * TileMap2D.CHUNK_SIZE < width; chunkX++) {
+                    if (isChunkEmpty(mapTiles, width, height, chunkX, chunkY))
+                        continue;
+                    chunks = ensure(chunks, CHUNK_SIZE);
+                    chunks.putInt(map).putInt(chunkX).putInt(chunkY)
+                            .putInt(data.position() + chunkData.position());
+                    chunkData = ensure(chunkData, chunkArea * Short.BYTES);
+                    for (int y = 0; y < TileMap2D.CHUNK_SIZE; y++) {
+                        for (int x = 0; x < TileMap2D.CHUNK_SIZE; x++) {
+                            int tileX = chunkX * TileMap2D.CHUNK_SIZE + x, tileY = chunkY * TileMap2D.CHUNK_SIZE + y;
+                            boolean inside = tileX < width && tileY < height;
+                            chunkData.putShort(inside ? mapTiles[tileY * width + tileX] : TileMap2D.EMPTY);
+                        }
+                    }
+                    chunkCount++;
+                }
+            }
+        }
+
+        ByteBuffer[] sections = {materials, animations, items, tileMaps, chunks};
+        int[] counts = {materialCount, animationCount, itemCount, tiles.size(), chunkCount};
+        ByteBuffer header = allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < sections.length; i++) {
+            header.putInt(counts[i]).putInt(offset);
+            offset += sections[i].position();
+        }
+        header.putInt(offset).putInt(data.position() + chunkData.position());
+        header.position(HEADER_SIZE).flip();
+
+        writeFully(channel, header);
+        for (ByteBuffer section : sections)
+            writeFully(channel, section.duplicate().flip());
+        writeFully(channel, data.duplicate().flip());
+        writeFully(channel, chunkData.flip());
+    }
+
+    private static boolean isChunkEmpty(short[] tiles, int width, int height, int chunkX, int chunkY) {
+        int endX = Math.min((chunkX + 1) * TileMap2D.CHUNK_SIZE, width);
+        int endY = Math.min((chunkY + 1) * TileMap2D.CHUNK_SIZE, height);
+        for (int y = chunkY * TileMap2D.CHUNK_SIZE; y < endY; y++) {
+            for (int x = chunkX * TileMap2D.CHUNK_SIZE; x < endX; x++) {
+                if (tiles[y * width + x] != TileMap2D.EMPTY)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private void align() {
+        while ((data.position() & 3) != 0)
+            data.put((byte) 0);
+    }
+
+    private static void checkIndex(int index, int count, String name) {
+        if (index < 0 || index >= count)
+            throw new IllegalArgumentException("The " + name + " " + index + " does not exist.");
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes)
+            return buffer;
+        ByteBuffer grown = allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        grown.put(buffer.flip());
+        return grown;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ORDER);
+    }
+}
@@ -0,0 +1,157 @@
+package org.kakara.engine2d.metrics;
+
+/**
+ * An immutable snapshot of the metrics recorded for a single 2D frame.
+ *
+ * <p>Snapshots are published by {@link RenderMetrics2D} at the end of every frame. They can be
+ * safely read from any thread.</p>
+ */
+public final class FrameMetrics2D {
+    /**
+     * A snapshot where every value is zero.
+     */
+    public static final FrameMetrics2D EMPTY = new FrameMetrics2D(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private final long frame;
+    private final int itemsConsidered;
+    private final int itemsCulled;
+    private final int drawCalls;
+    private final int textureBinds;
+    private final int uniformUploads;
+    private final long verticesSubmitted;
+    private final long bytesUploaded;
+    private final long updateNanos;
+    private final long renderNanos;
+    private final int staticLayerRefreshes;
+
+    FrameMetrics2D(long frame, int itemsConsidered, int itemsCulled, int drawCalls, int textureBinds, int uniformUploads,
+                   long verticesSubmitted, long bytesUploaded, long updateNanos, long renderNanos, int staticLayerRefreshes) {
+        this.frame = frame;
+        this.itemsConsidered = itemsConsidered;
+        this.itemsCulled = itemsCulled;
+        this.drawCalls = drawCalls;
+        this.textureBinds = textureBinds;
+        this.uniformUploads = uniformUploads;
+        this.verticesSubmitted = verticesSubmitted;
+        this.bytesUploaded = bytesUploaded;
+        this.updateNanos = updateNanos;
+        this.renderNanos = renderNanos;
+        this.staticLayerRefreshes = staticLayerRefreshes;
+    }
+
+    /**
+     * Get the number of the frame this snapshot belongs to.
+     *
+     * @return The frame number. (Starts at 1).
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the number of 2D items the pipeline looked at.
+     *
+     * @return The number of items considered.
+     */
+    public int getItemsConsidered() {
+        return itemsConsidered;
+    }
+
+    /**
+     * Get the number of items that were skipped because they would not be seen.
+     *
+     * @return The number of items culled.
+     */
+    public int getItemsCulled() {
+        return itemsCulled;
+    }
+
+    /**
+     * Get the number of draw calls issued.
+     *
+     * @return The number of draw calls.
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the number of times a texture was bound.
+     *
+     * @return The number of texture binds.
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * Get the number of uniform values uploaded.
+     *
+     * @return The number of uniform uploads.
+     */
+    public int getUniformUploads() {
+        return uniformUploads;
+    }
+
+    /**
+     * Get the number of vertices (indices) submitted by the draw calls.
+     *
+     * @return The number of vertices submitted.
+     */
+    public long getVerticesSubmitted() {
+        return verticesSubmitted;
+    }
+
+    /**
+     * Get the number of bytes uploaded to the GPU. (Uniforms, buffers and textures).
+     *
+     * @return The number of bytes uploaded.
+     */
+    public long getBytesUploaded() {
+        return bytesUploaded;
+    }
+
+    /**
+     * Get the time spent updating the components of the 2D items.
+     *
+     * @return The update time in nanoseconds.
+     */
+    public long getUpdateNanos() {
+        return updateNanos;
+    }
+
+    /**
+     * Get the time spent in the 2D render pipeline.
+     *
+     * @return The render time in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * Get the number of static layers that had to be rendered again.
+     *
+     * @return The number of static layer refreshes.
+     */
+    public int getStaticLayerRefreshes() {
+        return staticLayerRefreshes;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameMetrics2D{" +
+                "frame=" + frame +
+                ", itemsConsidered=" + itemsConsidered +
+                ", itemsCulled=" + itemsCulled +
+                ", drawCalls=" + drawCalls +
+                ", textureBinds=" + textureBinds +
+                ", uniformUploads=" + uniformUploads +
+                ", verticesSubmitted=" + verticesSubmitted +
+                ", bytesUploaded=" + bytesUploaded +
+                ", updateNanos=" + updateNanos +
+                ", renderNanos=" + renderNanos +
+                ", staticLayerRefreshes=" + staticLayerRefreshes +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package org.kakara.engine2d.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder event emitted by {@link RenderMetrics2D} for every 2D frame.
+ */
+@Name("org.kakara.engine2d.Frame")
+@Label("2D Frame")
+@Category({"Kakara Engine", "2D Rendering"})
+@Description("The counters and timings of a single frame of the 2D render pipeline.")
+class Render2DFrameEvent extends Event {
+    @Label("Frame")
+    long frame;
+
+    @Label("Items Considered")
+    int itemsConsidered;
+
+    @Label("Items Culled")
+    int itemsCulled;
+
+    @Label("Draw Calls")
+    int drawCalls;
+
+    @Label("Texture Binds")
+    int textureBinds;
+
+    @Label("Uniform Uploads")
+    int uniformUploads;
+
+    @Label("Vertices Submitted")
+    long verticesSubmitted;
+
+    @Label("Bytes Uploaded")
+    @DataAmount
+    long bytesUploaded;
+
+    @Label("Update Time")
+    @Timespan
+    long updateNanos;
+
+    @Label("Render Time")
+    @Timespan
+    long renderNanos;
+
+    @Label("Static Layer Refreshes")
+    int staticLayerRefreshes;
+
+    /**
+     * Emit an event for the provided snapshot.
+     *
+     * @param metrics The snapshot.
+     */
+    static void emit(FrameMetrics2D metrics) {
+        Render2DFrameEvent event = new Render2DFrameEvent();
+        if (!event.shouldCommit())
+            return;
+        event.frame = metrics.getFrame();
+        event.itemsConsidered = metrics.getItemsConsidered();
+        event.itemsCulled = metrics.getItemsCulled();
+        event.drawCalls = metrics.getDrawCalls();
+        event.textureBinds = metrics.getTextureBinds();
+        event.uniformUploads = metrics.getUniformUploads();
+        event.verticesSubmitted = metrics.getVerticesSubmitted();
+        event.bytesUploaded = metrics.getBytesUploaded();
+        event.updateNanos = metrics.getUpdateNanos();
+        event.renderNanos = metrics.getRenderNanos();
+        event.staticLayerRefreshes = metrics.getStaticLayerRefreshes();
+        event.commit();
+    }
+}
@@ -0,0 +1,193 @@
+package org.kakara.engine2d.metrics;
+
+/**
+ * Records the counters and timings of the 2D render pipeline for every frame.
+ *
+ * <p>The counters are written by the main thread while a frame is being processed. When the frame
+ * ends an immutable {@link FrameMetrics2D} snapshot is published. Reading the latest snapshot never blocks
+ * and can be done from any thread.</p>
+ *
+ * <p>Optionally, every frame can also be emitted as a JDK Flight Recorder event. See {@link #setJfrEnabled(boolean)}.</p>
+ *
+ * <code>
+ * FrameMetrics2D metrics = scene.getRenderMetrics().getLatest();<br>
+ * System.out.println(metrics.getDrawCalls());<br>
+ * </code>
+ */
+public class RenderMetrics2D {
+    private volatile FrameMetrics2D latest = FrameMetrics2D.EMPTY;
+    private volatile boolean enabled = true;
+    private volatile boolean jfrEnabled = false;
+
+    private long frame;
+    private int itemsConsidered;
+    private int itemsCulled;
+    private int drawCalls;
+    private int textureBinds;
+    private int uniformUploads;
+    private long verticesSubmitted;
+    private long bytesUploaded;
+    private long updateNanos;
+    private long renderNanos;
+    private int staticLayerRefreshes;
+
+    /**
+     * Start recording a new frame.
+     * <p>Internal use only.</p>
+     */
+    public void beginFrame() {
+        itemsConsidered = 0;
+        itemsCulled = 0;
+        drawCalls = 0;
+        textureBinds = 0;
+        uniformUploads = 0;
+        verticesSubmitted = 0;
+        bytesUploaded = 0;
+        updateNanos = 0;
+        renderNanos = 0;
+        staticLayerRefreshes = 0;
+    }
+
+    /**
+     * Finish the current frame and publish its snapshot.
+     * <p>Internal use only.</p>
+     */
+    public void endFrame() {
+        frame++;
+        if (!enabled)
+            return;
+        FrameMetrics2D snapshot = new FrameMetrics2D(frame, itemsConsidered, itemsCulled, drawCalls, textureBinds,
+                uniformUploads, verticesSubmitted, bytesUploaded, updateNanos, renderNanos, staticLayerRefreshes);
+        latest = snapshot;
+        if (jfrEnabled)
+            Render2DFrameEvent.emit(snapshot);
+    }
+
+    /**
+     * Get the metrics of the last completed frame.
+     *
+     * @return The latest snapshot. (Never null).
+     */
+    public FrameMetrics2D getLatest() {
+        return latest;
+    }
+
+    /**
+     * Set if snapshots should be published.
+     * <p>This is enabled by default.</p>
+     *
+     * @param enabled If snapshots should be published.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get if snapshots are being published.
+     *
+     * @return If snapshots are published.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set if a JDK Flight Recorder event should be emitted for every frame.
+     *
+     * <p>The events are only recorded when a flight recording with the <code>org.kakara.engine2d.Frame</code>
+     * event enabled is running. This is disabled by default.</p>
+     *
+     * @param jfrEnabled If JFR events should be emitted.
+     */
+    public void setJfrEnabled(boolean jfrEnabled) {
+        this.jfrEnabled = jfrEnabled;
+    }
+
+    /**
+     * Get if a JDK Flight Recorder event is emitted for every frame.
+     *
+     * @return If JFR events are emitted.
+     */
+    public boolean isJfrEnabled() {
+        return jfrEnabled;
+    }
+
+    /**
+     * Record that the pipeline looked at a number of items.
+     *
+     * @param items The number of items.
+     */
+    public void addItemsConsidered(int items) {
+        itemsConsidered += items;
+    }
+
+    /**
+     * Record that a number of items were skipped because they would not be seen.
+     *
+     * @param items The number of items.
+     */
+    public void addItemsCulled(int items) {
+        itemsCulled += items;
+    }
+
+    /**
+     * Record a draw call.
+     *
+     * @param vertices The number of vertices (indices) submitted by the draw call.
+     */
+    public void addDrawCall(int vertices) {
+        drawCalls++;
+        verticesSubmitted += vertices;
+    }
+
+    /**
+     * Record that a texture was bound.
+     */
+    public void addTextureBind() {
+        textureBinds++;
+    }
+
+    /**
+     * Record that a uniform was uploaded.
+     *
+     * @param bytes The size of the uniform in bytes.
+     */
+    public void addUniformUpload(int bytes) {
+        uniformUploads++;
+        bytesUploaded += bytes;
+    }
+
+    /**
+     * Record that data was uploaded to a buffer or texture.
+     *
+     * @param bytes The number of bytes uploaded.
+     */
+    public void addBytesUploaded(long bytes) {
+        bytesUploaded += bytes;
+    }
+
+    /**
+     * Record time spent updating the 2D items.
+     *
+     * @param nanos The time in nanoseconds.
+     */
+    public void addUpdateTime(long nanos) {
+        updateNanos += nanos;
+    }
+
+    /**
+     * Record time spent rendering the 2D items.
+     *
+     * @param nanos The time in nanoseconds.
+     */
+    public void addRenderTime(long nanos) {
+        renderNanos += nanos;
+    }
+
+    /**
+     * Record that a static layer was rendered again.
+     */
+    public void addStaticLayerRefresh() {
+        staticLayerRefreshes++;
+    }
+}
@@ -0,0 +1,370 @@
+package org.kakara.engine2d.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Finds the shortest path across a {@link WalkabilityGrid2D} using Jump Point Search.
+ *
+ * <p>Jump Point Search is A* on a uniform cost grid which skips over the cells along straight lines that cannot be
+ * part of a shorter path, so only the corners of the path are added to the open list. Agents can move in eight
+ * directions, but cannot cut the corner of a blocked cell.</p>
+ *
+ * <p>The arrays used by the search are sized to the grid and reused by every search, so a search does not allocate
+ * anything except the returned path. An instance must only be used by one thread at a time. The
+ * {@link PathfindingService2D} keeps one for each worker thread.</p>
+ */
+public class JumpPointSearch2D {
+    private static final float SQRT2 = (float) Math.sqrt(2);
+
+    private WalkabilityGrid2D grid;
+    private int width;
+    private float[] costs;
+    private int[] parents;
+    private int[] openedSearch;
+    private int[] closedSearch;
+    private int search;
+
+    private int[] heapNodes = new int[256];
+    private float[] heapKeys = new float[256];
+    private int heapSize;
+    private final int[] neighbors = new int[16];
+    private int[] pathBuffer = new int[64];
+
+    private int goalX;
+    private int goalY;
+
+    /**
+     * Construct a search for a grid.
+     *
+     * @param grid The grid to search.
+     */
+    public JumpPointSearch2D(WalkabilityGrid2D grid) {
+        setGrid(grid);
+    }
+
+    /**
+     * Set the grid to search.
+     * <p>The arrays of the search are only created again if the size of the grid changed.</p>
+     *
+     * @param grid The grid.
+     */
+    public void setGrid(WalkabilityGrid2D grid) {
+        int cells = grid.getWidth() * grid.getHeight();
+        if (costs == null || costs.length != cells) {
+            costs = new float[cells];
+            parents = new int[cells];
+            openedSearch = new int[cells];
+            closedSearch = new int[cells];
+            search = 0;
+        }
+        this.grid = grid;
+        this.width = grid.getWidth();
+    }
+
+    /**
+     * Get the grid which is searched.
+     *
+     * @return The grid.
+     */
+    public WalkabilityGrid2D getGrid() {
+        return grid;
+    }
+
+    /**
+     * Find the shortest path between two cells.
+     *
+     * @param startX The x position of the start.
+     * @param startY The y position of the start.
+     * @param goalX  The x position of the goal.
+     * @param goalY  The y position of the goal.
+     * @return The path. (Null if there is no path).
+     */
+    public Path2D findPath(int startX, int startY, int goalX, int goalY) {
+        if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY))
+            return null;
+        if (startX == goalX && startY == goalY)
+            return new Path2D(new int[]{startX, startY});
+
+        if (++search == Integer.MAX_VALUE) {
+            Arrays.fill(openedSearch, 0);
+            Arrays.fill(closedSearch, 0);
+            search = 1;
+        }
+        this.goalX = goalX;
+        this.goalY = goalY;
+        heapSize = 0;
+
+        int start = startY * width + startX;
+        open(start, -1, 0, heuristic(startX, startY));
+        while (heapSize > 0) {
+            int node = pop();
+            if (closedSearch[node] == search)
+                continue;
+            closedSearch[node] = search;
+            int x = node % width;
+            int y = node / width;
+            if (x == goalX && y == goalY)
+                return buildPath(node);
+            expand(node, x, y);
+        }
+        return null;
+    }
+
+    /**
+     * Add the jump points reachable from a node to the open list.
+     */
+    private void expand(int node, int x, int y) {
+        int count = findNeighbors(node, x, y);
+        for (int i = 0; i < count; i += 2) {
+            int neighborX = neighbors[i];
+            int neighborY = neighbors[i + 1];
+            int jumpPoint = jump(neighborX, neighborY, neighborX - x, neighborY - y);
+            if (jumpPoint == -1 || closedSearch[jumpPoint] == search)
+                continue;
+            int jumpX = jumpPoint % width;
+            int jumpY = jumpPoint / width;
+            float cost = costs[node] + distance(x, y, jumpX, jumpY);
+            if (openedSearch[jumpPoint] != search || cost < costs[jumpPoint])
+                open(jumpPoint, node, cost, cost + heuristic(jumpX, jumpY));
+        }
+    }
+
+    /**
+     * Find the neighbors of a node which are worth jumping from, pruned by the direction the node was reached from.
+     *
+     * @return The number of values written to the neighbor array. (Two per neighbor).
+     */
+    private int findNeighbors(int node, int x, int y) {
+        int count = 0;
+        int parent = parents[node];
+        if (parent == -1) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx != 0 || dy != 0) && canMove(x, y, dx, dy)) {
+                        neighbors[count++] = x + dx;
+                        neighbors[count++] = y + dy;
+                    }
+                }
+            }
+            return count;
+        }
+
+        int dx = Integer.signum(x - parent % width);
+        int dy = Integer.signum(y - parent / width);
+        if (dx != 0 && dy != 0) {
+            boolean walkableX = walkable(x + dx, y);
+            boolean walkableY = walkable(x, y + dy);
+            if (walkableY) {
+                neighbors[count++] = x;
+                neighbors[count++] = y + dy;
+            }
+            if (walkableX) {
+                neighbors[count++] = x + dx;
+                neighbors[count++] = y;
+            }
+            if (walkableX && walkableY) {
+                neighbors[count++] = x + dx;
+                neighbors[count++] = y + dy;
+            }
+        } else if (dx != 0) {
+            boolean next = walkable(x + dx, y);
+            boolean below = walkable(x, y + 1);
+            boolean above = walkable(x, y - 1);
+            if (next) {
+                neighbors[count++] = x + dx;
+                neighbors[count++] = y;
+                if (below) {
+                    neighbors[count++] = x + dx;
+                    neighbors[count++] = y + 1;
+                }
+                if (above) {
+                    neighbors[count++] = x + dx;
+                    neighbors[count++] = y - 1;
+                }
+            }
+            if (below) {
+                neighbors[count++] = x;
+                neighbors[count++] = y + 1;
+            }
+            if (above) {
+                neighbors[count++] = x;
+                neighbors[count++] = y - 1;
+            }
+        } else {
+            boolean next = walkable(x, y + dy);
+            boolean right = walkable(x + 1, y);
+            boolean left = walkable(x - 1, y);
+            if (next) {
+                neighbors[count++] = x;
+                neighbors[count++] = y + dy;
+                if (right) {
+                    neighbors[count++] = x + 1;
+                    neighbors[count++] = y + dy;
+                }
+                if (left) {
+                    neighbors[count++] = x - 1;
+                    neighbors[count++] = y + dy;
+                }
+            }
+            if (right) {
+                neighbors[count++] = x + 1;
+                neighbors[count++] = y;
+            }
+            if (left) {
+                neighbors[count++] = x - 1;
+                neighbors[count++] = y;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Move from a cell in a direction until a jump point is found.
+     *
+     * @return The node of the jump point. (-1 if there is none).
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        if (dx == 0 || dy == 0)
+            return jumpStraight(x, y, dx, dy);
+        while (true) {
+            if (!walkable(x, y))
+                return -1;
+            if (x == goalX && y == goalY)
+                return y * width + x;
+            if (jumpStraight(x + dx, y, dx, 0) != -1 || jumpStraight(x, y + dy, 0, dy) != -1)
+                return y * width + x;
+            if (!walkable(x + dx, y) || !walkable(x, y + dy))
+                return -1;
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private int jumpStraight(int x, int y, int dx, int dy) {
+        if (dx != 0) {
+            int jumpX = scan(false, y, x, dx, goalY, goalX);
+            return jumpX == -1 ? -1 : y * width + jumpX;
+        }
+        int jumpY = scan(true, x, y, dy, goalX, goalY);
+        return jumpY == -1 ? -1 : jumpY * width + x;
+    }
+
+    /**
+     * Scan along a row or column 64 cells at a time until a jump point is found.
+     *
+     * <p>A cell is a jump point if it is the goal or if a cell beside it is walkable while the cell behind that one is
+     * blocked (a forced neighbor). The scan stops without a jump point at the first blocked cell.</p>
+     *
+     * @param transposed If a column is scanned instead of a row.
+     * @param line       The row or column.
+     * @param position   The position along the line to start at.
+     * @param direction  The direction to scan in. (1 or -1).
+     * @param goalLine   The row or column of the goal.
+     * @param goalPos    The position of the goal along its line.
+     * @return The position of the jump point along the line. (-1 if there is none).
+     */
+    private int scan(boolean transposed, int line, int position, int direction, int goalLine, int goalPos) {
+        while (true) {
+            // Forwards, bit i is the cell at position + i. Backwards, bit 63 - i is the cell at position - i.
+            int start = direction > 0 ? position : position - 63;
+            long cells = grid.readLine(transposed, line, start);
+            long before = grid.readLine(transposed, line - 1, start);
+            long beforeBehind = grid.readLine(transposed, line - 1, start - direction);
+            long after = grid.readLine(transposed, line + 1, start);
+            long afterBehind = grid.readLine(transposed, line + 1, start - direction);
+            long events = ~cells | (before & ~beforeBehind) | (after & ~afterBehind);
+            if (goalLine == line && goalPos >= start && goalPos < start + 64)
+                events |= 1L << (goalPos - start);
+            if (events != 0) {
+                int offset = direction > 0 ? Long.numberOfTrailingZeros(events) : Long.numberOfLeadingZeros(events);
+                int bit = direction > 0 ? offset : 63 - offset;
+                return (cells & 1L << bit) == 0 ? -1 : position + offset * direction;
+            }
+            position += 64 * direction;
+        }
+    }
+
+    private boolean canMove(int x, int y, int dx, int dy) {
+        if (!walkable(x + dx, y + dy))
+            return false;
+        return dx == 0 || dy == 0 || (walkable(x + dx, y) && walkable(x, y + dy));
+    }
+
+    private boolean walkable(int x, int y) {
+        return grid.isWalkable(x, y);
+    }
+
+    private float heuristic(int x, int y) {
+        return distance(x, y, goalX, goalY);
+    }
+
+    /**
+     * The octile distance, which is the exact cost of moving in a straight line or diagonal.
+     */
+    private static float distance(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        return Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+    }
+
+    private Path2D buildPath(int goal) {
+        int count = 0;
+        for (int node = goal; node != -1; node = parents[node]) {
+            if (count + 2 > pathBuffer.length)
+                pathBuffer = Arrays.copyOf(pathBuffer, pathBuffer.length * 2);
+            pathBuffer[count++] = node % width;
+            pathBuffer[count++] = node / width;
+        }
+        // The points were added from the goal, so they are reversed into the path.
+        int[] points = new int[count];
+        for (int i = 0; i < count; i += 2) {
+            points[i] = pathBuffer[count - i - 2];
+            points[i + 1] = pathBuffer[count - i - 1];
+        }
+        return new Path2D(points);
+    }
+
+    private void open(int node, int parent, float cost, float priority) {
+        openedSearch[node] = search;
+        costs[node] = cost;
+        parents[node] = parent;
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+        // Nodes which are opened again are added a second time, the older entry is skipped once it is closed.
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heapKeys[up] <= priority)
+                break;
+            heapNodes[i] = heapNodes[up];
+            heapKeys[i] = heapKeys[up];
+            i = up;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = priority;
+    }
+
+    private int pop() {
+        int top = heapNodes[0];
+        int lastNode = heapNodes[--heapSize];
+        float lastKey = heapKeys[heapSize];
+        int i = 0;
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+                child++;
+            if (heapKeys[child] >= lastKey)
+                break;
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = lastNode;
+        heapKeys[i] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,69 @@
+package org.kakara.engine2d.pathfinding;
+
+/**
+ * A path across a {@link WalkabilityGrid2D}.
+ *
+ * <p>The path is a list of cells starting at the start and ending at the goal. Consecutive points are connected by
+ * straight lines which only cross walkable cells, so only the corners of the path are stored. Paths are immutable
+ * and can be shared between agents.</p>
+ */
+public final class Path2D {
+    private final int[] points;
+
+    /**
+     * Construct a path.
+     *
+     * @param points The x and y of every point of the path.
+     */
+    Path2D(int[] points) {
+        this.points = points;
+    }
+
+    /**
+     * Get the number of points in the path.
+     *
+     * @return The number of points.
+     */
+    public int size() {
+        return points.length / 2;
+    }
+
+    /**
+     * Get the x position of a point.
+     *
+     * @param index The index of the point.
+     * @return The x position of the cell.
+     */
+    public int getX(int index) {
+        return points[index * 2];
+    }
+
+    /**
+     * Get the y position of a point.
+     *
+     * @param index The index of the point.
+     * @return The y position of the cell.
+     */
+    public int getY(int index) {
+        return points[index * 2 + 1];
+    }
+
+    /**
+     * Get the length of the path.
+     *
+     * @return The length in cells.
+     */
+    public float getLength() {
+        float length = 0;
+        for (int i = 2; i < points.length; i += 2) {
+            float dx = points[i] - points[i - 2];
+            float dy = points[i + 1] - points[i - 1];
+            length += (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        return length;
+    }
+
+    int[] getPoints() {
+        return points;
+    }
+}
@@ -0,0 +1,69 @@
+package org.kakara.engine2d.pathfinding;
+
+import java.util.function.Consumer;
+
+/**
+ * A path which was requested from a {@link PathfindingService2D}.
+ *
+ * <p>The path is found on a worker thread and the callback is called on the main thread during a later
+ * {@link PathfindingService2D#update()}.</p>
+ */
+public final class PathRequest2D {
+    final int startX;
+    final int startY;
+    final int goalX;
+    final int goalY;
+    final Consumer<Path2D> callback;
+    volatile Path2D path;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+
+    PathRequest2D(int startX, int startY, int goalX, int goalY, Consumer<Path2D> callback) {
+        this.startX = startX;
+        this.startY = startY;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.callback = callback;
+    }
+
+    /**
+     * Cancel the request.
+     * <p>The callback is not called if the request is cancelled before it is delivered.</p>
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Get if the request was cancelled.
+     *
+     * @return If the request was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get if the path was delivered to the callback.
+     *
+     * @return If the request is done.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Get the path that was found.
+     *
+     * @return The path. (Null if the request is not done or there is no path).
+     */
+    public Path2D getPath() {
+        return done ? path : null;
+    }
+
+    void deliver() {
+        done = true;
+        if (!cancelled && callback != null)
+            callback.accept(path);
+    }
+}
@@ -0,0 +1,284 @@
+package org.kakara.engine2d.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Finds paths across a {@link WalkabilityGrid2D} on a pool of worker threads.
+ *
+ * <p>Requests are collected during the frame and sent to the workers in batches by {@link #update()}. Paths which
+ * were found are delivered to their callbacks by a later {@link #update()}, so callbacks are always called on the
+ * main thread at the start of a frame. The {@link org.kakara.engine2d.Abstract2DScene} calls {@link #update()} every
+ * frame once the service is set with {@link org.kakara.engine2d.Abstract2DScene#setPathfinding(PathfindingService2D)}.
+ * </p>
+ *
+ * <p>The workers search a copy of the grid, which is replaced at the next {@link #update()} after the grid changes.
+ * Found paths are cached by the regions ({@value RegionPathCache2D#REGION_SIZE} by
+ * {@value RegionPathCache2D#REGION_SIZE} cells) of their start and goal. When an agent asks for a path between the
+ * same regions, the cached path is reused if the start can see its first point and its last point can see the goal.
+ * A reused path can be slightly longer than the shortest path. Use {@link #setCacheSize(int)} to disable the cache if
+ * only the shortest paths are wanted. The cache is cleared every time the grid changes.</p>
+ *
+ * <code>
+ * PathfindingService2D pathfinding = new PathfindingService2D(WalkabilityGrid2D.fromTileMap(tileMap, tile -&gt; tile == TileMap2D.EMPTY));<br>
+ * setPathfinding(pathfinding);<br>
+ * pathfinding.request(0, 0, 40, 25, path -&gt; {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;if (path != null)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;agent.follow(path);<br>
+ * });<br>
+ * </code>
+ */
+public class PathfindingService2D {
+    /**
+     * The default number of paths in the cache.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final int BATCH_SIZE = 32;
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final ThreadLocal<JumpPointSearch2D> searches = new ThreadLocal<>();
+    private final RegionPathCache2D cache = new RegionPathCache2D(DEFAULT_CACHE_SIZE);
+    private final List<PathRequest2D> pending = new ArrayList<>();
+    private final Queue<PathRequest2D> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private WalkabilityGrid2D grid;
+    private volatile WalkabilityGrid2D snapshot;
+    private JumpPointSearch2D mainSearch;
+    private boolean shutdown;
+
+    /**
+     * Construct a service with one worker thread less than the number of processors. (At least one).
+     *
+     * @param grid The grid to search.
+     */
+    public PathfindingService2D(WalkabilityGrid2D grid) {
+        this(grid, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Construct a service.
+     *
+     * @param grid    The grid to search.
+     * @param threads The number of worker threads.
+     */
+    public PathfindingService2D(WalkabilityGrid2D grid, int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("The pathfinding service needs at least one worker thread.");
+        this.threads = threads;
+        setGrid(grid);
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "2D Pathfinding Worker " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Request a path from the worker threads.
+     *
+     * <p>The request is sent to the workers at the next {@link #update()} and the callback is called on the main
+     * thread during a later {@link #update()}.</p>
+     *
+     * @param startX   The x position of the start.
+     * @param startY   The y position of the start.
+     * @param goalX    The x position of the goal.
+     * @param goalY    The y position of the goal.
+     * @param callback Called with the path. (It is called with null if there is no path).
+     * @return The request, which can be used to cancel it.
+     */
+    public PathRequest2D request(int startX, int startY, int goalX, int goalY, Consumer<Path2D> callback) {
+        if (shutdown)
+            throw new IllegalStateException("The pathfinding service has been shutdown.");
+        PathRequest2D request = new PathRequest2D(startX, startY, goalX, goalY, callback);
+        pending.add(request);
+        return request;
+    }
+
+    /**
+     * Find a path on the calling thread.
+     *
+     * <p>This uses the same grid copy and cache as the workers. This must be called on the main thread.</p>
+     *
+     * @param startX The x position of the start.
+     * @param startY The y position of the start.
+     * @param goalX  The x position of the goal.
+     * @param goalY  The y position of the goal.
+     * @return The path. (Null if there is no path).
+     */
+    public Path2D findPath(int startX, int startY, int goalX, int goalY) {
+        refreshSnapshot();
+        if (mainSearch == null)
+            mainSearch = new JumpPointSearch2D(snapshot);
+        return find(mainSearch, snapshot, startX, startY, goalX, goalY);
+    }
+
+    /**
+     * Deliver the paths which were found and send the pending requests to the workers.
+     *
+     * <p>This is called every frame by the {@link org.kakara.engine2d.Abstract2DScene} the service is set on.
+     * Otherwise, it must be called every frame on the main thread.</p>
+     */
+    public void update() {
+        PathRequest2D request;
+        while ((request = completed.poll()) != null)
+            request.deliver();
+
+        if (pending.isEmpty() || shutdown)
+            return;
+        refreshSnapshot();
+        WalkabilityGrid2D grid = snapshot;
+        for (int start = 0; start < pending.size(); start += BATCH_SIZE) {
+            List<PathRequest2D> batch = new ArrayList<>(pending.subList(start, Math.min(start + BATCH_SIZE, pending.size())));
+            running.addAndGet(batch.size());
+            workers.execute(() -> process(grid, batch));
+        }
+        pending.clear();
+    }
+
+    /**
+     * Set the grid to search.
+     * <p>This clears the cache.</p>
+     *
+     * @param grid The grid.
+     */
+    public void setGrid(WalkabilityGrid2D grid) {
+        this.grid = Objects.requireNonNull(grid);
+        this.snapshot = grid.copy();
+        cache.clear();
+    }
+
+    /**
+     * Get the grid which is searched.
+     * <p>Changes to the grid are seen by the workers after the next {@link #update()}.</p>
+     *
+     * @return The grid.
+     */
+    public WalkabilityGrid2D getGrid() {
+        return grid;
+    }
+
+    /**
+     * Set the maximum number of paths in the cache.
+     *
+     * @param size The number of paths. (0 to disable the cache).
+     */
+    public void setCacheSize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("The cache size cannot be negative.");
+        cache.setCapacity(size);
+    }
+
+    /**
+     * Get the maximum number of paths in the cache.
+     * <p>This is {@link #DEFAULT_CACHE_SIZE} by default.</p>
+     *
+     * @return The number of paths.
+     */
+    public int getCacheSize() {
+        return cache.getCapacity();
+    }
+
+    /**
+     * Get the number of requests which reused a cached path.
+     *
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Get the number of requests which were searched.
+     *
+     * @return The number of cache misses.
+     */
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Get the number of requests which have not been delivered yet.
+     *
+     * @return The number of requests.
+     */
+    public int getPendingCount() {
+        return pending.size() + running.get() + completed.size();
+    }
+
+    /**
+     * Get the number of worker threads.
+     *
+     * @return The number of threads.
+     */
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * Stop the worker threads.
+     * <p>Requests which have not been delivered are dropped. This is called when the scene is unloaded.</p>
+     */
+    public void shutdown() {
+        shutdown = true;
+        workers.shutdownNow();
+        pending.clear();
+        completed.clear();
+    }
+
+    /**
+     * Get if the service has been shutdown.
+     *
+     * @return If the service was shutdown.
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Replace the copy of the grid used by the workers if the grid changed.
+     */
+    private void refreshSnapshot() {
+        if (snapshot.getVersion() != grid.getVersion()) {
+            snapshot = grid.copy();
+            cache.clear();
+        }
+    }
+
+    private void process(WalkabilityGrid2D grid, List<PathRequest2D> batch) {
+        JumpPointSearch2D search = searches.get();
+        if (search == null) {
+            search = new JumpPointSearch2D(grid);
+            searches.set(search);
+        }
+        for (PathRequest2D request : batch) {
+            if (!request.isCancelled())
+                request.path = find(search, grid, request.startX, request.startY, request.goalX, request.goalY);
+            completed.add(request);
+            running.decrementAndGet();
+        }
+    }
+
+    private Path2D find(JumpPointSearch2D search, WalkabilityGrid2D grid, int startX, int startY, int goalX, int goalY) {
+        if (search.getGrid() != grid)
+            search.setGrid(grid);
+        if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY))
+            return null;
+        Path2D path = cache.get(grid, startX, startY, goalX, goalY);
+        if (path != null)
+            return path;
+        path = search.findPath(startX, startY, goalX, goalY);
+        if (path != null)
+            cache.put(grid, startX, startY, goalX, goalY, path);
+        return path;
+    }
+}
@@ -0,0 +1,119 @@
+package org.kakara.engine2d.pathfinding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers recent paths by the regions of their start and goal.
+ *
+ * <p>A request whose start and goal are in the same regions as a cached path reuses that path, as long as the
+ * start can see the first point of the cached path and the last point can see the goal. The grid is split into
+ * square regions of {@link #REGION_SIZE} cells. Paths are only reused on the grid they were found on, so paths which
+ * are still being found on an old copy of the grid are never used. This class is shared by the worker threads.</p>
+ */
+final class RegionPathCache2D {
+    static final int REGION_SHIFT = 3;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    private final LinkedHashMap<Long, CachedPath> entries;
+    private int capacity;
+    private long hits;
+    private long misses;
+
+    RegionPathCache2D(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, CachedPath>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+                return size() > RegionPathCache2D.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Find a cached path for a request.
+     *
+     * @return The path from the start to the goal. (Null if there is no usable path).
+     */
+    Path2D get(WalkabilityGrid2D grid, int startX, int startY, int goalX, int goalY) {
+        CachedPath entry;
+        synchronized (this) {
+            entry = capacity == 0 ? null : entries.get(key(startX, startY, goalX, goalY));
+        }
+        Path2D path = entry == null || entry.grid != grid ? null
+                : reuse(grid, entry.path, startX, startY, goalX, goalY);
+        synchronized (this) {
+            if (path == null)
+                misses++;
+            else
+                hits++;
+        }
+        return path;
+    }
+
+    synchronized void put(WalkabilityGrid2D grid, int startX, int startY, int goalX, int goalY, Path2D path) {
+        if (capacity > 0)
+            entries.put(key(startX, startY, goalX, goalY), new CachedPath(path, grid));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        while (entries.size() > capacity)
+            entries.remove(entries.keySet().iterator().next());
+    }
+
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Connect the start and goal to a cached path if they can see its ends.
+     */
+    private static Path2D reuse(WalkabilityGrid2D grid, Path2D cached, int startX, int startY, int goalX, int goalY) {
+        int[] points = cached.getPoints();
+        int last = points.length - 2;
+        boolean sameStart = points[0] == startX && points[1] == startY;
+        boolean sameGoal = points[last] == goalX && points[last + 1] == goalY;
+        if (sameStart && sameGoal)
+            return cached;
+        if (!sameStart && !grid.hasLineOfSight(startX, startY, points[0], points[1]))
+            return null;
+        if (!sameGoal && !grid.hasLineOfSight(points[last], points[last + 1], goalX, goalY))
+            return null;
+        int offset = sameStart ? 0 : 2;
+        int[] joined = new int[points.length + offset + (sameGoal ? 0 : 2)];
+        joined[0] = startX;
+        joined[1] = startY;
+        System.arraycopy(points, 0, joined, offset, points.length);
+        joined[joined.length - 2] = goalX;
+        joined[joined.length - 1] = goalY;
+        return new Path2D(joined);
+    }
+
+    private static long key(int startX, int startY, int goalX, int goalY) {
+        return (long) (startX >>> REGION_SHIFT) << 48 | (long) (startY >>> REGION_SHIFT) << 32
+                | (long) (goalX >>> REGION_SHIFT) << 16 | (goalY >>> REGION_SHIFT);
+    }
+
+    private static final class CachedPath {
+        final Path2D path;
+        final WalkabilityGrid2D grid;
+
+        CachedPath(Path2D path, WalkabilityGrid2D grid) {
+            this.path = path;
+            this.grid = grid;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.kakara.engine2d.pathfinding;
+
+import org.kakara.engine2d.tilemap.TileMap2D;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A grid of cells which are either walkable or blocked.
+ *
+ * <p>Each cell is stored as a single bit, both by row and by column, so a 1024 by 1024 grid only uses 256 KB and
+ * {@link JumpPointSearch2D} can scan 64 cells at a time in any straight direction. Cells outside of the grid are
+ * blocked. The grid has a version which changes every time a cell changes, so the {@link PathfindingService2D} knows
+ * when its copy of the grid and its cached paths are out of date.</p>
+ *
+ * <code>
+ * // Every tile which is not empty is a wall.<br>
+ * WalkabilityGrid2D grid = WalkabilityGrid2D.fromTileMap(tileMap, tile -&gt; tile == TileMap2D.EMPTY);<br>
+ * </code>
+ */
+public class WalkabilityGrid2D {
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final int wordsPerColumn;
+    private final long[] rows;
+    private final long[] columns;
+    private int version;
+
+    /**
+     * Construct a grid where every cell is walkable.
+     *
+     * @param width  The width in cells.
+     * @param height The height in cells.
+     */
+    public WalkabilityGrid2D(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The size of a walkability grid must be greater than 0.");
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.wordsPerColumn = (height + 63) >>> 6;
+        this.rows = filled(height, wordsPerRow, width);
+        this.columns = filled(width, wordsPerColumn, height);
+    }
+
+    private WalkabilityGrid2D(WalkabilityGrid2D other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.wordsPerRow = other.wordsPerRow;
+        this.wordsPerColumn = other.wordsPerColumn;
+        this.rows = other.rows.clone();
+        this.columns = other.columns.clone();
+        this.version = other.version;
+    }
+
+    /**
+     * Create a grid from the tiles of a tile map.
+     *
+     * @param tileMap  The tile map. (Tile (0, 0) becomes cell (0, 0)).
+     * @param walkable Tests if a tile id is walkable. (Empty tiles are {@link TileMap2D#EMPTY}).
+     * @return The grid.
+     */
+    public static WalkabilityGrid2D fromTileMap(TileMap2D tileMap, IntPredicate walkable) {
+        WalkabilityGrid2D grid = new WalkabilityGrid2D(tileMap.getWidth(), tileMap.getHeight());
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (!walkable.test(tileMap.getTile(x, y)))
+                    grid.set(x, y, false);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Set if a cell is walkable.
+     *
+     * @param x        The x position of the cell.
+     * @param y        The y position of the cell.
+     * @param walkable If the cell is walkable.
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            throw new IndexOutOfBoundsException("The cell (" + x + ", " + y + ") is outside of the grid.");
+        if (set(x, y, walkable))
+            version++;
+    }
+
+    /**
+     * Check if a cell is walkable.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return If the cell is walkable. (False if it is outside of the grid).
+     */
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return false;
+        return (rows[y * wordsPerRow + (x >>> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Read 64 cells of a row, or of a column if transposed, as bits.
+     *
+     * <p>Bit 0 is the cell at the start position. Cells outside of the grid are read as blocked.</p>
+     *
+     * @param transposed If a column is read instead of a row.
+     * @param line       The y position of the row, or the x position of the column.
+     * @param start      The position of the first cell along the line. (Can be negative).
+     * @return The cells, with walkable cells set.
+     */
+    long readLine(boolean transposed, int line, int start) {
+        int lines = transposed ? width : height;
+        if (line < 0 || line >= lines)
+            return 0;
+        long[] words = transposed ? columns : rows;
+        int wordsPerLine = transposed ? wordsPerColumn : wordsPerRow;
+        int base = line * wordsPerLine;
+        int word = start >> 6;
+        int shift = start & 63;
+        long low = word >= 0 && word < wordsPerLine ? words[base + word] : 0;
+        if (shift == 0)
+            return low;
+        long high = word + 1 >= 0 && word + 1 < wordsPerLine ? words[base + word + 1] : 0;
+        return low >>> shift | high << (64 - shift);
+    }
+
+    /**
+     * Check if a straight line between two cells only crosses walkable cells.
+     *
+     * <p>Where the line passes exactly through the corner of two cells, both of them must be walkable.</p>
+     *
+     * @param x0 The x position of the first cell.
+     * @param y0 The y position of the first cell.
+     * @param x1 The x position of the second cell.
+     * @param y1 The y position of the second cell.
+     * @return If the line only crosses walkable cells.
+     */
+    public boolean hasLineOfSight(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int stepX = x0 < x1 ? 1 : -1;
+        int stepY = y0 < y1 ? 1 : -1;
+        int x = x0, y = y0;
+        int steps = dx + dy;
+        int error = dx - dy;
+        dx *= 2;
+        dy *= 2;
+        if (!isWalkable(x, y))
+            return false;
+        while (steps > 0) {
+            if (error > 0) {
+                x += stepX;
+                error -= dy;
+                steps--;
+            } else if (error < 0) {
+                y += stepY;
+                error += dx;
+                steps--;
+            } else {
+                if (!isWalkable(x + stepX, y) || !isWalkable(x, y + stepY))
+                    return false;
+                x += stepX;
+                y += stepY;
+                error += dx - dy;
+                steps -= 2;
+            }
+            if (!isWalkable(x, y))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Set a cell in both the rows and the columns.
+     *
+     * @return If the cell changed.
+     */
+    private boolean set(int x, int y, boolean walkable) {
+        int row = y * wordsPerRow + (x >>> 6);
+        int column = x * wordsPerColumn + (y >>> 6);
+        long previous = rows[row];
+        rows[row] = walkable ? previous | 1L << x : previous & ~(1L << x);
+        columns[column] = walkable ? columns[column] | 1L << y : columns[column] & ~(1L << y);
+        return rows[row] != previous;
+    }
+
+    /**
+     * Create the words of lines where every cell is walkable. The bits past the end of each line are left clear, so
+     * they are read as blocked.
+     */
+    private static long[] filled(int lines, int wordsPerLine, int length) {
+        long[] words = new long[lines * wordsPerLine];
+        Arrays.fill(words, -1L);
+        if ((length & 63) != 0) {
+            long last = -1L >>> (64 - (length & 63));
+            for (int line = 0; line < lines; line++)
+                words[line * wordsPerLine + wordsPerLine - 1] = last;
+        }
+        return words;
+    }
+
+    /**
+     * Create a copy of the grid.
+     *
+     * @return The copy. (It has the same version).
+     */
+    public WalkabilityGrid2D copy() {
+        return new WalkabilityGrid2D(this);
+    }
+
+    /**
+     * Get the width of the grid.
+     *
+     * @return The width in cells.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the grid.
+     *
+     * @return The height in cells.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the version of the grid.
+     * <p>The version changes every time a cell changes.</p>
+     *
+     * @return The version.
+     */
+    public int getVersion() {
+        return version;
+    }
+}
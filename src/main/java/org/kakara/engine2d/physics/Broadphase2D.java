@@ -0,0 +1,267 @@
+package org.kakara.engine2d.physics;
+
+import java.util.Arrays;
+
+/**
+ * An incremental sweep-and-prune broadphase for axis aligned bounding boxes.
+ *
+ * <p>Every proxy is a bounding box with a category and a mask. The proxies are kept in an array sorted by their
+ * minimum x value. Since objects only move a little between fixed steps the array is nearly sorted, so it is
+ * repaired with an insertion sort which is close to O(n). The sorted array is then swept to find the pairs of
+ * overlapping boxes.</p>
+ *
+ * <p>All storage is in flat primitive arrays which only grow when the capacity is exceeded, so steps do not
+ * allocate once the broadphase has warmed up.</p>
+ *
+ * <p>This class has no dependency on the engine and is not thread safe.</p>
+ */
+public class Broadphase2D {
+    private float[] minX;
+    private float[] minY;
+    private float[] maxX;
+    private float[] maxY;
+    private int[] categories;
+    private int[] masks;
+    private boolean[] active;
+
+    private int nextId;
+    private int[] freeIds;
+    private int freeCount;
+    private int[] pendingFree;
+    private int pendingFreeCount;
+
+    private int[] order;
+    private int orderSize;
+
+    private int[] pairA;
+    private int[] pairB;
+    private int pairCount;
+
+    /**
+     * Create a broadphase.
+     *
+     * @param initialCapacity The number of proxies to allocate space for.
+     */
+    public Broadphase2D(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        minX = new float[capacity];
+        minY = new float[capacity];
+        maxX = new float[capacity];
+        maxY = new float[capacity];
+        categories = new int[capacity];
+        masks = new int[capacity];
+        active = new boolean[capacity];
+        freeIds = new int[capacity];
+        pendingFree = new int[capacity];
+        order = new int[capacity];
+        pairA = new int[capacity];
+        pairB = new int[capacity];
+    }
+
+    /**
+     * Create a broadphase with a default capacity.
+     */
+    public Broadphase2D() {
+        this(256);
+    }
+
+    /**
+     * Create a proxy.
+     *
+     * @param minX     The minimum x value.
+     * @param minY     The minimum y value.
+     * @param maxX     The maximum x value.
+     * @param maxY     The maximum y value.
+     * @param category The category bits of the proxy.
+     * @param mask     The categories that this proxy can collide with.
+     * @return The id of the proxy.
+     */
+    public int createProxy(float minX, float minY, float maxX, float maxY, int category, int mask) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (nextId == this.minX.length)
+                grow(nextId * 2);
+            id = nextId++;
+        }
+        active[id] = true;
+        categories[id] = category;
+        masks[id] = mask;
+        moveProxy(id, minX, minY, maxX, maxY);
+        order[orderSize++] = id;
+        return id;
+    }
+
+    /**
+     * Update the bounding box of a proxy.
+     *
+     * @param id   The id of the proxy.
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     */
+    public void moveProxy(int id, float minX, float minY, float maxX, float maxY) {
+        this.minX[id] = minX;
+        this.minY[id] = minY;
+        this.maxX[id] = maxX;
+        this.maxY[id] = maxY;
+    }
+
+    /**
+     * Update the collision filter of a proxy.
+     *
+     * @param id       The id of the proxy.
+     * @param category The category bits of the proxy.
+     * @param mask     The categories that this proxy can collide with.
+     */
+    public void setFilter(int id, int category, int mask) {
+        categories[id] = category;
+        masks[id] = mask;
+    }
+
+    /**
+     * Remove a proxy.
+     * <p>The id is reused after the next {@link #update()}.</p>
+     *
+     * @param id The id of the proxy.
+     */
+    public void removeProxy(int id) {
+        if (!active[id])
+            return;
+        active[id] = false;
+        pendingFree[pendingFreeCount++] = id;
+    }
+
+    /**
+     * Sort the proxies and find every pair of overlapping proxies.
+     *
+     * <p>Pairs are only reported if the category of each proxy is in the mask of the other. The results can
+     * be read with {@link #getPairCount()}, {@link #getPairA(int)} and {@link #getPairB(int)}. The lower id is
+     * always stored in A.</p>
+     */
+    public void update() {
+        if (pendingFreeCount > 0)
+            compact();
+
+        // Insertion sort by min x. This is close to linear since the order from the last step is kept.
+        for (int i = 1; i < orderSize; i++) {
+            int id = order[i];
+            float key = minX[id];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = id;
+        }
+
+        pairCount = 0;
+        for (int i = 0; i < orderSize; i++) {
+            int a = order[i];
+            float aMaxX = maxX[a];
+            float aMinY = minY[a];
+            float aMaxY = maxY[a];
+            int aCategory = categories[a];
+            int aMask = masks[a];
+            for (int j = i + 1; j < orderSize; j++) {
+                int b = order[j];
+                if (minX[b] > aMaxX)
+                    break;
+                if (minY[b] > aMaxY || maxY[b] < aMinY)
+                    continue;
+                if ((aMask & categories[b]) == 0 || (masks[b] & aCategory) == 0)
+                    continue;
+                addPair(Math.min(a, b), Math.max(a, b));
+            }
+        }
+    }
+
+    private void addPair(int a, int b) {
+        if (pairCount == pairA.length) {
+            pairA = Arrays.copyOf(pairA, pairCount * 2);
+            pairB = Arrays.copyOf(pairB, pairCount * 2);
+        }
+        pairA[pairCount] = a;
+        pairB[pairCount] = b;
+        pairCount++;
+    }
+
+    /**
+     * Remove the inactive proxies from the sorted order and make their ids available again.
+     */
+    private void compact() {
+        int size = 0;
+        for (int i = 0; i < orderSize; i++) {
+            int id = order[i];
+            if (active[id])
+                order[size++] = id;
+        }
+        orderSize = size;
+        for (int i = 0; i < pendingFreeCount; i++)
+            freeIds[freeCount++] = pendingFree[i];
+        pendingFreeCount = 0;
+    }
+
+    private void grow(int capacity) {
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        masks = Arrays.copyOf(masks, capacity);
+        active = Arrays.copyOf(active, capacity);
+        freeIds = Arrays.copyOf(freeIds, capacity);
+        pendingFree = Arrays.copyOf(pendingFree, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+
+    /**
+     * Get the number of overlapping pairs found by the last update.
+     *
+     * @return The number of pairs.
+     */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Get the first proxy of a pair.
+     *
+     * @param pair The index of the pair.
+     * @return The id of the first proxy.
+     */
+    public int getPairA(int pair) {
+        return pairA[pair];
+    }
+
+    /**
+     * Get the second proxy of a pair.
+     *
+     * @param pair The index of the pair.
+     * @return The id of the second proxy.
+     */
+    public int getPairB(int pair) {
+        return pairB[pair];
+    }
+
+    /**
+     * Get the number of proxy ids that can be stored without growing.
+     * <p>Every proxy id is less than this value.</p>
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return minX.length;
+    }
+
+    /**
+     * Get the number of active proxies.
+     *
+     * @return The number of proxies.
+     */
+    public int getProxyCount() {
+        return orderSize - pendingFreeCount;
+    }
+}
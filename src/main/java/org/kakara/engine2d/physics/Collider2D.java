@@ -0,0 +1,276 @@
+package org.kakara.engine2d.physics;
+
+import org.kakara.engine.GameHandler;
+import org.kakara.engine.components.Component;
+import org.kakara.engine.math.Vector3;
+import org.kakara.engine2d.Abstract2DScene;
+
+/**
+ * A collision shape for 2D GameItems.
+ *
+ * <p>Colliders are automatically added to the {@link Physics2DWorld} of the current {@link Abstract2DScene}.
+ * The world finds the touching colliders every fixed physics step using a broadphase, so gameplay code
+ * does not have to loop over every item.</p>
+ *
+ * <p>The size of the collider is multiplied by the scale of the GameItem. The default size is 1x1, which
+ * matches the {@link org.kakara.engine2d.primitives.SquareData} mesh.</p>
+ *
+ * <p>Every collider is on a single layer (0 - 31) and has a mask of the layers it can collide with. Two
+ * colliders only touch if each one is in the mask of the other.</p>
+ *
+ * <code>
+ * Collider2D collider = gameItem.addComponent(Collider2D.class);<br>
+ * collider.setShape(ColliderShape2D.CIRCLE);<br>
+ * collider.setLayer(2);<br>
+ * </code>
+ */
+public class Collider2D extends Component {
+    private ColliderShape2D shape = ColliderShape2D.AABB;
+    private float offsetX;
+    private float offsetY;
+    private float width = 1;
+    private float height = 1;
+    private float radius = 0.5f;
+    private int layer;
+    private int mask = -1;
+
+    private Physics2DWorld world;
+    private int proxyId = -1;
+
+    // Computed by the world every step.
+    float centerX;
+    float centerY;
+    float halfWidth;
+    float halfHeight;
+    float worldRadius;
+
+    @Override
+    public void start() {
+        if (!(GameHandler.getInstance().getCurrentScene() instanceof Abstract2DScene))
+            throw new IllegalStateException("Current scene must be an abstract 2D scene");
+        ((Abstract2DScene) GameHandler.getInstance().getCurrentScene()).getPhysicsWorld2D().addCollider(this);
+    }
+
+    @Override
+    public void update() {
+
+    }
+
+    @Override
+    public void onRemove() {
+        if (world != null)
+            world.removeCollider(this);
+    }
+
+    @Override
+    public void cleanup() {
+        if (world != null)
+            world.removeCollider(this);
+    }
+
+    /**
+     * Calculate the world space shape of the collider from the transform of the GameItem.
+     */
+    void computeShape() {
+        Vector3 position = getGameItem().transform.getPosition();
+        Vector3 scale = getGameItem().transform.getScale();
+        float scaleX = Math.abs(scale.x);
+        float scaleY = Math.abs(scale.y);
+        centerX = position.x + offsetX * scaleX;
+        centerY = position.y + offsetY * scaleY;
+        if (shape == ColliderShape2D.CIRCLE) {
+            worldRadius = radius * Math.max(scaleX, scaleY);
+            halfWidth = worldRadius;
+            halfHeight = worldRadius;
+        } else {
+            halfWidth = width * scaleX / 2;
+            halfHeight = height * scaleY / 2;
+        }
+    }
+
+    /**
+     * Check if this collider is touching another.
+     * <p>This uses the shapes calculated during the last physics step.</p>
+     *
+     * @param other The other collider.
+     * @return If the colliders are touching.
+     */
+    public boolean overlaps(Collider2D other) {
+        if (shape == ColliderShape2D.CIRCLE && other.shape == ColliderShape2D.CIRCLE) {
+            float dx = centerX - other.centerX;
+            float dy = centerY - other.centerY;
+            float radii = worldRadius + other.worldRadius;
+            return dx * dx + dy * dy <= radii * radii;
+        }
+        if (shape == ColliderShape2D.CIRCLE)
+            return circleOverlapsBox(this, other);
+        if (other.shape == ColliderShape2D.CIRCLE)
+            return circleOverlapsBox(other, this);
+        return Math.abs(centerX - other.centerX) <= halfWidth + other.halfWidth
+                && Math.abs(centerY - other.centerY) <= halfHeight + other.halfHeight;
+    }
+
+    private static boolean circleOverlapsBox(Collider2D circle, Collider2D box) {
+        float closestX = Math.max(box.centerX - box.halfWidth, Math.min(circle.centerX, box.centerX + box.halfWidth));
+        float closestY = Math.max(box.centerY - box.halfHeight, Math.min(circle.centerY, box.centerY + box.halfHeight));
+        float dx = circle.centerX - closestX;
+        float dy = circle.centerY - closestY;
+        return dx * dx + dy * dy <= circle.worldRadius * circle.worldRadius;
+    }
+
+    /**
+     * Set the shape of the collider.
+     *
+     * @param shape The shape.
+     */
+    public void setShape(ColliderShape2D shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Get the shape of the collider.
+     *
+     * @return The shape.
+     */
+    public ColliderShape2D getShape() {
+        return shape;
+    }
+
+    /**
+     * Set the offset of the collider from the position of the GameItem.
+     *
+     * @param offsetX The x offset. (Before scale).
+     * @param offsetY The y offset. (Before scale).
+     */
+    public void setOffset(float offsetX, float offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * Get the x offset of the collider.
+     *
+     * @return The x offset.
+     */
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    /**
+     * Get the y offset of the collider.
+     *
+     * @return The y offset.
+     */
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    /**
+     * Set the size of the box. (Only used by {@link ColliderShape2D#AABB}).
+     *
+     * @param width  The width. (Before scale).
+     * @param height The height. (Before scale).
+     */
+    public void setSize(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the width of the box.
+     *
+     * @return The width.
+     */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the box.
+     *
+     * @return The height.
+     */
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * Set the radius of the circle. (Only used by {@link ColliderShape2D#CIRCLE}).
+     * <p>The radius is multiplied by the larger of the x and y scale.</p>
+     *
+     * @param radius The radius. (Before scale).
+     */
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * Get the radius of the circle.
+     *
+     * @return The radius.
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * Set the layer of the collider.
+     *
+     * @param layer The layer. (0 - 31).
+     */
+    public void setLayer(int layer) {
+        if (layer < 0 || layer > 31)
+            throw new IllegalArgumentException("The layer must be between 0 and 31.");
+        this.layer = layer;
+        if (world != null)
+            world.updateFilter(this);
+    }
+
+    /**
+     * Get the layer of the collider.
+     *
+     * @return The layer.
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Set the layers that this collider can touch.
+     * <p>Bit <code>n</code> represents layer <code>n</code>. By default every layer is included.</p>
+     *
+     * @param mask The layer mask.
+     */
+    public void setMask(int mask) {
+        this.mask = mask;
+        if (world != null)
+            world.updateFilter(this);
+    }
+
+    /**
+     * Get the layers that this collider can touch.
+     *
+     * @return The layer mask.
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Get the world this collider belongs to.
+     *
+     * @return The world. (Null if it has not been added to one).
+     */
+    public Physics2DWorld getWorld() {
+        return world;
+    }
+
+    void setWorld(Physics2DWorld world, int proxyId) {
+        this.world = world;
+        this.proxyId = proxyId;
+    }
+
+    int getProxyId() {
+        return proxyId;
+    }
+}
@@ -0,0 +1,15 @@
+package org.kakara.engine2d.physics;
+
+/**
+ * The shapes that a {@link Collider2D} can have.
+ */
+public enum ColliderShape2D {
+    /**
+     * An axis aligned box. (The rotation of the GameItem is ignored).
+     */
+    AABB,
+    /**
+     * A circle.
+     */
+    CIRCLE
+}
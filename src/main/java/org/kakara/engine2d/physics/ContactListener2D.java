@@ -0,0 +1,15 @@
+package org.kakara.engine2d.physics;
+
+/**
+ * Receives the contacts found by the {@link Physics2DWorld}.
+ */
+@FunctionalInterface
+public interface ContactListener2D {
+    /**
+     * Called for every pair of colliders which are touching.
+     *
+     * @param a The first collider.
+     * @param b The second collider.
+     */
+    void onContact(Collider2D a, Collider2D b);
+}
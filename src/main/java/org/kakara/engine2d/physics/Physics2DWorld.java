@@ -0,0 +1,171 @@
+package org.kakara.engine2d.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Finds the touching {@link Collider2D}s of a 2D scene.
+ *
+ * <p>Every fixed physics step the bounding boxes of the colliders are fed into a {@link Broadphase2D}. The pairs
+ * it finds are then checked against the exact shapes. The resulting contacts stay available until the next step.</p>
+ *
+ * <p>The world is stepped on the physics timer thread of {@link org.kakara.engine2d.Abstract2DScene}. The methods
+ * of this class are synchronized, so contacts can be read from the main thread. Contact listeners are called on
+ * the physics thread.</p>
+ *
+ * <code>
+ * getPhysicsWorld2D().forEachContact((a, b) -&gt; {<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;// Handle the contact.<br>
+ * });<br>
+ * </code>
+ */
+public class Physics2DWorld {
+    private final Broadphase2D broadphase;
+    private final List<Collider2D> colliders;
+    private final List<ContactListener2D> listeners;
+    private Collider2D[] proxies;
+
+    private Collider2D[] contactA;
+    private Collider2D[] contactB;
+    private int contactCount;
+
+    public Physics2DWorld() {
+        this.broadphase = new Broadphase2D();
+        this.colliders = new ArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.proxies = new Collider2D[broadphase.getCapacity()];
+        this.contactA = new Collider2D[64];
+        this.contactB = new Collider2D[64];
+    }
+
+    /**
+     * Add a collider to the world.
+     * <p>This is done automatically when a Collider2D component is started.</p>
+     *
+     * @param collider The collider to add.
+     */
+    public synchronized void addCollider(Collider2D collider) {
+        if (collider.getWorld() == this)
+            return;
+        if (collider.getWorld() != null)
+            collider.getWorld().removeCollider(collider);
+        collider.computeShape();
+        int id = broadphase.createProxy(collider.centerX - collider.halfWidth, collider.centerY - collider.halfHeight,
+                collider.centerX + collider.halfWidth, collider.centerY + collider.halfHeight,
+                1 << collider.getLayer(), collider.getMask());
+        if (proxies.length < broadphase.getCapacity())
+            proxies = Arrays.copyOf(proxies, broadphase.getCapacity());
+        proxies[id] = collider;
+        colliders.add(collider);
+        collider.setWorld(this, id);
+    }
+
+    /**
+     * Remove a collider from the world.
+     *
+     * @param collider The collider to remove.
+     */
+    public synchronized void removeCollider(Collider2D collider) {
+        if (collider.getWorld() != this)
+            return;
+        broadphase.removeProxy(collider.getProxyId());
+        proxies[collider.getProxyId()] = null;
+        colliders.remove(collider);
+        collider.setWorld(null, -1);
+    }
+
+    /**
+     * Update the layer and mask of a collider.
+     *
+     * @param collider The collider.
+     */
+    synchronized void updateFilter(Collider2D collider) {
+        if (collider.getWorld() == this)
+            broadphase.setFilter(collider.getProxyId(), 1 << collider.getLayer(), collider.getMask());
+    }
+
+    /**
+     * Find the touching colliders.
+     * <p>This is called automatically every fixed physics step.</p>
+     */
+    public synchronized void step() {
+        for (int i = 0; i < colliders.size(); i++) {
+            Collider2D collider = colliders.get(i);
+            collider.computeShape();
+            broadphase.moveProxy(collider.getProxyId(),
+                    collider.centerX - collider.halfWidth, collider.centerY - collider.halfHeight,
+                    collider.centerX + collider.halfWidth, collider.centerY + collider.halfHeight);
+        }
+        broadphase.update();
+
+        contactCount = 0;
+        for (int i = 0; i < broadphase.getPairCount(); i++) {
+            Collider2D a = proxies[broadphase.getPairA(i)];
+            Collider2D b = proxies[broadphase.getPairB(i)];
+            if (a == null || b == null || a.getGameItem() == b.getGameItem() || !a.overlaps(b))
+                continue;
+            if (contactCount == contactA.length) {
+                contactA = Arrays.copyOf(contactA, contactCount * 2);
+                contactB = Arrays.copyOf(contactB, contactCount * 2);
+            }
+            contactA[contactCount] = a;
+            contactB[contactCount] = b;
+            contactCount++;
+        }
+        // Clear the stale references so removed colliders can be collected.
+        Arrays.fill(contactA, contactCount, contactA.length, null);
+        Arrays.fill(contactB, contactCount, contactB.length, null);
+
+        for (ContactListener2D listener : listeners)
+            forEachContact(listener);
+    }
+
+    /**
+     * Call the listener for every contact found during the last step.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void forEachContact(ContactListener2D listener) {
+        for (int i = 0; i < contactCount; i++)
+            listener.onContact(contactA[i], contactB[i]);
+    }
+
+    /**
+     * Get the number of contacts found during the last step.
+     *
+     * @return The number of contacts.
+     */
+    public synchronized int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Get the number of colliders in the world.
+     *
+     * @return The number of colliders.
+     */
+    public synchronized int getColliderCount() {
+        return colliders.size();
+    }
+
+    /**
+     * Add a listener which is called for every contact after each step.
+     * <p>The listener is called on the physics thread.</p>
+     *
+     * @param listener The listener.
+     */
+    public void addContactListener(ContactListener2D listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a contact listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeContactListener(ContactListener2D listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,299 @@
+package org.kakara.engine2d.primitives;
+
+import org.kakara.engine.utils.RGBA;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Collects lines, rectangles and circles to be drawn in the next frame.
+ *
+ * <p>Every shape is turned into quads which are written straight into one block of off-heap memory. The
+ * {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline} streams the whole block to the GPU once per frame and
+ * draws it with a single draw call per viewport, after the items. The batch is cleared after every frame, so shapes
+ * must be drawn again each frame. The memory is only reallocated when a frame has more shapes than any frame before,
+ * so drawing shapes does not allocate anything.</p>
+ *
+ * <p>Shapes use world coordinates, the same as the position of a GameItem. Lines and outlines are drawn with the
+ * width from {@link #setLineWidth(float)}. Outlines are drawn inside the shape. Use
+ * {@link org.kakara.engine2d.Abstract2DScene#getShapes()} to get the batch of a scene. This class must only be used on
+ * the main thread.</p>
+ *
+ * <code>
+ * RGBA red = new RGBA(255, 0, 0, 1);<br>
+ * // In the update method of the scene.<br>
+ * drawRect(hitbox.getMinX(), hitbox.getMinY(), hitbox.getWidth(), hitbox.getHeight(), red);<br>
+ * drawLine(player.x, player.y, target.x, target.y, red);<br>
+ * </code>
+ */
+public class ShapeBatch2D {
+    /**
+     * The size of a vertex in bytes: the position as two floats and the color as four unsigned bytes.
+     */
+    public static final int VERTEX_BYTES = 12;
+    /**
+     * The size of a quad in bytes.
+     */
+    public static final int QUAD_BYTES = VERTEX_BYTES * 4;
+
+    private ByteBuffer vertices = ByteBuffer.allocateDirect(QUAD_BYTES * 256).order(ByteOrder.nativeOrder());
+    private int quads;
+    private float lineWidth = 1;
+    private int segments;
+    private float[] cos;
+    private float[] sin;
+
+    /**
+     * Construct an empty batch with 32 segments per circle.
+     */
+    public ShapeBatch2D() {
+        setCircleSegments(32);
+    }
+
+    /**
+     * Draw a line with the current line width.
+     *
+     * @param x1    The x position of the start.
+     * @param y1    The y position of the start.
+     * @param x2    The x position of the end.
+     * @param y2    The y position of the end.
+     * @param color The color.
+     */
+    public void drawLine(float x1, float y1, float x2, float y2, RGBA color) {
+        drawLine(x1, y1, x2, y2, lineWidth, color);
+    }
+
+    /**
+     * Draw a line.
+     *
+     * @param x1    The x position of the start.
+     * @param y1    The y position of the start.
+     * @param x2    The x position of the end.
+     * @param y2    The y position of the end.
+     * @param width The width of the line.
+     * @param color The color.
+     */
+    public void drawLine(float x1, float y1, float x2, float y2, float width, RGBA color) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length == 0)
+            return;
+        // Half of the width, along the normal of the line.
+        float nx = -dy / length * width / 2;
+        float ny = dx / length * width / 2;
+        quad(x1 + nx, y1 + ny, x2 + nx, y2 + ny, x2 - nx, y2 - ny, x1 - nx, y1 - ny, pack(color));
+    }
+
+    /**
+     * Draw the outline of a rectangle with the current line width.
+     *
+     * @param x      The x position of the top left corner.
+     * @param y      The y position of the top left corner.
+     * @param width  The width.
+     * @param height The height.
+     * @param color  The color.
+     */
+    public void drawRect(float x, float y, float width, float height, RGBA color) {
+        int packed = pack(color);
+        float line = Math.min(lineWidth, Math.min(width, height) / 2);
+        rect(x, y, width, line, packed);
+        rect(x, y + height - line, width, line, packed);
+        rect(x, y + line, line, height - line * 2, packed);
+        rect(x + width - line, y + line, line, height - line * 2, packed);
+    }
+
+    /**
+     * Draw a filled rectangle.
+     *
+     * @param x      The x position of the top left corner.
+     * @param y      The y position of the top left corner.
+     * @param width  The width.
+     * @param height The height.
+     * @param color  The color.
+     */
+    public void fillRect(float x, float y, float width, float height, RGBA color) {
+        rect(x, y, width, height, pack(color));
+    }
+
+    /**
+     * Draw the outline of a circle with the current line width.
+     *
+     * @param x      The x position of the center.
+     * @param y      The y position of the center.
+     * @param radius The radius.
+     * @param color  The color.
+     */
+    public void drawCircle(float x, float y, float radius, RGBA color) {
+        int packed = pack(color);
+        float inner = Math.max(0, radius - lineWidth);
+        for (int i = 0; i < segments; i++) {
+            float cos0 = cos[i], sin0 = sin[i], cos1 = cos[i + 1], sin1 = sin[i + 1];
+            quad(x + cos0 * radius, y + sin0 * radius, x + cos1 * radius, y + sin1 * radius,
+                    x + cos1 * inner, y + sin1 * inner, x + cos0 * inner, y + sin0 * inner, packed);
+        }
+    }
+
+    /**
+     * Draw a filled circle.
+     *
+     * @param x      The x position of the center.
+     * @param y      The y position of the center.
+     * @param radius The radius.
+     * @param color  The color.
+     */
+    public void fillCircle(float x, float y, float radius, RGBA color) {
+        int packed = pack(color);
+        // Each quad covers two segments of the fan around the center.
+        for (int i = 0; i < segments; i += 2) {
+            quad(x, y, x + cos[i] * radius, y + sin[i] * radius, x + cos[i + 1] * radius, y + sin[i + 1] * radius,
+                    x + cos[i + 2] * radius, y + sin[i + 2] * radius, packed);
+        }
+    }
+
+    /**
+     * Draw a filled quad.
+     *
+     * <p>The corners must be in order around the quad. The quad is drawn as the triangles (1, 2, 3) and
+     * (3, 4, 1).</p>
+     *
+     * @param x1    The x position of the first corner.
+     * @param y1    The y position of the first corner.
+     * @param x2    The x position of the second corner.
+     * @param y2    The y position of the second corner.
+     * @param x3    The x position of the third corner.
+     * @param y3    The y position of the third corner.
+     * @param x4    The x position of the fourth corner.
+     * @param y4    The y position of the fourth corner.
+     * @param color The color.
+     */
+    public void fillQuad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4, RGBA color) {
+        quad(x1, y1, x2, y2, x3, y3, x4, y4, pack(color));
+    }
+
+    private void rect(float x, float y, float width, float height, int color) {
+        quad(x, y, x + width, y, x + width, y + height, x, y + height, color);
+    }
+
+    private void quad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4, int color) {
+        int offset = quads * QUAD_BYTES;
+        if (offset + QUAD_BYTES > vertices.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(vertices.capacity() * 2).order(ByteOrder.nativeOrder());
+            vertices.limit(offset).position(0);
+            grown.put(vertices).clear();
+            vertices = grown;
+        }
+        ByteBuffer data = vertices;
+        // Absolute puts are checked against the limit, which getVertexData() moves.
+        data.limit(data.capacity());
+        data.putFloat(offset, x1).putFloat(offset + 4, y1).putInt(offset + 8, color);
+        data.putFloat(offset + 12, x2).putFloat(offset + 16, y2).putInt(offset + 20, color);
+        data.putFloat(offset + 24, x3).putFloat(offset + 28, y3).putInt(offset + 32, color);
+        data.putFloat(offset + 36, x4).putFloat(offset + 40, y4).putInt(offset + 44, color);
+        quads++;
+    }
+
+    /**
+     * Pack a color into four bytes in the order red, green, blue and alpha.
+     */
+    private static int pack(RGBA color) {
+        int r = clamp(color.getR());
+        int g = clamp(color.getG());
+        int b = clamp(color.getB());
+        int a = clamp(color.getA() * 255);
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN)
+            return r | g << 8 | b << 16 | a << 24;
+        return r << 24 | g << 16 | b << 8 | a;
+    }
+
+    private static int clamp(float value) {
+        return Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    /**
+     * Set the width of lines and outlines.
+     * <p>This is 1 by default.</p>
+     *
+     * @param lineWidth The width in world units.
+     */
+    public void setLineWidth(float lineWidth) {
+        if (lineWidth <= 0)
+            throw new IllegalArgumentException("The line width must be greater than 0.");
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Get the width of lines and outlines.
+     *
+     * @return The width in world units.
+     */
+    public float getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * Set the number of segments used to draw circles.
+     *
+     * @param segments The number of segments. (Rounded up to an even number, at least 4).
+     */
+    public void setCircleSegments(int segments) {
+        segments = Math.max(4, (segments + 1) & ~1);
+        if (segments == this.segments)
+            return;
+        this.segments = segments;
+        cos = new float[segments + 1];
+        sin = new float[segments + 1];
+        for (int i = 0; i <= segments; i++) {
+            double angle = Math.PI * 2 * i / segments;
+            cos[i] = (float) Math.cos(angle);
+            sin[i] = (float) Math.sin(angle);
+        }
+    }
+
+    /**
+     * Get the number of segments used to draw circles.
+     *
+     * @return The number of segments.
+     */
+    public int getCircleSegments() {
+        return segments;
+    }
+
+    /**
+     * Get the number of quads which were drawn since the batch was cleared.
+     *
+     * @return The number of quads.
+     */
+    public int getQuadCount() {
+        return quads;
+    }
+
+    /**
+     * Check if nothing was drawn since the batch was cleared.
+     *
+     * @return If the batch is empty.
+     */
+    public boolean isEmpty() {
+        return quads == 0;
+    }
+
+    /**
+     * Get the vertices of the quads.
+     * <p>This is for internal use only. The buffer is positioned at 0 with its limit at the end of the last quad.</p>
+     *
+     * @return The vertex data.
+     */
+    public ByteBuffer getVertexData() {
+        vertices.limit(quads * QUAD_BYTES).position(0);
+        return vertices;
+    }
+
+    /**
+     * Remove every shape.
+     * <p>This is called by the scene after every frame.</p>
+     */
+    public void clear() {
+        quads = 0;
+        vertices.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package org.kakara.engine2d.renderpipeline;
+
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine2d.Material2D;
+
+/**
+ * The variants of the {@link Standard2DShader}.
+ *
+ * <p>Each variant is the same shader source compiled with a different define, so the shader does not need to branch
+ * on uniforms for every vertex. The {@link Standard2DPipeline} picks the variant for each draw using
+ * {@link #of(Material2D)}.</p>
+ */
+public enum ShaderVariant2D {
+    /**
+     * The material has no texture, so only the color is drawn.
+     */
+    COLOR_ONLY("COLOR_ONLY"),
+    /**
+     * The whole texture is drawn using the texture coordinates of the mesh.
+     */
+    TEXTURE("TEXTURE"),
+    /**
+     * One tile of a texture with columns and rows is drawn.
+     */
+    SPRITE_SHEET("SPRITE_SHEET"),
+    /**
+     * The texture coordinates of the mesh are mapped into the UV region of the material.
+     */
+    ATLAS_UV("ATLAS_UV"),
+    /**
+     * Each vertex has its own color and there is no texture.
+     * <p>This is only used for the shapes of {@link org.kakara.engine2d.primitives.ShapeBatch2D}.</p>
+     */
+    VERTEX_COLOR("VERTEX_COLOR");
+
+    private final String define;
+
+    ShaderVariant2D(String define) {
+        this.define = define;
+    }
+
+    /**
+     * Get the define the variant is compiled with.
+     *
+     * @return The name of the define.
+     */
+    public String getDefine() {
+        return define;
+    }
+
+    /**
+     * Get if this variant samples the texture of the material.
+     *
+     * @return If this variant uses a texture.
+     */
+    public boolean isTextured() {
+        return this != COLOR_ONLY && this != VERTEX_COLOR;
+    }
+
+    /**
+     * Get the variant which draws a material.
+     *
+     * @param material The material.
+     * @return The variant.
+     */
+    public static ShaderVariant2D of(Material2D material) {
+        if (!material.getTexture().isPresent())
+            return COLOR_ONLY;
+        if (material.getUVRegion() != null)
+            return ATLAS_UV;
+        Texture texture = material.getTexture().get();
+        return texture.getNumCols() > 1 && texture.getNumRows() > 1 ? SPRITE_SHEET : TEXTURE;
+    }
+}
@@ -0,0 +1,111 @@
+package org.kakara.engine2d.renderpipeline;
+
+import org.kakara.engine2d.GameEngine2D;
+import org.kakara.engine2d.primitives.ShapeBatch2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * Draws the quads of a {@link ShapeBatch2D} for the {@link Standard2DPipeline}.
+ *
+ * <p>The vertices are copied into a {@link StreamingBuffer2D} once per frame and drawn with one draw call using a
+ * shared index buffer for quads. The index buffer is only rebuilt when a frame has more quads than it can hold.</p>
+ */
+class ShapeRenderer2D {
+    private static final int INITIAL_BYTES = 64 * 1024;
+    private static final int INITIAL_QUADS = 1024;
+
+    private StreamingBuffer2D stream;
+    private int vertexArray;
+    private int indexBuffer;
+    private int indexQuads;
+    private int quads;
+
+    /**
+     * Stream the vertices of a batch to the GPU.
+     * <p>{@link #endFrame()} must be called once the quads have been drawn.</p>
+     *
+     * @param batch The batch.
+     * @return The number of quads to draw.
+     */
+    int upload(ShapeBatch2D batch) {
+        quads = batch.getQuadCount();
+        if (quads == 0)
+            return 0;
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        ByteBuffer vertices = batch.getVertexData();
+        if (stream == null) {
+            stream = new StreamingBuffer2D(GL_ARRAY_BUFFER, Math.max(INITIAL_BYTES, vertices.remaining()));
+            vertexArray = backend.createVertexArray();
+        }
+        stream.beginFrame(vertices.remaining());
+        stream.allocate(vertices.remaining()).put(vertices);
+        int offset = stream.commit();
+
+        backend.bindVertexArray(vertexArray);
+        if (quads > indexQuads)
+            createIndices(backend, quads);
+        // The buffer can be replaced when it grows, so the attributes are pointed at it every frame.
+        backend.bindBuffer(GL_ARRAY_BUFFER, stream.getBufferId());
+        backend.vertexAttribPointer(0, 2, GL_FLOAT, false, ShapeBatch2D.VERTEX_BYTES, offset);
+        backend.vertexAttribPointer(2, 4, GL_UNSIGNED_BYTE, true, ShapeBatch2D.VERTEX_BYTES, offset + 8);
+        backend.bindBuffer(GL_ARRAY_BUFFER, 0);
+        backend.bindVertexArray(0);
+        return quads;
+    }
+
+    /**
+     * Draw the quads which were uploaded this frame.
+     * <p>The shader and its uniforms must already be set.</p>
+     */
+    void draw() {
+        if (quads == 0)
+            return;
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        backend.bindVertexArray(vertexArray);
+        backend.enableVertexAttribArray(0);
+        backend.enableVertexAttribArray(2);
+        backend.drawElements(GL_TRIANGLES, quads * 6, GL_UNSIGNED_INT);
+        backend.disableVertexAttribArray(0);
+        backend.disableVertexAttribArray(2);
+        backend.bindVertexArray(0);
+    }
+
+    /**
+     * Finish the frame of the streaming buffer after the quads have been drawn.
+     */
+    void endFrame() {
+        if (stream != null)
+            stream.endFrame();
+        quads = 0;
+    }
+
+    /**
+     * Create the indices for quads, rounded up to the next power of two.
+     * <p>The vertex array must be bound so it keeps the index buffer.</p>
+     */
+    private void createIndices(RenderBackend2D backend, int quads) {
+        int capacity = Math.max(INITIAL_QUADS, Integer.highestOneBit(quads - 1) << 1);
+        ByteBuffer memory = backend.allocateUploadBuffer(capacity * 6 * Integer.BYTES);
+        try {
+            IntBuffer indices = memory.asIntBuffer();
+            for (int quad = 0; quad < capacity; quad++) {
+                int vertex = quad * 4;
+                indices.put(vertex).put(vertex + 1).put(vertex + 2).put(vertex + 2).put(vertex + 3).put(vertex);
+            }
+            if (indexBuffer == 0)
+                indexBuffer = backend.createBuffer();
+            backend.bindBuffer(GL_ELEMENT_ARRAY_BUFFER, indexBuffer);
+            backend.bufferData(GL_ELEMENT_ARRAY_BUFFER, memory, GL_STATIC_DRAW);
+            GameEngine2D.getResourceRegistry().trackBuffer(indexBuffer, (long) capacity * 6 * Integer.BYTES);
+            GameEngine2D.getResourceRegistry().recordUpload((long) capacity * 6 * Integer.BYTES);
+        } finally {
+            backend.freeUploadBuffer(memory);
+        }
+        indexQuads = capacity;
+    }
+}
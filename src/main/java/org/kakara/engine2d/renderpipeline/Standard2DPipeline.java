@@ -3,7 +3,7 @@ package org.kakara.engine2d.renderpipeline;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector2f;
-import org.kakara.engine.Camera;
+import org.joml.Vector4f;
 import org.kakara.engine.GameHandler;
 import org.kakara.engine.gameitems.GameItem;
 import org.kakara.engine.gameitems.Texture;
@@ -18,9 +18,22 @@ import org.kakara.engine.render.culling.FrustumCullingFilter;
 import org.kakara.engine.scene.Scene;
 import org.kakara.engine.window.Window;
 import org.kakara.engine2d.Abstract2DScene;
+import org.kakara.engine2d.Bounds2D;
 import org.kakara.engine2d.GameEngine2D;
+import org.kakara.engine2d.Item2DHandler;
+import org.kakara.engine2d.Material2D;
 import org.kakara.engine2d.Mesh2D;
+import org.kakara.engine2d.StaticLayer2D;
+import org.kakara.engine2d.Viewport2D;
 import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.components.SpriteAnimator;
+import org.kakara.engine2d.metrics.RenderMetrics2D;
+import org.kakara.engine2d.primitives.SquareData;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+import org.kakara.engine2d.visibility.VisibilityField2D;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The standard pipeline for the 2D GameItems.
@@ -29,40 +42,301 @@ import org.kakara.engine2d.components.MeshRenderer2D;
  * ItemHandler.</p>
  *
  * <p>This pipeline is only available when using {@link Abstract2DScene}. </p>
+ *
+ * <p>Items that belong to a {@link StaticLayer2D} are not drawn individually. Instead the layer is rendered
+ * into its cached texture when it changes and that texture is drawn as a single quad.</p>
+ *
+ * <p>The model matrix of each item is cached by its {@link MeshRenderer2D}. The position of the camera is applied
+ * once per frame through the <code>view</code> uniform, so items which do not move do not need a new matrix.</p>
+ *
+ * <p>The scene is drawn once for every {@link Viewport2D} of the scene. The visible items of each viewport are found
+ * using one shared spatial grid and are drawn in the order of the {@link org.kakara.engine2d.DrawOrder2D}. Every
+ * drawn item is marked as visible for the frame, which lets off-screen animations be throttled. An item that comes
+ * back on-screen has its animation caught up before it is drawn.</p>
+ *
+ * <p>Each mesh is drawn with the {@link ShaderVariant2D} of its material, so color only meshes do not sample a
+ * texture and only sprite sheets run the sprite sheet math. The variant is only switched when it differs from the
+ * previous draw, and the shared uniforms of a variant are uploaded once per pass. Draws are not reordered by variant
+ * since that would change which items are drawn on top.</p>
+ *
+ * <p>If the scene has a {@link VisibilityField2D}, the rows of its texture which changed are uploaded once per frame
+ * and the items are drawn with the fog version of each variant, which darkens every fragment by the brightness of its
+ * cell. Static layers are rendered into their cached textures without fog, so the fog is only applied when the layers
+ * are drawn.</p>
+ *
+ * <p>The shapes drawn through {@link Abstract2DScene#getShapes()} are streamed to the GPU once per frame and drawn
+ * with one draw call per viewport, on top of everything else. Shapes are never darkened by the fog.</p>
+ *
+ * <p>All graphics calls go through the {@link RenderBackend2D} returned by {@link GameEngine2D#getRenderBackend()}.</p>
  */
 public class Standard2DPipeline implements RenderPipeline {
+    private static final int VARIANT_COUNT = ShaderVariant2D.values().length;
 
-    private Shader shaderProgram;
+    private Standard2DShader shaders;
+    private ShaderVariant2D currentVariant;
+    private boolean currentFog;
+    private boolean fog;
+    // The last pass the shared uniforms of each variant were uploaded in, with the fog variants after the others.
+    private final int[] variantPasses = new int[VARIANT_COUNT * 2];
+    private int pass;
+    private RenderMetrics2D metrics;
+    private RenderBackend2D backend;
+    private Mesh2D staticLayerQuad;
+    private final ShapeRenderer2D shapeRenderer = new ShapeRenderer2D();
+    private int shapeQuads;
+    private long renderFrame;
+    private final Bounds2D tempBounds = new Bounds2D();
+    private final Matrix4f projection = new Matrix4f();
+    private final Matrix4f model = new Matrix4f();
+    private final Matrix4f view = new Matrix4f();
+    private final Vector2f textureOffset = new Vector2f();
+    private final Vector2f columnsRows = new Vector2f();
+    private final Vector4f white = new Vector4f(1, 1, 1, 1);
+    private final Vector4f fogArea = new Vector4f();
+    private final int[] savedViewport = new int[4];
+    private final int[] windowViewport = new int[4];
+    private final Bounds2D visibleArea = new Bounds2D();
+    private final List<GameItem> drawList = new ArrayList<>();
 
     @Override
     public void init(ShaderManager shaderManager, Transformation transformation, FrustumCullingFilter frustumCullingFilter, ShadowMap shadowMap) {
-        this.shaderProgram = shaderManager.findShader("Standard2D").getShader();
+        this.shaders = (Standard2DShader) shaderManager.findShader("Standard2D");
     }
 
     @Override
     public void render(Scene scene) {
         if (!(scene instanceof Abstract2DScene))
             return;
+        long start = System.nanoTime();
         Abstract2DScene abstract2DScene = (Abstract2DScene) scene;
-        shaderProgram.bind();
+        Item2DHandler item2DHandler = abstract2DScene.getItem2DHandler();
+        metrics = item2DHandler.getMetrics();
+        backend = GameEngine2D.getRenderBackend();
+        backend.beginFrame();
+        currentVariant = null;
+        fog = false;
+        item2DHandler.getTransformHierarchy().update();
+        renderFrame = item2DHandler.beginRenderFrame();
         Window window = GameHandler.getInstance().getWindow();
         float width = GameEngine2D.isStandard() ? GameEngine2D.getStandardWidth() : window.getWidth();
         float height = GameEngine2D.isStandard() ? GameEngine2D.getStandardHeight() : window.getHeight();
-        Matrix4f projection = new Matrix4f().ortho2D(0, width, height, 0);
-        shaderProgram.setUniform("ortho", projection);
-        for (GameItem item : abstract2DScene.getItem2DHandler().getItems()) {
-            for (IMesh mesh : item.getComponent(MeshRenderer2D.class).getMeshes()) {
-                Mesh2D mesh2D = (Mesh2D) mesh;
-                shaderProgram.setUniform("model", buildModel(item, abstract2DScene.getCamera2D()));
-                shaderProgram.setUniform("material.texture", 0);
-                shaderProgram.setUniform("material.color", mesh2D.getMaterial2D().getColor().getVectorColor());
-                if(mesh2D.getMaterial2D().getTexture().isPresent())
-                    calculateSpriteSheet(item, mesh2D.getMaterial2D().getTexture().get());
-                mesh2D.render();
+
+        for (StaticLayer2D layer : item2DHandler.getStaticLayers()) {
+            if (layer.isDirty())
+                renderStaticLayer(layer, window.getWidth() / width, window.getHeight() / height);
+        }
+
+        VisibilityField2D visibilityField = abstract2DScene.getVisibilityField();
+        if (visibilityField != null) {
+            backend.bindTexture(1, visibilityField.uploadTexture(backend));
+            visibilityField.getArea(fogArea);
+            fog = true;
+        }
+
+        shapeQuads = shapeRenderer.upload(abstract2DScene.getShapes());
+
+        backend.getViewport(windowViewport);
+        for (Viewport2D viewport : abstract2DScene.getViewports()) {
+            if (viewport.isEnabled())
+                renderViewport(item2DHandler, viewport, width, height);
+        }
+        backend.setViewport(windowViewport[0], windowViewport[1], windowViewport[2], windowViewport[3]);
+        shapeRenderer.endFrame();
+
+        if (fog) {
+            // Unit 0 is bound last so it is left as the active texture unit.
+            backend.bindTexture(1, 0);
+            backend.bindTexture(0, 0);
+            fog = false;
+        }
+
+        backend.useShader(null);
+        currentVariant = null;
+        backend.endFrame();
+        GameEngine2D.getResourceRegistry().endFrame();
+        metrics.addRenderTime(System.nanoTime() - start);
+    }
+
+    /**
+     * Render the items that can be seen in a viewport.
+     *
+     * <p>The items come from a query on the spatial grid of the {@link org.kakara.engine2d.Picker2D}. The grid is
+     * brought up to date by the first query of the frame, so the other viewports only pay for their own query.</p>
+     *
+     * @param item2DHandler The item handler.
+     * @param viewport      The viewport.
+     * @param width         The width of the world shown by the whole window at a zoom of 1.
+     * @param height        The height of the world shown by the whole window at a zoom of 1.
+     */
+    private void renderViewport(Item2DHandler item2DHandler, Viewport2D viewport, float width, float height) {
+        int pixelX = Math.round(viewport.getX() * windowViewport[2]);
+        int pixelWidth = Math.max(1, Math.round(viewport.getWidth() * windowViewport[2]));
+        int pixelHeight = Math.max(1, Math.round(viewport.getHeight() * windowViewport[3]));
+        // OpenGL viewports start at the bottom left of the window.
+        int pixelY = windowViewport[3] - Math.round(viewport.getY() * windowViewport[3]) - pixelHeight;
+        backend.setViewport(windowViewport[0] + pixelX, windowViewport[1] + pixelY, pixelWidth, pixelHeight);
+
+        float worldWidth = width * viewport.getWidth() / viewport.getZoom();
+        float worldHeight = height * viewport.getHeight() / viewport.getZoom();
+        projection.identity().ortho2D(0, worldWidth, worldHeight, 0);
+        Vector3 cameraPosition = viewport.getCamera().getPosition();
+        view.translation(cameraPosition.x, cameraPosition.y, cameraPosition.z);
+        beginPass();
+
+        visibleArea.set(-cameraPosition.x, -cameraPosition.y,
+                worldWidth - cameraPosition.x, worldHeight - cameraPosition.y);
+        float minSize = viewport.getMinPixelSize() * worldWidth / pixelWidth;
+        drawList.clear();
+        item2DHandler.getPicker().cull(visibleArea, minSize, drawList);
+        int items = item2DHandler.getItems().size();
+        metrics.addItemsConsidered(items);
+        metrics.addItemsCulled(Math.max(0, items - drawList.size()));
+
+        drawStaticLayers(item2DHandler, false);
+        for (int i = 0; i < drawList.size(); i++) {
+            MeshRenderer2D renderer = drawList.get(i).getComponent(MeshRenderer2D.class);
+            if (renderer.markVisible(renderFrame))
+                catchUpAnimation(renderer.getGameItem());
+            renderItem(renderer);
+        }
+        drawStaticLayers(item2DHandler, true);
+        if (shapeQuads > 0)
+            drawShapes();
+    }
+
+    /**
+     * Move the animation of an item which just came on-screen to the frame it should be on.
+     *
+     * @param item The game item.
+     */
+    private void catchUpAnimation(GameItem item) {
+        SpriteAnimator animator = item.getComponent(SpriteAnimator.class);
+        if (animator != null)
+            animator.catchUp();
+    }
+
+    /**
+     * Render the meshes of a 2D GameItem.
+     *
+     * @param renderer The mesh renderer of the game item.
+     */
+    private void renderItem(MeshRenderer2D renderer) {
+        GameItem item = renderer.getGameItem();
+        // The model is uploaded once for each variant the meshes of the item use.
+        ShaderVariant2D modelVariant = null;
+        for (IMesh mesh : renderer.getMeshes()) {
+            Mesh2D mesh2D = (Mesh2D) mesh;
+            Material2D material = mesh2D.getMaterial2D();
+            ShaderVariant2D variant = ShaderVariant2D.of(material);
+            useVariant(variant);
+            if (variant != modelVariant) {
+                setUniform("model", renderer.getModelMatrix());
+                modelVariant = variant;
             }
+            setUniform("material.color", material.getColor().getVectorColor());
+            if (variant == ShaderVariant2D.SPRITE_SHEET)
+                calculateSpriteSheet(item, material.getTexture().get());
+            else if (variant == ShaderVariant2D.ATLAS_UV)
+                setUniform("uvRegion", material.getUVRegion());
+            if (variant.isTextured())
+                metrics.addTextureBind();
+            mesh2D.render();
+            metrics.addDrawCall(mesh2D.getVertexCount());
+        }
+    }
+
+    /**
+     * Render the members of a static layer into the cached texture of the layer.
+     *
+     * @param layer          The static layer.
+     * @param pixelsPerUnitX The number of pixels per unit on the x axis.
+     * @param pixelsPerUnitY The number of pixels per unit on the y axis.
+     */
+    private void renderStaticLayer(StaticLayer2D layer, float pixelsPerUnitX, float pixelsPerUnitY) {
+        Bounds2D bounds = layer.getBounds().reset();
+        for (GameItem item : layer.getItems()) {
+            MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+            // Items such as text may not have a mesh yet.
+            if (!renderer.isVisible() || renderer.getMeshes() == null) continue;
+            for (IMesh mesh : renderer.getMeshes()) {
+                ((Mesh2D) mesh).getLocalBounds().transform(renderer.getModelMatrix(), tempBounds);
+                bounds.include(tempBounds);
+            }
+        }
+
+        if (bounds.isEmpty()) {
+            layer.markClean();
+            return;
+        }
+
+        int maxTextureSize = backend.getMaxTextureSize();
+        int textureWidth = Math.max(1, Math.min(maxTextureSize, (int) Math.ceil(bounds.getWidth() * pixelsPerUnitX)));
+        int textureHeight = Math.max(1, Math.min(maxTextureSize, (int) Math.ceil(bounds.getHeight() * pixelsPerUnitY)));
+        layer.prepareTarget(textureWidth, textureHeight);
+
+        int previousFramebuffer = backend.getFramebufferBinding();
+        backend.getViewport(savedViewport);
+
+        backend.bindFramebuffer(layer.getFramebufferId());
+        backend.setViewport(0, 0, textureWidth, textureHeight);
+        backend.clear(0, 0, 0, 0);
+
+        // The top and bottom are swapped so the texture ends up the correct way when drawn with the square mesh.
+        projection.identity().ortho2D(bounds.getMinX(), bounds.getMaxX(), bounds.getMaxY(), bounds.getMinY());
+        view.identity();
+        beginPass();
+        for (GameItem item : layer.getItems()) {
+            MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+            if (renderer.isVisible() && renderer.getMeshes() != null)
+                renderItem(renderer);
         }
 
-        shaderProgram.unbind();
+        backend.bindFramebuffer(previousFramebuffer);
+        backend.setViewport(savedViewport[0], savedViewport[1], savedViewport[2], savedViewport[3]);
+        layer.markClean();
+        metrics.addStaticLayerRefresh();
+    }
+
+    /**
+     * Draw the cached textures of the static layers.
+     *
+     * @param item2DHandler The item handler that contains the layers.
+     * @param foreground    If the foreground or background layers should be drawn.
+     */
+    private void drawStaticLayers(Item2DHandler item2DHandler, boolean foreground) {
+        for (StaticLayer2D layer : item2DHandler.getStaticLayers()) {
+            if (layer.isForeground() != foreground || layer.getTextureId() == 0 || layer.getBounds().isEmpty()
+                    || !layer.getBounds().intersects(visibleArea))
+                continue;
+            if (staticLayerQuad == null)
+                staticLayerQuad = new Mesh2D(SquareData.vertices, SquareData.textures, SquareData.indices);
+
+            Bounds2D bounds = layer.getBounds();
+            model.translation(bounds.getMinX() + bounds.getWidth() / 2, bounds.getMinY() + bounds.getHeight() / 2, 0)
+                    .scale(bounds.getWidth(), bounds.getHeight(), 1);
+            useVariant(ShaderVariant2D.TEXTURE);
+            setUniform("model", model);
+            setUniform("material.color", white);
+            backend.bindTexture(0, layer.getTextureId());
+            metrics.addTextureBind();
+            staticLayerQuad.render();
+            metrics.addDrawCall(staticLayerQuad.getVertexCount());
+        }
+    }
+
+    /**
+     * Draw the shapes of the scene on top of the viewport.
+     */
+    private void drawShapes() {
+        // Shapes are debug overlays, so they stay readable in cells which cannot be seen.
+        boolean fogged = fog;
+        fog = false;
+        useVariant(ShaderVariant2D.VERTEX_COLOR);
+        setUniform("model", model.identity());
+        setUniform("material.color", white);
+        shapeRenderer.draw();
+        metrics.addDrawCall(shapeQuads * 6);
+        fog = fogged;
     }
 
     /**
@@ -72,33 +346,105 @@ public class Standard2DPipeline implements RenderPipeline {
      * @param text     The texture for the game item.
      */
     private void calculateSpriteSheet(GameItem gameItem, Texture text) {
-        int col = gameItem.getTextPos() % text.getNumCols();
-        int row = gameItem.getTextPos() / text.getNumCols();
-        float textXOffset = (float) col / text.getNumCols();
-        float textYOffset = (float) row / text.getNumRows();
-        shaderProgram.setUniform("textureOffset", new Vector2f(textXOffset, textYOffset));
-        shaderProgram.setUniform("columnsRows", new Vector2f(text.getNumCols(), text.getNumRows()));
+        setUniform("textureOffset", calculateSpriteSheetOffset(gameItem.getTextPos(), text.getNumCols(), text.getNumRows(), textureOffset));
+        setUniform("columnsRows", columnsRows.set(text.getNumCols(), text.getNumRows()));
+    }
+
+    /**
+     * Start a new pass after the projection or view changed.
+     * <p>The shared uniforms of each variant are uploaded again the next time the variant is used.</p>
+     */
+    private void beginPass() {
+        pass++;
+    }
 
-        if (text.getNumCols() > 1 && text.getNumRows() > 1)
-            shaderProgram.setUniform("isSpriteSheet", 1);
+    /**
+     * Use a variant of the shader for the following draws.
+     *
+     * @param variant The variant.
+     */
+    private void useVariant(ShaderVariant2D variant) {
+        if (variant != currentVariant || fog != currentFog) {
+            backend.useShader(shaders.getShader(variant, fog));
+            currentVariant = variant;
+            currentFog = fog;
+        }
+        int index = fog ? variant.ordinal() + VARIANT_COUNT : variant.ordinal();
+        if (variantPasses[index] != pass) {
+            setUniform("ortho", projection);
+            setUniform("view", view);
+            if (variant.isTextured())
+                setUniform("material.texture", 0);
+            if (fog) {
+                setUniform("fog", 1);
+                setUniform("fogArea", fogArea);
+            }
+            variantPasses[index] = pass;
+        }
+    }
+
+    /**
+     * Set a uniform on the shader and record the upload in the metrics.
+     *
+     * @param name  The name of the uniform.
+     * @param value The value of the uniform.
+     */
+    private void setUniform(String name, Matrix4f value) {
+        backend.setUniform(name, value);
+        metrics.addUniformUpload(64);
+    }
+
+    private void setUniform(String name, Vector4f value) {
+        backend.setUniform(name, value);
+        metrics.addUniformUpload(16);
+    }
+
+    private void setUniform(String name, Vector2f value) {
+        backend.setUniform(name, value);
+        metrics.addUniformUpload(8);
+    }
+
+    private void setUniform(String name, int value) {
+        backend.setUniform(name, value);
+        metrics.addUniformUpload(4);
     }
 
     @Override
     public void renderDepthMap(Scene scene, Shader shader, Matrix4f matrix4f) {
     }
 
+    /**
+     * Calculate the texture offset of a tile in a sprite sheet.
+     *
+     * @param textPos The id of the tile.
+     * @param columns The number of columns in the sprite sheet.
+     * @param rows    The number of rows in the sprite sheet.
+     * @param dest    The vector to store the offset in.
+     * @return The destination vector.
+     */
+    public static Vector2f calculateSpriteSheetOffset(int textPos, int columns, int rows, Vector2f dest) {
+        int col = textPos % columns;
+        int row = textPos / columns;
+        return dest.set((float) col / columns, (float) row / rows);
+    }
+
     /**
      * Build the model for 2D gameItems.
      *
+     * <p>The pipeline uses the model cached by {@link MeshRenderer2D#getModelMatrix()} instead.</p>
+     *
      * @param gameItem The game item.
-     * @param camera   The camera.
-     * @return The Model Matrix with the position of the camera added on.
+     * @param offsetX  The x offset to add to the position. (Normally the position of the camera).
+     * @param offsetY  The y offset to add to the position.
+     * @param offsetZ  The z value of the model.
+     * @param dest     The matrix to store the model in.
+     * @return The Model Matrix with the offset added on.
      */
-    private Matrix4f buildModel(GameItem gameItem, Camera camera) {
+    public static Matrix4f buildModel(GameItem gameItem, float offsetX, float offsetY, float offsetZ, Matrix4f dest) {
         Quaternionf rotation = gameItem.transform.getRotation();
-        Vector3 position = gameItem.transform.getPosition().add(camera.getPosition());
-        return new Matrix4f()
-                .translationRotateScale(position.x, position.y, camera.getPosition().z,
+        Vector3 position = gameItem.transform.getPosition();
+        return dest
+                .translationRotateScale(position.x + offsetX, position.y + offsetY, offsetZ,
                         rotation.x, rotation.y, rotation.z, rotation.w,
                         gameItem.transform.getScale().x, gameItem.transform.getScale().y, 1);
     }
@@ -4,29 +4,35 @@ import org.kakara.engine.render.Shader;
 import org.kakara.engine.render.ShaderProgram;
 import org.kakara.engine.utils.Utils;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * This is the standard shader for the 2D GameItems.
  *
  * <p>This shader is used with the {@link Standard2DPipeline} and is only available
  * when using the {@link org.kakara.engine2d.Abstract2DScene} scene.</p>
+ *
+ * <p>The shader is compiled once for every {@link ShaderVariant2D} that is used. Variants are compiled the first
+ * time they are requested and then cached, along with the locations of their uniforms. {@link #getShader()} returns
+ * the {@link ShaderVariant2D#TEXTURE} variant.</p>
+ *
+ * <p>Every variant can also be compiled with the <code>FOG</code> define, which darkens each fragment by the
+ * texture of a {@link org.kakara.engine2d.visibility.VisibilityField2D}. These are only compiled for scenes which
+ * have a visibility field.</p>
  */
 public class Standard2DShader implements ShaderProgram {
-    private Shader shader;
+    private final Map<ShaderVariant2D, Shader> variants = new EnumMap<>(ShaderVariant2D.class);
+    private final Map<ShaderVariant2D, Shader> fogVariants = new EnumMap<>(ShaderVariant2D.class);
+    private String vertexSource;
+    private String fragmentSource;
 
     @Override
     public void initializeShader() {
         try {
-            shader = new Shader();
-            shader.createVertexShader(Utils.loadResource("/Standard2DVertex.vs"));
-            shader.createFragmentShader(Utils.loadResource("/Standard2DFragment.fs"));
-            shader.link();
-            shader.createUniform("model");
-            shader.createUniform("ortho");
-            shader.createUniform("textureOffset");
-            shader.createUniform("columnsRows");
-            shader.createUniform("isSpriteSheet");
-            shader.createUniform("material.texture");
-            shader.createUniform("material.color");
+            vertexSource = Utils.loadResource("/Standard2DVertex.vs");
+            fragmentSource = Utils.loadResource("/Standard2DFragment.fs");
+            getShader(ShaderVariant2D.TEXTURE);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -34,8 +40,83 @@ public class Standard2DShader implements ShaderProgram {
 
     @Override
     public Shader getShader() {
+        return getShader(ShaderVariant2D.TEXTURE);
+    }
+
+    /**
+     * Get a variant of the shader, compiling it if this is the first time it is used.
+     * <p>This must be called on the main thread.</p>
+     *
+     * @param variant The variant.
+     * @return The shader of the variant.
+     * @throws IllegalStateException If the variant could not be compiled.
+     */
+    public Shader getShader(ShaderVariant2D variant) {
+        return getShader(variant, false);
+    }
+
+    /**
+     * Get a variant of the shader, compiling it if this is the first time it is used.
+     * <p>This must be called on the main thread.</p>
+     *
+     * @param variant The variant.
+     * @param fog     If the variant should sample the fog texture.
+     * @return The shader of the variant.
+     * @throws IllegalStateException If the variant could not be compiled.
+     */
+    public Shader getShader(ShaderVariant2D variant, boolean fog) {
+        Map<ShaderVariant2D, Shader> cache = fog ? fogVariants : variants;
+        Shader shader = cache.get(variant);
+        if (shader == null) {
+            shader = compile(variant, fog);
+            cache.put(variant, shader);
+        }
         return shader;
     }
 
+    private Shader compile(ShaderVariant2D variant, boolean fog) {
+        if (vertexSource == null || fragmentSource == null)
+            throw new IllegalStateException("The 2D shader has not been initialized.");
+        try {
+            Shader shader = new Shader();
+            shader.createVertexShader(define(vertexSource, variant, fog));
+            shader.createFragmentShader(define(fragmentSource, variant, fog));
+            shader.link();
+            // Only the uniforms the variant uses exist after linking.
+            shader.createUniform("model");
+            shader.createUniform("view");
+            shader.createUniform("ortho");
+            shader.createUniform("material.color");
+            if (variant.isTextured())
+                shader.createUniform("material.texture");
+            if (variant == ShaderVariant2D.SPRITE_SHEET) {
+                shader.createUniform("textureOffset");
+                shader.createUniform("columnsRows");
+            }
+            if (variant == ShaderVariant2D.ATLAS_UV)
+                shader.createUniform("uvRegion");
+            if (fog) {
+                shader.createUniform("fog");
+                shader.createUniform("fogArea");
+            }
+            return shader;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to compile the " + variant + (fog ? " fog" : "")
+                    + " variant of the 2D shader.", e);
+        }
+    }
 
+    /**
+     * Add the define of a variant to the source of a shader.
+     *
+     * @param source  The source of the shader.
+     * @param variant The variant.
+     * @param fog     If the <code>FOG</code> define should also be added.
+     * @return The source with the defines after the version line.
+     */
+    static String define(String source, ShaderVariant2D variant, boolean fog) {
+        int versionEnd = source.startsWith("#version") ? source.indexOf('\n') + 1 : 0;
+        return source.substring(0, versionEnd) + "#define " + variant.getDefine() + "\n" + (fog ? "#define FOG\n" : "")
+                + source.substring(versionEnd);
+    }
 }
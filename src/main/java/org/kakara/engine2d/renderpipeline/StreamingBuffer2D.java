@@ -0,0 +1,312 @@
+package org.kakara.engine2d.renderpipeline;
+
+import org.kakara.engine2d.GameEngine2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.lwjgl.opengl.GL44.*;
+
+/**
+ * A GPU buffer for geometry which is written every frame.
+ *
+ * <p>When the backend supports buffer storage, the buffer is split into one section per frame (three by default)
+ * and is mapped persistently. Each frame writes into the next section while the GPU may still be reading the
+ * previous ones. A fence is placed at the end of every frame. If the GPU has still not passed the fence of a
+ * section by the time it comes around again, another section is added instead of waiting. The ring only grows by
+ * {@link #MAX_EXTRA_FRAMES} sections, after which the GPU is waited for.</p>
+ *
+ * <p>When buffer storage is not supported, the data is written into off-heap memory and uploaded with
+ * <code>glBufferSubData</code>. The storage is orphaned at the start of every frame so that the driver does not
+ * wait for the GPU either.</p>
+ *
+ * <p>Each frame must be wrapped in {@link #beginFrame(int)} and {@link #endFrame()}. The number of bytes the frame
+ * needs is passed to <code>beginFrame</code>, since the buffer can only grow between frames. Memory is requested with
+ * {@link #allocate(int)} and made visible to the GPU with {@link #commit()}. The returned offset is the byte
+ * offset of the data in the buffer. The buffer id can change when a frame begins, so
+ * {@link #getBufferId()} should be called after committing. This class must only be used on the main thread.</p>
+ *
+ * <code>
+ * stream.beginFrame(vertexCount * 16);<br>
+ * ByteBuffer data = stream.allocate(vertexCount * 16);<br>
+ * // Write the vertices with data.putFloat(...)<br>
+ * int offset = stream.commit();<br>
+ * // Bind stream.getBufferId() and draw using the offset.<br>
+ * stream.endFrame();<br>
+ * </code>
+ */
+public class StreamingBuffer2D {
+    /**
+     * The default number of frames the buffer holds.
+     */
+    public static final int DEFAULT_FRAMES = 3;
+    /**
+     * The most sections that are added to the ring when the GPU falls behind.
+     */
+    public static final int MAX_EXTRA_FRAMES = 3;
+    // How long to wait for the GPU once the ring cannot grow. If it takes longer the GPU is assumed to be lost.
+    private static final long FENCE_TIMEOUT_NANOS = 1_000_000_000L;
+    private static final int ALIGNMENT = 16;
+    private static final int STORAGE_FLAGS = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+
+    private final int target;
+    private final boolean persistent;
+    private final int maxFrames;
+    private int frames;
+    private int sectionSize;
+
+    private int bufferId;
+    private long[] fences;
+    private ByteBuffer memory;
+    private ByteBuffer view;
+
+    private boolean inFrame;
+    private int section = -1;
+    private int cursor;
+    private int allocationStart;
+    private int allocationSize;
+    private long ringGrowths;
+
+    /**
+     * Construct a streaming buffer which holds {@link #DEFAULT_FRAMES} frames.
+     *
+     * @param target      The target the buffer is used with. (Such as GL_ARRAY_BUFFER).
+     * @param sectionSize The number of bytes that can be written each frame. (The buffer grows if more is needed).
+     */
+    public StreamingBuffer2D(int target, int sectionSize) {
+        this(target, sectionSize, DEFAULT_FRAMES);
+    }
+
+    /**
+     * Construct a streaming buffer.
+     *
+     * @param target      The target the buffer is used with. (Such as GL_ARRAY_BUFFER).
+     * @param sectionSize The number of bytes that can be written each frame. (The buffer grows if more is needed).
+     * @param frames      The number of frames the buffer holds when it is persistently mapped.
+     */
+    public StreamingBuffer2D(int target, int sectionSize, int frames) {
+        if (sectionSize <= 0 || frames <= 0)
+            throw new IllegalArgumentException("The section size and number of frames must be greater than 0.");
+        this.target = target;
+        this.persistent = GameEngine2D.getRenderBackend().supportsBufferStorage();
+        this.sectionSize = align(sectionSize);
+        this.frames = frames;
+        this.maxFrames = frames + MAX_EXTRA_FRAMES;
+        create();
+    }
+
+    /**
+     * Start writing a new frame.
+     *
+     * <p>If the frame needs more than {@link #getSectionSize()} bytes the buffer is replaced with a larger one.
+     * Every allocation starts at a multiple of 16 bytes, which must be included when a frame has more than one
+     * allocation.</p>
+     *
+     * @param bytes The number of bytes that will be allocated during the frame.
+     * @throws IllegalStateException If the previous frame was not ended.
+     */
+    public void beginFrame(int bytes) {
+        if (inFrame)
+            throw new IllegalStateException("The previous frame of the streaming buffer was not ended.");
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        inFrame = true;
+        cursor = 0;
+        if (bytes > sectionSize) {
+            recreate(Math.max(sectionSize * 2, align(bytes)), frames);
+            return;
+        }
+        if (persistent) {
+            section = (section + 1) % frames;
+            long fence = fences[section];
+            if (fence == 0)
+                return;
+            if (!backend.isFenceSignaled(fence) && frames < maxFrames) {
+                // The GPU is a whole ring behind, so add a section instead of waiting for it.
+                ringGrowths++;
+                recreate(sectionSize, frames + 1);
+                return;
+            }
+            backend.waitFence(fence, FENCE_TIMEOUT_NANOS);
+            backend.deleteFence(fence);
+            fences[section] = 0;
+        } else {
+            backend.bindBuffer(target, bufferId);
+            backend.bufferData(target, sectionSize, GL_STREAM_DRAW);
+            backend.bindBuffer(target, 0);
+        }
+    }
+
+    /**
+     * Allocate memory to write to for the current frame.
+     *
+     * <p>The returned buffer is positioned at the start of the allocation and its limit is the end of the
+     * allocation. Write to it with relative puts. The returned buffer is reused by the next allocation.</p>
+     *
+     * @param bytes The number of bytes to allocate.
+     * @return The memory to write to.
+     * @throws IllegalStateException If no frame was started, or the frame has used more bytes than were passed to
+     *                               {@link #beginFrame(int)}.
+     */
+    public ByteBuffer allocate(int bytes) {
+        if (!inFrame)
+            throw new IllegalStateException("beginFrame() must be called before allocating from a streaming buffer.");
+        int start = align(cursor);
+        // Growing here would delete the buffer that the data committed earlier in the frame is in.
+        if (start + bytes > sectionSize)
+            throw new IllegalStateException("The frame needs more memory than was passed to beginFrame().");
+        cursor = start + bytes;
+        allocationStart = getSectionOffset() + start;
+        allocationSize = bytes;
+
+        int viewStart = persistent ? allocationStart : start;
+        view.limit(viewStart + bytes).position(viewStart);
+        return view;
+    }
+
+    /**
+     * Make the last allocation visible to the GPU.
+     *
+     * @return The byte offset of the allocation in the buffer.
+     */
+    public int commit() {
+        if (!persistent) {
+            RenderBackend2D backend = GameEngine2D.getRenderBackend();
+            int start = allocationStart - getSectionOffset();
+            view.limit(start + allocationSize).position(start);
+            backend.bindBuffer(target, bufferId);
+            backend.bufferSubData(target, allocationStart, view);
+            backend.bindBuffer(target, 0);
+        }
+        // Writes to the mapped memory are uploads as well, they are just not made with a call.
+        GameEngine2D.getResourceRegistry().recordUpload(allocationSize);
+        return allocationStart;
+    }
+
+    /**
+     * Finish writing the current frame.
+     * <p>This must be called after the draw calls which use the data of the frame.</p>
+     */
+    public void endFrame() {
+        if (!inFrame)
+            return;
+        inFrame = false;
+        if (persistent)
+            fences[section] = GameEngine2D.getRenderBackend().fenceSync();
+    }
+
+    /**
+     * Get the id of the buffer.
+     *
+     * @return The id of the buffer.
+     */
+    public int getBufferId() {
+        return bufferId;
+    }
+
+    /**
+     * Get if the buffer is persistently mapped.
+     *
+     * @return True if persistent, false if the orphaning fallback is used.
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Get the number of bytes that can be written each frame.
+     *
+     * @return The section size in bytes.
+     */
+    public int getSectionSize() {
+        return sectionSize;
+    }
+
+    /**
+     * Get the number of frames the buffer holds.
+     *
+     * @return The number of sections.
+     */
+    public int getFrameCount() {
+        return persistent ? frames : 1;
+    }
+
+    /**
+     * Get the number of times a section was added because the GPU fell behind.
+     *
+     * @return The number of times the ring grew.
+     */
+    public long getRingGrowths() {
+        return ringGrowths;
+    }
+
+    /**
+     * Delete the buffer and free its memory.
+     * <p>This must be called on the main thread.</p>
+     */
+    public void cleanUp() {
+        destroy();
+        inFrame = false;
+    }
+
+    private int getSectionOffset() {
+        return persistent ? section * sectionSize : 0;
+    }
+
+    private void create() {
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        bufferId = backend.createBuffer();
+        backend.bindBuffer(target, bufferId);
+        if (persistent) {
+            long size = (long) sectionSize * frames;
+            backend.bufferStorage(target, size, STORAGE_FLAGS);
+            memory = backend.mapBufferRange(target, 0, size, STORAGE_FLAGS);
+        } else {
+            backend.bufferData(target, sectionSize, GL_STREAM_DRAW);
+            memory = backend.allocateUploadBuffer(sectionSize);
+        }
+        backend.bindBuffer(target, 0);
+        GameEngine2D.getResourceRegistry().trackBuffer(bufferId, persistent ? (long) sectionSize * frames : sectionSize);
+        view = memory.duplicate().order(ByteOrder.nativeOrder());
+        fences = new long[frames];
+    }
+
+    private void destroy() {
+        if (bufferId == 0)
+            return;
+        RenderBackend2D backend = GameEngine2D.getRenderBackend();
+        for (long fence : fences) {
+            if (fence != 0)
+                backend.deleteFence(fence);
+        }
+        if (persistent) {
+            backend.bindBuffer(target, bufferId);
+            backend.unmapBuffer(target);
+            backend.bindBuffer(target, 0);
+        } else {
+            backend.freeUploadBuffer(memory);
+        }
+        backend.deleteBuffer(bufferId);
+        GameEngine2D.getResourceRegistry().releaseBuffer(bufferId);
+        bufferId = 0;
+        memory = null;
+        view = null;
+    }
+
+    /**
+     * Replace the buffer with a new one.
+     * <p>This is only called at the start of a frame. The new buffer is not in use by the GPU, so the frame starts in
+     * its first section.</p>
+     */
+    private void recreate(int sectionSize, int frames) {
+        destroy();
+        this.sectionSize = sectionSize;
+        this.frames = frames;
+        create();
+        section = 0;
+    }
+
+    private static int align(int value) {
+        return (value + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
@@ -0,0 +1,304 @@
+package org.kakara.engine2d.renderpipeline.backend;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+import org.kakara.engine.render.Shader;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL44.*;
+
+/**
+ * The render backend which issues OpenGL calls.
+ *
+ * <p>This is the default backend. It can only be used on the main thread.</p>
+ */
+public class GLRenderBackend2D implements RenderBackend2D {
+    private final float[] clearColor = new float[4];
+    private Shader currentShader;
+    private int maxTextureSize;
+    private int bufferStorageSupport;
+
+    @Override
+    public boolean requiresMainThread() {
+        return true;
+    }
+
+    @Override
+    public int createVertexArray() {
+        return glGenVertexArrays();
+    }
+
+    @Override
+    public void bindVertexArray(int vertexArray) {
+        glBindVertexArray(vertexArray);
+    }
+
+    @Override
+    public void deleteVertexArray(int vertexArray) {
+        glDeleteVertexArrays(vertexArray);
+    }
+
+    @Override
+    public int createBuffer() {
+        return glGenBuffers();
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage) {
+        glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage) {
+        glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferData(int target, ByteBuffer data, int usage) {
+        glBufferData(target, data, usage);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data) {
+        glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, IntBuffer data) {
+        glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ByteBuffer data) {
+        glBufferSubData(target, offset, data);
+    }
+
+    @Override
+    public ByteBuffer allocateUploadBuffer(int bytes) {
+        return MemoryUtil.memAlloc(bytes);
+    }
+
+    @Override
+    public void freeUploadBuffer(ByteBuffer buffer) {
+        MemoryUtil.memFree(buffer);
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        glBufferData(target, size, usage);
+    }
+
+    @Override
+    public boolean supportsBufferStorage() {
+        if (bufferStorageSupport == 0) {
+            GLCapabilities capabilities = GL.getCapabilities();
+            bufferStorageSupport = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage ? 1 : -1;
+        }
+        return bufferStorageSupport == 1;
+    }
+
+    @Override
+    public void bufferStorage(int target, long size, int flags) {
+        glBufferStorage(target, size, flags);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        return glMapBufferRange(target, offset, length, access);
+    }
+
+    @Override
+    public void unmapBuffer(int target) {
+        glUnmapBuffer(target);
+    }
+
+    @Override
+    public long fenceSync() {
+        return glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    @Override
+    public boolean isFenceSignaled(long fence) {
+        int result = glClientWaitSync(fence, 0, 0);
+        return result == GL_ALREADY_SIGNALED || result == GL_CONDITION_SATISFIED;
+    }
+
+    @Override
+    public boolean waitFence(long fence, long timeoutNanos) {
+        int result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, timeoutNanos);
+        return result == GL_ALREADY_SIGNALED || result == GL_CONDITION_SATISFIED;
+    }
+
+    @Override
+    public void deleteFence(long fence) {
+        glDeleteSync(fence);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        glDeleteBuffers(buffer);
+    }
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+        glVertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public int createRenderTexture(int width, int height) {
+        int texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        return texture;
+    }
+
+    @Override
+    public int createByteTexture(int width, int height) {
+        int texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D, texture);
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_R8, width, height, 0, GL_RED, GL_UNSIGNED_BYTE, 0);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glBindTexture(GL_TEXTURE_2D, 0);
+        return texture;
+    }
+
+    @Override
+    public void updateByteTexture(int texture, int x, int y, int width, int height, ByteBuffer data) {
+        glBindTexture(GL_TEXTURE_2D, texture);
+        // Rows of single byte pixels are not aligned to 4 bytes.
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height, GL_RED, GL_UNSIGNED_BYTE, data);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+        glBindTexture(GL_TEXTURE_2D, 0);
+    }
+
+    @Override
+    public void bindTexture(int unit, int texture) {
+        glActiveTexture(GL_TEXTURE0 + unit);
+        glBindTexture(GL_TEXTURE_2D, texture);
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        glDeleteTextures(texture);
+    }
+
+    @Override
+    public int createFramebuffer(int colorTexture) {
+        int previous = glGetInteger(GL_FRAMEBUFFER_BINDING);
+        int framebuffer = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+        glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, colorTexture, 0);
+        int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        glBindFramebuffer(GL_FRAMEBUFFER, previous);
+        if (status != GL_FRAMEBUFFER_COMPLETE) {
+            glDeleteFramebuffers(framebuffer);
+            throw new IllegalStateException("Unable to create the framebuffer. Status: " + status);
+        }
+        return framebuffer;
+    }
+
+    @Override
+    public int getFramebufferBinding() {
+        return glGetInteger(GL_FRAMEBUFFER_BINDING);
+    }
+
+    @Override
+    public void bindFramebuffer(int framebuffer) {
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        glDeleteFramebuffers(framebuffer);
+    }
+
+    @Override
+    public void getViewport(int[] dest) {
+        glGetIntegerv(GL_VIEWPORT, dest);
+    }
+
+    @Override
+    public void setViewport(int x, int y, int width, int height) {
+        glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void clear(float r, float g, float b, float a) {
+        glGetFloatv(GL_COLOR_CLEAR_VALUE, clearColor);
+        glClearColor(r, g, b, a);
+        glClear(GL_COLOR_BUFFER_BIT);
+        glClearColor(clearColor[0], clearColor[1], clearColor[2], clearColor[3]);
+    }
+
+    @Override
+    public int getMaxTextureSize() {
+        if (maxTextureSize == 0)
+            maxTextureSize = glGetInteger(GL_MAX_TEXTURE_SIZE);
+        return maxTextureSize;
+    }
+
+    @Override
+    public void useShader(Shader shader) {
+        if (shader == null) {
+            if (currentShader != null)
+                currentShader.unbind();
+        } else {
+            shader.bind();
+        }
+        currentShader = shader;
+    }
+
+    @Override
+    public void setUniform(String name, Matrix4f value) {
+        currentShader.setUniform(name, value);
+    }
+
+    @Override
+    public void setUniform(String name, Vector4f value) {
+        currentShader.setUniform(name, value);
+    }
+
+    @Override
+    public void setUniform(String name, Vector2f value) {
+        currentShader.setUniform(name, value);
+    }
+
+    @Override
+    public void setUniform(String name, int value) {
+        currentShader.setUniform(name, value);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type) {
+        glDrawElements(mode, count, type, 0);
+    }
+}
@@ -0,0 +1,852 @@
+package org.kakara.engine2d.renderpipeline.backend;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+import org.kakara.engine.render.Shader;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A render backend which records a compact command stream instead of calling OpenGL.
+ *
+ * <p>This backend does not need an OpenGL context, so the 2D render path can be run on machines without a GPU
+ * (such as a CI server). It keeps deterministic counts of the draw calls, state changes, uniform uploads and bytes
+ * uploaded which can be used to detect performance regressions.</p>
+ *
+ * <p>Commands are written into a ring buffer of ints. When the buffer is full the oldest commands are overwritten.
+ * The last complete frame can be replayed into another backend with {@link #replayLastFrame(RenderBackend2D)}.
+ * Only the size of uploaded buffer data is recorded, so replayed uploads contain zeros.</p>
+ *
+ * <code>
+ * RecordingRenderBackend2D recorder = new RecordingRenderBackend2D(1 &lt;&lt; 20);<br>
+ * GameEngine2D.setRenderBackend(recorder);<br>
+ * // Render a frame<br>
+ * System.out.println(recorder.getDrawCalls());<br>
+ * </code>
+ */
+public class RecordingRenderBackend2D implements RenderBackend2D {
+    private static final int BEGIN_FRAME = 1;
+    private static final int END_FRAME = 2;
+    private static final int CREATE_VERTEX_ARRAY = 3;
+    private static final int BIND_VERTEX_ARRAY = 4;
+    private static final int DELETE_VERTEX_ARRAY = 5;
+    private static final int CREATE_BUFFER = 6;
+    private static final int BIND_BUFFER = 7;
+    private static final int BUFFER_DATA = 8;
+    private static final int DELETE_BUFFER = 9;
+    private static final int VERTEX_ATTRIB_POINTER = 10;
+    private static final int ENABLE_VERTEX_ATTRIB = 11;
+    private static final int DISABLE_VERTEX_ATTRIB = 12;
+    private static final int CREATE_RENDER_TEXTURE = 13;
+    private static final int BIND_TEXTURE = 14;
+    private static final int DELETE_TEXTURE = 15;
+    private static final int CREATE_FRAMEBUFFER = 16;
+    private static final int BIND_FRAMEBUFFER = 17;
+    private static final int DELETE_FRAMEBUFFER = 18;
+    private static final int VIEWPORT = 19;
+    private static final int CLEAR = 20;
+    private static final int USE_SHADER = 21;
+    private static final int UNIFORM_MATRIX4 = 22;
+    private static final int UNIFORM_VECTOR4 = 23;
+    private static final int UNIFORM_VECTOR2 = 24;
+    private static final int UNIFORM_INT = 25;
+    private static final int DRAW_ELEMENTS = 26;
+    private static final int BUFFER_SUB_DATA = 27;
+    private static final int BUFFER_ALLOCATE = 28;
+    private static final int BUFFER_STORAGE = 29;
+    private static final int MAP_BUFFER_RANGE = 30;
+    private static final int UNMAP_BUFFER = 31;
+    private static final int FENCE_SYNC = 32;
+    private static final int DELETE_FENCE = 33;
+    private static final int CREATE_BYTE_TEXTURE = 34;
+    private static final int UPDATE_BYTE_TEXTURE = 35;
+
+    private static final int MAX_TEXTURE_UNITS = 16;
+
+    private final int[] commands;
+    private final int mask;
+    private long writeIndex;
+    private long frameStart = -1;
+    private long lastFrameStart = -1;
+    private long lastFrameEnd = -1;
+
+    private final Map<String, Integer> uniformIds = new HashMap<>();
+    private final List<String> uniformNames = new ArrayList<>();
+    private final Map<Shader, Integer> shaderIds = new IdentityHashMap<>();
+    private final List<Shader> shaders = new ArrayList<>();
+    private final float[] matrix = new float[16];
+
+    private int nextId = 1;
+    private final int[] viewport;
+    private final int[] boundTextures = new int[MAX_TEXTURE_UNITS];
+    private final Map<Integer, Integer> boundBuffers = new HashMap<>();
+    private int boundVertexArray;
+    private int boundFramebuffer;
+    private int currentShader;
+    private boolean bufferStorageSupported;
+    private int nextFence = 1;
+
+    private long drawCalls;
+    private long verticesSubmitted;
+    private long stateChanges;
+    private long redundantStateChanges;
+    private long uniformUploads;
+    private long bytesUploaded;
+    private long frames;
+
+    /**
+     * Create a recording backend.
+     *
+     * @param capacity       The number of ints the ring buffer can hold. (Rounded up to a power of two).
+     * @param viewportWidth  The width reported for the default viewport.
+     * @param viewportHeight The height reported for the default viewport.
+     */
+    public RecordingRenderBackend2D(int capacity, int viewportWidth, int viewportHeight) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity must be greater than 0.");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.commands = new int[size];
+        this.mask = size - 1;
+        this.viewport = new int[]{0, 0, viewportWidth, viewportHeight};
+    }
+
+    /**
+     * Create a recording backend with a default viewport of 1080x720.
+     *
+     * @param capacity The number of ints the ring buffer can hold. (Rounded up to a power of two).
+     */
+    public RecordingRenderBackend2D(int capacity) {
+        this(capacity, 1080, 720);
+    }
+
+    private void write(int value) {
+        commands[(int) (writeIndex & mask)] = value;
+        writeIndex++;
+    }
+
+    private void write(float value) {
+        write(Float.floatToRawIntBits(value));
+    }
+
+    private int read(long index) {
+        return commands[(int) (index & mask)];
+    }
+
+    private float readFloat(long index) {
+        return Float.intBitsToFloat(read(index));
+    }
+
+    private void stateChange(boolean redundant) {
+        stateChanges++;
+        if (redundant)
+            redundantStateChanges++;
+    }
+
+    private int uniformId(String name) {
+        Integer id = uniformIds.get(name);
+        if (id == null) {
+            id = uniformNames.size();
+            uniformIds.put(name, id);
+            uniformNames.add(name);
+        }
+        return id;
+    }
+
+    @Override
+    public boolean requiresMainThread() {
+        return false;
+    }
+
+    @Override
+    public void beginFrame() {
+        frameStart = writeIndex;
+        write(BEGIN_FRAME);
+    }
+
+    @Override
+    public void endFrame() {
+        write(END_FRAME);
+        frames++;
+        if (frameStart >= 0) {
+            lastFrameStart = frameStart;
+            lastFrameEnd = writeIndex;
+        }
+        frameStart = -1;
+    }
+
+    @Override
+    public int createVertexArray() {
+        int id = nextId++;
+        write(CREATE_VERTEX_ARRAY);
+        write(id);
+        return id;
+    }
+
+    @Override
+    public void bindVertexArray(int vertexArray) {
+        stateChange(boundVertexArray == vertexArray);
+        boundVertexArray = vertexArray;
+        write(BIND_VERTEX_ARRAY);
+        write(vertexArray);
+    }
+
+    @Override
+    public void deleteVertexArray(int vertexArray) {
+        write(DELETE_VERTEX_ARRAY);
+        write(vertexArray);
+    }
+
+    @Override
+    public int createBuffer() {
+        int id = nextId++;
+        write(CREATE_BUFFER);
+        write(id);
+        return id;
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        Integer previous = boundBuffers.put(target, buffer);
+        stateChange(previous != null && previous == buffer);
+        write(BIND_BUFFER);
+        write(target);
+        write(buffer);
+    }
+
+    private void bufferData(int target, int bytes, int usage) {
+        bytesUploaded += bytes;
+        write(BUFFER_DATA);
+        write(target);
+        write(bytes);
+        write(usage);
+    }
+
+    @Override
+    public void bufferData(int target, FloatBuffer data, int usage) {
+        bufferData(target, data.remaining() * Float.BYTES, usage);
+    }
+
+    @Override
+    public void bufferData(int target, IntBuffer data, int usage) {
+        bufferData(target, data.remaining() * Integer.BYTES, usage);
+    }
+
+    @Override
+    public void bufferData(int target, ByteBuffer data, int usage) {
+        bufferData(target, data.remaining(), usage);
+    }
+
+    private void bufferSubData(int target, long offset, int bytes) {
+        bytesUploaded += bytes;
+        write(BUFFER_SUB_DATA);
+        write(target);
+        write((int) offset);
+        write(bytes);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, FloatBuffer data) {
+        bufferSubData(target, offset, data.remaining() * Float.BYTES);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, IntBuffer data) {
+        bufferSubData(target, offset, data.remaining() * Integer.BYTES);
+    }
+
+    @Override
+    public void bufferSubData(int target, long offset, ByteBuffer data) {
+        bufferSubData(target, offset, data.remaining());
+    }
+
+    /**
+     * Allocate memory to upload data from.
+     * <p>The memory comes from the JVM, so the LWJGL natives are not needed. No command is recorded.</p>
+     *
+     * @param bytes The size of the memory in bytes.
+     * @return The memory.
+     */
+    @Override
+    public ByteBuffer allocateUploadBuffer(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Free memory which was allocated by {@link #allocateUploadBuffer(int)}.
+     * <p>This does nothing, the memory is freed by the garbage collector.</p>
+     *
+     * @param buffer The memory to free.
+     */
+    @Override
+    public void freeUploadBuffer(ByteBuffer buffer) {
+    }
+
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        write(BUFFER_ALLOCATE);
+        write(target);
+        write((int) size);
+        write(usage);
+    }
+
+    @Override
+    public boolean supportsBufferStorage() {
+        return bufferStorageSupported;
+    }
+
+    /**
+     * Set if the backend should report support for immutable buffer storage.
+     * <p>This allows the persistent mapping path to be tested without a GPU. The default is false.</p>
+     *
+     * @param supported If buffer storage is supported.
+     */
+    public void setBufferStorageSupported(boolean supported) {
+        this.bufferStorageSupported = supported;
+    }
+
+    @Override
+    public void bufferStorage(int target, long size, int flags) {
+        write(BUFFER_STORAGE);
+        write(target);
+        write((int) size);
+        write(flags);
+    }
+
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        write(MAP_BUFFER_RANGE);
+        write(target);
+        write((int) offset);
+        write((int) length);
+        write(access);
+        return ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void unmapBuffer(int target) {
+        write(UNMAP_BUFFER);
+        write(target);
+    }
+
+    @Override
+    public long fenceSync() {
+        int fence = nextFence++;
+        write(FENCE_SYNC);
+        write(fence);
+        return fence;
+    }
+
+    /**
+     * Check if a fence has been signaled.
+     * <p>There is no GPU, so every fence is signaled as soon as it is created.</p>
+     *
+     * @param fence The fence.
+     * @return Always true.
+     */
+    @Override
+    public boolean isFenceSignaled(long fence) {
+        return true;
+    }
+
+    /**
+     * Wait for a fence to be signaled.
+     * <p>There is no GPU, so this never waits.</p>
+     *
+     * @param fence        The fence.
+     * @param timeoutNanos The longest time to wait in nanoseconds.
+     * @return Always true.
+     */
+    @Override
+    public boolean waitFence(long fence, long timeoutNanos) {
+        return true;
+    }
+
+    @Override
+    public void deleteFence(long fence) {
+        write(DELETE_FENCE);
+        write((int) fence);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        write(DELETE_BUFFER);
+        write(buffer);
+    }
+
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+        write(VERTEX_ATTRIB_POINTER);
+        write(index);
+        write(size);
+        write(type);
+        write(normalized ? 1 : 0);
+        write(stride);
+        write((int) offset);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        write(ENABLE_VERTEX_ATTRIB);
+        write(index);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        write(DISABLE_VERTEX_ATTRIB);
+        write(index);
+    }
+
+    @Override
+    public int createRenderTexture(int width, int height) {
+        int id = nextId++;
+        write(CREATE_RENDER_TEXTURE);
+        write(id);
+        write(width);
+        write(height);
+        return id;
+    }
+
+    @Override
+    public int createByteTexture(int width, int height) {
+        int id = nextId++;
+        write(CREATE_BYTE_TEXTURE);
+        write(id);
+        write(width);
+        write(height);
+        return id;
+    }
+
+    @Override
+    public void updateByteTexture(int texture, int x, int y, int width, int height, ByteBuffer data) {
+        bytesUploaded += data.remaining();
+        write(UPDATE_BYTE_TEXTURE);
+        write(texture);
+        write(x);
+        write(y);
+        write(width);
+        write(height);
+    }
+
+    /**
+     * Bind a 2D texture to a texture unit.
+     *
+     * @param unit    The texture unit. (0 - 15).
+     * @param texture The id of the texture. (0 to unbind).
+     * @throws IllegalArgumentException If the recorder does not track the texture unit.
+     */
+    @Override
+    public void bindTexture(int unit, int texture) {
+        if (unit < 0 || unit >= MAX_TEXTURE_UNITS)
+            throw new IllegalArgumentException("The texture unit " + unit + " is out of range. (0 - "
+                    + (MAX_TEXTURE_UNITS - 1) + ").");
+        stateChange(boundTextures[unit] == texture);
+        boundTextures[unit] = texture;
+        write(BIND_TEXTURE);
+        write(unit);
+        write(texture);
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        write(DELETE_TEXTURE);
+        write(texture);
+    }
+
+    @Override
+    public int createFramebuffer(int colorTexture) {
+        int id = nextId++;
+        write(CREATE_FRAMEBUFFER);
+        write(id);
+        write(colorTexture);
+        return id;
+    }
+
+    @Override
+    public int getFramebufferBinding() {
+        return boundFramebuffer;
+    }
+
+    @Override
+    public void bindFramebuffer(int framebuffer) {
+        stateChange(boundFramebuffer == framebuffer);
+        boundFramebuffer = framebuffer;
+        write(BIND_FRAMEBUFFER);
+        write(framebuffer);
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        write(DELETE_FRAMEBUFFER);
+        write(framebuffer);
+    }
+
+    @Override
+    public void getViewport(int[] dest) {
+        System.arraycopy(viewport, 0, dest, 0, 4);
+    }
+
+    @Override
+    public void setViewport(int x, int y, int width, int height) {
+        stateChange(viewport[0] == x && viewport[1] == y && viewport[2] == width && viewport[3] == height);
+        viewport[0] = x;
+        viewport[1] = y;
+        viewport[2] = width;
+        viewport[3] = height;
+        write(VIEWPORT);
+        write(x);
+        write(y);
+        write(width);
+        write(height);
+    }
+
+    @Override
+    public void clear(float r, float g, float b, float a) {
+        write(CLEAR);
+        write(r);
+        write(g);
+        write(b);
+        write(a);
+    }
+
+    @Override
+    public int getMaxTextureSize() {
+        return 16384;
+    }
+
+    @Override
+    public void useShader(Shader shader) {
+        int id = 0;
+        if (shader != null) {
+            Integer existing = shaderIds.get(shader);
+            if (existing == null) {
+                shaders.add(shader);
+                existing = shaders.size();
+                shaderIds.put(shader, existing);
+            }
+            id = existing;
+        }
+        stateChange(currentShader == id);
+        currentShader = id;
+        write(USE_SHADER);
+        write(id);
+    }
+
+    @Override
+    public void setUniform(String name, Matrix4f value) {
+        uniformUploads++;
+        bytesUploaded += 64;
+        write(UNIFORM_MATRIX4);
+        write(uniformId(name));
+        value.get(matrix);
+        for (float f : matrix)
+            write(f);
+    }
+
+    @Override
+    public void setUniform(String name, Vector4f value) {
+        uniformUploads++;
+        bytesUploaded += 16;
+        write(UNIFORM_VECTOR4);
+        write(uniformId(name));
+        write(value.x);
+        write(value.y);
+        write(value.z);
+        write(value.w);
+    }
+
+    @Override
+    public void setUniform(String name, Vector2f value) {
+        uniformUploads++;
+        bytesUploaded += 8;
+        write(UNIFORM_VECTOR2);
+        write(uniformId(name));
+        write(value.x);
+        write(value.y);
+    }
+
+    @Override
+    public void setUniform(String name, int value) {
+        uniformUploads++;
+        bytesUploaded += 4;
+        write(UNIFORM_INT);
+        write(uniformId(name));
+        write(value);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type) {
+        drawCalls++;
+        verticesSubmitted += count;
+        write(DRAW_ELEMENTS);
+        write(mode);
+        write(count);
+        write(type);
+    }
+
+    /**
+     * Replay the last complete frame into another backend.
+     *
+     * <p>Objects created during the frame are created again on the target and their ids are remapped. Ids of
+     * objects created before the frame are passed through unchanged.</p>
+     *
+     * @param target The backend to replay the commands into.
+     * @throws IllegalStateException If no frame was recorded or the frame was overwritten in the ring buffer.
+     */
+    public void replayLastFrame(RenderBackend2D target) {
+        if (lastFrameStart < 0)
+            throw new IllegalStateException("No complete frame has been recorded.");
+        if (writeIndex - lastFrameStart > commands.length)
+            throw new IllegalStateException("The last frame has been overwritten. Increase the capacity of the recorder.");
+
+        Map<Integer, Integer> ids = new HashMap<>();
+        Map<Integer, Long> fences = new HashMap<>();
+        Matrix4f matrix4f = new Matrix4f();
+        Vector4f vector4f = new Vector4f();
+        Vector2f vector2f = new Vector2f();
+        float[] values = new float[16];
+        long i = lastFrameStart;
+        while (i < lastFrameEnd) {
+            int op = read(i++);
+            switch (op) {
+                case BEGIN_FRAME:
+                    target.beginFrame();
+                    break;
+                case END_FRAME:
+                    target.endFrame();
+                    break;
+                case CREATE_VERTEX_ARRAY:
+                    ids.put(read(i++), target.createVertexArray());
+                    break;
+                case BIND_VERTEX_ARRAY:
+                    target.bindVertexArray(remap(ids, read(i++)));
+                    break;
+                case DELETE_VERTEX_ARRAY:
+                    target.deleteVertexArray(remap(ids, read(i++)));
+                    break;
+                case CREATE_BUFFER:
+                    ids.put(read(i++), target.createBuffer());
+                    break;
+                case BIND_BUFFER:
+                    target.bindBuffer(read(i), remap(ids, read(i + 1)));
+                    i += 2;
+                    break;
+                case BUFFER_DATA:
+                    target.bufferData(read(i), ByteBuffer.allocateDirect(read(i + 1)), read(i + 2));
+                    i += 3;
+                    break;
+                case BUFFER_SUB_DATA:
+                    target.bufferSubData(read(i), read(i + 1), ByteBuffer.allocateDirect(read(i + 2)));
+                    i += 3;
+                    break;
+                case BUFFER_ALLOCATE:
+                    target.bufferData(read(i), (long) read(i + 1), read(i + 2));
+                    i += 3;
+                    break;
+                case BUFFER_STORAGE:
+                    target.bufferStorage(read(i), read(i + 1), read(i + 2));
+                    i += 3;
+                    break;
+                case MAP_BUFFER_RANGE:
+                    target.mapBufferRange(read(i), read(i + 1), read(i + 2), read(i + 3));
+                    i += 4;
+                    break;
+                case UNMAP_BUFFER:
+                    target.unmapBuffer(read(i++));
+                    break;
+                case FENCE_SYNC:
+                    fences.put(read(i++), target.fenceSync());
+                    break;
+                case DELETE_FENCE: {
+                    Long fence = fences.remove(read(i++));
+                    if (fence != null)
+                        target.deleteFence(fence);
+                    break;
+                }
+                case DELETE_BUFFER:
+                    target.deleteBuffer(remap(ids, read(i++)));
+                    break;
+                case VERTEX_ATTRIB_POINTER:
+                    target.vertexAttribPointer(read(i), read(i + 1), read(i + 2), read(i + 3) != 0, read(i + 4), read(i + 5));
+                    i += 6;
+                    break;
+                case ENABLE_VERTEX_ATTRIB:
+                    target.enableVertexAttribArray(read(i++));
+                    break;
+                case DISABLE_VERTEX_ATTRIB:
+                    target.disableVertexAttribArray(read(i++));
+                    break;
+                case CREATE_RENDER_TEXTURE:
+                    ids.put(read(i), target.createRenderTexture(read(i + 1), read(i + 2)));
+                    i += 3;
+                    break;
+                case CREATE_BYTE_TEXTURE:
+                    ids.put(read(i), target.createByteTexture(read(i + 1), read(i + 2)));
+                    i += 3;
+                    break;
+                case UPDATE_BYTE_TEXTURE:
+                    target.updateByteTexture(remap(ids, read(i)), read(i + 1), read(i + 2), read(i + 3), read(i + 4),
+                            ByteBuffer.allocateDirect(read(i + 3) * read(i + 4)));
+                    i += 5;
+                    break;
+                case BIND_TEXTURE:
+                    target.bindTexture(read(i), remap(ids, read(i + 1)));
+                    i += 2;
+                    break;
+                case DELETE_TEXTURE:
+                    target.deleteTexture(remap(ids, read(i++)));
+                    break;
+                case CREATE_FRAMEBUFFER:
+                    ids.put(read(i), target.createFramebuffer(remap(ids, read(i + 1))));
+                    i += 2;
+                    break;
+                case BIND_FRAMEBUFFER:
+                    target.bindFramebuffer(remap(ids, read(i++)));
+                    break;
+                case DELETE_FRAMEBUFFER:
+                    target.deleteFramebuffer(remap(ids, read(i++)));
+                    break;
+                case VIEWPORT:
+                    target.setViewport(read(i), read(i + 1), read(i + 2), read(i + 3));
+                    i += 4;
+                    break;
+                case CLEAR:
+                    target.clear(readFloat(i), readFloat(i + 1), readFloat(i + 2), readFloat(i + 3));
+                    i += 4;
+                    break;
+                case USE_SHADER: {
+                    int shader = read(i++);
+                    target.useShader(shader == 0 ? null : shaders.get(shader - 1));
+                    break;
+                }
+                case UNIFORM_MATRIX4: {
+                    String name = uniformNames.get(read(i++));
+                    for (int j = 0; j < 16; j++)
+                        values[j] = readFloat(i++);
+                    target.setUniform(name, matrix4f.set(values));
+                    break;
+                }
+                case UNIFORM_VECTOR4:
+                    target.setUniform(uniformNames.get(read(i)),
+                            vector4f.set(readFloat(i + 1), readFloat(i + 2), readFloat(i + 3), readFloat(i + 4)));
+                    i += 5;
+                    break;
+                case UNIFORM_VECTOR2:
+                    target.setUniform(uniformNames.get(read(i)), vector2f.set(readFloat(i + 1), readFloat(i + 2)));
+                    i += 3;
+                    break;
+                case UNIFORM_INT:
+                    target.setUniform(uniformNames.get(read(i)), read(i + 1));
+                    i += 2;
+                    break;
+                case DRAW_ELEMENTS:
+                    target.drawElements(read(i), read(i + 1), read(i + 2));
+                    i += 3;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown command in recording: " + op);
+            }
+        }
+    }
+
+    private static int remap(Map<Integer, Integer> ids, int id) {
+        Integer mapped = ids.get(id);
+        return mapped == null ? id : mapped;
+    }
+
+    /**
+     * Reset all of the counters to zero.
+     * <p>The recorded commands are not removed.</p>
+     */
+    public void resetCounters() {
+        drawCalls = 0;
+        verticesSubmitted = 0;
+        stateChanges = 0;
+        redundantStateChanges = 0;
+        uniformUploads = 0;
+        bytesUploaded = 0;
+        frames = 0;
+    }
+
+    /**
+     * Get the number of draw calls recorded.
+     *
+     * @return The number of draw calls.
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the number of vertices (indices) submitted by the recorded draw calls.
+     *
+     * @return The number of vertices.
+     */
+    public long getVerticesSubmitted() {
+        return verticesSubmitted;
+    }
+
+    /**
+     * Get the number of state changes recorded. (Binds, shader changes and viewport changes).
+     *
+     * @return The number of state changes.
+     */
+    public long getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Get the number of state changes that set the state to the value it already had.
+     *
+     * @return The number of redundant state changes.
+     */
+    public long getRedundantStateChanges() {
+        return redundantStateChanges;
+    }
+
+    /**
+     * Get the number of uniform uploads recorded.
+     *
+     * @return The number of uniform uploads.
+     */
+    public long getUniformUploads() {
+        return uniformUploads;
+    }
+
+    /**
+     * Get the number of bytes uploaded through buffers and uniforms.
+     *
+     * @return The number of bytes uploaded.
+     */
+    public long getBytesUploaded() {
+        return bytesUploaded;
+    }
+
+    /**
+     * Get the number of frames recorded.
+     *
+     * @return The number of frames.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Get the total number of ints written to the command stream.
+     *
+     * @return The number of ints written.
+     */
+    public long getCommandsWritten() {
+        return writeIndex;
+    }
+}
@@ -0,0 +1,425 @@
+package org.kakara.engine2d.renderpipeline.backend;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+import org.kakara.engine.render.Shader;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * The set of graphics operations used by the 2D addon.
+ *
+ * <p>Everything in the 2D render path ({@link org.kakara.engine2d.Mesh2D}, {@link org.kakara.engine2d.StaticLayer2D}
+ * and {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline}) goes through the current backend instead of
+ * calling OpenGL directly. The current backend is set with
+ * {@link org.kakara.engine2d.GameEngine2D#setRenderBackend(RenderBackend2D)}.</p>
+ *
+ * <p>Two implementations are provided:</p>
+ * <ul>
+ *     <li>{@link GLRenderBackend2D} issues the OpenGL calls. (This is the default).</li>
+ *     <li>{@link RecordingRenderBackend2D} records a compact command stream without needing an OpenGL context.</li>
+ * </ul>
+ *
+ * <p>Targets, usages and types use the normal OpenGL constants (such as <code>GL_ARRAY_BUFFER</code>).</p>
+ */
+public interface RenderBackend2D {
+
+    /**
+     * Get if this backend can only be used from the main thread.
+     *
+     * @return If the backend can only be used from the main thread.
+     */
+    boolean requiresMainThread();
+
+    /**
+     * Called by the pipeline before a frame is rendered.
+     */
+    default void beginFrame() {
+    }
+
+    /**
+     * Called by the pipeline after a frame is rendered.
+     */
+    default void endFrame() {
+    }
+
+    /**
+     * Create a vertex array object.
+     *
+     * @return The id of the vertex array.
+     */
+    int createVertexArray();
+
+    /**
+     * Bind a vertex array object.
+     *
+     * @param vertexArray The id of the vertex array. (0 to unbind).
+     */
+    void bindVertexArray(int vertexArray);
+
+    /**
+     * Delete a vertex array object.
+     *
+     * @param vertexArray The id of the vertex array.
+     */
+    void deleteVertexArray(int vertexArray);
+
+    /**
+     * Create a buffer object.
+     *
+     * @return The id of the buffer.
+     */
+    int createBuffer();
+
+    /**
+     * Bind a buffer object.
+     *
+     * @param target The target to bind to.
+     * @param buffer The id of the buffer. (0 to unbind).
+     */
+    void bindBuffer(int target, int buffer);
+
+    /**
+     * Upload data to the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param data   The data to upload.
+     * @param usage  The usage hint.
+     */
+    void bufferData(int target, FloatBuffer data, int usage);
+
+    /**
+     * Upload data to the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param data   The data to upload.
+     * @param usage  The usage hint.
+     */
+    void bufferData(int target, IntBuffer data, int usage);
+
+    /**
+     * Upload data to the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param data   The data to upload.
+     * @param usage  The usage hint.
+     */
+    void bufferData(int target, ByteBuffer data, int usage);
+
+    /**
+     * Replace part of the data of the buffer bound to the target.
+     * <p>The buffer must already have enough storage from {@link #bufferData(int, FloatBuffer, int)}.</p>
+     *
+     * @param target The target.
+     * @param offset The offset into the buffer in bytes.
+     * @param data   The data to upload.
+     */
+    void bufferSubData(int target, long offset, FloatBuffer data);
+
+    /**
+     * Replace part of the data of the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param offset The offset into the buffer in bytes.
+     * @param data   The data to upload.
+     */
+    void bufferSubData(int target, long offset, IntBuffer data);
+
+    /**
+     * Replace part of the data of the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param offset The offset into the buffer in bytes.
+     * @param data   The data to upload.
+     */
+    void bufferSubData(int target, long offset, ByteBuffer data);
+
+    /**
+     * Allocate memory to upload data from.
+     *
+     * <p>The memory is direct, in native byte order and its contents are undefined. It must be freed with
+     * {@link #freeUploadBuffer(ByteBuffer)} by the same backend. Every upload in the 2D addon allocates its memory
+     * through this method, so a backend which does not need the LWJGL natives can use memory from the JVM.</p>
+     *
+     * @param bytes The size of the memory in bytes.
+     * @return The memory.
+     */
+    ByteBuffer allocateUploadBuffer(int bytes);
+
+    /**
+     * Free memory which was allocated by {@link #allocateUploadBuffer(int)}.
+     *
+     * @param buffer The memory to free. (The buffer that was returned, not a view of it).
+     */
+    void freeUploadBuffer(ByteBuffer buffer);
+
+    /**
+     * Allocate new storage for the buffer bound to the target without uploading data.
+     * <p>Calling this on a buffer which is in use orphans the old storage instead of waiting for the GPU.</p>
+     *
+     * @param target The target.
+     * @param size   The size of the storage in bytes.
+     * @param usage  The usage hint.
+     */
+    void bufferData(int target, long size, int usage);
+
+    /**
+     * Check if immutable buffer storage (and persistent mapping) is supported.
+     *
+     * @return If {@link #bufferStorage(int, long, int)} can be used.
+     */
+    boolean supportsBufferStorage();
+
+    /**
+     * Allocate immutable storage for the buffer bound to the target.
+     *
+     * @param target The target.
+     * @param size   The size of the storage in bytes.
+     * @param flags  The storage flags. (Such as GL_MAP_PERSISTENT_BIT).
+     */
+    void bufferStorage(int target, long size, int flags);
+
+    /**
+     * Map a range of the buffer bound to the target into memory.
+     *
+     * @param target The target.
+     * @param offset The offset of the range in bytes.
+     * @param length The length of the range in bytes.
+     * @param access The access flags.
+     * @return The mapped memory.
+     */
+    ByteBuffer mapBufferRange(int target, long offset, long length, int access);
+
+    /**
+     * Unmap the buffer bound to the target.
+     *
+     * @param target The target.
+     */
+    void unmapBuffer(int target);
+
+    /**
+     * Insert a fence after the commands issued so far.
+     *
+     * @return The fence.
+     */
+    long fenceSync();
+
+    /**
+     * Check if the GPU has passed a fence.
+     * <p>This never waits for the GPU.</p>
+     *
+     * @param fence The fence.
+     * @return If the fence has been signaled.
+     */
+    boolean isFenceSignaled(long fence);
+
+    /**
+     * Wait for the GPU to pass a fence.
+     *
+     * @param fence        The fence.
+     * @param timeoutNanos The longest time to wait in nanoseconds.
+     * @return If the fence was signaled before the timeout.
+     */
+    boolean waitFence(long fence, long timeoutNanos);
+
+    /**
+     * Delete a fence.
+     *
+     * @param fence The fence.
+     */
+    void deleteFence(long fence);
+
+    /**
+     * Delete a buffer object.
+     *
+     * @param buffer The id of the buffer.
+     */
+    void deleteBuffer(int buffer);
+
+    /**
+     * Define a vertex attribute of the bound vertex array using the bound array buffer.
+     *
+     * @param index      The index of the attribute.
+     * @param size       The number of components.
+     * @param type       The type of the components.
+     * @param normalized If integer types should be normalized.
+     * @param stride     The stride in bytes.
+     * @param offset     The offset in bytes.
+     */
+    void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset);
+
+    /**
+     * Enable a vertex attribute.
+     *
+     * @param index The index of the attribute.
+     */
+    void enableVertexAttribArray(int index);
+
+    /**
+     * Disable a vertex attribute.
+     *
+     * @param index The index of the attribute.
+     */
+    void disableVertexAttribArray(int index);
+
+    /**
+     * Create an empty RGBA texture that can be rendered to.
+     *
+     * @param width  The width in pixels.
+     * @param height The height in pixels.
+     * @return The id of the texture.
+     */
+    int createRenderTexture(int width, int height);
+
+    /**
+     * Create an empty single channel texture with one byte per pixel (<code>GL_R8</code>).
+     * <p>The texture is linearly filtered and clamped to its edges.</p>
+     *
+     * @param width  The width in pixels.
+     * @param height The height in pixels.
+     * @return The id of the texture.
+     */
+    int createByteTexture(int width, int height);
+
+    /**
+     * Upload pixels into part of a texture created by {@link #createByteTexture(int, int)}.
+     *
+     * @param texture The id of the texture.
+     * @param x       The x position of the first pixel.
+     * @param y       The y position of the first pixel.
+     * @param width   The width of the area in pixels.
+     * @param height  The height of the area in pixels.
+     * @param data    One byte per pixel, row by row.
+     */
+    void updateByteTexture(int texture, int x, int y, int width, int height, ByteBuffer data);
+
+    /**
+     * Bind a 2D texture to a texture unit.
+     *
+     * @param unit    The texture unit. (0 for <code>GL_TEXTURE0</code>).
+     * @param texture The id of the texture. (0 to unbind).
+     */
+    void bindTexture(int unit, int texture);
+
+    /**
+     * Delete a texture.
+     *
+     * @param texture The id of the texture.
+     */
+    void deleteTexture(int texture);
+
+    /**
+     * Create a framebuffer with a texture as its color attachment.
+     *
+     * @param colorTexture The id of the texture.
+     * @return The id of the framebuffer.
+     */
+    int createFramebuffer(int colorTexture);
+
+    /**
+     * Get the currently bound framebuffer.
+     *
+     * @return The id of the framebuffer.
+     */
+    int getFramebufferBinding();
+
+    /**
+     * Bind a framebuffer.
+     *
+     * @param framebuffer The id of the framebuffer. (0 for the window).
+     */
+    void bindFramebuffer(int framebuffer);
+
+    /**
+     * Delete a framebuffer.
+     *
+     * @param framebuffer The id of the framebuffer.
+     */
+    void deleteFramebuffer(int framebuffer);
+
+    /**
+     * Get the current viewport.
+     *
+     * @param dest The array to store the x, y, width and height in.
+     */
+    void getViewport(int[] dest);
+
+    /**
+     * Set the viewport.
+     *
+     * @param x      The x value.
+     * @param y      The y value.
+     * @param width  The width.
+     * @param height The height.
+     */
+    void setViewport(int x, int y, int width, int height);
+
+    /**
+     * Clear the color of the bound framebuffer.
+     * <p>The clear color used by the rest of the engine is not changed.</p>
+     *
+     * @param r The red value.
+     * @param g The green value.
+     * @param b The blue value.
+     * @param a The alpha value.
+     */
+    void clear(float r, float g, float b, float a);
+
+    /**
+     * Get the maximum size of a texture.
+     *
+     * @return The maximum width and height of a texture.
+     */
+    int getMaxTextureSize();
+
+    /**
+     * Use a shader for the following draw calls.
+     *
+     * @param shader The shader. (Null to unbind the current shader).
+     */
+    void useShader(Shader shader);
+
+    /**
+     * Set a uniform of the current shader.
+     *
+     * @param name  The name of the uniform.
+     * @param value The value.
+     */
+    void setUniform(String name, Matrix4f value);
+
+    /**
+     * Set a uniform of the current shader.
+     *
+     * @param name  The name of the uniform.
+     * @param value The value.
+     */
+    void setUniform(String name, Vector4f value);
+
+    /**
+     * Set a uniform of the current shader.
+     *
+     * @param name  The name of the uniform.
+     * @param value The value.
+     */
+    void setUniform(String name, Vector2f value);
+
+    /**
+     * Set a uniform of the current shader.
+     *
+     * @param name  The name of the uniform.
+     * @param value The value.
+     */
+    void setUniform(String name, int value);
+
+    /**
+     * Draw using the bound vertex array and element buffer.
+     *
+     * @param mode  The primitive mode.
+     * @param count The number of indices.
+     * @param type  The type of the indices.
+     */
+    void drawElements(int mode, int count, int type);
+}
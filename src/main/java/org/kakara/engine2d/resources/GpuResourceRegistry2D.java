@@ -0,0 +1,351 @@
+package org.kakara.engine2d.resources;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the GPU memory used by the 2D addon.
+ *
+ * <p>Every buffer and render texture created by the 2D addon is recorded here along with its size. Textures
+ * created through {@link #manage(TextureLoader2D)} and other resources created through
+ * {@link #manageResource(ResourceLoader2D)} are also tracked, along with the last frame they were used in. At the end
+ * of each frame, if the memory used is over the budget, the least recently used managed resources are evicted until it
+ * is under the budget again. A resource is never evicted if it was used in the current frame or if it is pinned with
+ * {@link ManagedResource2D#acquire()}. Evicted resources are loaded again the next time they are used.</p>
+ *
+ * <p>Use {@link org.kakara.engine2d.GameEngine2D#getResourceRegistry()} to get the registry used by the addon. The
+ * registry does not make any graphics calls itself, loading and unloading are done by the {@link ResourceLoader2D}s.
+ * This class must only be used on the main thread.</p>
+ *
+ * <code>
+ * GpuResourceRegistry2D registry = GameEngine2D.getResourceRegistry();<br>
+ * registry.setBudget(256L * 1024 * 1024);<br>
+ * System.out.println(registry.getTotalBytes() + " / " + registry.getBudget());<br>
+ * </code>
+ */
+public class GpuResourceRegistry2D {
+    private final Map<Integer, Long> buffers = new HashMap<>();
+    private final Map<Integer, Long> textures = new HashMap<>();
+    private long bufferBytes;
+    private long textureBytes;
+    private long managedBytes;
+    private long budget = Long.MAX_VALUE;
+    private long frame;
+    private int managedCount;
+    private int residentCount;
+    private long evictions;
+    private long reloads;
+    private long uploadedBytes;
+
+    // The resident managed resources, from least to most recently used.
+    private ManagedResource2D<?> head;
+    private ManagedResource2D<?> tail;
+
+    /**
+     * Construct a registry.
+     * <p>The addon uses the registry from {@link org.kakara.engine2d.GameEngine2D#getResourceRegistry()}.</p>
+     */
+    public GpuResourceRegistry2D() {
+    }
+
+    /**
+     * Record a buffer and its size.
+     * <p>This is for internal use only. Calling it again for the same buffer replaces its size.</p>
+     *
+     * @param buffer The id of the buffer.
+     * @param bytes  The size of the buffer in bytes.
+     */
+    public void trackBuffer(int buffer, long bytes) {
+        Long previous = buffers.put(buffer, bytes);
+        bufferBytes += bytes - (previous == null ? 0 : previous);
+    }
+
+    /**
+     * Remove a buffer which was deleted.
+     * <p>This is for internal use only.</p>
+     *
+     * @param buffer The id of the buffer.
+     */
+    public void releaseBuffer(int buffer) {
+        Long previous = buffers.remove(buffer);
+        if (previous != null)
+            bufferBytes -= previous;
+    }
+
+    /**
+     * Record a texture which is not managed (such as the texture of a static layer) and its size.
+     * <p>This is for internal use only. Calling it again for the same texture replaces its size.</p>
+     *
+     * @param texture The id of the texture.
+     * @param bytes   The size of the texture in bytes.
+     */
+    public void trackTexture(int texture, long bytes) {
+        Long previous = textures.put(texture, bytes);
+        textureBytes += bytes - (previous == null ? 0 : previous);
+    }
+
+    /**
+     * Remove a texture which was deleted.
+     * <p>This is for internal use only.</p>
+     *
+     * @param texture The id of the texture.
+     */
+    public void releaseTexture(int texture) {
+        Long previous = textures.remove(texture);
+        if (previous != null)
+            textureBytes -= previous;
+    }
+
+    /**
+     * Record that data was uploaded to a buffer or texture.
+     * <p>This is for internal use only. Every upload made by the 2D addon is recorded here.</p>
+     *
+     * @param bytes The number of bytes uploaded.
+     */
+    public void recordUpload(long bytes) {
+        uploadedBytes += bytes;
+    }
+
+    /**
+     * Get the number of bytes uploaded since this was last called.
+     * <p>This is for internal use only. The scene calls it at the end of each frame to fill in the render metrics.</p>
+     *
+     * @return The number of bytes uploaded.
+     */
+    public long takeUploadedBytes() {
+        long bytes = uploadedBytes;
+        uploadedBytes = 0;
+        return bytes;
+    }
+
+    /**
+     * Create a texture which is loaded when it is first used and can be evicted when the budget is exceeded.
+     *
+     * @param loader The loader of the texture.
+     * @return The managed texture.
+     */
+    public ManagedTexture2D manage(TextureLoader2D loader) {
+        managedCount++;
+        return new ManagedTexture2D(this, loader);
+    }
+
+    /**
+     * Create a resource which is loaded when it is first used and can be evicted when the budget is exceeded.
+     * <p>Use {@link #manage(TextureLoader2D)} for textures.</p>
+     *
+     * @param loader The loader of the resource.
+     * @param <T>    The type of the resource.
+     * @return The managed resource.
+     */
+    public <T> ManagedResource2D<T> manageResource(ResourceLoader2D<T> loader) {
+        managedCount++;
+        return new ManagedResource2D<>(this, loader);
+    }
+
+    /**
+     * Set the most GPU memory the addon should use.
+     *
+     * <p>Only managed resources can be evicted, so the memory used can stay over the budget if everything else is
+     * larger than it.</p>
+     *
+     * @param budget The budget in bytes. (Long.MAX_VALUE for no budget).
+     */
+    public void setBudget(long budget) {
+        if (budget < 0)
+            throw new IllegalArgumentException("The GPU memory budget cannot be negative.");
+        this.budget = budget;
+    }
+
+    /**
+     * Get the most GPU memory the addon should use.
+     * <p>There is no budget by default.</p>
+     *
+     * @return The budget in bytes.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * End the current frame.
+     *
+     * <p>This evicts resources if the budget is exceeded and then starts the next frame. This is called by the
+     * {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline} after every frame.</p>
+     */
+    public void endFrame() {
+        enforceBudget();
+        frame++;
+    }
+
+    /**
+     * Evict the least recently used resources until the memory used is under the budget.
+     *
+     * <p>Resources which were used in the current frame or are pinned are skipped.</p>
+     *
+     * @return The number of resources which were evicted.
+     */
+    public int enforceBudget() {
+        int evicted = 0;
+        ManagedResource2D<?> resource = head;
+        while (resource != null && getTotalBytes() > budget) {
+            ManagedResource2D<?> next = resource.next;
+            if (resource.isEvictable(frame)) {
+                unlink(resource);
+                managedBytes -= resource.getBytes();
+                residentCount--;
+                resource.unload();
+                evicted++;
+            }
+            resource = next;
+        }
+        evictions += evicted;
+        return evicted;
+    }
+
+    /**
+     * Get the current frame.
+     *
+     * @return The number of frames which have ended.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Get the GPU memory used by buffers.
+     *
+     * @return The size in bytes.
+     */
+    public long getBufferBytes() {
+        return bufferBytes;
+    }
+
+    /**
+     * Get the GPU memory used by textures and managed resources.
+     *
+     * @return The size in bytes.
+     */
+    public long getTextureBytes() {
+        return textureBytes + managedBytes;
+    }
+
+    /**
+     * Get the GPU memory used by the addon.
+     *
+     * @return The size in bytes.
+     */
+    public long getTotalBytes() {
+        return bufferBytes + textureBytes + managedBytes;
+    }
+
+    /**
+     * Get the number of buffers.
+     *
+     * @return The number of buffers.
+     */
+    public int getBufferCount() {
+        return buffers.size();
+    }
+
+    /**
+     * Get the number of textures and managed resources which are on the GPU.
+     *
+     * @return The number of textures and resources.
+     */
+    public int getTextureCount() {
+        return textures.size() + residentCount;
+    }
+
+    /**
+     * Get the number of managed resources, including the ones which are not loaded.
+     *
+     * @return The number of managed resources.
+     */
+    public int getManagedTextureCount() {
+        return managedCount;
+    }
+
+    /**
+     * Get the number of managed resources which are on the GPU.
+     *
+     * @return The number of resident resources.
+     */
+    public int getResidentTextureCount() {
+        return residentCount;
+    }
+
+    /**
+     * Get the number of times a resource was evicted.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of times a resource was loaded again after being evicted.
+     *
+     * @return The number of reloads.
+     */
+    public long getReloads() {
+        return reloads;
+    }
+
+    /**
+     * Called when a managed resource was loaded.
+     */
+    void onLoaded(ManagedResource2D<?> resource) {
+        if (resource.getLoads() > 1)
+            reloads++;
+        managedBytes += resource.getBytes();
+        residentCount++;
+        append(resource);
+    }
+
+    /**
+     * Called the first time a resident managed resource is used in a frame.
+     */
+    void onUsed(ManagedResource2D<?> resource) {
+        if (resource != tail) {
+            unlink(resource);
+            append(resource);
+        }
+    }
+
+    /**
+     * Called when a managed resource is cleaned up.
+     */
+    void remove(ManagedResource2D<?> resource) {
+        if (resource.isResident()) {
+            unlink(resource);
+            managedBytes -= resource.getBytes();
+            residentCount--;
+            resource.unload();
+        }
+        managedCount--;
+    }
+
+    private void append(ManagedResource2D<?> resource) {
+        resource.previous = tail;
+        resource.next = null;
+        if (tail == null)
+            head = resource;
+        else
+            tail.next = resource;
+        tail = resource;
+    }
+
+    private void unlink(ManagedResource2D<?> resource) {
+        if (resource.previous == null)
+            head = resource.next;
+        else
+            resource.previous.next = resource.next;
+        if (resource.next == null)
+            tail = resource.previous;
+        else
+            resource.next.previous = resource.previous;
+        resource.previous = null;
+        resource.next = null;
+    }
+}
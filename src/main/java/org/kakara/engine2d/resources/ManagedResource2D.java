@@ -0,0 +1,146 @@
+package org.kakara.engine2d.resources;
+
+import java.util.Objects;
+
+/**
+ * A GPU resource which can be evicted by the {@link GpuResourceRegistry2D} and loaded again when it is needed.
+ *
+ * <p>Every time the resource is used through {@link #get()} it is marked as used in the current frame, and if it was
+ * evicted it is loaded again first. Textures use the {@link ManagedTexture2D} subclass.</p>
+ *
+ * <p>A resource can be pinned with {@link #acquire()} to stop it from being evicted, such as while it is used outside
+ * of the 2D pipeline. Each call must be matched by a call to {@link #release()}.</p>
+ *
+ * @param <T> The type of the resource.
+ */
+public class ManagedResource2D<T> {
+    private final GpuResourceRegistry2D registry;
+    private final ResourceLoader2D<T> loader;
+    private T resource;
+    private long bytes;
+    private long lastUsedFrame = -1;
+    private int references;
+    private int loads;
+    private boolean removed;
+
+    // The links of the list of resident resources in the registry, from least to most recently used.
+    ManagedResource2D<?> previous;
+    ManagedResource2D<?> next;
+
+    ManagedResource2D(GpuResourceRegistry2D registry, ResourceLoader2D<T> loader) {
+        this.registry = registry;
+        this.loader = Objects.requireNonNull(loader);
+    }
+
+    /**
+     * Get the resource, loading it if it is not on the GPU.
+     *
+     * <p>This marks the resource as used in the current frame. This must be called on the main thread.</p>
+     *
+     * @return The resource.
+     */
+    public T get() {
+        if (removed)
+            throw new IllegalStateException("The managed resource has been cleaned up.");
+        long frame = registry.getFrame();
+        if (lastUsedFrame != frame) {
+            lastUsedFrame = frame;
+            if (resource == null) {
+                resource = Objects.requireNonNull(loader.load(), "The resource loader returned null.");
+                bytes = loader.getBytes(resource);
+                loads++;
+                registry.onLoaded(this);
+            } else {
+                registry.onUsed(this);
+            }
+        }
+        return resource;
+    }
+
+    /**
+     * Pin the resource so it cannot be evicted.
+     */
+    public void acquire() {
+        references++;
+    }
+
+    /**
+     * Remove a pin added by {@link #acquire()}.
+     */
+    public void release() {
+        if (references == 0)
+            throw new IllegalStateException("The managed resource was released more times than it was acquired.");
+        references--;
+    }
+
+    /**
+     * Get the number of pins on the resource.
+     *
+     * @return The number of pins.
+     */
+    public int getReferences() {
+        return references;
+    }
+
+    /**
+     * Get if the resource is currently on the GPU.
+     *
+     * @return If the resource is loaded.
+     */
+    public boolean isResident() {
+        return resource != null;
+    }
+
+    /**
+     * Get the estimated size of the resource on the GPU.
+     *
+     * @return The size in bytes. (The size of the last load if the resource is not resident).
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of times the resource was loaded.
+     *
+     * @return The number of loads.
+     */
+    public int getLoads() {
+        return loads;
+    }
+
+    /**
+     * Get the last frame the resource was used in.
+     *
+     * @return The frame number of the registry. (-1 if it was never used).
+     */
+    public long getLastUsedFrame() {
+        return lastUsedFrame;
+    }
+
+    /**
+     * Unload the resource and remove it from the registry.
+     * <p>Calling {@link #get()} after this will throw an exception.</p>
+     */
+    public void cleanup() {
+        if (removed)
+            return;
+        registry.remove(this);
+        removed = true;
+    }
+
+    /**
+     * Check if the resource can be evicted in a frame.
+     */
+    boolean isEvictable(long frame) {
+        return references == 0 && lastUsedFrame != frame;
+    }
+
+    /**
+     * Unload the resource from the GPU.
+     */
+    void unload() {
+        loader.unload(resource);
+        resource = null;
+    }
+}
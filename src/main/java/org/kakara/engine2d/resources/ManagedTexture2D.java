@@ -0,0 +1,27 @@
+package org.kakara.engine2d.resources;
+
+import org.kakara.engine.gameitems.Texture;
+
+/**
+ * A texture which can be evicted from the GPU by the {@link GpuResourceRegistry2D} and loaded again when it is
+ * needed.
+ *
+ * <p>Set it on a material with {@link org.kakara.engine2d.Material2D#setManagedTexture(ManagedTexture2D)}. Every
+ * time the texture is drawn it is marked as used in the current frame, and if it was evicted it is loaded again
+ * first.</p>
+ *
+ * <p>A texture can be pinned with {@link #acquire()} to stop it from being evicted, such as while it is used outside
+ * of the 2D pipeline. Each call must be matched by a call to {@link #release()}.</p>
+ *
+ * <code>
+ * ManagedTexture2D tiles = GameEngine2D.getResourceRegistry().manage(<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;() -&gt; new Texture(getResourceManager().getResource("tiles.png"), 8, 8, this));<br>
+ * mesh.getMaterial2D().setManagedTexture(tiles);<br>
+ * </code>
+ */
+public class ManagedTexture2D extends ManagedResource2D<Texture> {
+
+    ManagedTexture2D(GpuResourceRegistry2D registry, TextureLoader2D loader) {
+        super(registry, loader);
+    }
+}
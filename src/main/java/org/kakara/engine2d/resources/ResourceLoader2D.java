@@ -0,0 +1,36 @@
+package org.kakara.engine2d.resources;
+
+/**
+ * Loads and unloads the GPU resource of a {@link ManagedResource2D}.
+ *
+ * <p>The loader is called every time the resource is needed after it was evicted, so it must be able to load the
+ * resource more than once. All methods are called on the main thread. The registry never looks inside the resource,
+ * it only passes it back to the loader, so any handle type can be used. Textures should use a
+ * {@link TextureLoader2D}.</p>
+ *
+ * @param <T> The type of the resource.
+ */
+public interface ResourceLoader2D<T> {
+
+    /**
+     * Load the resource.
+     *
+     * @return The loaded resource.
+     */
+    T load();
+
+    /**
+     * Free the memory of a resource which was loaded by {@link #load()}.
+     *
+     * @param resource The resource to unload.
+     */
+    void unload(T resource);
+
+    /**
+     * Get the estimated size of a resource on the GPU.
+     *
+     * @param resource The resource which was loaded by {@link #load()}.
+     * @return The size in bytes.
+     */
+    long getBytes(T resource);
+}
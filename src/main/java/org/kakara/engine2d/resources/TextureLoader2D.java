@@ -0,0 +1,41 @@
+package org.kakara.engine2d.resources;
+
+import org.kakara.engine.gameitems.Texture;
+
+/**
+ * Loads and unloads the texture of a {@link ManagedTexture2D}.
+ *
+ * <p>The loader is called every time the texture is needed after it was evicted, so it must be able to load the
+ * texture more than once. All methods are called on the main thread.</p>
+ *
+ * <code>
+ * TextureLoader2D loader = () -&gt; new Texture(getResourceManager().getResource("tiles.png"), 8, 8, this);<br>
+ * </code>
+ */
+@FunctionalInterface
+public interface TextureLoader2D extends ResourceLoader2D<Texture> {
+
+    /**
+     * Free the memory of a texture which was loaded by {@link #load()}.
+     * <p>By default this calls {@link Texture#cleanup()}.</p>
+     *
+     * @param texture The texture to unload.
+     */
+    @Override
+    default void unload(Texture texture) {
+        texture.cleanup();
+    }
+
+    /**
+     * Get the estimated size of a texture on the GPU.
+     * <p>By default this is four bytes for each pixel. Override this for textures which use another format or have
+     * mipmaps.</p>
+     *
+     * @param texture The texture which was loaded by {@link #load()}.
+     * @return The size in bytes.
+     */
+    @Override
+    default long getBytes(Texture texture) {
+        return (long) texture.getWidth() * texture.getHeight() * 4;
+    }
+}
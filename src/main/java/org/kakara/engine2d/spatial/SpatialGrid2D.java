@@ -0,0 +1,339 @@
+package org.kakara.engine2d.spatial;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid that stores axis aligned boxes for fast point and area queries.
+ *
+ * <p>The grid is built in one pass from a list of boxes. The size of the cells is chosen from the area the boxes
+ * cover when it is built. Afterwards single entries can be moved with {@link #update(int, float, float, float, float)},
+ * which only touches the cells the entry leaves and enters. Boxes that are moved outside of the area of the grid are
+ * kept in the cells on its border, so the grid should be built again once too many of them are outside (see
+ * {@link #getOutsideCount()}). The cells are stored in arrays which are kept between builds, so the grid does not
+ * create garbage once the arrays are large enough.</p>
+ *
+ * <p>Entries are identified by their index in the list used to build the grid. The entries of a cell and the
+ * results of a query are in no particular order.</p>
+ *
+ * <code>
+ * grid.build(bounds, count);<br>
+ * grid.update(3, 10, 10, 12, 12);<br>
+ * int found = grid.queryArea(0, 0, 10, 10);<br>
+ * for (int i = 0; i &lt; found; i++)<br>
+ * &nbsp;&nbsp;&nbsp;&nbsp;int entry = grid.getResult(i);<br>
+ * </code>
+ */
+public class SpatialGrid2D {
+    private static final int MAX_CELLS_PER_AXIS = 256;
+
+    private float originX;
+    private float originY;
+    private float farX;
+    private float farY;
+    private float inverseCellWidth;
+    private float inverseCellHeight;
+    private int columns;
+    private int rows;
+    // The area covered by the boxes, which grows when a box is moved outside of the cells.
+    private float extentMinX;
+    private float extentMinY;
+    private float extentMaxX;
+    private float extentMaxY;
+
+    private int[][] cells = new int[0][];
+    private int[] cellSizes = new int[0];
+
+    private int entryCount;
+    // The cells of every entry stored as x0, y0, x1, y1. (x0 is -1 if the entry is not in the grid).
+    private int[] entryCells = new int[16 * 4];
+    private boolean[] outside = new boolean[16];
+    private int outsideCount;
+    private int[] visited = new int[16];
+    private int queryStamp;
+    private int[] results = new int[16];
+    private int resultCount;
+
+    /**
+     * Build the grid from a list of boxes.
+     *
+     * <p>The boxes are stored as <code>minX, minY, maxX, maxY</code> for every entry. Empty boxes are skipped.</p>
+     *
+     * @param bounds The bounds of the entries. (Must contain at least <code>count * 4</code> values).
+     * @param count  The number of entries.
+     */
+    public void build(float[] bounds, int count) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            if (bounds[o] > bounds[o + 2] || bounds[o + 1] > bounds[o + 3]) continue;
+            minX = Math.min(minX, bounds[o]);
+            minY = Math.min(minY, bounds[o + 1]);
+            maxX = Math.max(maxX, bounds[o + 2]);
+            maxY = Math.max(maxY, bounds[o + 3]);
+        }
+
+        entryCount = count;
+        if (visited.length < count) {
+            int capacity = Math.max(count, visited.length * 2);
+            visited = new int[capacity];
+            results = new int[capacity];
+            entryCells = new int[capacity * 4];
+            outside = new boolean[capacity];
+            queryStamp = 0;
+        }
+        Arrays.fill(outside, 0, count, false);
+        outsideCount = 0;
+        for (int i = 0; i < count; i++)
+            entryCells[i * 4] = -1;
+
+        if (minX > maxX) {
+            columns = 0;
+            rows = 0;
+            return;
+        }
+
+        // Aim for roughly one entry per cell.
+        int perAxis = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(Math.sqrt(count))));
+        float width = Math.max(maxX - minX, 1e-6f);
+        float height = Math.max(maxY - minY, 1e-6f);
+        columns = perAxis;
+        rows = perAxis;
+        originX = minX;
+        originY = minY;
+        farX = maxX;
+        farY = maxY;
+        inverseCellWidth = columns / width;
+        inverseCellHeight = rows / height;
+        extentMinX = minX;
+        extentMinY = minY;
+        extentMaxX = maxX;
+        extentMaxY = maxY;
+
+        int cellCount = columns * rows;
+        if (cells.length < cellCount) {
+            cells = Arrays.copyOf(cells, cellCount);
+            cellSizes = new int[cellCount];
+        } else {
+            Arrays.fill(cellSizes, 0, cellCount, 0);
+        }
+
+        // Count the entries in every cell first, so every cell only has to be grown once.
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            if (bounds[o] > bounds[o + 2] || bounds[o + 1] > bounds[o + 3]) continue;
+            int x0 = column(bounds[o]), x1 = column(bounds[o + 2]);
+            int y0 = row(bounds[o + 1]), y1 = row(bounds[o + 3]);
+            for (int y = y0; y <= y1; y++)
+                for (int x = x0; x <= x1; x++)
+                    cellSizes[y * columns + x]++;
+        }
+        for (int c = 0; c < cellCount; c++) {
+            if (cells[c] == null || cells[c].length < cellSizes[c])
+                cells[c] = new int[Math.max(4, cellSizes[c])];
+            cellSizes[c] = 0;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            if (bounds[o] > bounds[o + 2] || bounds[o + 1] > bounds[o + 3]) continue;
+            insert(i, bounds[o], bounds[o + 1], bounds[o + 2], bounds[o + 3]);
+        }
+    }
+
+    /**
+     * Move an entry to a new box.
+     *
+     * <p>The entry is removed from the cells of its old box and added to the cells of the new one. An empty box
+     * removes the entry from the grid.</p>
+     *
+     * @param entry The index of the entry. (Must be less than the number of entries the grid was built with).
+     * @param minX  The minimum x value.
+     * @param minY  The minimum y value.
+     * @param maxX  The maximum x value.
+     * @param maxY  The maximum y value.
+     * @return If the entry could be stored. (False if the grid has no cells because every box was empty when it was
+     * built, in which case it must be built again).
+     */
+    public boolean update(int entry, float minX, float minY, float maxX, float maxY) {
+        if (entry < 0 || entry >= entryCount)
+            throw new IndexOutOfBoundsException("Entry: " + entry + ", Count: " + entryCount);
+        remove(entry);
+        if (minX > maxX || minY > maxY)
+            return true;
+        if (columns == 0)
+            return false;
+        insert(entry, minX, minY, maxX, maxY);
+        return true;
+    }
+
+    private void insert(int entry, float minX, float minY, float maxX, float maxY) {
+        int x0 = column(minX), x1 = column(maxX);
+        int y0 = row(minY), y1 = row(maxY);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                int cell = y * columns + x;
+                int size = cellSizes[cell];
+                if (size == cells[cell].length)
+                    cells[cell] = Arrays.copyOf(cells[cell], size * 2);
+                cells[cell][size] = entry;
+                cellSizes[cell] = size + 1;
+            }
+        }
+        int e = entry * 4;
+        entryCells[e] = x0;
+        entryCells[e + 1] = y0;
+        entryCells[e + 2] = x1;
+        entryCells[e + 3] = y1;
+
+        if (minX < originX || minY < originY || maxX > farX || maxY > farY) {
+            outside[entry] = true;
+            outsideCount++;
+            extentMinX = Math.min(extentMinX, minX);
+            extentMinY = Math.min(extentMinY, minY);
+            extentMaxX = Math.max(extentMaxX, maxX);
+            extentMaxY = Math.max(extentMaxY, maxY);
+        }
+    }
+
+    private void remove(int entry) {
+        int e = entry * 4;
+        if (entryCells[e] == -1)
+            return;
+        for (int y = entryCells[e + 1]; y <= entryCells[e + 3]; y++) {
+            for (int x = entryCells[e]; x <= entryCells[e + 2]; x++) {
+                int cell = y * columns + x;
+                int[] entries = cells[cell];
+                int last = cellSizes[cell] - 1;
+                // The order of a cell does not matter, so the last entry takes the place of the removed one.
+                for (int p = 0; p <= last; p++) {
+                    if (entries[p] == entry) {
+                        entries[p] = entries[last];
+                        cellSizes[cell] = last;
+                        break;
+                    }
+                }
+            }
+        }
+        entryCells[e] = -1;
+        if (outside[entry]) {
+            outside[entry] = false;
+            outsideCount--;
+        }
+    }
+
+    /**
+     * Get the cell that contains a point.
+     *
+     * <p>Points outside of the cells but inside of a box which was moved outside of them belong to the nearest cell
+     * on the border.</p>
+     *
+     * @param x The x value.
+     * @param y The y value.
+     * @return The index of the cell. (-1 if the point is outside of every box).
+     */
+    public int getCell(float x, float y) {
+        if (columns == 0) return -1;
+        if (x < extentMinX || y < extentMinY || x > extentMaxX || y > extentMaxY) return -1;
+        return row(y) * columns + column(x);
+    }
+
+    /**
+     * Get the number of entries in a cell.
+     * <p>Use with {@link #getCellEntry(int, int)} to loop over a cell.</p>
+     *
+     * @param cell The index of the cell.
+     * @return The number of entries.
+     */
+    public int getCellSize(int cell) {
+        return cellSizes[cell];
+    }
+
+    /**
+     * Get an entry of a cell.
+     *
+     * @param cell  The index of the cell.
+     * @param index The index in the cell. (Less than {@link #getCellSize(int)}).
+     * @return The index of the entry.
+     */
+    public int getCellEntry(int cell, int index) {
+        return cells[cell][index];
+    }
+
+    /**
+     * Find the entries whose cells overlap an area.
+     *
+     * <p>The entries are only filtered by cell, so the caller should test the bounds of the results. Use
+     * {@link #getResult(int)} to get the results. They stay valid until the next query, build or update.</p>
+     *
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     * @return The number of results.
+     */
+    public int queryArea(float minX, float minY, float maxX, float maxY) {
+        resultCount = 0;
+        if (columns == 0 || minX > maxX || minY > maxY) return 0;
+        if (maxX < extentMinX || maxY < extentMinY || minX > extentMaxX || minY > extentMaxY) return 0;
+
+        if (++queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            queryStamp = 1;
+        }
+        int x0 = column(minX), x1 = column(maxX);
+        int y0 = row(minY), y1 = row(maxY);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                int cell = y * columns + x;
+                int[] entries = cells[cell];
+                for (int p = 0; p < cellSizes[cell]; p++) {
+                    int entry = entries[p];
+                    if (visited[entry] == queryStamp) continue;
+                    visited[entry] = queryStamp;
+                    results[resultCount++] = entry;
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * Get a result of the last area query.
+     *
+     * @param index The index of the result.
+     * @return The index of the entry.
+     */
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * Get the number of entries the grid was built with.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Get the number of entries whose box reaches outside of the area the grid was built for.
+     *
+     * <p>These entries are stored in the cells on the border of the grid, so every query near the border has to
+     * look at them.</p>
+     *
+     * @return The number of entries.
+     */
+    public int getOutsideCount() {
+        return outsideCount;
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - originX) * inverseCellWidth)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - originY) * inverseCellHeight)));
+    }
+}
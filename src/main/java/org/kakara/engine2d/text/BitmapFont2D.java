@@ -0,0 +1,282 @@
+package org.kakara.engine2d.text;
+
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine.resources.Resource;
+import org.kakara.engine.scene.Scene;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A font made from a texture atlas with the glyphs laid out in a grid.
+ *
+ * <p>The glyphs are stored in the atlas in character order, starting at the top left, the same way as a
+ * sprite sheet. Every cell has the same size. The advance of a glyph (how far the next glyph is moved) defaults
+ * to the width of a cell and can be changed with {@link #setAdvance(char, float)} for proportional fonts.</p>
+ *
+ * <p>Layouts are cached per string and style. The cache holds the most recently used layouts and can be resized
+ * with {@link #setLayoutCacheSize(int)}. The font should only be used on the main thread.</p>
+ *
+ * <code>
+ * Resource atlas = getResourceManager().getResource("font.png");<br>
+ * BitmapFont2D font = new BitmapFont2D(atlas, 16, 6, ' ', this);<br>
+ * </code>
+ */
+public class BitmapFont2D {
+    private final Texture texture;
+    private final int columns;
+    private final int rows;
+    private final char firstCharacter;
+    private final float cellAspect;
+    private final float[] advances;
+    private final LinkedHashMap<LayoutKey, TextLayout2D> layoutCache;
+    private int layoutCacheSize;
+    private int revision;
+
+    /**
+     * Construct a bitmap font by loading the atlas from a resource.
+     *
+     * @param atlas          The resource of the atlas image.
+     * @param columns        The number of columns of glyphs in the atlas.
+     * @param rows           The number of rows of glyphs in the atlas.
+     * @param firstCharacter The character of the first glyph in the atlas.
+     * @param scene          The scene to load the texture in.
+     */
+    public BitmapFont2D(Resource atlas, int columns, int rows, char firstCharacter, Scene scene) {
+        this(new Texture(atlas, scene), columns, rows, firstCharacter);
+    }
+
+    /**
+     * Construct a bitmap font from a texture which is already loaded.
+     *
+     * <p>The texture must not be created as a sprite sheet (with columns and rows). The font handles the grid
+     * itself so that a whole string can be drawn with one mesh.</p>
+     *
+     * @param texture        The texture of the atlas.
+     * @param columns        The number of columns of glyphs in the atlas.
+     * @param rows           The number of rows of glyphs in the atlas.
+     * @param firstCharacter The character of the first glyph in the atlas.
+     */
+    public BitmapFont2D(Texture texture, int columns, int rows, char firstCharacter) {
+        if (columns <= 0 || rows <= 0)
+            throw new IllegalArgumentException("The atlas must have at least one column and row.");
+        this.texture = Objects.requireNonNull(texture);
+        this.columns = columns;
+        this.rows = rows;
+        this.firstCharacter = firstCharacter;
+        this.cellAspect = texture.getWidth() <= 0 || texture.getHeight() <= 0 ? 1
+                : ((float) texture.getWidth() / columns) / ((float) texture.getHeight() / rows);
+        this.advances = new float[columns * rows];
+        Arrays.fill(advances, 1);
+        this.layoutCacheSize = 256;
+        this.layoutCache = new LinkedHashMap<LayoutKey, TextLayout2D>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LayoutKey, TextLayout2D> eldest) {
+                return size() > layoutCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Lay out a string.
+     *
+     * <p>The result is cached, so laying out the same string in the same style again is free.</p>
+     *
+     * @param text  The text.
+     * @param style The style.
+     * @return The layout.
+     */
+    public TextLayout2D layout(String text, TextStyle2D style) {
+        return layout(text, style, null);
+    }
+
+    /**
+     * Lay out a string, reusing the unchanged lines of a previous layout.
+     *
+     * <p>If the layout is not cached, only the lines from the first character that differs from the previous
+     * layout are laid out again.</p>
+     *
+     * @param text     The text.
+     * @param style    The style.
+     * @param previous The previous layout. (Can be null).
+     * @return The layout.
+     */
+    public TextLayout2D layout(String text, TextStyle2D style, TextLayout2D previous) {
+        LayoutKey key = new LayoutKey(Objects.requireNonNull(text), Objects.requireNonNull(style));
+        TextLayout2D layout = layoutCache.get(key);
+        if (layout == null) {
+            layout = TextLayout2D.create(this, text, style, previous);
+            layoutCache.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Get the index of the glyph for a character in the atlas.
+     *
+     * <p>Whitespace does not have a glyph. Characters that are not in the atlas use the glyph of '?' if
+     * it exists.</p>
+     *
+     * @param c The character.
+     * @return The index of the glyph. (-1 if nothing should be drawn).
+     */
+    public int getGlyph(char c) {
+        if (Character.isWhitespace(c))
+            return -1;
+        int index = c - firstCharacter;
+        if (index >= 0 && index < advances.length)
+            return index;
+        index = '?' - firstCharacter;
+        return index >= 0 && index < advances.length ? index : -1;
+    }
+
+    /**
+     * Set the advance of a glyph.
+     *
+     * @param c       The character. (Must be in the atlas).
+     * @param advance The advance as a multiple of the width of a cell.
+     */
+    public void setAdvance(char c, float advance) {
+        int index = c - firstCharacter;
+        if (index < 0 || index >= advances.length)
+            throw new IllegalArgumentException("The character '" + c + "' is not in the atlas.");
+        advances[index] = advance;
+        revision++;
+        layoutCache.clear();
+    }
+
+    /**
+     * Get the advance of a character.
+     *
+     * @param c The character.
+     * @return The advance as a multiple of the width of a cell.
+     */
+    public float getAdvance(char c) {
+        if (c == '\t')
+            return getAdvance(' ') * 4;
+        int index = c - firstCharacter;
+        if (index >= 0 && index < advances.length)
+            return advances[index];
+        index = getGlyph(c);
+        return index == -1 ? 1 : advances[index];
+    }
+
+    /**
+     * Set the maximum number of layouts kept in the cache.
+     *
+     * @param layoutCacheSize The maximum number of layouts.
+     */
+    public void setLayoutCacheSize(int layoutCacheSize) {
+        this.layoutCacheSize = layoutCacheSize;
+        while (layoutCache.size() > layoutCacheSize)
+            layoutCache.remove(layoutCache.keySet().iterator().next());
+    }
+
+    /**
+     * Get the maximum number of layouts kept in the cache.
+     * <p>The default value is 256.</p>
+     *
+     * @return The maximum number of layouts.
+     */
+    public int getLayoutCacheSize() {
+        return layoutCacheSize;
+    }
+
+    /**
+     * Remove all of the cached layouts.
+     */
+    public void clearLayoutCache() {
+        layoutCache.clear();
+    }
+
+    /**
+     * Get the texture of the atlas.
+     *
+     * @return The texture.
+     */
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Get the number of columns of glyphs in the atlas.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows of glyphs in the atlas.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the character of the first glyph in the atlas.
+     *
+     * @return The first character.
+     */
+    public char getFirstCharacter() {
+        return firstCharacter;
+    }
+
+    /**
+     * Get the width of a cell divided by its height.
+     *
+     * @return The aspect ratio of a cell.
+     */
+    public float getCellAspect() {
+        return cellAspect;
+    }
+
+    /**
+     * Get the number of times the glyph metrics have changed.
+     * <p>Layouts from an older revision are not reused.</p>
+     *
+     * @return The revision.
+     */
+    int getRevision() {
+        return revision;
+    }
+
+    /**
+     * Delete the texture of the atlas.
+     * <p>This must be called on the main thread.</p>
+     */
+    public void cleanUp() {
+        layoutCache.clear();
+        texture.cleanup();
+    }
+
+    private static final class LayoutKey {
+        private final String text;
+        private final TextStyle2D style;
+        private final int hash;
+
+        LayoutKey(String text, TextStyle2D style) {
+            this.text = text;
+            this.style = style;
+            this.hash = text.hashCode() * 31 + style.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LayoutKey)) return false;
+            LayoutKey that = (LayoutKey) o;
+            return hash == that.hash && text.equals(that.text) && style.equals(that.style);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.kakara.engine2d.text;
+
+/**
+ * The horizontal alignment of the lines of a {@link TextLayout2D}.
+ *
+ * <p>The alignment is relative to the position of the GameItem.</p>
+ */
+public enum TextAlignment2D {
+    /**
+     * The lines start at the position of the item.
+     */
+    LEFT,
+    /**
+     * The lines are centered on the position of the item.
+     */
+    CENTER,
+    /**
+     * The lines end at the position of the item.
+     */
+    RIGHT
+}
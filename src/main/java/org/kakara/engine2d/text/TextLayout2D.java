@@ -0,0 +1,248 @@
+package org.kakara.engine2d.text;
+
+import org.kakara.engine2d.Bounds2D;
+
+/**
+ * The glyph quads of a string laid out with a {@link BitmapFont2D} and a {@link TextStyle2D}.
+ *
+ * <p>Layouts are immutable and are cached by the font, so the same string in the same style is only laid out
+ * once. Use {@link BitmapFont2D#layout(String, TextStyle2D)} to get a layout.</p>
+ *
+ * <p>The text starts at (0, 0) and the lines go down the y axis, just like the 2D screen. Each glyph is a quad
+ * of four vertices in the same order as {@link org.kakara.engine2d.primitives.SquareData}.</p>
+ */
+public final class TextLayout2D {
+    private final BitmapFont2D font;
+    private final int fontRevision;
+    private final String text;
+    private final TextStyle2D style;
+    private final float[] positions;
+    private final float[] textures;
+    private final int glyphCount;
+    private final int[] lineStartCharacters;
+    private final int[] lineStartGlyphs;
+    private final int lineCount;
+    private final Bounds2D bounds;
+
+    private TextLayout2D(BitmapFont2D font, String text, TextStyle2D style, float[] positions, float[] textures,
+                         int glyphCount, int[] lineStartCharacters, int[] lineStartGlyphs, int lineCount, Bounds2D bounds) {
+        this.font = font;
+        this.fontRevision = font.getRevision();
+        this.text = text;
+        this.style = style;
+        this.positions = positions;
+        this.textures = textures;
+        this.glyphCount = glyphCount;
+        this.lineStartCharacters = lineStartCharacters;
+        this.lineStartGlyphs = lineStartGlyphs;
+        this.lineCount = lineCount;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Lay out a string.
+     *
+     * <p>If a previous layout of the same font and style is provided, the lines before the first changed
+     * character are copied from it instead of being laid out again. This makes appending to a long string
+     * (such as a chat log) only cost the new characters.</p>
+     *
+     * @param font     The font.
+     * @param text     The text to lay out.
+     * @param style    The style.
+     * @param previous The previous layout to reuse. (Can be null).
+     * @return The new layout.
+     */
+    static TextLayout2D create(BitmapFont2D font, String text, TextStyle2D style, TextLayout2D previous) {
+        int length = text.length();
+        int startCharacter = 0;
+        int startLine = 0;
+        int startGlyph = 0;
+        if (previous != null && previous.font == font && previous.fontRevision == font.getRevision()
+                && previous.style.equals(style)) {
+            int common = 0;
+            int max = Math.min(length, previous.text.length());
+            while (common < max && text.charAt(common) == previous.text.charAt(common))
+                common++;
+            // The line with the first change is laid out again since its alignment may change.
+            while (startLine + 1 < previous.lineCount && previous.lineStartCharacters[startLine + 1] <= common)
+                startLine++;
+            startCharacter = previous.lineStartCharacters[startLine];
+            startGlyph = previous.lineStartGlyphs[startLine];
+        }
+
+        int newLines = 0;
+        for (int i = startCharacter; i < length; i++)
+            if (text.charAt(i) == '\n') newLines++;
+
+        int glyphCapacity = startGlyph + (length - startCharacter);
+        float[] positions = new float[glyphCapacity * 8];
+        float[] textures = new float[glyphCapacity * 8];
+        int lineCapacity = startLine + newLines + 1;
+        int[] lineStartCharacters = new int[lineCapacity];
+        int[] lineStartGlyphs = new int[lineCapacity];
+        if (startGlyph > 0) {
+            System.arraycopy(previous.positions, 0, positions, 0, startGlyph * 8);
+            System.arraycopy(previous.textures, 0, textures, 0, startGlyph * 8);
+        }
+        if (startLine > 0) {
+            System.arraycopy(previous.lineStartCharacters, 0, lineStartCharacters, 0, startLine);
+            System.arraycopy(previous.lineStartGlyphs, 0, lineStartGlyphs, 0, startLine);
+        }
+
+        float size = style.getSize();
+        float glyphWidth = size * font.getCellAspect();
+        float lineHeight = size * style.getLineSpacing();
+        int columns = font.getColumns();
+        int rows = font.getRows();
+
+        int line = startLine;
+        int glyph = startGlyph;
+        float penX = 0;
+        float y = line * lineHeight;
+        lineStartCharacters[line] = startCharacter;
+        lineStartGlyphs[line] = startGlyph;
+        for (int i = startCharacter; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                alignLine(positions, lineStartGlyphs[line], glyph, penX, style);
+                line++;
+                penX = 0;
+                y += lineHeight;
+                lineStartCharacters[line] = i + 1;
+                lineStartGlyphs[line] = glyph;
+                continue;
+            }
+
+            if (penX > 0)
+                penX += style.getLetterSpacing();
+            int index = font.getGlyph(c);
+            if (index >= 0) {
+                float x0 = penX, x1 = penX + glyphWidth;
+                float y0 = y, y1 = y + size;
+                float u0 = (float) (index % columns) / columns, u1 = (float) (index % columns + 1) / columns;
+                float v0 = (float) (index / columns) / rows, v1 = (float) (index / columns + 1) / rows;
+                int o = glyph * 8;
+                positions[o] = x0;
+                positions[o + 1] = y1;
+                positions[o + 2] = x0;
+                positions[o + 3] = y0;
+                positions[o + 4] = x1;
+                positions[o + 5] = y0;
+                positions[o + 6] = x1;
+                positions[o + 7] = y1;
+                textures[o] = u0;
+                textures[o + 1] = v0;
+                textures[o + 2] = u0;
+                textures[o + 3] = v1;
+                textures[o + 4] = u1;
+                textures[o + 5] = v1;
+                textures[o + 6] = u1;
+                textures[o + 7] = v0;
+                glyph++;
+            }
+            penX += glyphWidth * font.getAdvance(c);
+        }
+        alignLine(positions, lineStartGlyphs[line], glyph, penX, style);
+
+        Bounds2D bounds = new Bounds2D();
+        for (int i = 0; i < glyph * 8; i += 2)
+            bounds.include(positions[i], positions[i + 1]);
+        return new TextLayout2D(font, text, style, positions, textures, glyph, lineStartCharacters, lineStartGlyphs,
+                line + 1, bounds);
+    }
+
+    /**
+     * Move the glyphs of a line based upon the alignment.
+     */
+    private static void alignLine(float[] positions, int firstGlyph, int endGlyph, float width, TextStyle2D style) {
+        float offset;
+        switch (style.getAlignment()) {
+            case CENTER:
+                offset = -width / 2;
+                break;
+            case RIGHT:
+                offset = -width;
+                break;
+            default:
+                return;
+        }
+        for (int i = firstGlyph * 8; i < endGlyph * 8; i += 2)
+            positions[i] += offset;
+    }
+
+    /**
+     * Get the font of the layout.
+     *
+     * @return The font.
+     */
+    public BitmapFont2D getFont() {
+        return font;
+    }
+
+    /**
+     * Get the text of the layout.
+     *
+     * @return The text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the style of the layout.
+     *
+     * @return The style.
+     */
+    public TextStyle2D getStyle() {
+        return style;
+    }
+
+    /**
+     * Get the number of glyph quads.
+     * <p>Whitespace does not create a quad.</p>
+     *
+     * @return The number of glyphs.
+     */
+    public int getGlyphCount() {
+        return glyphCount;
+    }
+
+    /**
+     * Get the number of lines.
+     *
+     * @return The number of lines.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Get the bounds of the glyph quads.
+     * <p>The returned bounds should not be modified.</p>
+     *
+     * @return The bounds in local space.
+     */
+    public Bounds2D getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Get the positions of the glyph quads. (8 values per glyph).
+     * <p>The returned array must not be modified.</p>
+     *
+     * @return The positions.
+     */
+    float[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Get the texture coordinates of the glyph quads. (8 values per glyph).
+     * <p>The returned array must not be modified.</p>
+     *
+     * @return The texture coordinates.
+     */
+    float[] getTextures() {
+        return textures;
+    }
+}
@@ -0,0 +1,108 @@
+package org.kakara.engine2d.text;
+
+import org.kakara.engine2d.DynamicMesh2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+
+/**
+ * A mesh which draws every glyph of a {@link TextLayout2D} in a single draw call.
+ *
+ * <p>The buffers of the mesh are kept between layouts. When a new layout is set only the glyphs from the first
+ * one that changed are uploaded. The buffers grow when a layout has more glyphs than they can hold.</p>
+ *
+ * <p>The texture of the material belongs to the {@link BitmapFont2D}. This mesh is normally managed by the
+ * {@link org.kakara.engine2d.components.Text2D} component.</p>
+ */
+public class TextMesh2D extends DynamicMesh2D {
+    private TextLayout2D layout;
+    private int indexedGlyphs;
+
+    /**
+     * Construct a text mesh.
+     *
+     * <p>Note: This class can only be constructed on the Main Thread. (Unless the current
+     * {@link RenderBackend2D} does not require it).</p>
+     *
+     * @param font          The font the mesh will draw.
+     * @param glyphCapacity The number of glyphs the buffers can initially hold.
+     */
+    public TextMesh2D(BitmapFont2D font, int glyphCapacity) {
+        super(Math.max(1, glyphCapacity) * 4, Math.max(1, glyphCapacity) * 6);
+        getMaterial2D().setTexture(font.getTexture());
+    }
+
+    /**
+     * Set the layout which is drawn by the mesh.
+     * <p>This must be called on the main thread.</p>
+     *
+     * @param layout The layout to draw.
+     */
+    public void setLayout(TextLayout2D layout) {
+        if (layout == this.layout)
+            return;
+        int glyphs = layout.getGlyphCount();
+        int first = findFirstChange(layout);
+
+        if (glyphs > indexedGlyphs) {
+            // Index enough quads for the whole capacity so the indices rarely change.
+            indexedGlyphs = Math.max(glyphs, getVertexCapacity() / 4);
+            setIndices(createIndices(indexedGlyphs));
+        }
+        updatePositions(first * 4, layout.getPositions(), first * 8, (glyphs - first) * 4);
+        updateUVs(first * 4, layout.getTextures(), first * 8, (glyphs - first) * 4);
+        setUsedVertices(glyphs * 4);
+        setVertexCount(glyphs * 6);
+        this.layout = layout;
+    }
+
+    /**
+     * Get the layout which is drawn by the mesh.
+     *
+     * @return The layout. (Null if none was set).
+     */
+    public TextLayout2D getLayout() {
+        return layout;
+    }
+
+    /**
+     * Find the first glyph which is different from the current layout.
+     *
+     * @param layout The new layout.
+     * @return The index of the first changed glyph.
+     */
+    private int findFirstChange(TextLayout2D layout) {
+        if (this.layout == null)
+            return 0;
+        int common = Math.min(layout.getGlyphCount(), this.layout.getGlyphCount());
+        float[] positions = layout.getPositions(), oldPositions = this.layout.getPositions();
+        float[] textures = layout.getTextures(), oldTextures = this.layout.getTextures();
+        for (int glyph = 0; glyph < common; glyph++) {
+            for (int i = glyph * 8, end = i + 8; i < end; i++) {
+                if (positions[i] != oldPositions[i] || textures[i] != oldTextures[i])
+                    return glyph;
+            }
+        }
+        return common;
+    }
+
+    /**
+     * Create the indices for a number of glyph quads.
+     *
+     * @param glyphs The number of glyphs.
+     * @return The indices.
+     */
+    private static int[] createIndices(int glyphs) {
+        int[] indices = new int[glyphs * 6];
+        for (int glyph = 0; glyph < glyphs; glyph++) {
+            int vertex = glyph * 4;
+            int o = glyph * 6;
+            // Same winding as SquareData.
+            indices[o] = vertex;
+            indices[o + 1] = vertex + 3;
+            indices[o + 2] = vertex + 2;
+            indices[o + 3] = vertex + 2;
+            indices[o + 4] = vertex + 1;
+            indices[o + 5] = vertex;
+        }
+        return indices;
+    }
+}
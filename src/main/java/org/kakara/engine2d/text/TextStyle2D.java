@@ -0,0 +1,93 @@
+package org.kakara.engine2d.text;
+
+import java.util.Objects;
+
+/**
+ * The style used to lay out text with a {@link BitmapFont2D}.
+ *
+ * <p>This class is immutable so it can be used as part of the key of the layout cache.</p>
+ *
+ * <code>
+ * TextStyle2D style = new TextStyle2D(24, 2, 1.2f, TextAlignment2D.CENTER);<br>
+ * </code>
+ */
+public final class TextStyle2D {
+    private final float size;
+    private final float letterSpacing;
+    private final float lineSpacing;
+    private final TextAlignment2D alignment;
+
+    /**
+     * Construct a text style.
+     *
+     * @param size          The height of a glyph in world units.
+     * @param letterSpacing The extra space between glyphs in world units.
+     * @param lineSpacing   The distance between lines as a multiple of the size.
+     * @param alignment     The horizontal alignment of the lines.
+     */
+    public TextStyle2D(float size, float letterSpacing, float lineSpacing, TextAlignment2D alignment) {
+        this.size = size;
+        this.letterSpacing = letterSpacing;
+        this.lineSpacing = lineSpacing;
+        this.alignment = Objects.requireNonNull(alignment);
+    }
+
+    /**
+     * Construct a left aligned text style with no extra spacing.
+     *
+     * @param size The height of a glyph in world units.
+     */
+    public TextStyle2D(float size) {
+        this(size, 0, 1, TextAlignment2D.LEFT);
+    }
+
+    /**
+     * Get the height of a glyph.
+     *
+     * @return The height of a glyph in world units.
+     */
+    public float getSize() {
+        return size;
+    }
+
+    /**
+     * Get the extra space between glyphs.
+     *
+     * @return The letter spacing in world units.
+     */
+    public float getLetterSpacing() {
+        return letterSpacing;
+    }
+
+    /**
+     * Get the distance between lines.
+     *
+     * @return The line spacing as a multiple of the size.
+     */
+    public float getLineSpacing() {
+        return lineSpacing;
+    }
+
+    /**
+     * Get the horizontal alignment of the lines.
+     *
+     * @return The alignment.
+     */
+    public TextAlignment2D getAlignment() {
+        return alignment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TextStyle2D)) return false;
+        TextStyle2D that = (TextStyle2D) o;
+        return Float.compare(that.size, size) == 0 && Float.compare(that.letterSpacing, letterSpacing) == 0
+                && Float.compare(that.lineSpacing, lineSpacing) == 0 && alignment == that.alignment;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, letterSpacing, lineSpacing, alignment);
+    }
+}
@@ -0,0 +1,96 @@
+package org.kakara.engine2d.tilemap;
+
+import org.kakara.engine2d.DynamicMesh2D;
+
+/**
+ * The mesh of one chunk of a {@link TileMap2D}.
+ *
+ * <p>Every tile in the chunk which is not empty is one quad. The quads are rebuilt when a tile in the chunk
+ * changes. Internal use only.</p>
+ */
+final class TileChunkMesh2D extends DynamicMesh2D {
+    private static final int[] QUAD_INDICES = createIndices(TileMap2D.CHUNK_SIZE * TileMap2D.CHUNK_SIZE);
+
+    private final int chunkX;
+    private final int chunkY;
+    private int indexedQuads;
+
+    TileChunkMesh2D(int chunkX, int chunkY) {
+        super(4, 6);
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+    }
+
+    /**
+     * Rebuild the quads of the chunk.
+     *
+     * @param map       The tile map.
+     * @param positions The array to build the positions in. (Must hold a full chunk).
+     * @param textures  The array to build the texture coordinates in. (Must hold a full chunk).
+     */
+    void rebuild(TileMap2D map, float[] positions, float[] textures) {
+        int size = TileMap2D.CHUNK_SIZE;
+        int startX = chunkX * size, startY = chunkY * size;
+        int endX = Math.min(startX + size, map.getWidth());
+        int endY = Math.min(startY + size, map.getHeight());
+        float tileWidth = map.getTileWidth(), tileHeight = map.getTileHeight();
+        int columns = map.getColumns(), rows = map.getRows();
+
+        int quads = 0;
+        for (int y = startY; y < endY; y++) {
+            for (int x = startX; x < endX; x++) {
+                int tile = map.getTile(x, y);
+                if (tile < 0)
+                    continue;
+                float left = x * tileWidth, right = left + tileWidth;
+                float top = y * tileHeight, bottom = top + tileHeight;
+                float u0 = (float) (tile % columns) / columns, u1 = (float) (tile % columns + 1) / columns;
+                float v0 = (float) (tile / columns) / rows, v1 = (float) (tile / columns + 1) / rows;
+
+                // Same vertex order and texture orientation as SquareData.
+                int o = quads * 8;
+                positions[o] = left;
+                positions[o + 1] = bottom;
+                positions[o + 2] = left;
+                positions[o + 3] = top;
+                positions[o + 4] = right;
+                positions[o + 5] = top;
+                positions[o + 6] = right;
+                positions[o + 7] = bottom;
+                textures[o] = u0;
+                textures[o + 1] = v0;
+                textures[o + 2] = u0;
+                textures[o + 3] = v1;
+                textures[o + 4] = u1;
+                textures[o + 5] = v1;
+                textures[o + 6] = u1;
+                textures[o + 7] = v0;
+                quads++;
+            }
+        }
+
+        if (quads > indexedQuads) {
+            indexedQuads = Math.max(quads, getVertexCapacity() / 4);
+            setIndices(QUAD_INDICES, Math.min(indexedQuads, size * size) * 6);
+        }
+        updatePositions(0, positions, 0, quads * 4);
+        updateUVs(0, textures, 0, quads * 4);
+        setUsedVertices(quads * 4);
+        setVertexCount(quads * 6);
+    }
+
+    private static int[] createIndices(int quads) {
+        int[] indices = new int[quads * 6];
+        for (int quad = 0; quad < quads; quad++) {
+            int vertex = quad * 4;
+            int o = quad * 6;
+            indices[o] = vertex;
+            indices[o + 1] = vertex + 3;
+            indices[o + 2] = vertex + 2;
+            indices[o + 3] = vertex + 2;
+            indices[o + 4] = vertex + 1;
+            indices[o + 5] = vertex;
+        }
+        return indices;
+    }
+}
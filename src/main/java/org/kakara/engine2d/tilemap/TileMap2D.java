@@ -0,0 +1,286 @@
+package org.kakara.engine2d.tilemap;
+
+import org.kakara.engine.components.Component;
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine.gameitems.mesh.IMesh;
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.components.MeshRenderer2D;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A grid of tiles drawn from a tile sheet.
+ *
+ * <p>The map is split into chunks of {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} tiles. Each chunk is a single mesh,
+ * so a whole chunk costs one draw call. When a tile changes only the mesh of its chunk is rebuilt on the next
+ * update. The GameItem must also have a {@link MeshRenderer2D}; this component sets the meshes of the renderer.</p>
+ *
+ * <p>A tile is the index of a cell in the tile sheet (counting left to right, then top to bottom), or
+ * {@link #EMPTY}. Tile (0, 0) is in the top left corner at the position of the GameItem. The tile sheet texture
+ * should be loaded without columns and rows, since the texture coordinates of every tile already point to its cell.
+ * </p>
+ *
+ * <code>
+ * gameItem.addComponent(MeshRenderer2D.class);<br>
+ * TileMap2D map = gameItem.addComponent(TileMap2D.class);<br>
+ * map.setTileSheet(texture, 8, 8);<br>
+ * map.setSize(100, 100, 32, 32);<br>
+ * map.setTile(4, 2, 10);<br>
+ * add(gameItem);<br>
+ * </code>
+ */
+public class TileMap2D extends Component {
+    /**
+     * The number of tiles along each side of a chunk.
+     */
+    public static final int CHUNK_SIZE = 32;
+    /**
+     * The value of a tile with nothing in it.
+     */
+    public static final short EMPTY = -1;
+
+    private int width;
+    private int height;
+    private float tileWidth = 1;
+    private float tileHeight = 1;
+    private short[] tiles = new short[0];
+
+    private Texture texture;
+    private int columns = 1;
+    private int rows = 1;
+    private RGBA color = new RGBA();
+
+    private int chunksX;
+    private int chunksY;
+    private TileChunkMesh2D[] chunks;
+    private boolean[] dirtyChunks;
+    private boolean dirty;
+    private boolean meshesChanged;
+    private float[] positionScratch;
+    private float[] textureScratch;
+
+    @Override
+    public void start() {
+        if (!getGameItem().hasComponent(MeshRenderer2D.class))
+            throw new IllegalStateException("TileMap2D requires the GameItem to have a 2D mesh renderer.");
+    }
+
+    @Override
+    public void update() {
+        if (!dirty || chunks == null)
+            return;
+        MeshRenderer2D renderer = getGameItem().getComponent(MeshRenderer2D.class);
+        if (renderer == null)
+            return;
+
+        if (meshesChanged) {
+            IMesh[] meshes = new IMesh[chunks.length];
+            for (int i = 0; i < chunks.length; i++)
+                meshes[i] = chunks[i] = new TileChunkMesh2D(i % chunksX, i / chunksX);
+            renderer.setMesh(meshes);
+            positionScratch = new float[CHUNK_SIZE * CHUNK_SIZE * 8];
+            textureScratch = new float[CHUNK_SIZE * CHUNK_SIZE * 8];
+            meshesChanged = false;
+        }
+        for (int i = 0; i < chunks.length; i++) {
+            TileChunkMesh2D chunk = chunks[i];
+            chunk.getMaterial2D().setTexture(texture);
+            chunk.getMaterial2D().setColor(color);
+            if (dirtyChunks[i]) {
+                chunk.rebuild(this, positionScratch, textureScratch);
+                dirtyChunks[i] = false;
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Set the size of the map.
+     *
+     * <p>All of the tiles are set to {@link #EMPTY}. The meshes of the chunks are created on the next update.</p>
+     *
+     * @param width      The number of tiles across.
+     * @param height     The number of tiles down.
+     * @param tileWidth  The width of a tile.
+     * @param tileHeight The height of a tile.
+     */
+    public void setSize(int width, int height, float tileWidth, float tileHeight) {
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("The size of a tile map cannot be negative.");
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tiles = new short[width * height];
+        Arrays.fill(tiles, EMPTY);
+
+        this.chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunks = new TileChunkMesh2D[chunksX * chunksY];
+        this.dirtyChunks = new boolean[chunks.length];
+        Arrays.fill(dirtyChunks, true);
+        this.meshesChanged = true;
+        this.dirty = true;
+    }
+
+    /**
+     * Set the tile sheet the tiles are drawn from.
+     *
+     * @param texture The texture of the tile sheet.
+     * @param columns The number of columns in the tile sheet.
+     * @param rows    The number of rows in the tile sheet.
+     */
+    public void setTileSheet(Texture texture, int columns, int rows) {
+        if (columns <= 0 || rows <= 0)
+            throw new IllegalArgumentException("A tile sheet must have at least one column and row.");
+        this.texture = Objects.requireNonNull(texture);
+        boolean changed = columns != this.columns || rows != this.rows;
+        this.columns = columns;
+        this.rows = rows;
+        if (changed && dirtyChunks != null)
+            Arrays.fill(dirtyChunks, true);
+        this.dirty = true;
+    }
+
+    /**
+     * Set a tile.
+     *
+     * @param x    The x position of the tile.
+     * @param y    The y position of the tile.
+     * @param tile The index of the cell in the tile sheet. (Or {@link #EMPTY}).
+     */
+    public void setTile(int x, int y, int tile) {
+        checkBounds(x, y);
+        int index = y * width + x;
+        if (tiles[index] == tile)
+            return;
+        tiles[index] = (short) tile;
+        markChunk(x / CHUNK_SIZE, y / CHUNK_SIZE);
+    }
+
+    /**
+     * Set a row of tiles.
+     *
+     * <p>This is faster than {@link #setTile(int, int, int)} when many tiles change.</p>
+     *
+     * @param x      The x position of the first tile.
+     * @param y      The y position of the row.
+     * @param source The array which contains the tiles.
+     * @param offset The index in the array of the first tile.
+     * @param length The number of tiles to set.
+     */
+    public void setTiles(int x, int y, short[] source, int offset, int length) {
+        if (length <= 0)
+            return;
+        checkBounds(x, y);
+        checkBounds(x + length - 1, y);
+        System.arraycopy(source, offset, tiles, y * width + x, length);
+        for (int chunkX = x / CHUNK_SIZE; chunkX <= (x + length - 1) / CHUNK_SIZE; chunkX++)
+            markChunk(chunkX, y / CHUNK_SIZE);
+    }
+
+    /**
+     * Get a tile.
+     *
+     * @param x The x position of the tile.
+     * @param y The y position of the tile.
+     * @return The index of the cell in the tile sheet. (Or {@link #EMPTY}).
+     */
+    public int getTile(int x, int y) {
+        checkBounds(x, y);
+        return tiles[y * width + x];
+    }
+
+    /**
+     * Set the color the tile sheet is multiplied with.
+     *
+     * @param color The color.
+     */
+    public void setColor(RGBA color) {
+        this.color = Objects.requireNonNull(color);
+        this.dirty = true;
+    }
+
+    /**
+     * Get the color the tile sheet is multiplied with.
+     *
+     * @return The color.
+     */
+    public RGBA getColor() {
+        return color;
+    }
+
+    /**
+     * Get the number of tiles across.
+     *
+     * @return The width of the map in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the number of tiles down.
+     *
+     * @return The height of the map in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the width of a tile.
+     *
+     * @return The width of a tile.
+     */
+    public float getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Get the height of a tile.
+     *
+     * @return The height of a tile.
+     */
+    public float getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Get the texture of the tile sheet.
+     *
+     * @return The texture. (Null if it was not set).
+     */
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Get the number of columns in the tile sheet.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of rows in the tile sheet.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    private void markChunk(int chunkX, int chunkY) {
+        dirtyChunks[chunkY * chunksX + chunkX] = true;
+        dirty = true;
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            throw new IndexOutOfBoundsException("The tile (" + x + ", " + y + ") is outside of the tile map.");
+    }
+}
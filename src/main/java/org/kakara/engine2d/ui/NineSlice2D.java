@@ -0,0 +1,254 @@
+package org.kakara.engine2d.ui;
+
+/**
+ * A panel drawn from a region of a texture which is split into nine parts.
+ *
+ * <p>The corners of the region are drawn at a fixed size, the edges are stretched along one axis and the center is
+ * stretched along both. This lets one small sprite be used for panels and buttons of any size.</p>
+ *
+ * <p>Slices are drawn by a {@link NineSliceCanvas2D}, which draws all of its slices in a single draw call. The
+ * geometry of a slice is only rebuilt when it changes. Positions are relative to the GameItem of the canvas, with
+ * (0, 0) being the top left of the slice.</p>
+ *
+ * <code>
+ * // A 48x48 pixel button sprite with a 16 pixel border.<br>
+ * NineSlice2D button = new NineSlice2D(0, 0, 48, 48, 16, 16, 16, 16);<br>
+ * button.setPosition(20, 20);<br>
+ * button.setSize(200, 60);<br>
+ * canvas.add(button);<br>
+ * </code>
+ */
+public class NineSlice2D {
+    /**
+     * The number of vertices used by a slice.
+     */
+    static final int VERTICES = 16;
+
+    private float regionX, regionY, regionWidth, regionHeight;
+    private float left, top, right, bottom;
+    private float x, y;
+    private float width, height;
+    private float borderScale = 1;
+    private boolean visible = true;
+    private boolean dirty = true;
+
+    /**
+     * Construct a nine slice.
+     *
+     * <p>The region and insets are in pixels of the texture of the canvas. The region follows the same layout as a
+     * sprite sheet. The size of the slice starts as the size of the region.</p>
+     *
+     * @param regionX      The x position of the region in the texture.
+     * @param regionY      The y position of the region in the texture.
+     * @param regionWidth  The width of the region.
+     * @param regionHeight The height of the region.
+     * @param left         The width of the left border.
+     * @param top          The height of the top border.
+     * @param right        The width of the right border.
+     * @param bottom       The height of the bottom border.
+     */
+    public NineSlice2D(float regionX, float regionY, float regionWidth, float regionHeight,
+                       float left, float top, float right, float bottom) {
+        setRegion(regionX, regionY, regionWidth, regionHeight);
+        setInsets(left, top, right, bottom);
+        setSize(regionWidth, regionHeight);
+    }
+
+    /**
+     * Set the region of the texture the slice is drawn from.
+     *
+     * @param regionX      The x position of the region in the texture.
+     * @param regionY      The y position of the region in the texture.
+     * @param regionWidth  The width of the region.
+     * @param regionHeight The height of the region.
+     */
+    public void setRegion(float regionX, float regionY, float regionWidth, float regionHeight) {
+        this.regionX = regionX;
+        this.regionY = regionY;
+        this.regionWidth = regionWidth;
+        this.regionHeight = regionHeight;
+        this.dirty = true;
+    }
+
+    /**
+     * Set the size of the borders.
+     *
+     * @param left   The width of the left border.
+     * @param top    The height of the top border.
+     * @param right  The width of the right border.
+     * @param bottom The height of the bottom border.
+     */
+    public void setInsets(float left, float top, float right, float bottom) {
+        if (left + right > regionWidth || top + bottom > regionHeight)
+            throw new IllegalArgumentException("The insets of a nine slice cannot be larger than its region.");
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.dirty = true;
+    }
+
+    /**
+     * Set the position of the top left of the slice.
+     *
+     * @param x The x position.
+     * @param y The y position.
+     */
+    public void setPosition(float x, float y) {
+        if (x == this.x && y == this.y)
+            return;
+        this.x = x;
+        this.y = y;
+        this.dirty = true;
+    }
+
+    /**
+     * Set the size of the slice.
+     *
+     * <p>If the size is smaller than the borders, the borders are shrunk to fit.</p>
+     *
+     * @param width  The width.
+     * @param height The height.
+     */
+    public void setSize(float width, float height) {
+        if (width == this.width && height == this.height)
+            return;
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        this.dirty = true;
+    }
+
+    /**
+     * Set the scale of the borders.
+     *
+     * <p>At a scale of 1, one pixel of the texture is drawn as one unit.</p>
+     *
+     * @param borderScale The scale of the borders.
+     */
+    public void setBorderScale(float borderScale) {
+        this.borderScale = borderScale;
+        this.dirty = true;
+    }
+
+    /**
+     * Set if the slice is visible.
+     *
+     * @param visible If the slice is visible.
+     */
+    public void setVisible(boolean visible) {
+        if (visible == this.visible)
+            return;
+        this.visible = visible;
+        this.dirty = true;
+    }
+
+    /**
+     * Get the x position of the top left of the slice.
+     *
+     * @return The x position.
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * Get the y position of the top left of the slice.
+     *
+     * @return The y position.
+     */
+    public float getY() {
+        return y;
+    }
+
+    /**
+     * Get the width of the slice.
+     *
+     * @return The width.
+     */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the slice.
+     *
+     * @return The height.
+     */
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the scale of the borders.
+     *
+     * @return The scale of the borders.
+     */
+    public float getBorderScale() {
+        return borderScale;
+    }
+
+    /**
+     * Get if the slice is visible.
+     *
+     * @return If the slice is visible.
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Build the 4 by 4 grid of vertices of the slice.
+     *
+     * @param positions     The array to write the positions to. (32 values).
+     * @param textures      The array to write the texture coordinates to. (32 values).
+     * @param grid          An array of 16 values to use as scratch space.
+     * @param textureWidth  The width of the texture in pixels.
+     * @param textureHeight The height of the texture in pixels.
+     */
+    void build(float[] positions, float[] textures, float[] grid, float textureWidth, float textureHeight) {
+        dirty = false;
+        // Shrink the borders if the slice is smaller than them.
+        float borderX = (left + right) * borderScale;
+        float borderY = (top + bottom) * borderScale;
+        float scaleX = borderScale * (borderX > width ? width / borderX : 1);
+        float scaleY = borderScale * (borderY > height ? height / borderY : 1);
+
+        // The columns of x, the rows of y, then the texture coordinates of each.
+        grid[0] = x;
+        grid[1] = x + left * scaleX;
+        grid[2] = x + width - right * scaleX;
+        grid[3] = x + width;
+        grid[4] = y;
+        grid[5] = y + top * scaleY;
+        grid[6] = y + height - bottom * scaleY;
+        grid[7] = y + height;
+        grid[8] = regionX / textureWidth;
+        grid[9] = (regionX + left) / textureWidth;
+        grid[10] = (regionX + regionWidth - right) / textureWidth;
+        grid[11] = (regionX + regionWidth) / textureWidth;
+        // The top of the screen uses the end of the region, the same as the sprite sheet of SquareData.
+        grid[12] = (regionY + regionHeight) / textureHeight;
+        grid[13] = (regionY + regionHeight - top) / textureHeight;
+        grid[14] = (regionY + bottom) / textureHeight;
+        grid[15] = regionY / textureHeight;
+
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++) {
+                int i = (row * 4 + column) * 2;
+                // Hidden slices collapse into a single point.
+                positions[i] = visible ? grid[column] : x;
+                positions[i + 1] = visible ? grid[4 + row] : y;
+                textures[i] = grid[8 + column];
+                textures[i + 1] = grid[12 + row];
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.kakara.engine2d.ui;
+
+import org.kakara.engine.components.Component;
+import org.kakara.engine.gameitems.Texture;
+import org.kakara.engine.utils.RGBA;
+import org.kakara.engine2d.DynamicMesh2D;
+import org.kakara.engine2d.components.MeshRenderer2D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Draws many {@link NineSlice2D}s which share a texture in a single draw call.
+ *
+ * <p>Every slice is 16 vertices in one {@link DynamicMesh2D}. On each update only the slices which changed are
+ * rebuilt and uploaded. Slices are drawn in the order they were added, so later slices are on top. The GameItem must
+ * also have a {@link MeshRenderer2D}; this component sets the mesh of the renderer.</p>
+ *
+ * <p>The texture should be loaded without columns and rows, since the slices already point to their region of the
+ * texture.</p>
+ *
+ * <code>
+ * gameItem.addComponent(MeshRenderer2D.class);<br>
+ * NineSliceCanvas2D canvas = gameItem.addComponent(NineSliceCanvas2D.class);<br>
+ * canvas.setTexture(uiTexture);<br>
+ * canvas.add(new NineSlice2D(0, 0, 48, 48, 16, 16, 16, 16));<br>
+ * add(gameItem);<br>
+ * </code>
+ */
+public class NineSliceCanvas2D extends Component {
+    private static final int INDICES = 54;
+
+    private final List<NineSlice2D> slices = new ArrayList<>();
+    private Texture texture;
+    private RGBA color = new RGBA();
+    private DynamicMesh2D mesh;
+    private int[] indices = new int[0];
+    private int builtSlices;
+    private boolean dirty = true;
+
+    private final float[] positions = new float[NineSlice2D.VERTICES * 2];
+    private final float[] textures = new float[NineSlice2D.VERTICES * 2];
+    private final float[] grid = new float[16];
+
+    @Override
+    public void start() {
+        if (!getGameItem().hasComponent(MeshRenderer2D.class))
+            throw new IllegalStateException("NineSliceCanvas2D requires the GameItem to have a 2D mesh renderer.");
+    }
+
+    @Override
+    public void update() {
+        if (texture == null)
+            return;
+        MeshRenderer2D renderer = getGameItem().getComponent(MeshRenderer2D.class);
+        if (renderer == null)
+            return;
+
+        if (mesh == null || renderer.getMeshes() == null || renderer.getMesh() != mesh) {
+            int capacity = Math.max(16, slices.size());
+            mesh = new DynamicMesh2D(capacity * NineSlice2D.VERTICES, capacity * INDICES);
+            renderer.setMesh(mesh);
+            builtSlices = -1;
+            dirty = true;
+            for (NineSlice2D slice : slices)
+                slice.markDirty();
+        }
+        if (dirty) {
+            mesh.getMaterial2D().setTexture(texture);
+            mesh.getMaterial2D().setColor(color);
+        }
+
+        int count = slices.size();
+        float textureWidth = texture.getWidth(), textureHeight = texture.getHeight();
+        for (int i = 0; i < count; i++) {
+            NineSlice2D slice = slices.get(i);
+            if (!slice.isDirty()) continue;
+            slice.build(positions, textures, grid, textureWidth, textureHeight);
+            mesh.updatePositions(i * NineSlice2D.VERTICES, positions);
+            mesh.updateUVs(i * NineSlice2D.VERTICES, textures);
+        }
+        if (count != builtSlices) {
+            if (count * INDICES > indices.length) {
+                // Every slice has the same indices, so they are made for the whole capacity and only a part is used.
+                indices = createIndices(Math.max(count, mesh.getVertexCapacity() / NineSlice2D.VERTICES));
+            }
+            mesh.setIndices(indices, count * INDICES);
+            mesh.setUsedVertices(count * NineSlice2D.VERTICES);
+            builtSlices = count;
+        }
+        dirty = false;
+    }
+
+    /**
+     * Add a slice to the canvas.
+     *
+     * @param slice The slice to add.
+     */
+    public void add(NineSlice2D slice) {
+        Objects.requireNonNull(slice);
+        if (slices.contains(slice))
+            return;
+        slices.add(slice);
+        slice.markDirty();
+    }
+
+    /**
+     * Remove a slice from the canvas.
+     *
+     * @param slice The slice to remove.
+     */
+    public void remove(NineSlice2D slice) {
+        int index = slices.indexOf(slice);
+        if (index == -1)
+            return;
+        slices.remove(index);
+        // The slices after it move down one place in the mesh.
+        for (int i = index; i < slices.size(); i++)
+            slices.get(i).markDirty();
+    }
+
+    /**
+     * Get the slices of the canvas in the order they are drawn.
+     *
+     * @return The list of slices. (Returns an unmodifiable list).
+     */
+    public List<NineSlice2D> getSlices() {
+        return Collections.unmodifiableList(slices);
+    }
+
+    /**
+     * Set the texture the slices are drawn from.
+     *
+     * @param texture The texture.
+     */
+    public void setTexture(Texture texture) {
+        if (Objects.requireNonNull(texture) == this.texture)
+            return;
+        this.texture = texture;
+        this.dirty = true;
+        // The texture coordinates depend on the size of the texture.
+        for (NineSlice2D slice : slices)
+            slice.markDirty();
+    }
+
+    /**
+     * Get the texture the slices are drawn from.
+     *
+     * @return The texture. (Null if it was not set).
+     */
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Set the color the texture is multiplied with.
+     *
+     * @param color The color.
+     */
+    public void setColor(RGBA color) {
+        this.color = Objects.requireNonNull(color);
+        this.dirty = true;
+    }
+
+    /**
+     * Get the color the texture is multiplied with.
+     *
+     * @return The color.
+     */
+    public RGBA getColor() {
+        return color;
+    }
+
+    /**
+     * Create the indices for a number of slices.
+     *
+     * @param slices The number of slices.
+     * @return The indices.
+     */
+    private static int[] createIndices(int slices) {
+        int[] indices = new int[slices * INDICES];
+        int o = 0;
+        for (int slice = 0; slice < slices; slice++) {
+            int first = slice * NineSlice2D.VERTICES;
+            for (int row = 0; row < 3; row++) {
+                for (int column = 0; column < 3; column++) {
+                    int topLeft = first + row * 4 + column;
+                    int bottomLeft = topLeft + 4;
+                    // Same winding as SquareData: bottom left, bottom right, top right, top right, top left, bottom left.
+                    indices[o++] = bottomLeft;
+                    indices[o++] = bottomLeft + 1;
+                    indices[o++] = topLeft + 1;
+                    indices[o++] = topLeft + 1;
+                    indices[o++] = topLeft;
+                    indices[o++] = bottomLeft;
+                }
+            }
+        }
+        return indices;
+    }
+}
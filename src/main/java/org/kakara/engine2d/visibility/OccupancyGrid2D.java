@@ -0,0 +1,210 @@
+package org.kakara.engine2d.visibility;
+
+import java.util.Arrays;
+
+/**
+ * A coarse grid which records which cells are covered by opaque objects.
+ *
+ * <p>Each cell keeps a count of the opaque objects which cover it, so objects can overlap and be removed in any
+ * order. A cell is opaque while its count is above 0. Cells outside of the grid are always opaque, so light never
+ * leaves the grid. The grid remembers the cells which became opaque or clear since
+ * {@link VisibilityField2D#update()} last ran, which is how the field knows which vision sources need to be cast
+ * again.</p>
+ *
+ * <p>Static walls (such as the walls of a tile map) can be added directly to the grid:</p>
+ * <code>
+ * OccupancyGrid2D occupancy = field.getOccupancy();<br>
+ * occupancy.add(occupancy.toCellX(wallX), occupancy.toCellY(wallY), occupancy.toCellX(wallX), occupancy.toCellY(wallY));<br>
+ * </code>
+ */
+public class OccupancyGrid2D {
+    private final int width;
+    private final int height;
+    private final float originX;
+    private final float originY;
+    private final float cellSize;
+    private final int[] counts;
+    private int[] flips = new int[64];
+    private int flipCount;
+
+    /**
+     * Construct an empty grid.
+     *
+     * @param originX  The x position of the top left corner of the grid in the world.
+     * @param originY  The y position of the top left corner of the grid in the world.
+     * @param cellSize The size of a cell in world units.
+     * @param width    The width in cells.
+     * @param height   The height in cells.
+     */
+    public OccupancyGrid2D(float originX, float originY, float cellSize, int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("The size of an occupancy grid must be greater than 0.");
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("The cell size must be greater than 0.");
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.width = width;
+        this.height = height;
+        this.counts = new int[width * height];
+    }
+
+    /**
+     * Add an opaque object which covers an area of cells.
+     * <p>The area is clamped to the grid.</p>
+     *
+     * @param minX The x position of the first cell.
+     * @param minY The y position of the first cell.
+     * @param maxX The x position of the last cell. (Inclusive).
+     * @param maxY The y position of the last cell. (Inclusive).
+     */
+    public void add(int minX, int minY, int maxX, int maxY) {
+        change(minX, minY, maxX, maxY, 1);
+    }
+
+    /**
+     * Remove an opaque object which was added with {@link #add(int, int, int, int)}.
+     *
+     * @param minX The x position of the first cell.
+     * @param minY The y position of the first cell.
+     * @param maxX The x position of the last cell. (Inclusive).
+     * @param maxY The y position of the last cell. (Inclusive).
+     * @throws IllegalStateException If a cell in the area has no opaque objects.
+     */
+    public void remove(int minX, int minY, int maxX, int maxY) {
+        change(minX, minY, maxX, maxY, -1);
+    }
+
+    private void change(int minX, int minY, int maxX, int maxY, int amount) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, width - 1);
+        maxY = Math.min(maxY, height - 1);
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                int cell = y * width + x;
+                int count = counts[cell] + amount;
+                if (count < 0)
+                    throw new IllegalStateException("The cell (" + x + ", " + y + ") has no opaque objects to remove.");
+                counts[cell] = count;
+                // Only a change between clear and opaque affects the light.
+                if (count == 0 || (count == 1 && amount > 0))
+                    addFlip(cell);
+            }
+        }
+    }
+
+    private void addFlip(int cell) {
+        if (flipCount == flips.length)
+            flips = Arrays.copyOf(flips, flipCount * 2);
+        flips[flipCount++] = cell;
+    }
+
+    /**
+     * Check if a cell blocks light.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return If the cell is opaque. (True if it is outside of the grid).
+     */
+    public boolean isOpaque(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return true;
+        return counts[y * width + x] != 0;
+    }
+
+    /**
+     * Get the number of opaque objects which cover a cell.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return The number of objects. (0 if it is outside of the grid).
+     */
+    public int getCount(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return 0;
+        return counts[y * width + x];
+    }
+
+    /**
+     * Get the cell which contains an x position in the world.
+     *
+     * @param worldX The x position in the world.
+     * @return The x position of the cell. (It can be outside of the grid).
+     */
+    public int toCellX(float worldX) {
+        return (int) Math.floor((worldX - originX) / cellSize);
+    }
+
+    /**
+     * Get the cell which contains a y position in the world.
+     *
+     * @param worldY The y position in the world.
+     * @return The y position of the cell. (It can be outside of the grid).
+     */
+    public int toCellY(float worldY) {
+        return (int) Math.floor((worldY - originY) / cellSize);
+    }
+
+    /**
+     * Get the x position of the top left corner of the grid in the world.
+     *
+     * @return The x position.
+     */
+    public float getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Get the y position of the top left corner of the grid in the world.
+     *
+     * @return The y position.
+     */
+    public float getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Get the size of a cell.
+     *
+     * @return The size in world units.
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Get the width of the grid.
+     *
+     * @return The width in cells.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the grid.
+     *
+     * @return The height in cells.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the cells which changed between clear and opaque since the last {@link #clearFlips()}.
+     *
+     * @return The indices of the cells. (Only the first {@link #getFlipCount()} are used).
+     */
+    int[] getFlips() {
+        return flips;
+    }
+
+    int getFlipCount() {
+        return flipCount;
+    }
+
+    void clearFlips() {
+        flipCount = 0;
+    }
+}
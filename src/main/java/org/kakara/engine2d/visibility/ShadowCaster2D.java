@@ -0,0 +1,151 @@
+package org.kakara.engine2d.visibility;
+
+import java.util.Arrays;
+
+/**
+ * Finds the cells of an {@link OccupancyGrid2D} which can be seen from a cell using recursive shadowcasting.
+ *
+ * <p>The area around the origin is split into eight octants. Each octant is scanned row by row moving away from the
+ * origin, and when an opaque cell is found the part of the row behind it is scanned again with a narrower range of
+ * slopes. Every cell is only visited once per octant, so the cost grows with the number of visible cells instead of
+ * the number of cells in range times the radius. Opaque cells which are lit are visible, so walls can be seen.</p>
+ *
+ * <p>The caster does not need the 2D pipeline or an OpenGL context. An instance reuses its arrays between casts and
+ * must only be used by one thread at a time.</p>
+ *
+ * <code>
+ * ShadowCaster2D caster = new ShadowCaster2D();<br>
+ * int count = caster.cast(occupancy, 10, 10, 8);<br>
+ * int[] cells = caster.getCells(); // y * width + x<br>
+ * </code>
+ */
+public class ShadowCaster2D {
+    // The transforms from octant space to grid space.
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    private OccupancyGrid2D grid;
+    private int[] cells = new int[256];
+    private int count;
+    private int[] visited = new int[0];
+    private int cast;
+    private int originX;
+    private int originY;
+    private int radius;
+
+    /**
+     * Find the cells which can be seen from a cell.
+     *
+     * <p>A cell is in range if its center is within the radius of the center of the origin. The origin is always
+     * visible if it is inside of the grid.</p>
+     *
+     * @param grid    The grid.
+     * @param originX The x position of the origin cell.
+     * @param originY The y position of the origin cell.
+     * @param radius  The radius in cells.
+     * @return The number of visible cells, which are stored in {@link #getCells()}.
+     */
+    public int cast(OccupancyGrid2D grid, int originX, int originY, int radius) {
+        int size = grid.getWidth() * grid.getHeight();
+        if (visited.length != size) {
+            visited = new int[size];
+            cast = 0;
+        }
+        if (++cast == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            cast = 1;
+        }
+        this.grid = grid;
+        this.originX = originX;
+        this.originY = originY;
+        this.radius = Math.max(0, radius);
+        count = 0;
+        visit(originX, originY);
+        for (int octant = 0; octant < 8; octant++)
+            castOctant(1, 1.0f, 0.0f, XX[octant], XY[octant], YX[octant], YY[octant]);
+        this.grid = null;
+        return count;
+    }
+
+    /**
+     * Scan the rows of an octant between two slopes.
+     *
+     * @param row   The first row, counted from the origin.
+     * @param start The slope of the start of the range. (1 is the diagonal).
+     * @param end   The slope of the end of the range. (0 is the axis).
+     */
+    private void castOctant(int row, float start, float end, int xx, int xy, int yx, int yy) {
+        if (start < end)
+            return;
+        int radiusSquared = radius * radius;
+        float nextStart = 0;
+        for (int distance = row; distance <= radius; distance++) {
+            boolean blocked = false;
+            int dy = -distance;
+            for (int dx = -distance; dx <= 0; dx++) {
+                float leftSlope = (dx - 0.5f) / (dy + 0.5f);
+                float rightSlope = (dx + 0.5f) / (dy - 0.5f);
+                if (start < rightSlope)
+                    continue;
+                if (end > leftSlope)
+                    break;
+
+                int x = originX + dx * xx + dy * xy;
+                int y = originY + dx * yx + dy * yy;
+                if (dx * dx + dy * dy <= radiusSquared)
+                    visit(x, y);
+
+                boolean opaque = grid.isOpaque(x, y);
+                if (blocked) {
+                    if (opaque) {
+                        nextStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = nextStart;
+                    }
+                } else if (opaque && distance < radius) {
+                    // Scan the part of the next rows which can still be seen past the left edge of this cell.
+                    blocked = true;
+                    castOctant(distance + 1, start, leftSlope, xx, xy, yx, yy);
+                    nextStart = rightSlope;
+                }
+            }
+            if (blocked)
+                return;
+        }
+    }
+
+    private void visit(int x, int y) {
+        if (x < 0 || y < 0 || x >= grid.getWidth() || y >= grid.getHeight())
+            return;
+        int cell = y * grid.getWidth() + x;
+        // Cells on the edges of the octants are reached by two octants.
+        if (visited[cell] == cast)
+            return;
+        visited[cell] = cast;
+        if (count == cells.length)
+            cells = Arrays.copyOf(cells, count * 2);
+        cells[count++] = cell;
+    }
+
+    /**
+     * Get the cells found by the last cast.
+     *
+     * @return The indices of the cells as <code>y * width + x</code>. (Only the first count returned by
+     * {@link #cast(OccupancyGrid2D, int, int, int)} are used).
+     */
+    public int[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Get the number of cells found by the last cast.
+     *
+     * @return The number of cells.
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,530 @@
+package org.kakara.engine2d.visibility;
+
+import org.joml.Vector4f;
+import org.kakara.engine.gameitems.GameItem;
+import org.kakara.engine.gameitems.mesh.IMesh;
+import org.kakara.engine2d.Bounds2D;
+import org.kakara.engine2d.DynamicMesh2D;
+import org.kakara.engine2d.GameEngine2D;
+import org.kakara.engine2d.Mesh2D;
+import org.kakara.engine2d.components.MeshRenderer2D;
+import org.kakara.engine2d.renderpipeline.backend.RenderBackend2D;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fog of war for a 2D scene.
+ *
+ * <p>The field keeps an {@link OccupancyGrid2D} of the opaque items and walls of the scene and the set of cells
+ * which each {@link VisionSource2D} can see. Each cell counts how many sources can see it. When
+ * {@link #update()} runs, only the sources which moved to another cell, or which have an opaque cell that changed
+ * within their radius, are cast again with the {@link ShadowCaster2D}. Their new cells are counted before their old
+ * cells are removed, so only cells which actually changed are written.</p>
+ *
+ * <p>The result is a brightness for every cell: visible cells are fully bright, cells which were seen before are
+ * drawn at {@link #getExploredBrightness()} and the rest are black. The brightness values are uploaded as a single
+ * channel texture, and only the rows which changed are uploaded. When the field is set on an
+ * {@link org.kakara.engine2d.Abstract2DScene} with
+ * {@link org.kakara.engine2d.Abstract2DScene#setVisibilityField(VisibilityField2D)}, the scene updates it every frame
+ * and the {@link org.kakara.engine2d.renderpipeline.Standard2DPipeline} samples the texture once per fragment to
+ * darken the items.</p>
+ *
+ * <p>Everything except {@link #uploadTexture(RenderBackend2D)} works without an OpenGL context. This class must only
+ * be used on the main thread.</p>
+ *
+ * <code>
+ * VisibilityField2D fog = new VisibilityField2D(0, 0, 32, 128, 128);<br>
+ * fog.addOccluder(wall);<br>
+ * fog.addSource(player, 320);<br>
+ * setVisibilityField(fog);<br>
+ * </code>
+ */
+public class VisibilityField2D {
+    /**
+     * The brightness value of a visible cell.
+     */
+    public static final int VISIBLE = 255;
+
+    private final OccupancyGrid2D occupancy;
+    private final ShadowCaster2D caster = new ShadowCaster2D();
+    private final List<VisionSource2D> sources = new CopyOnWriteArrayList<>();
+    private final Map<GameItem, Occluder> occluders = new LinkedHashMap<>();
+    private final int width;
+    private final int height;
+    private final int[] visibleCounts;
+    private final long[] explored;
+    private final ByteBuffer values;
+    private final Bounds2D itemBounds = new Bounds2D();
+    private final Bounds2D meshBounds = new Bounds2D();
+    private int exploredValue = 90;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxY = -1;
+    private boolean changed;
+    private int version;
+    private int castCount;
+    private int cellsCast;
+    private int texture;
+
+    /**
+     * Construct a field where no cells have been seen.
+     *
+     * @param originX  The x position of the top left corner of the field in the world.
+     * @param originY  The y position of the top left corner of the field in the world.
+     * @param cellSize The size of a cell in world units.
+     * @param width    The width in cells.
+     * @param height   The height in cells.
+     */
+    public VisibilityField2D(float originX, float originY, float cellSize, int width, int height) {
+        this.occupancy = new OccupancyGrid2D(originX, originY, cellSize, width, height);
+        this.width = width;
+        this.height = height;
+        this.visibleCounts = new int[width * height];
+        this.explored = new long[(width * height + 63) >>> 6];
+        this.values = ByteBuffer.allocateDirect(width * height);
+    }
+
+    /**
+     * Add a source which follows a GameItem.
+     *
+     * @param item   The GameItem.
+     * @param radius How far the source can see in world units.
+     * @return The source.
+     */
+    public VisionSource2D addSource(GameItem item, float radius) {
+        VisionSource2D source = new VisionSource2D(item, 0, 0, radius);
+        sources.add(source);
+        return source;
+    }
+
+    /**
+     * Add a source with a fixed position.
+     *
+     * @param x      The x position in the world.
+     * @param y      The y position in the world.
+     * @param radius How far the source can see in world units.
+     * @return The source.
+     */
+    public VisionSource2D addSource(float x, float y, float radius) {
+        VisionSource2D source = new VisionSource2D(null, x, y, radius);
+        sources.add(source);
+        return source;
+    }
+
+    /**
+     * Remove a source.
+     * <p>The cells it could see stop being visible immediately.</p>
+     *
+     * @param source The source.
+     */
+    public void removeSource(VisionSource2D source) {
+        if (!sources.remove(source))
+            return;
+        hide(source.cells, source.count);
+        source.count = 0;
+        source.castRadius = -1;
+        source.dirty = true;
+        finishChanges();
+    }
+
+    /**
+     * Get the sources of the field.
+     *
+     * @return The list of sources.
+     */
+    public List<VisionSource2D> getSources() {
+        return sources;
+    }
+
+    /**
+     * Add a GameItem which blocks vision.
+     *
+     * <p>The item covers the cells touched by the bounds of its 2D meshes. The cells are updated when the model matrix
+     * or the meshes of the item change. An item without a mesh does not cover any cells.</p>
+     *
+     * @param item The GameItem. (It must have a {@link MeshRenderer2D}).
+     */
+    public void addOccluder(GameItem item) {
+        MeshRenderer2D renderer = item.getComponent(MeshRenderer2D.class);
+        if (renderer == null)
+            throw new IllegalArgumentException("An occluder must have a MeshRenderer2D component.");
+        if (occluders.containsKey(item))
+            return;
+        Occluder occluder = new Occluder(renderer);
+        occluders.put(item, occluder);
+        refresh(occluder);
+    }
+
+    /**
+     * Remove a GameItem which blocks vision.
+     *
+     * @param item The GameItem.
+     */
+    public void removeOccluder(GameItem item) {
+        Occluder occluder = occluders.remove(item);
+        if (occluder != null && occluder.hasCells())
+            occupancy.remove(occluder.minX, occluder.minY, occluder.maxX, occluder.maxY);
+    }
+
+    /**
+     * Get the number of GameItems which block vision.
+     *
+     * @return The number of occluders.
+     */
+    public int getOccluderCount() {
+        return occluders.size();
+    }
+
+    /**
+     * Update the occluders and cast the sources which changed.
+     *
+     * <p>This is called every frame by the {@link org.kakara.engine2d.Abstract2DScene} the field is set on.</p>
+     */
+    public void update() {
+        for (Occluder occluder : occluders.values())
+            refresh(occluder);
+
+        int[] flips = occupancy.getFlips();
+        int flipCount = occupancy.getFlipCount();
+        float cellSize = occupancy.getCellSize();
+        castCount = 0;
+        cellsCast = 0;
+        for (VisionSource2D source : sources) {
+            int cellX = occupancy.toCellX(source.getX());
+            int cellY = occupancy.toCellY(source.getY());
+            int radius = (int) Math.ceil(source.getRadius() / cellSize);
+            if (source.dirty || cellX != source.castX || cellY != source.castY || radius != source.castRadius
+                    || isAffected(source, flips, flipCount))
+                cast(source, cellX, cellY, radius);
+        }
+        occupancy.clearFlips();
+        finishChanges();
+    }
+
+    /**
+     * Check if an opaque cell changed within the radius of a source.
+     */
+    private boolean isAffected(VisionSource2D source, int[] flips, int flipCount) {
+        for (int i = 0; i < flipCount; i++) {
+            int x = flips[i] % width;
+            int y = flips[i] / width;
+            if (Math.abs(x - source.castX) <= source.castRadius && Math.abs(y - source.castY) <= source.castRadius)
+                return true;
+        }
+        return false;
+    }
+
+    private void cast(VisionSource2D source, int cellX, int cellY, int radius) {
+        int count = caster.cast(occupancy, cellX, cellY, radius);
+        int[] cells = caster.getCells();
+        // The new cells are counted first so cells which stay visible never become hidden.
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            if (visibleCounts[cell]++ == 0) {
+                explored[cell >>> 6] |= 1L << cell;
+                write(cell, VISIBLE);
+            }
+        }
+        hide(source.cells, source.count);
+        source.setCells(cells, count);
+        source.castX = cellX;
+        source.castY = cellY;
+        source.castRadius = radius;
+        source.dirty = false;
+        castCount++;
+        cellsCast += count;
+    }
+
+    private void hide(int[] cells, int count) {
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            if (--visibleCounts[cell] == 0)
+                write(cell, exploredValue);
+        }
+    }
+
+    private void write(int cell, int value) {
+        if ((values.get(cell) & 0xFF) == value)
+            return;
+        values.put(cell, (byte) value);
+        int y = cell / width;
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxY = Math.max(dirtyMaxY, y);
+        changed = true;
+    }
+
+    private void finishChanges() {
+        if (changed)
+            version++;
+        changed = false;
+    }
+
+    /**
+     * Move the cells of an occluder if its model matrix or its meshes changed.
+     */
+    private void refresh(Occluder occluder) {
+        MeshRenderer2D renderer = occluder.renderer;
+        IMesh[] meshes = renderer.getMeshes();
+        int transformVersion = renderer.getTransformVersion();
+        int meshVersion = getMeshVersion(meshes);
+        if (transformVersion == occluder.transformVersion && meshes == occluder.meshes
+                && meshVersion == occluder.meshVersion)
+            return;
+        occluder.transformVersion = transformVersion;
+        occluder.meshes = meshes;
+        occluder.meshVersion = meshVersion;
+
+        itemBounds.reset();
+        if (meshes != null) {
+            for (IMesh mesh : meshes) {
+                // Only 2D meshes have bounds. An item without any blocks nothing.
+                if (!(mesh instanceof Mesh2D)) continue;
+                ((Mesh2D) mesh).getLocalBounds().transform(renderer.getModelMatrix(), meshBounds);
+                itemBounds.include(meshBounds);
+            }
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        if (!itemBounds.isEmpty()) {
+            float cellSize = occupancy.getCellSize();
+            minX = occupancy.toCellX(itemBounds.getMinX());
+            minY = occupancy.toCellY(itemBounds.getMinY());
+            // A bound which ends exactly on the edge of a cell does not cover the next cell.
+            maxX = Math.max(minX, (int) Math.ceil((itemBounds.getMaxX() - occupancy.getOriginX()) / cellSize) - 1);
+            maxY = Math.max(minY, (int) Math.ceil((itemBounds.getMaxY() - occupancy.getOriginY()) / cellSize) - 1);
+        }
+        if (minX == occluder.minX && minY == occluder.minY && maxX == occluder.maxX && maxY == occluder.maxY)
+            return;
+        if (occluder.hasCells())
+            occupancy.remove(occluder.minX, occluder.minY, occluder.maxX, occluder.maxY);
+        occluder.minX = minX;
+        occluder.minY = minY;
+        occluder.maxX = maxX;
+        occluder.maxY = maxY;
+        if (occluder.hasCells())
+            occupancy.add(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Get the sum of the versions of the dynamic meshes.
+     * <p>The versions only ever increase, so the sum changes whenever one of the meshes does.</p>
+     */
+    private static int getMeshVersion(IMesh[] meshes) {
+        int version = 0;
+        if (meshes == null)
+            return version;
+        for (IMesh mesh : meshes) {
+            if (mesh instanceof DynamicMesh2D)
+                version += ((DynamicMesh2D) mesh).getVersion();
+        }
+        return version;
+    }
+
+    /**
+     * Set the brightness of cells which were seen before but cannot be seen now.
+     *
+     * @param brightness The brightness from 0 to 1. (0 to hide cells again once they cannot be seen).
+     */
+    public void setExploredBrightness(float brightness) {
+        if (brightness < 0 || brightness > 1)
+            throw new IllegalArgumentException("The explored brightness must be between 0 and 1.");
+        int value = Math.round(brightness * VISIBLE);
+        if (value == exploredValue)
+            return;
+        exploredValue = value;
+        for (int cell = 0; cell < visibleCounts.length; cell++) {
+            if (visibleCounts[cell] == 0 && (explored[cell >>> 6] & 1L << cell) != 0)
+                write(cell, value);
+        }
+        finishChanges();
+    }
+
+    /**
+     * Get the brightness of cells which were seen before but cannot be seen now.
+     *
+     * @return The brightness from 0 to 1.
+     */
+    public float getExploredBrightness() {
+        return exploredValue / (float) VISIBLE;
+    }
+
+    /**
+     * Forget every cell which was seen before, except for the cells which are visible now.
+     */
+    public void clearExplored() {
+        for (int cell = 0; cell < visibleCounts.length; cell++) {
+            if (visibleCounts[cell] == 0) {
+                explored[cell >>> 6] &= ~(1L << cell);
+                write(cell, 0);
+            } else {
+                explored[cell >>> 6] |= 1L << cell;
+            }
+        }
+        finishChanges();
+    }
+
+    /**
+     * Check if a cell can be seen by a source.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return If the cell is visible. (False if it is outside of the field).
+     */
+    public boolean isVisible(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && visibleCounts[y * width + x] != 0;
+    }
+
+    /**
+     * Check if a position in the world can be seen by a source.
+     *
+     * @param worldX The x position in the world.
+     * @param worldY The y position in the world.
+     * @return If the position is visible.
+     */
+    public boolean isVisibleAt(float worldX, float worldY) {
+        return isVisible(occupancy.toCellX(worldX), occupancy.toCellY(worldY));
+    }
+
+    /**
+     * Check if a cell has ever been seen.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return If the cell was explored. (False if it is outside of the field).
+     */
+    public boolean isExplored(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return false;
+        int cell = y * width + x;
+        return (explored[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * Get the brightness value of a cell which is uploaded to the texture.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return The value from 0 to {@link #VISIBLE}. (0 if it is outside of the field).
+     */
+    public int getValue(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return 0;
+        return values.get(y * width + x) & 0xFF;
+    }
+
+    /**
+     * Get the occupancy grid of the field.
+     * <p>Static walls can be added to it directly.</p>
+     *
+     * @return The occupancy grid.
+     */
+    public OccupancyGrid2D getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Get the area of the world covered by the field.
+     *
+     * @param dest The vector to store the area in.
+     * @return The destination vector as (x, y, width, height).
+     */
+    public Vector4f getArea(Vector4f dest) {
+        float cellSize = occupancy.getCellSize();
+        return dest.set(occupancy.getOriginX(), occupancy.getOriginY(), width * cellSize, height * cellSize);
+    }
+
+    /**
+     * Get the number of times the brightness values changed.
+     * <p>This can be used to detect if the fog changed.</p>
+     *
+     * @return The version of the values.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the number of sources which were cast during the last update.
+     *
+     * @return The number of sources.
+     */
+    public int getCastCount() {
+        return castCount;
+    }
+
+    /**
+     * Get the number of cells found by the sources which were cast during the last update.
+     *
+     * @return The number of cells.
+     */
+    public int getCellsCast() {
+        return cellsCast;
+    }
+
+    /**
+     * Upload the rows which changed to the texture, creating the texture the first time.
+     * <p>This is for internal use only. It is called by the pipeline once per frame.</p>
+     *
+     * @param backend The render backend.
+     * @return The id of the texture.
+     */
+    public int uploadTexture(RenderBackend2D backend) {
+        if (texture == 0) {
+            texture = backend.createByteTexture(width, height);
+            GameEngine2D.getResourceRegistry().trackTexture(texture, (long) width * height);
+            dirtyMinY = 0;
+            dirtyMaxY = height - 1;
+        }
+        if (dirtyMaxY >= dirtyMinY) {
+            values.limit((dirtyMaxY + 1) * width).position(dirtyMinY * width);
+            backend.updateByteTexture(texture, 0, dirtyMinY, width, dirtyMaxY - dirtyMinY + 1, values);
+            GameEngine2D.getResourceRegistry().recordUpload(values.remaining());
+            values.clear();
+            dirtyMinY = Integer.MAX_VALUE;
+            dirtyMaxY = -1;
+        }
+        return texture;
+    }
+
+    /**
+     * Get the id of the texture.
+     *
+     * @return The id of the texture. (0 if it has not been created).
+     */
+    public int getTextureId() {
+        return texture;
+    }
+
+    /**
+     * Delete the texture.
+     * <p>The texture is created again if the field is drawn after this.</p>
+     */
+    public void cleanup() {
+        if (texture == 0)
+            return;
+        GameEngine2D.getRenderBackend().deleteTexture(texture);
+        GameEngine2D.getResourceRegistry().releaseTexture(texture);
+        texture = 0;
+    }
+
+    private static final class Occluder {
+        final MeshRenderer2D renderer;
+        int transformVersion = Integer.MIN_VALUE;
+        IMesh[] meshes;
+        int meshVersion;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        Occluder(MeshRenderer2D renderer) {
+            this.renderer = renderer;
+        }
+
+        boolean hasCells() {
+            return minX <= maxX;
+        }
+    }
+}
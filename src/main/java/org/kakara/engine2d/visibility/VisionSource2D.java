@@ -0,0 +1,110 @@
+package org.kakara.engine2d.visibility;
+
+import org.kakara.engine.gameitems.GameItem;
+
+import java.util.Arrays;
+
+/**
+ * Something which reveals the cells of a {@link VisibilityField2D} around it, such as a player or a torch.
+ *
+ * <p>A source either has a fixed position or follows the position of a GameItem. It is only cast again when it moves
+ * to another cell, when its radius changes or when an opaque cell within its radius changes.</p>
+ */
+public class VisionSource2D {
+    private final GameItem item;
+    private float x;
+    private float y;
+    private float radius;
+
+    // The cells which were visible the last time the source was cast.
+    int[] cells = new int[0];
+    int count;
+    int castX;
+    int castY;
+    int castRadius = -1;
+    boolean dirty = true;
+
+    VisionSource2D(GameItem item, float x, float y, float radius) {
+        this.item = item;
+        this.x = x;
+        this.y = y;
+        setRadius(radius);
+    }
+
+    /**
+     * Set the position of the source.
+     * <p>This has no effect if the source follows a GameItem.</p>
+     *
+     * @param x The x position in the world.
+     * @param y The y position in the world.
+     */
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Get the x position of the source.
+     *
+     * @return The x position in the world.
+     */
+    public float getX() {
+        return item == null ? x : item.transform.getPosition().x;
+    }
+
+    /**
+     * Get the y position of the source.
+     *
+     * @return The y position in the world.
+     */
+    public float getY() {
+        return item == null ? y : item.transform.getPosition().y;
+    }
+
+    /**
+     * Set how far the source can see.
+     *
+     * @param radius The radius in world units.
+     */
+    public void setRadius(float radius) {
+        if (radius < 0)
+            throw new IllegalArgumentException("The radius of a vision source cannot be negative.");
+        this.radius = radius;
+    }
+
+    /**
+     * Get how far the source can see.
+     *
+     * @return The radius in world units.
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * Get the GameItem the source follows.
+     *
+     * @return The GameItem. (Null if the source has a fixed position).
+     */
+    public GameItem getItem() {
+        return item;
+    }
+
+    /**
+     * Force the source to be cast again during the next update.
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Store the cells found by a cast.
+     */
+    void setCells(int[] source, int count) {
+        if (cells.length < count)
+            cells = Arrays.copyOf(source, Math.max(count, cells.length * 2));
+        else
+            System.arraycopy(source, 0, cells, 0, count);
+        this.count = count;
+    }
+}
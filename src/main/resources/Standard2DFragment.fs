@@ -1,17 +1,46 @@
 #version 330
 
-in vec2 outTexCoord;
-in vec3 mvPos;
+// One of COLOR_ONLY, TEXTURE, SPRITE_SHEET, ATLAS_UV or VERTEX_COLOR is defined by Standard2DShader.
+// FOG is also defined when the scene has a visibility field.
+
+#if !defined(COLOR_ONLY) && !defined(VERTEX_COLOR)
+#define TEXTURED
+#endif
+
 out vec4 fragColor;
 
 struct Material2D {
+#ifdef TEXTURED
     sampler2D texture;
+#endif
     vec4 color;
 };
 
 uniform Material2D material;
 
+#ifdef TEXTURED
+in vec2 outTexCoord;
+#endif
+
+#ifdef VERTEX_COLOR
+in vec4 vertexColor;
+#endif
+
+#ifdef FOG
+uniform sampler2D fog;
+in vec2 fogCoord;
+#endif
+
 void main()
 {
+#if defined(VERTEX_COLOR)
+    fragColor = vertexColor * material.color;
+#elif defined(COLOR_ONLY)
+    fragColor = material.color;
+#else
     fragColor = texture(material.texture, outTexCoord) * material.color;
-}
\ No newline at end of file
+#endif
+#ifdef FOG
+    fragColor.rgb *= texture(fog, fogCoord).r;
+#endif
+}
@@ -1,31 +1,60 @@
 #version 330
 
+// One of COLOR_ONLY, TEXTURE, SPRITE_SHEET, ATLAS_UV or VERTEX_COLOR is defined by Standard2DShader.
+// FOG is also defined when the scene has a visibility field.
+
+#if !defined(COLOR_ONLY) && !defined(VERTEX_COLOR)
+#define TEXTURED
+#endif
+
 layout (location=0) in vec2 position;
 layout (location=1) in vec2 texCoord;
 
-out vec2 outTexCoord;
-
 uniform mat4 model;
+uniform mat4 view;
 uniform mat4 ortho;
 
-// The following is for the sprite sheet:
+#ifdef TEXTURED
+out vec2 outTexCoord;
+#endif
+
+#ifdef VERTEX_COLOR
+layout (location=2) in vec4 color;
+out vec4 vertexColor;
+#endif
+
+#ifdef SPRITE_SHEET
 uniform vec2 textureOffset;
 uniform vec2 columnsRows;
-uniform int isSpriteSheet;
-
-void main()
-{
-    gl_Position = ortho * model * vec4(position.xy, 0.0, 1.0);
+#endif
 
-    // Calculate texture coordinates based upon if the object has a sprite sheet.
+#ifdef ATLAS_UV
+// The region of the texture as (u, v, width, height).
+uniform vec4 uvRegion;
+#endif
 
-    if(isSpriteSheet == 0) {
-        outTexCoord = texCoord;
-    }
-    else{
-        float x = (texCoord.x / columnsRows.x + textureOffset.x);
-        float y = (texCoord.y / columnsRows.y + textureOffset.y);
+#ifdef FOG
+// The area of the world covered by the fog texture as (x, y, width, height).
+uniform vec4 fogArea;
+out vec2 fogCoord;
+#endif
 
-        outTexCoord = vec2(x, y);
-    }
-}
\ No newline at end of file
+void main()
+{
+    vec4 worldPosition = model * vec4(position.xy, 0.0, 1.0);
+    gl_Position = ortho * view * worldPosition;
+#ifdef FOG
+    fogCoord = (worldPosition.xy - fogArea.xy) / fogArea.zw;
+#endif
+
+#if defined(SPRITE_SHEET)
+    outTexCoord = texCoord / columnsRows + textureOffset;
+#elif defined(ATLAS_UV)
+    outTexCoord = uvRegion.xy + texCoord * uvRegion.zw;
+#elif defined(TEXTURED)
+    outTexCoord = texCoord;
+#endif
+#ifdef VERTEX_COLOR
+    vertexColor = color;
+#endif
+}
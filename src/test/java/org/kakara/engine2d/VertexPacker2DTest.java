@@ -0,0 +1,126 @@
+package org.kakara.engine2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.opengl.GL30.*;
+
+public class VertexPacker2DTest {
+
+    @Test
+    public void everyHalfFloatRoundTrips() {
+        for (int bits = 0; bits <= 0xffff; bits++) {
+            short half = (short) bits;
+            float value = VertexPacker2D.halfToFloat(half);
+            if (Float.isNaN(value))
+                continue;
+            assertEquals(bits, VertexPacker2D.floatToHalf(value) & 0xffff, "0x" + Integer.toHexString(bits));
+        }
+    }
+
+    @Test
+    public void signedZerosKeepTheirSign() {
+        assertEquals(0x0000, VertexPacker2D.floatToHalf(0f) & 0xffff);
+        assertEquals(0x8000, VertexPacker2D.floatToHalf(-0f) & 0xffff);
+        assertEquals(Float.POSITIVE_INFINITY, 1 / VertexPacker2D.halfToFloat((short) 0x0000));
+        assertEquals(Float.NEGATIVE_INFINITY, 1 / VertexPacker2D.halfToFloat((short) 0x8000));
+    }
+
+    @Test
+    public void subnormalsRoundToNearestEven() {
+        float smallest = (float) Math.pow(2, -24);
+        assertEquals(0x0001, VertexPacker2D.floatToHalf(smallest) & 0xffff);
+        assertEquals(smallest, VertexPacker2D.halfToFloat((short) 0x0001));
+        assertEquals(0x03ff, VertexPacker2D.floatToHalf(1023 * smallest) & 0xffff);
+        assertEquals(0x8001, VertexPacker2D.floatToHalf(-smallest) & 0xffff);
+
+        // Halfway between 0 and the smallest subnormal goes to the even value, which is 0.
+        assertEquals(0x0000, VertexPacker2D.floatToHalf(smallest / 2) & 0xffff);
+        assertEquals(0x0001, VertexPacker2D.floatToHalf(smallest * 0.75f) & 0xffff);
+        assertEquals(0x0002, VertexPacker2D.floatToHalf(smallest * 1.5f) & 0xffff);
+        assertEquals(0x0000, VertexPacker2D.floatToHalf(Float.MIN_VALUE) & 0xffff);
+        // The largest subnormal rounds up into the smallest normal.
+        assertEquals(0x0400, VertexPacker2D.floatToHalf(1023.5f * smallest) & 0xffff);
+    }
+
+    @Test
+    public void normalsRoundToNearestEven() {
+        float step = (float) Math.pow(2, -10);
+        assertEquals(0x3c00, VertexPacker2D.floatToHalf(1 + step / 2) & 0xffff);
+        assertEquals(0x3c02, VertexPacker2D.floatToHalf(1 + step * 1.5f) & 0xffff);
+        assertEquals(0x3c01, VertexPacker2D.floatToHalf(1 + step * 0.75f) & 0xffff);
+    }
+
+    @Test
+    public void largeValuesOverflowToInfinity() {
+        assertEquals(0x7bff, VertexPacker2D.floatToHalf(65504f) & 0xffff);
+        assertEquals(0x7bff, VertexPacker2D.floatToHalf(65519f) & 0xffff);
+        assertEquals(0x7c00, VertexPacker2D.floatToHalf(65520f) & 0xffff);
+        assertEquals(0x7c00, VertexPacker2D.floatToHalf(1e10f) & 0xffff);
+        assertEquals(0xfc00, VertexPacker2D.floatToHalf(-1e10f) & 0xffff);
+        assertEquals(0x7c00, VertexPacker2D.floatToHalf(Float.POSITIVE_INFINITY) & 0xffff);
+        assertEquals(0xfc00, VertexPacker2D.floatToHalf(Float.NEGATIVE_INFINITY) & 0xffff);
+        assertEquals(Float.POSITIVE_INFINITY, VertexPacker2D.halfToFloat((short) 0x7c00));
+        assertEquals(Float.NEGATIVE_INFINITY, VertexPacker2D.halfToFloat((short) 0xfc00));
+    }
+
+    @Test
+    public void nanStaysNan() {
+        short half = VertexPacker2D.floatToHalf(Float.NaN);
+        assertEquals(0x7c00, half & 0x7c00);
+        assertNotEquals(0, half & 0x03ff);
+        assertTrue(Float.isNaN(VertexPacker2D.halfToFloat(half)));
+        // A NaN whose payload is only in the low bits must not become infinity.
+        assertTrue(Float.isNaN(VertexPacker2D.halfToFloat(VertexPacker2D.floatToHalf(Float.intBitsToFloat(0x7f800001)))));
+    }
+
+    @Test
+    public void normalizedValuesAreClamped() {
+        assertEquals(0, VertexPacker2D.toUnsignedNormalized(0f));
+        assertEquals(0, VertexPacker2D.toUnsignedNormalized(-0f));
+        assertEquals(0xffff, VertexPacker2D.toUnsignedNormalized(1f) & 0xffff);
+        assertEquals(0, VertexPacker2D.toUnsignedNormalized(-1f));
+        assertEquals(0xffff, VertexPacker2D.toUnsignedNormalized(2f) & 0xffff);
+        assertEquals(0x8000, VertexPacker2D.toUnsignedNormalized(0.5f) & 0xffff);
+        for (int i = 0; i <= 0xffff; i += 257) {
+            float value = i / 65535f;
+            assertEquals(i, VertexPacker2D.toUnsignedNormalized(value) & 0xffff);
+        }
+    }
+
+    @Test
+    public void layoutFallsBackToFloats() {
+        VertexPacker2D packer = new VertexPacker2D();
+        int[] indices = {0, 1, 2};
+        VertexLayout2D packed = packer.layout(new float[]{0, 0, 16, 0, 16, 16}, new float[]{0, 0, 1, 0, 1, 1}, indices);
+        assertEquals(GL_HALF_FLOAT, packed.getPositionType());
+        assertTrue(packed.isTextureNormalized());
+        assertEquals(GL_UNSIGNED_SHORT, packed.getIndexType());
+
+        VertexLayout2D precise = packer.layout(new float[]{0, 0, 1000.3f, 0, 0, 1}, new float[]{0, 0, 2, 0, -1, 1},
+                indices);
+        assertEquals(GL_FLOAT, precise.getPositionType());
+        assertFalse(precise.isTextureNormalized());
+    }
+
+    @Test
+    public void writtenVerticesReadBack() {
+        VertexPacker2D packer = new VertexPacker2D();
+        float[] positions = {-8, 4.5f, 0.25f, -0f};
+        float[] textures = {0, 1, 0.5f, 0.25f};
+        VertexLayout2D layout = packer.layout(positions, textures, new int[]{0, 1});
+        ByteBuffer buffer = ByteBuffer.allocate(layout.getVertexBytes()).order(ByteOrder.nativeOrder());
+        packer.writeVertices(layout, positions, textures, buffer).flip();
+
+        assertEquals(layout.getVertexBytes(), buffer.remaining());
+        for (int i = 0; i < positions.length; i += 2) {
+            assertEquals(positions[i], VertexPacker2D.halfToFloat(buffer.getShort()));
+            assertEquals(positions[i + 1], VertexPacker2D.halfToFloat(buffer.getShort()));
+            assertEquals(textures[i], (buffer.getShort() & 0xffff) / 65535f, 1 / 65535f);
+            assertEquals(textures[i + 1], (buffer.getShort() & 0xffff) / 65535f, 1 / 65535f);
+        }
+    }
+}
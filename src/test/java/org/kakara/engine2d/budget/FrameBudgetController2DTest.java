@@ -0,0 +1,110 @@
+package org.kakara.engine2d.budget;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameBudgetController2DTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void escalatesOnceAWholeWindowIsOverBudget() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        record(budget, budget.getWindowSize() - 1, 15 * MS, 10 * MS, 0);
+        assertEquals(0, budget.getLevel());
+
+        record(budget, 1, 15 * MS, 10 * MS, 0);
+        assertEquals(1, budget.getLevel());
+        assertEquals(0, budget.getSampleCount(), "The window is cleared after a change.");
+    }
+
+    @Test
+    public void stopsAtTheMaxLevel() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        record(budget, budget.getWindowSize() * 10, 30 * MS, 10 * MS, 0);
+        assertEquals(budget.getMaxLevel(), budget.getLevel());
+        assertEquals(budget.getMaxLevel(), budget.getLevelChanges());
+        assertEquals(1f / (budget.getMaxLevel() + 1), budget.getQualityScale(), 0.0001f);
+        assertEquals(1 << budget.getMaxLevel(), budget.getAnimationInterval());
+        assertFalse(budget.isDebugShapesEnabled());
+    }
+
+    @Test
+    public void holdsTheLevelBetweenTheRestoreThresholdAndTheBudget() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        budget.setLevel(1);
+        // 90% of the budget: not slow enough to go up and not fast enough to come back down.
+        record(budget, 1000, 9 * MS, 9 * MS, 0);
+        assertEquals(1, budget.getLevel());
+        assertEquals(1, budget.getLevelChanges());
+    }
+
+    @Test
+    public void restoresAfterEnoughFramesUnderTheThreshold() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        budget.setLevel(2);
+        record(budget, budget.getRestoreFrames() - 1, 2 * MS, 2 * MS, 0);
+        assertEquals(2, budget.getLevel());
+
+        record(budget, 1, 2 * MS, 2 * MS, 0);
+        assertEquals(1, budget.getLevel());
+        record(budget, budget.getRestoreFrames(), 2 * MS, 2 * MS, 0);
+        assertEquals(0, budget.getLevel());
+        assertTrue(budget.isDebugShapesEnabled());
+    }
+
+    @Test
+    public void slowFrameResetsTheRestoreCount() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        budget.setWindowSize(1);
+        budget.setLevel(1);
+        record(budget, budget.getRestoreFrames() - 1, 2 * MS, 2 * MS, 0);
+        record(budget, 1, 8 * MS, 8 * MS, 0);
+        record(budget, budget.getRestoreFrames() - 1, 2 * MS, 2 * MS, 0);
+        assertEquals(1, budget.getLevel());
+    }
+
+    @Test
+    public void notifiesListenersOfEveryChange() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(50);
+        List<int[]> changes = new ArrayList<>();
+        budget.addListener((previous, level) -> changes.add(new int[]{previous, level}));
+
+        record(budget, budget.getWindowSize(), 30 * MS, 0, 0);
+        record(budget, budget.getRestoreFrames(), MS, 0, 0);
+        budget.setLevel(3);
+        budget.setLevel(3);
+        budget.reset();
+
+        assertEquals(4, changes.size());
+        assertArrayEquals(new int[]{0, 1}, changes.get(0));
+        assertArrayEquals(new int[]{1, 0}, changes.get(1));
+        assertArrayEquals(new int[]{0, 3}, changes.get(2));
+        assertArrayEquals(new int[]{3, 0}, changes.get(3));
+    }
+
+    @Test
+    public void waitingForVsyncIsNotOverBudget() {
+        FrameBudgetController2D budget = new FrameBudgetController2D(60);
+        // Little work, with the rest of each frame spent blocked in the buffer swap. Some swaps take longer than a
+        // whole frame.
+        for (int i = 0; i < 1000; i++)
+            budget.recordFrame(2 * MS, 3 * MS, i % 4 == 0 ? 20 * MS : 12 * MS);
+        assertEquals(0, budget.getLevel());
+        assertTrue(budget.getAverageFrameNanos() > budget.getBudgetNanos());
+        assertEquals(5 * MS, budget.getAverageWorkNanos());
+
+        budget.setLevel(1);
+        for (int i = 0; i < budget.getRestoreFrames(); i++)
+            budget.recordFrame(2 * MS, 3 * MS, 12 * MS);
+        assertEquals(0, budget.getLevel(), "An idle scene with vsync on goes back to full quality.");
+    }
+
+    private static void record(FrameBudgetController2D budget, int frames, long update, long render, long present) {
+        for (int i = 0; i < frames; i++)
+            budget.recordFrame(update, render, present);
+    }
+}
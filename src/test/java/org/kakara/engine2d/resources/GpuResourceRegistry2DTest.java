@@ -0,0 +1,178 @@
+package org.kakara.engine2d.resources;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GpuResourceRegistry2DTest {
+    private static final long SIZE = 100;
+
+    private GpuResourceRegistry2D registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new GpuResourceRegistry2D();
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedFirst() {
+        FakeLoader loader = new FakeLoader();
+        ManagedResource2D<Handle> first = registry.manageResource(loader);
+        ManagedResource2D<Handle> second = registry.manageResource(loader);
+        ManagedResource2D<Handle> third = registry.manageResource(loader);
+        first.get();
+        second.get();
+        third.get();
+        registry.endFrame();
+        // Using the first resource again makes the second one the least recently used.
+        first.get();
+        registry.endFrame();
+        assertEquals(3 * SIZE, registry.getTotalBytes());
+
+        registry.setBudget(2 * SIZE);
+        assertEquals(1, registry.enforceBudget());
+        assertFalse(second.isResident());
+        assertTrue(first.isResident());
+        assertTrue(third.isResident());
+
+        registry.setBudget(SIZE);
+        assertEquals(1, registry.enforceBudget());
+        assertFalse(third.isResident());
+        assertTrue(first.isResident());
+        assertEquals(SIZE, registry.getTotalBytes());
+        assertEquals(1, registry.getResidentTextureCount());
+        assertEquals(2, registry.getEvictions());
+        assertEquals(2, loader.unloads);
+    }
+
+    @Test
+    public void onlyEvictsWhileOverBudget() {
+        FakeLoader loader = new FakeLoader();
+        ManagedResource2D<Handle> first = registry.manageResource(loader);
+        ManagedResource2D<Handle> second = registry.manageResource(loader);
+        first.get();
+        second.get();
+        registry.trackBuffer(1, SIZE);
+        registry.endFrame();
+
+        registry.setBudget(2 * SIZE);
+        assertEquals(1, registry.enforceBudget());
+        assertTrue(second.isResident());
+
+        // Buffers cannot be evicted, so the registry stays over the budget once the resources are gone.
+        registry.setBudget(0);
+        assertEquals(1, registry.enforceBudget());
+        assertEquals(0, registry.enforceBudget());
+        assertEquals(SIZE, registry.getTotalBytes());
+    }
+
+    @Test
+    public void resourceUsedThisFrameIsNotEvicted() {
+        registry.setBudget(0);
+        ManagedResource2D<Handle> resource = registry.manageResource(new FakeLoader());
+        resource.get();
+        assertEquals(0, registry.enforceBudget());
+        registry.endFrame();
+        assertTrue(resource.isResident());
+        assertEquals(0, resource.getLastUsedFrame());
+
+        // Not used in the next frame.
+        registry.endFrame();
+        assertFalse(resource.isResident());
+        assertEquals(0, registry.getTotalBytes());
+    }
+
+    @Test
+    public void pinnedResourceIsNotEvicted() {
+        registry.setBudget(0);
+        ManagedResource2D<Handle> resource = registry.manageResource(new FakeLoader());
+        resource.get();
+        resource.acquire();
+        resource.acquire();
+        registry.endFrame();
+        registry.endFrame();
+        assertTrue(resource.isResident());
+
+        resource.release();
+        registry.endFrame();
+        assertTrue(resource.isResident());
+        resource.release();
+        registry.endFrame();
+        assertFalse(resource.isResident());
+        assertThrows(IllegalStateException.class, resource::release);
+    }
+
+    @Test
+    public void reloadsAreCounted() {
+        FakeLoader loader = new FakeLoader();
+        ManagedResource2D<Handle> resource = registry.manageResource(loader);
+        assertFalse(resource.isResident());
+        assertEquals(-1, resource.getLastUsedFrame());
+
+        Handle loaded = resource.get();
+        assertSame(loaded, resource.get());
+        assertEquals(1, loader.loads);
+        assertEquals(0, registry.getReloads());
+        registry.endFrame();
+
+        registry.setBudget(0);
+        registry.endFrame();
+        assertFalse(resource.isResident());
+        assertEquals(SIZE, resource.getBytes());
+
+        resource.get();
+        resource.get();
+        assertEquals(2, loader.loads);
+        assertEquals(2, resource.getLoads());
+        assertEquals(1, registry.getReloads());
+        assertEquals(SIZE, registry.getTextureBytes());
+        assertEquals(1, registry.getTextureCount());
+    }
+
+    @Test
+    public void cleanupUnloadsAndRemoves() {
+        FakeLoader loader = new FakeLoader();
+        ManagedResource2D<Handle> resource = registry.manageResource(loader);
+        resource.get();
+        assertEquals(1, registry.getManagedTextureCount());
+
+        resource.cleanup();
+        resource.cleanup();
+        assertEquals(1, loader.unloads);
+        assertEquals(0, registry.getManagedTextureCount());
+        assertEquals(0, registry.getResidentTextureCount());
+        assertEquals(0, registry.getTotalBytes());
+        assertThrows(IllegalStateException.class, resource::get);
+    }
+
+    /**
+     * Stands in for a GPU handle such as the id of a texture.
+     */
+    private static class Handle {
+    }
+
+    /**
+     * Hands out handles without touching OpenGL and counts the loads and unloads.
+     */
+    private static class FakeLoader implements ResourceLoader2D<Handle> {
+        int loads;
+        int unloads;
+
+        @Override
+        public Handle load() {
+            loads++;
+            return new Handle();
+        }
+
+        @Override
+        public void unload(Handle resource) {
+            unloads++;
+        }
+
+        @Override
+        public long getBytes(Handle resource) {
+            return SIZE;
+        }
+    }
+}
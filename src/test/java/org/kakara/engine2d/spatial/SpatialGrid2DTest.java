@@ -0,0 +1,95 @@
+package org.kakara.engine2d.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialGrid2DTest {
+
+    @Test
+    public void updatedEntryIsFoundAtItsNewPosition() {
+        SpatialGrid2D grid = new SpatialGrid2D();
+        // Nine unit boxes spread over a 100 by 100 area.
+        float[] bounds = new float[9 * 4];
+        for (int i = 0; i < 9; i++)
+            box(bounds, i, (i % 3) * 49.5f, (i / 3) * 49.5f);
+        grid.build(bounds, 9);
+        assertArrayEquals(new int[]{0}, query(grid, 0, 0, 2, 2));
+
+        assertTrue(grid.update(0, 90, 90, 91, 91));
+        assertArrayEquals(new int[0], query(grid, 0, 0, 2, 2));
+        assertArrayEquals(new int[]{0, 8}, query(grid, 89, 89, 100, 100));
+        assertEquals(0, grid.getOutsideCount());
+
+        int cell = grid.getCell(90.5f, 90.5f);
+        boolean found = false;
+        for (int i = 0; i < grid.getCellSize(cell); i++)
+            found |= grid.getCellEntry(cell, i) == 0;
+        assertTrue(found);
+    }
+
+    @Test
+    public void emptyBoxRemovesTheEntry() {
+        SpatialGrid2D grid = new SpatialGrid2D();
+        float[] bounds = new float[2 * 4];
+        box(bounds, 0, 0, 0);
+        box(bounds, 1, 10, 10);
+        grid.build(bounds, 2);
+
+        assertTrue(grid.update(1, 1, 1, 0, 0));
+        assertArrayEquals(new int[]{0}, query(grid, -100, -100, 100, 100));
+        assertTrue(grid.update(1, 10, 10, 11, 11));
+        assertArrayEquals(new int[]{0, 1}, query(grid, -100, -100, 100, 100));
+    }
+
+    @Test
+    public void entriesMovedOutsideAreStillFound() {
+        SpatialGrid2D grid = new SpatialGrid2D();
+        float[] bounds = new float[4 * 4];
+        for (int i = 0; i < 4; i++)
+            box(bounds, i, i * 10, i * 10);
+        grid.build(bounds, 4);
+
+        assertTrue(grid.update(2, 500, -300, 501, -299));
+        assertEquals(1, grid.getOutsideCount());
+        assertArrayEquals(new int[]{2}, query(grid, 499, -301, 502, -298));
+        assertNotEquals(-1, grid.getCell(500.5f, -299.5f));
+        assertEquals(-1, grid.getCell(600, 600));
+
+        // Moving it back inside is no longer counted.
+        assertTrue(grid.update(2, 20, 20, 21, 21));
+        assertEquals(0, grid.getOutsideCount());
+        assertArrayEquals(new int[]{0, 1, 2, 3}, query(grid, -1, -1, 40, 40));
+    }
+
+    @Test
+    public void gridWithoutCellsMustBeBuiltAgain() {
+        SpatialGrid2D grid = new SpatialGrid2D();
+        float[] bounds = {1, 1, 0, 0};
+        grid.build(bounds, 1);
+        assertFalse(grid.update(0, 0, 0, 1, 1));
+        assertEquals(0, grid.queryArea(-10, -10, 10, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.update(1, 0, 0, 1, 1));
+    }
+
+    private static void box(float[] bounds, int entry, float x, float y) {
+        int o = entry * 4;
+        bounds[o] = x;
+        bounds[o + 1] = y;
+        bounds[o + 2] = x + 1;
+        bounds[o + 3] = y + 1;
+    }
+
+    /**
+     * Query an area and sort the results, since the grid does not keep them in order.
+     */
+    private static int[] query(SpatialGrid2D grid, float minX, float minY, float maxX, float maxY) {
+        int[] results = new int[grid.queryArea(minX, minY, maxX, maxY)];
+        for (int i = 0; i < results.length; i++)
+            results[i] = grid.getResult(i);
+        Arrays.sort(results);
+        return results;
+    }
+}
@@ -0,0 +1,74 @@
+package org.kakara.engine2d.visibility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShadowCaster2DTest {
+    private static final int SIZE = 21;
+    private static final int CENTER = 10;
+    private static final int RADIUS = 8;
+
+    @Test
+    public void openRoomIsSymmetric() {
+        OccupancyGrid2D grid = new OccupancyGrid2D(0, 0, 1, SIZE, SIZE);
+        boolean[] visible = cast(grid, CENTER, CENTER, RADIUS);
+
+        int inRange = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int dx = x - CENTER;
+                int dy = y - CENTER;
+                boolean expected = dx * dx + dy * dy <= RADIUS * RADIUS;
+                assertEquals(expected, visible[y * SIZE + x], "(" + x + ", " + y + ")");
+                if (expected)
+                    inRange++;
+                // Mirrored in both axes and across the diagonal.
+                assertEquals(visible[y * SIZE + x], visible[y * SIZE + (2 * CENTER - x)]);
+                assertEquals(visible[y * SIZE + x], visible[(2 * CENTER - y) * SIZE + x]);
+                assertEquals(visible[y * SIZE + x], visible[x * SIZE + y]);
+            }
+        }
+        assertEquals(inRange, new ShadowCaster2D().cast(grid, CENTER, CENTER, RADIUS));
+    }
+
+    @Test
+    public void wallBlocksTheCellsBehindIt() {
+        OccupancyGrid2D grid = new OccupancyGrid2D(0, 0, 1, SIZE, SIZE);
+        // A wall to the east which covers the octants on either side of the x axis.
+        grid.add(CENTER + 2, CENTER - 3, CENTER + 2, CENTER + 3);
+        boolean[] visible = cast(grid, CENTER, CENTER, RADIUS);
+
+        assertTrue(visible[CENTER * SIZE + CENTER + 2], "The wall itself is lit.");
+        for (int x = CENTER + 3; x <= CENTER + RADIUS; x++) {
+            assertFalse(visible[CENTER * SIZE + x], "(" + x + ", " + CENTER + ") is behind the wall.");
+            assertFalse(visible[(CENTER + 1) * SIZE + x], "(" + x + ", " + (CENTER + 1) + ") is behind the wall.");
+        }
+        // The other directions are not affected.
+        assertTrue(visible[CENTER * SIZE + CENTER - RADIUS]);
+        assertTrue(visible[(CENTER - RADIUS) * SIZE + CENTER]);
+        assertTrue(visible[(CENTER + RADIUS) * SIZE + CENTER]);
+    }
+
+    @Test
+    public void originInsideAWallOnlySeesItself() {
+        OccupancyGrid2D grid = new OccupancyGrid2D(0, 0, 1, SIZE, SIZE);
+        grid.add(CENTER - 1, CENTER - 1, CENTER + 1, CENTER + 1);
+        boolean[] visible = cast(grid, CENTER, CENTER, RADIUS);
+
+        assertTrue(visible[CENTER * SIZE + CENTER]);
+        assertFalse(visible[CENTER * SIZE + CENTER + 3]);
+        assertFalse(visible[(CENTER - 3) * SIZE + CENTER]);
+    }
+
+    private static boolean[] cast(OccupancyGrid2D grid, int x, int y, int radius) {
+        ShadowCaster2D caster = new ShadowCaster2D();
+        int count = caster.cast(grid, x, y, radius);
+        boolean[] visible = new boolean[grid.getWidth() * grid.getHeight()];
+        for (int i = 0; i < count; i++) {
+            assertFalse(visible[caster.getCells()[i]], "A cell was found twice.");
+            visible[caster.getCells()[i]] = true;
+        }
+        return visible;
+    }
+}
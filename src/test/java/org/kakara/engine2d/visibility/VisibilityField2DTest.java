@@ -0,0 +1,72 @@
+package org.kakara.engine2d.visibility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VisibilityField2DTest {
+    private static final int SIZE = 48;
+
+    @Test
+    public void incrementalUpdateMatchesAFullCast() {
+        VisibilityField2D field = new VisibilityField2D(0, 0, 1, SIZE, SIZE);
+        VisionSource2D first = field.addSource(8.5f, 8.5f, 10);
+        field.addSource(30.5f, 30.5f, 12);
+        field.update();
+
+        // A wall near both sources and one which is out of range of both.
+        field.getOccupancy().add(12, 4, 12, 14);
+        field.getOccupancy().add(26, 34, 36, 34);
+        field.getOccupancy().add(45, 2, 46, 3);
+        field.update();
+        first.setPosition(20.5f, 10.5f);
+        field.update();
+        field.getOccupancy().remove(12, 4, 12, 14);
+        field.update();
+
+        VisibilityField2D expected = new VisibilityField2D(0, 0, 1, SIZE, SIZE);
+        expected.getOccupancy().add(26, 34, 36, 34);
+        expected.getOccupancy().add(45, 2, 46, 3);
+        expected.addSource(20.5f, 10.5f, 10);
+        expected.addSource(30.5f, 30.5f, 12);
+        expected.update();
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++)
+                assertEquals(expected.isVisible(x, y), field.isVisible(x, y), "(" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    public void onlyAffectedSourcesAreCast() {
+        VisibilityField2D field = new VisibilityField2D(0, 0, 1, SIZE, SIZE);
+        field.addSource(8.5f, 8.5f, 6);
+        field.addSource(40.5f, 40.5f, 6);
+        field.update();
+        assertEquals(2, field.getCastCount());
+
+        field.update();
+        assertEquals(0, field.getCastCount());
+
+        field.getOccupancy().add(10, 10, 10, 10);
+        field.update();
+        assertEquals(1, field.getCastCount());
+    }
+
+    @Test
+    public void hiddenCellsStayExplored() {
+        VisibilityField2D field = new VisibilityField2D(0, 0, 1, SIZE, SIZE);
+        VisionSource2D source = field.addSource(8.5f, 8.5f, 4);
+        field.update();
+        assertTrue(field.isVisible(8, 8));
+        int version = field.getVersion();
+
+        source.setPosition(30.5f, 30.5f);
+        field.update();
+        assertFalse(field.isVisible(8, 8));
+        assertTrue(field.isExplored(8, 8));
+        assertEquals(Math.round(field.getExploredBrightness() * VisibilityField2D.VISIBLE), field.getValue(8, 8));
+        assertEquals(VisibilityField2D.VISIBLE, field.getValue(30, 30));
+        assertNotEquals(version, field.getVersion());
+    }
+}